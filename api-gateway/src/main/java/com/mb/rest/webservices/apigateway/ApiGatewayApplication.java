@@ -2,11 +2,15 @@ package com.mb.rest.webservices.apigateway;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class ApiGatewayApplication {
 
   public static void main(String[] args) {
-    SpringApplication.run(ApiGatewayApplication.class, args);
+    SpringApplication application = new SpringApplication(ApiGatewayApplication.class);
+    // Startup steps recorded for StartupReport and /actuator/startup
+    application.setApplicationStartup(new BufferingApplicationStartup(8192));
+    application.run(args);
   }
 }
@@ -0,0 +1,51 @@
+package com.mb.rest.webservices.apigateway.cache;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.nio.ByteBuffer;
+
+// A response stored by the ResponseCacheGatewayFilterFactory.
+// The body lives in a direct (off-heap) ByteBuffer: it doesn't add to the heap, and it can be
+// written back to Netty without being copied.
+public final class CachedResponse {
+
+  private final HttpStatus status;
+  private final MediaType contentType;
+  private final ByteBuffer body;
+  private final long expiresAtNanos;
+
+  CachedResponse(HttpStatus status, MediaType contentType, byte[] body, long expiresAtNanos) {
+    this.status = status;
+    this.contentType = contentType;
+    ByteBuffer directBody = ByteBuffer.allocateDirect(body.length);
+    directBody.put(body).flip();
+    this.body = directBody.asReadOnlyBuffer();
+    this.expiresAtNanos = expiresAtNanos;
+  }
+
+  public HttpStatus getStatus() {
+    return status;
+  }
+
+  public MediaType getContentType() {
+    return contentType;
+  }
+
+  // Every reader gets its own view (position/limit) of the same off-heap bytes.
+  public ByteBuffer getBody() {
+    return body.duplicate();
+  }
+
+  public int size() {
+    return body.capacity();
+  }
+
+  public long getExpiresAtNanos() {
+    return expiresAtNanos;
+  }
+
+  public boolean isExpired(long nowNanos) {
+    return nowNanos - expiresAtNanos >= 0;
+  }
+}
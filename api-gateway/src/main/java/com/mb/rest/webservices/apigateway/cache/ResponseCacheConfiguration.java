@@ -0,0 +1,43 @@
+package com.mb.rest.webservices.apigateway.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties("api-gateway.response-cache")
+public class ResponseCacheConfiguration {
+
+  // Total size of the cached bodies (off-heap), the least used entries are evicted.
+  private DataSize maxSize = DataSize.ofMegabytes(64);
+  // Bigger bodies are never cached.
+  private DataSize maxEntrySize = DataSize.ofKilobytes(256);
+  // Used when neither the route nor the response (Cache-Control: max-age) gives a time to live.
+  private Duration timeToLive = Duration.ofSeconds(5);
+
+  public DataSize getMaxSize() {
+    return maxSize;
+  }
+
+  public void setMaxSize(DataSize maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  public DataSize getMaxEntrySize() {
+    return maxEntrySize;
+  }
+
+  public void setMaxEntrySize(DataSize maxEntrySize) {
+    this.maxEntrySize = maxEntrySize;
+  }
+
+  public Duration getTimeToLive() {
+    return timeToLive;
+  }
+
+  public void setTimeToLive(Duration timeToLive) {
+    this.timeToLive = timeToLive;
+  }
+}
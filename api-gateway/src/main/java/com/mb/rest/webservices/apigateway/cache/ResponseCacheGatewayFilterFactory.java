@@ -0,0 +1,259 @@
+package com.mb.rest.webservices.apigateway.cache;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Caches the GET responses of a route, so that identical requests received within the time to
+// live are answered by the gateway without calling the backend.
+// It's attached per route, in ApiGatewayConfiguration:
+//   .filters(f -> f.filter(responseCache.apply(new ResponseCacheGatewayFilterFactory.Config())))
+// or in the properties: spring.cloud.gateway.routes[0].filters[0]=ResponseCache=10s
+//
+//  - the key is the normalized path (duplicate and trailing slashes removed) plus the sorted
+//    query parameters and the Accept header: the same path may be answered in another format
+//    (e.g. application/x-compact-rate or JSON on /currency-exchange). The cached responses are
+//    sent with Vary: Accept
+//  - a response that varies on another request header (Vary) isn't cached, the key doesn't
+//    tell its variants apart
+//  - only 200 responses are cached, for the route time to live, or for the max-age of the
+//    response; Cache-Control: no-store / no-cache / private responses are never cached
+//  - streamed responses (server-sent events, NDJSON, no Content-Length, or written with
+//    writeAndFlushWith) go straight through: they may never end, and nothing would reach the
+//    client while the body is buffered
+//  - a request with Cache-Control: no-cache skips the lookup and refreshes the entry
+//  - concurrent misses for the same key are collapsed: one request goes to the backend, the
+//    others wait for its response
+@Component
+public class ResponseCacheGatewayFilterFactory
+    extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+  public static final String CACHE_HEADER = "X-Gateway-Cache";
+
+  private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+  private static final List<MediaType> STREAMING_MEDIA_TYPES =
+      List.of(MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_NDJSON);
+
+  private final ResponseStore responseStore;
+  private final ResponseCacheConfiguration configuration;
+  private final Map<String, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+
+  public ResponseCacheGatewayFilterFactory(
+      ResponseStore responseStore, ResponseCacheConfiguration configuration) {
+    super(Config.class);
+    this.responseStore = responseStore;
+    this.configuration = configuration;
+  }
+
+  @Override
+  public List<String> shortcutFieldOrder() {
+    return List.of("timeToLive");
+  }
+
+  @Override
+  public GatewayFilter apply(Config config) {
+    Duration timeToLive =
+        config.getTimeToLive() != null ? config.getTimeToLive() : configuration.getTimeToLive();
+    return (exchange, chain) -> filter(exchange, chain, timeToLive);
+  }
+
+  private Mono<Void> filter(
+      ServerWebExchange exchange, GatewayFilterChain chain, Duration timeToLive) {
+    ServerHttpRequest request = exchange.getRequest();
+    if (request.getMethod() != HttpMethod.GET) {
+      return chain.filter(exchange);
+    }
+
+    String key = key(request);
+    boolean bypass = hasDirective(request.getHeaders(), "no-cache");
+    if (!bypass) {
+      CachedResponse cachedResponse = responseStore.get(key, System.nanoTime());
+      if (cachedResponse != null) {
+        return write(exchange, cachedResponse, "HIT");
+      }
+    }
+
+    Sinks.One<CachedResponse> leader = Sinks.one();
+    Sinks.One<CachedResponse> current = bypass ? null : inFlight.putIfAbsent(key, leader);
+    if (current != null) {
+      // Another request is already fetching this key: wait for its response, or go to the
+      // backend ourselves if it turned out not to be cacheable.
+      return current
+          .asMono()
+          .flatMap(cachedResponse -> write(exchange, cachedResponse, "COLLAPSED"))
+          .switchIfEmpty(Mono.defer(() -> chain.filter(exchange)));
+    }
+
+    exchange.getResponse().getHeaders().set(CACHE_HEADER, "MISS");
+    ServerHttpResponse capturingResponse =
+        new CapturingResponse(exchange, key, timeToLive, leader);
+    return chain
+        .filter(exchange.mutate().response(capturingResponse).build())
+        .doFinally(
+            signal -> {
+              // Releases the waiting requests if the response was never written (error, cancel).
+              leader.tryEmitEmpty();
+              inFlight.remove(key, leader);
+            });
+  }
+
+  private Mono<Void> write(ServerWebExchange exchange, CachedResponse cachedResponse, String hit) {
+    ServerHttpResponse response = exchange.getResponse();
+    response.setStatusCode(cachedResponse.getStatus());
+    HttpHeaders headers = response.getHeaders();
+    headers.setContentType(cachedResponse.getContentType());
+    headers.setContentLength(cachedResponse.size());
+    headers.setVary(List.of(HttpHeaders.ACCEPT));
+    headers.set(CACHE_HEADER, hit);
+    return response.writeWith(Mono.just(response.bufferFactory().wrap(cachedResponse.getBody())));
+  }
+
+  static String key(ServerHttpRequest request) {
+    String path = request.getPath().value().replaceAll("/{2,}", "/");
+    if (path.length() > 1 && path.endsWith("/")) {
+      path = path.substring(0, path.length() - 1);
+    }
+    String key =
+        request.getQueryParams().isEmpty()
+            ? path
+            : path + "?" + new TreeMap<>(request.getQueryParams());
+    // Without the spaces and the case, which don't change the negotiated format
+    String accept =
+        String.join(",", request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT))
+            .replace(" ", "")
+            .toLowerCase();
+    return accept.isEmpty() ? key : key + " Accept:" + accept;
+  }
+
+  // Vary: * or a request header that isn't part of the key
+  private static boolean variesBeyondAccept(HttpHeaders headers) {
+    return headers.getVary().stream()
+        .anyMatch(header -> !HttpHeaders.ACCEPT.equalsIgnoreCase(header));
+  }
+
+  private static boolean hasDirective(HttpHeaders headers, String directive) {
+    String cacheControl = headers.getCacheControl();
+    return cacheControl != null && cacheControl.toLowerCase().contains(directive);
+  }
+
+  private static boolean isStreaming(HttpHeaders headers) {
+    MediaType contentType = headers.getContentType();
+    return headers.getContentLength() < 0
+        || (contentType != null
+            && STREAMING_MEDIA_TYPES.stream().anyMatch(contentType::isCompatibleWith));
+  }
+
+  private Duration timeToLive(HttpHeaders headers, Duration routeTimeToLive) {
+    String cacheControl = headers.getCacheControl();
+    if (cacheControl == null) {
+      return routeTimeToLive;
+    }
+    String directives = cacheControl.toLowerCase();
+    if (directives.contains("no-store")
+        || directives.contains("no-cache")
+        || directives.contains("private")) {
+      return Duration.ZERO;
+    }
+    Matcher maxAge = MAX_AGE.matcher(directives);
+    return maxAge.find() ? Duration.ofSeconds(Long.parseLong(maxAge.group(1))) : routeTimeToLive;
+  }
+
+  // Copies the body written by the backend, stores it, and hands it to the collapsed requests.
+  private class CapturingResponse extends ServerHttpResponseDecorator {
+
+    private final String key;
+    private final Duration routeTimeToLive;
+    private final Sinks.One<CachedResponse> leader;
+
+    CapturingResponse(
+        ServerWebExchange exchange,
+        String key,
+        Duration routeTimeToLive,
+        Sinks.One<CachedResponse> leader) {
+      super(exchange.getResponse());
+      this.key = key;
+      this.routeTimeToLive = routeTimeToLive;
+      this.leader = leader;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+      Duration timeToLive = timeToLive(getHeaders(), routeTimeToLive);
+      if (getStatusCode() != HttpStatus.OK
+          || timeToLive.isZero()
+          || timeToLive.isNegative()
+          || isStreaming(getHeaders())
+          || variesBeyondAccept(getHeaders())) {
+        leader.tryEmitEmpty();
+        return super.writeWith(body);
+      }
+
+      return DataBufferUtils.join(Flux.from(body))
+          .flatMap(
+              joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+
+                if (responseStore.accepts(bytes.length)) {
+                  CachedResponse cachedResponse =
+                      new CachedResponse(
+                          HttpStatus.OK,
+                          getHeaders().getContentType(),
+                          bytes,
+                          System.nanoTime() + timeToLive.toNanos());
+                  responseStore.put(key, cachedResponse);
+                  leader.tryEmitValue(cachedResponse);
+                } else {
+                  leader.tryEmitEmpty();
+                }
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+              });
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+      // Flushed as it goes: a stream (see NettyWriteResponseFilter), never cached
+      leader.tryEmitEmpty();
+      return super.writeAndFlushWith(body);
+    }
+  }
+
+  public static class Config {
+    // null: api-gateway.response-cache.time-to-live
+    private Duration timeToLive;
+
+    public Duration getTimeToLive() {
+      return timeToLive;
+    }
+
+    public Config setTimeToLive(Duration timeToLive) {
+      this.timeToLive = timeToLive;
+      return this;
+    }
+  }
+}
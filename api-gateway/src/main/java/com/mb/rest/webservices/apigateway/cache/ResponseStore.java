@@ -0,0 +1,87 @@
+package com.mb.rest.webservices.apigateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.stereotype.Component;
+
+// Byte-bounded store of the cached responses, shared by all the routes using the ResponseCache
+// filter. The bookkeeping is on the heap (one small entry per key), the bodies are off-heap (see
+// CachedResponse), and their total size never exceeds api-gateway.response-cache.max-size.
+// A Caffeine cache weighed by body size: the lookups of the event-loop threads don't take any
+// lock (a hit is a concurrent map read, the access is recorded in a lossy buffer), and above the
+// maximum size the least used entries are evicted first. An entry expires at the expiresAt of
+// its response.
+// The evicted bodies are not freed here: a write of the response may still hold a view of them,
+// their direct buffer is released by the GC once nobody does.
+@Component
+public class ResponseStore {
+
+  private final long maxEntryBytes;
+  private final Cache<String, CachedResponse> entries;
+
+  public ResponseStore(ResponseCacheConfiguration configuration) {
+    long maxBytes = configuration.getMaxSize().toBytes();
+    this.maxEntryBytes = Math.min(configuration.getMaxEntrySize().toBytes(), maxBytes);
+    this.entries =
+        Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String key, CachedResponse cachedResponse) -> cachedResponse.size())
+            .expireAfter(new ResponseExpiry())
+            // The evictions are done by the thread that adds an entry, instead of being handed
+            // to the common pool: usedBytes() is exact right after a put.
+            .executor(Runnable::run)
+            .build();
+  }
+
+  public boolean accepts(int size) {
+    return size <= maxEntryBytes;
+  }
+
+  public CachedResponse get(String key, long nowNanos) {
+    CachedResponse cachedResponse = entries.getIfPresent(key);
+    // The clock of the caller, the cache may not have dropped it yet
+    if (cachedResponse != null && cachedResponse.isExpired(nowNanos)) {
+      entries.asMap().remove(key, cachedResponse);
+      return null;
+    }
+    return cachedResponse;
+  }
+
+  public void put(String key, CachedResponse cachedResponse) {
+    if (accepts(cachedResponse.size())) {
+      entries.put(key, cachedResponse);
+    }
+  }
+
+  public long usedBytes() {
+    entries.cleanUp();
+    return entries.policy().eviction().orElseThrow().weightedSize().orElseThrow();
+  }
+
+  public int size() {
+    entries.cleanUp();
+    return Math.toIntExact(entries.estimatedSize());
+  }
+
+  // Until the expiresAt of the response (System.nanoTime(), the ticker of the cache)
+  private static final class ResponseExpiry implements Expiry<String, CachedResponse> {
+
+    @Override
+    public long expireAfterCreate(String key, CachedResponse cachedResponse, long currentTime) {
+      return cachedResponse.getExpiresAtNanos() - currentTime;
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        String key, CachedResponse cachedResponse, long currentTime, long currentDuration) {
+      return expireAfterCreate(key, cachedResponse, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(
+        String key, CachedResponse cachedResponse, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package com.mb.rest.webservices.apigateway.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+// Adaptive concurrency limit of a route: the number of requests in flight is limited, and the
+// limit follows the latency of the route (see GradientLimit). The requests above the limit get
+// an empty 503 right away, instead of queueing in the backends.
+// It's attached per route, in ApiGatewayConfiguration:
+//   .filters(f -> f.filter(concurrencyLimit.apply(concurrencyLimit.newConfig())))
+// or in the properties: spring.cloud.gateway.routes[0].filters[0]=AdaptiveConcurrencyLimit
+// Each route has its own limit, unless a name is given: the routes with the same name share it.
+// Metrics, by route (or name): gateway.concurrency.limit, gateway.concurrency.in.flight and
+// gateway.concurrency.rejected.
+@Component
+public class AdaptiveConcurrencyLimitGatewayFilterFactory
+    extends AbstractGatewayFilterFactory<AdaptiveConcurrencyLimitGatewayFilterFactory.Config> {
+
+  private final ConcurrencyLimitConfiguration configuration;
+  private final MeterRegistry meterRegistry;
+  private final Map<String, Limited> limiters = new ConcurrentHashMap<>();
+
+  public AdaptiveConcurrencyLimitGatewayFilterFactory(
+      ConcurrencyLimitConfiguration configuration, MeterRegistry meterRegistry) {
+    super(Config.class);
+    this.configuration = configuration;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public List<String> shortcutFieldOrder() {
+    return List.of("name");
+  }
+
+  @Override
+  public GatewayFilter apply(Config config) {
+    return (exchange, chain) -> filter(exchange, chain, config.getName());
+  }
+
+  private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, String name) {
+    if (name == null) {
+      Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+      name = route != null ? route.getId() : "unknown";
+    }
+    Limited limited = limiters.computeIfAbsent(name, this::limited);
+    AdaptiveLimiter limiter = limited.limiter;
+    if (!limiter.tryAcquire()) {
+      limited.rejected.increment();
+      ServerHttpResponse response = exchange.getResponse();
+      response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+      response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+      return response.setComplete();
+    }
+    long start = System.nanoTime();
+    return chain
+        .filter(exchange)
+        .doFinally(
+            signal ->
+                // A cancelled request (the client went away) says nothing about the latency.
+                limiter.release(signal == SignalType.CANCEL ? 0 : System.nanoTime() - start));
+  }
+
+  private Limited limited(String name) {
+    AdaptiveLimiter limiter = new AdaptiveLimiter(new GradientLimit(configuration));
+    Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveLimiter::limit)
+        .tag("route", name)
+        .register(meterRegistry);
+    Gauge.builder("gateway.concurrency.in.flight", limiter, AdaptiveLimiter::inFlight)
+        .tag("route", name)
+        .register(meterRegistry);
+    Counter rejected =
+        Counter.builder("gateway.concurrency.rejected").tag("route", name).register(meterRegistry);
+    return new Limited(limiter, rejected);
+  }
+
+  private static final class Limited {
+    private final AdaptiveLimiter limiter;
+    private final Counter rejected;
+
+    private Limited(AdaptiveLimiter limiter, Counter rejected) {
+      this.limiter = limiter;
+      this.rejected = rejected;
+    }
+  }
+
+  public static class Config {
+    // null: the id of the route
+    private String name;
+
+    public String getName() {
+      return name;
+    }
+
+    public Config setName(String name) {
+      this.name = name;
+      return this;
+    }
+  }
+}
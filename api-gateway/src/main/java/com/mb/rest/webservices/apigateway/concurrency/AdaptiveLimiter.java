@@ -0,0 +1,40 @@
+package com.mb.rest.webservices.apigateway.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// The requests in flight of one route, against its GradientLimit.
+public class AdaptiveLimiter {
+
+  private final GradientLimit limit;
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  public AdaptiveLimiter(GradientLimit limit) {
+    this.limit = limit;
+  }
+
+  // false: the limit is reached, the request must be rejected right away.
+  public boolean tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= limit.limit()) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  public void release(long rttNanos) {
+    int current = inFlight.getAndDecrement();
+    limit.onSample(rttNanos, current);
+  }
+
+  public int inFlight() {
+    return inFlight.get();
+  }
+
+  public int limit() {
+    return limit.limit();
+  }
+}
@@ -0,0 +1,70 @@
+package com.mb.rest.webservices.apigateway.concurrency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+// Settings of the AdaptiveConcurrencyLimit filter, the same for all the routes (each route has
+// its own limit).
+@Component
+@ConfigurationProperties("api-gateway.concurrency-limit")
+public class ConcurrencyLimitConfiguration {
+
+  // The limit starts at initial-limit and then follows the latency, within [min, max].
+  private int initialLimit = 50;
+  private int minLimit = 10;
+  private int maxLimit = 1000;
+  // The latency can go up to tolerance x the usual latency before the limit is lowered.
+  private double tolerance = 1.5;
+  // How much of the new limit is applied at each request (0 to 1).
+  private double smoothing = 0.2;
+  // Number of requests the usual (long term) latency is averaged over.
+  private int longWindow = 600;
+
+  public int getInitialLimit() {
+    return initialLimit;
+  }
+
+  public void setInitialLimit(int initialLimit) {
+    this.initialLimit = initialLimit;
+  }
+
+  public int getMinLimit() {
+    return minLimit;
+  }
+
+  public void setMinLimit(int minLimit) {
+    this.minLimit = minLimit;
+  }
+
+  public int getMaxLimit() {
+    return maxLimit;
+  }
+
+  public void setMaxLimit(int maxLimit) {
+    this.maxLimit = maxLimit;
+  }
+
+  public double getTolerance() {
+    return tolerance;
+  }
+
+  public void setTolerance(double tolerance) {
+    this.tolerance = tolerance;
+  }
+
+  public double getSmoothing() {
+    return smoothing;
+  }
+
+  public void setSmoothing(double smoothing) {
+    this.smoothing = smoothing;
+  }
+
+  public int getLongWindow() {
+    return longWindow;
+  }
+
+  public void setLongWindow(int longWindow) {
+    this.longWindow = longWindow;
+  }
+}
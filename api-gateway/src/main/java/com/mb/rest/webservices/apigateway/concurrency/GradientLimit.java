@@ -0,0 +1,67 @@
+package com.mb.rest.webservices.apigateway.concurrency;
+
+// A concurrency limit that follows the latency (the gradient algorithm of Netflix
+// concurrency-limits, "Gradient2").
+// The limit is multiplied by usual latency / latency of the request: as long as the requests are
+// as fast as usual it stays the same, plus sqrt(limit) to probe for more capacity. When requests
+// start queueing somewhere (the backend instances, their database), they get slower than usual
+// and the limit goes down, before the queue builds up.
+// The usual latency is a long term average, so that it follows a slow drift of the latency
+// (more backend instances, a different mix of requests) but not a spike.
+public class GradientLimit {
+
+  // The long term average starts as a plain average of the first requests.
+  private static final int WARMUP_SAMPLES = 10;
+
+  private final ConcurrencyLimitConfiguration settings;
+
+  private double estimatedLimit;
+  private double longRttNanos;
+  private long samples;
+  // Read by every request without taking the lock.
+  private volatile int limit;
+
+  public GradientLimit(ConcurrencyLimitConfiguration settings) {
+    this.settings = settings;
+    this.estimatedLimit = settings.getInitialLimit();
+    this.limit = settings.getInitialLimit();
+  }
+
+  public int limit() {
+    return limit;
+  }
+
+  // rttNanos: the duration of a request, inFlight: the number of requests in flight when it ended
+  public synchronized void onSample(long rttNanos, int inFlight) {
+    if (rttNanos <= 0) {
+      return;
+    }
+    double shortRtt = rttNanos;
+    samples++;
+    if (samples <= WARMUP_SAMPLES) {
+      longRttNanos += (shortRtt - longRttNanos) / samples;
+      return;
+    }
+    longRttNanos += (shortRtt - longRttNanos) * 2 / (settings.getLongWindow() + 1);
+
+    // The requests are much faster than the long term average (the load went down after a
+    // spike): the average catches up faster, otherwise the limit would grow for a long time.
+    if (longRttNanos / shortRtt > 2) {
+      longRttNanos *= 0.95;
+    }
+
+    // Far from the limit, the latency says nothing about it: the limit would keep growing
+    // without ever being tested.
+    if (inFlight < estimatedLimit / 2) {
+      return;
+    }
+
+    double gradient =
+        Math.max(0.5, Math.min(1.0, settings.getTolerance() * longRttNanos / shortRtt));
+    double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+    newLimit = estimatedLimit * (1 - settings.getSmoothing()) + newLimit * settings.getSmoothing();
+    estimatedLimit =
+        Math.max(settings.getMinLimit(), Math.min(settings.getMaxLimit(), newLimit));
+    limit = (int) estimatedLimit;
+  }
+}
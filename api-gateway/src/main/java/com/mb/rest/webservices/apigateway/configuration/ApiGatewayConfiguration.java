@@ -1,5 +1,11 @@
 package com.mb.rest.webservices.apigateway.configuration;
 
+import com.mb.rest.webservices.apigateway.cache.ResponseCacheGatewayFilterFactory;
+import com.mb.rest.webservices.apigateway.concurrency.AdaptiveConcurrencyLimitGatewayFilterFactory;
+import com.mb.rest.webservices.apigateway.ratelimit.LocalRateLimitGatewayFilterFactory;
+import com.mb.rest.webservices.apigateway.ratelimit.Priority;
+import com.mb.rest.webservices.apigateway.routing.RewritePathTemplateGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.route.Route;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.Buildable;
@@ -16,7 +22,12 @@ public class ApiGatewayConfiguration {
   public static final String LB_CURRENCY_CONVERSION = "lb://currency-conversion";
 
   @Bean
-  public RouteLocator gatewayRouter(RouteLocatorBuilder builder) {
+  public RouteLocator gatewayRouter(
+      RouteLocatorBuilder builder,
+      ResponseCacheGatewayFilterFactory responseCache,
+      AdaptiveConcurrencyLimitGatewayFilterFactory concurrencyLimit,
+      RewritePathTemplateGatewayFilterFactory rewritePathTemplate,
+      LocalRateLimitGatewayFilterFactory rateLimit) {
 
     // add custom filters on specific paths. In API gateway
 
@@ -26,10 +37,20 @@ public class ApiGatewayConfiguration {
 
     // We can addRequestHeader and/or addRequestParameter values before routing the request to the new URL,
     // let's say, we would want to add in a few authentication parameters.
+    // Every route goes through a rate limit first (see LocalRateLimitGatewayFilterFactory), with
+    // a priority: when the gateway is overloaded, this test route is rejected first, then
+    // currency-exchange, the currency-conversion routes keep the rest of the capacity.
+    // The client buckets are per route (the id of the route), the filters can be shared.
+    GatewayFilter lowPriorityRateLimit =
+        rateLimit.apply(rateLimit.newConfig().setPriority(Priority.LOW));
+    GatewayFilter normalPriorityRateLimit = rateLimit.apply(rateLimit.newConfig());
+    GatewayFilter highPriorityRateLimit =
+        rateLimit.apply(rateLimit.newConfig().setPriority(Priority.HIGH));
     Function<PredicateSpec, Buildable<Route>> routeFunction =
             p ->
             p.path("/get")
-                .filters(f -> f.addRequestHeader("MyHeader", "MyURI")
+                .filters(f -> f.filter(lowPriorityRateLimit)
+                               .addRequestHeader("MyHeader", "MyURI")
                                .addRequestParameter("Param","MyParam"))
                 .uri("http://httpbin.org:80");
 
@@ -38,38 +59,84 @@ public class ApiGatewayConfiguration {
     // The way you can do that is by just putting in
     // lb:// and the name of the registration on the Eureka server.
     // So, on the Eureka server (currency-exchange), this is registered as currency-exchange.
+    // The exchange rates rarely change, the GET responses are cached by the gateway
+    // (see ResponseCacheGatewayFilterFactory), so most of the reads don't reach currency-exchange.
+    // The requests that do reach the backends are limited by an adaptive concurrency limit per
+    // route (see AdaptiveConcurrencyLimitGatewayFilterFactory): above it, they get a 503 right
+    // away instead of queueing. It comes after the cache, the cache hits are not limited.
     Function<PredicateSpec, Buildable<Route>> currencyExchangeRouteFunction =
         p -> p.path("/currency-exchange/**")
+                .filters(f -> f.filter(normalPriorityRateLimit)
+                               .filter(responseCache.apply(responseCache.newConfig()))
+                               .filter(concurrencyLimit.apply(concurrencyLimit.newConfig())))
                 .uri("lb://currency-exchange");
 
+    // Routes of their own, declared before the routes above (the first route that matches is
+    // used), so that they don't feed the concurrency limit of the lookups:
+    //  - the rate stream (server-sent events): a connection lasts for minutes, it would hold a
+    //    permit all that time. No concurrency limit at all.
+    //  - the bulk endpoints: a call takes seconds, its latency would keep lowering the limit of
+    //    the route. They get their own limit (by route id).
+    Function<PredicateSpec, Buildable<Route>> currencyExchangeStreamFunction =
+        p -> p.path("/currency-exchange/stream")
+                .filters(f -> f.filter(normalPriorityRateLimit))
+                .uri("lb://currency-exchange");
+
+    Function<PredicateSpec, Buildable<Route>> currencyExchangeBulkFunction =
+        p -> p.path("/currency-exchange/bulk")
+                .filters(f -> f.filter(normalPriorityRateLimit)
+                               .filter(concurrencyLimit.apply(concurrencyLimit.newConfig())))
+                .uri("lb://currency-exchange");
+
+    Function<PredicateSpec, Buildable<Route>> currencyConversionBulkFunction =
+        p -> p.path("/currency-conversion/bulk")
+                .filters(f -> f.filter(highPriorityRateLimit)
+                               .filter(concurrencyLimit.apply(concurrencyLimit.newConfig())))
+                .uri(LB_CURRENCY_CONVERSION);
+
     Function<PredicateSpec, Buildable<Route>> currencyConversionRestTemplateFunction =
             p -> p.path("/currency-conversion/**")
+                    .filters(f -> f.filter(highPriorityRateLimit)
+                                   .filter(concurrencyLimit.apply(concurrencyLimit.newConfig())))
                     .uri(LB_CURRENCY_CONVERSION);
 
     Function<PredicateSpec, Buildable<Route>> currencyConversionFeignFunction =
             p -> p.path("/currency-conversion-feign/**")
+                    .filters(f -> f.filter(highPriorityRateLimit)
+                                   .filter(concurrencyLimit.apply(concurrencyLimit.newConfig())))
                     .uri(LB_CURRENCY_CONVERSION);
 
     // currency-conversion-new/(the next thing) and /currency-conversion-feign/(the next thing)
     // we would want to define the regular expression, identifying the next thing as a segment.
     // So, whatever follows currency-conversion-new, we would want to append it to currency-conversion-feign.
-    // The way I can do that in here is by saying ${segment}.
+    // The way I can do that in here is by saying {segment}.
+    // It used to be f.rewritePath("/currency-conversion-new/(?<segment>.*)",
+    // "/currency-conversion-feign/${segment}"): a regular expression applied to every path.
+    // The template is compiled once into segments (see PathTemplate), same result.
     Function<PredicateSpec, Buildable<Route>> currencyConversionNewFeignFunction =
         p ->
             p.path("/currency-conversion-new/**")
                 .filters(
                     f ->
-                        f.rewritePath(
-                            "/currency-conversion-new/(?<segment>.*)",
-                            "/currency-conversion-feign/${segment}"))
+                        f.filter(highPriorityRateLimit)
+                            .filter(
+                                rewritePathTemplate.apply(
+                                    new RewritePathTemplateGatewayFilterFactory.Config(
+                                        "/currency-conversion-new/{*segment}",
+                                        "/currency-conversion-feign/{segment}"))))
                 .uri(LB_CURRENCY_CONVERSION);
 
+    // Each route gets a fixed id (instead of a random one), the id is used by the access log
+    // and its per-route settings (api-gateway.access-log.routes.<id>).
     return builder.routes()
-            .route(routeFunction)
-            .route(currencyExchangeRouteFunction)
-            .route(currencyConversionRestTemplateFunction)
-            .route(currencyConversionFeignFunction)
-            .route(currencyConversionNewFeignFunction)
+            .route("get", routeFunction)
+            .route("currency-exchange-stream", currencyExchangeStreamFunction)
+            .route("currency-exchange-bulk", currencyExchangeBulkFunction)
+            .route("currency-conversion-bulk", currencyConversionBulkFunction)
+            .route("currency-exchange", currencyExchangeRouteFunction)
+            .route("currency-conversion", currencyConversionRestTemplateFunction)
+            .route("currency-conversion-feign", currencyConversionFeignFunction)
+            .route("currency-conversion-new", currencyConversionNewFeignFunction)
             .build();
   }
 
@@ -0,0 +1,94 @@
+package com.mb.rest.webservices.apigateway.logging;
+
+import org.slf4j.event.Level;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties("api-gateway.access-log")
+public class AccessLogConfiguration {
+
+  private boolean enabled = true;
+  // Number of preallocated events, when they are all waiting to be written new ones are dropped.
+  private int bufferSize = 8192;
+  // Share of the requests that are logged (1.0: all of them, 0.05: 5 percent of them).
+  private double sampleRate = 1.0;
+  private Level level = Level.INFO;
+  // The 5xx responses are logged even when they are not part of the sample.
+  private boolean alwaysLogErrors = true;
+  // Overrides per route id, e.g. api-gateway.access-log.routes.get.sample-rate=0.01
+  private Map<String, RouteSettings> routes = new HashMap<>();
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public int getBufferSize() {
+    return bufferSize;
+  }
+
+  public void setBufferSize(int bufferSize) {
+    this.bufferSize = bufferSize;
+  }
+
+  public double getSampleRate() {
+    return sampleRate;
+  }
+
+  public void setSampleRate(double sampleRate) {
+    this.sampleRate = sampleRate;
+  }
+
+  public Level getLevel() {
+    return level;
+  }
+
+  public void setLevel(Level level) {
+    this.level = level;
+  }
+
+  public boolean isAlwaysLogErrors() {
+    return alwaysLogErrors;
+  }
+
+  public void setAlwaysLogErrors(boolean alwaysLogErrors) {
+    this.alwaysLogErrors = alwaysLogErrors;
+  }
+
+  public Map<String, RouteSettings> getRoutes() {
+    return routes;
+  }
+
+  public void setRoutes(Map<String, RouteSettings> routes) {
+    this.routes = routes;
+  }
+
+  public static class RouteSettings {
+    // null: the global value is used
+    private Double sampleRate;
+    private Level level;
+
+    public Double getSampleRate() {
+      return sampleRate;
+    }
+
+    public void setSampleRate(Double sampleRate) {
+      this.sampleRate = sampleRate;
+    }
+
+    public Level getLevel() {
+      return level;
+    }
+
+    public void setLevel(Level level) {
+      this.level = level;
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package com.mb.rest.webservices.apigateway.logging;
+
+import org.slf4j.event.Level;
+import org.springframework.http.HttpMethod;
+
+import java.net.URI;
+
+// One slot of the AccessLogRingBuffer. The events are allocated once, when the ring buffer is
+// created, and then reused: recording a request only copies references and primitives.
+final class AccessLogEvent {
+
+  // Sequence of the request stored in this slot, the consumer only reads the slot once the
+  // sequence it expects has been published (volatile write after the fields are set).
+  volatile long sequence = -1;
+
+  long timestampMillis;
+  Level level;
+  String routeId;
+  HttpMethod method;
+  String path;
+  URI upstream;
+  int status;
+  long latencyNanos;
+}
@@ -0,0 +1,172 @@
+package com.mb.rest.webservices.apigateway.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+@Component
+public class AccessLogFilter implements GlobalFilter, Ordered {
+
+  // Spring Cloud Gateway is an awesome way to route to your APIs and implement your cross-cutting
+  // concerns
+  // things like:
+  // security, monitoring/metrics.
+  // These are the best things that we can implement in a Spring Cloud Gateway.
+  // Some important features of Spring Cloud Gateway are it can match requests on any request
+  // attribute.
+  // Spring Cloud Gateway integrates with the Spring Cloud Discovery Client as well, it also
+  // provides load balancing.
+  // we can do a path rewriting using Spring Cloud Gateway.
+
+  // Structured access log: route id, method, path, upstream instance (resolved from lb://),
+  // status and latency of every sampled request.
+  // The request threads only copy a few references into a preallocated event of the
+  // AccessLogRingBuffer; formatting the line and calling the appender is done by a single
+  // background thread, so the request path never waits for the logging system.
+  private final Logger logger = LoggerFactory.getLogger(AccessLogFilter.class);
+
+  private final AccessLogConfiguration configuration;
+  private final AccessLogRingBuffer ringBuffer;
+  private final StringBuilder line = new StringBuilder(256);
+  private Thread writer;
+  private volatile boolean running;
+
+  public AccessLogFilter(AccessLogConfiguration configuration) {
+    this.configuration = configuration;
+    this.ringBuffer = new AccessLogRingBuffer(configuration.getBufferSize());
+  }
+
+  @Override
+  public int getOrder() {
+    // First filter of the chain, so the latency covers all the other filters.
+    return Ordered.HIGHEST_PRECEDENCE;
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    if (!configuration.isEnabled()) {
+      return chain.filter(exchange);
+    }
+    long start = System.nanoTime();
+    return chain.filter(exchange).doFinally(signal -> record(exchange, start));
+  }
+
+  private void record(ServerWebExchange exchange, long start) {
+    long latencyNanos = System.nanoTime() - start;
+    HttpStatus status = exchange.getResponse().getStatusCode();
+    int statusCode = status != null ? status.value() : 0;
+
+    Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+    String routeId = route != null ? route.getId() : null;
+    AccessLogConfiguration.RouteSettings routeSettings =
+        routeId != null ? configuration.getRoutes().get(routeId) : null;
+
+    double sampleRate =
+        routeSettings != null && routeSettings.getSampleRate() != null
+            ? routeSettings.getSampleRate()
+            : configuration.getSampleRate();
+    boolean error = statusCode >= 500 && configuration.isAlwaysLogErrors();
+    if (!error && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+      return;
+    }
+
+    Level level =
+        routeSettings != null && routeSettings.getLevel() != null
+            ? routeSettings.getLevel()
+            : configuration.getLevel();
+    URI upstream = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+    ringBuffer.tryPublish(
+        System.currentTimeMillis(),
+        level,
+        routeId,
+        exchange.getRequest().getMethod(),
+        exchange.getRequest().getPath().value(),
+        upstream,
+        statusCode,
+        latencyNanos);
+  }
+
+  @PostConstruct
+  public void start() {
+    running = true;
+    writer = new Thread(this::writeLoop, "gateway-access-log");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    running = false;
+    writer.join(TimeUnit.SECONDS.toMillis(1));
+  }
+
+  public long droppedEvents() {
+    return ringBuffer.dropped();
+  }
+
+  private void writeLoop() {
+    while (running) {
+      if (ringBuffer.drain(this::write) == 0) {
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+      }
+    }
+    ringBuffer.drain(this::write);
+  }
+
+  private void write(AccessLogEvent event) {
+    if (!isEnabled(event.level)) {
+      return;
+    }
+    line.setLength(0);
+    line.append("route=").append(event.routeId)
+        .append(" method=").append(event.method)
+        .append(" path=").append(event.path)
+        .append(" upstream=");
+    if (event.upstream != null) {
+      line.append(event.upstream.getAuthority());
+    } else {
+      line.append('-');
+    }
+    line.append(" status=").append(event.status)
+        .append(" latency_ms=").append(event.latencyNanos / 1_000_000)
+        .append('.').append(event.latencyNanos / 1_000 % 1_000 / 100)
+        .append(" timestamp=").append(event.timestampMillis);
+    String message = line.toString();
+
+    switch (event.level) {
+      case ERROR -> logger.error(message);
+      case WARN -> logger.warn(message);
+      case DEBUG -> logger.debug(message);
+      case TRACE -> logger.trace(message);
+      default -> logger.info(message);
+    }
+  }
+
+  private boolean isEnabled(Level level) {
+    return switch (level) {
+      case ERROR -> logger.isErrorEnabled();
+      case WARN -> logger.isWarnEnabled();
+      case DEBUG -> logger.isDebugEnabled();
+      case TRACE -> logger.isTraceEnabled();
+      default -> logger.isInfoEnabled();
+    };
+  }
+}
@@ -0,0 +1,87 @@
+package com.mb.rest.webservices.apigateway.logging;
+
+import org.slf4j.event.Level;
+import org.springframework.http.HttpMethod;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Bounded, lock-free, multi-producer / single-consumer ring buffer of preallocated events.
+// The request threads claim a slot with a CAS and fill it, the access-log thread drains the
+// published slots. When the consumer falls behind, new events are dropped (and counted)
+// instead of blocking the request threads.
+final class AccessLogRingBuffer {
+
+  private final AccessLogEvent[] events;
+  private final int mask;
+  private final AtomicLong claimed = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  // Next sequence to be read, only written by the consumer.
+  private volatile long consumed;
+
+  AccessLogRingBuffer(int requestedCapacity) {
+    int capacity = Integer.highestOneBit(Math.max(requestedCapacity, 2) - 1) << 1;
+    this.events = new AccessLogEvent[capacity];
+    this.mask = capacity - 1;
+    for (int i = 0; i < capacity; i++) {
+      events[i] = new AccessLogEvent();
+    }
+  }
+
+  boolean tryPublish(
+      long timestampMillis,
+      Level level,
+      String routeId,
+      HttpMethod method,
+      String path,
+      URI upstream,
+      int status,
+      long latencyNanos) {
+    long sequence;
+    do {
+      sequence = claimed.get();
+      if (sequence - consumed >= events.length) {
+        dropped.incrementAndGet();
+        return false;
+      }
+    } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+    AccessLogEvent event = events[(int) sequence & mask];
+    event.timestampMillis = timestampMillis;
+    event.level = level;
+    event.routeId = routeId;
+    event.method = method;
+    event.path = path;
+    event.upstream = upstream;
+    event.status = status;
+    event.latencyNanos = latencyNanos;
+    event.sequence = sequence;
+    return true;
+  }
+
+  // Hands the published events to the consumer, in order. Returns the number of events drained.
+  int drain(Consumer<AccessLogEvent> consumer) {
+    long next = consumed;
+    int drained = 0;
+    AccessLogEvent event = events[(int) next & mask];
+    while (event.sequence == next) {
+      consumer.accept(event);
+      event.upstream = null;
+      event.path = null;
+      next++;
+      drained++;
+      consumed = next;
+      event = events[(int) next & mask];
+    }
+    return drained;
+  }
+
+  int capacity() {
+    return events.length;
+  }
+
+  long dropped() {
+    return dropped.get();
+  }
+}
@@ -0,0 +1,111 @@
+package com.mb.rest.webservices.apigateway.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// The meters of one route. They are created once per route (and per upstream instance) and
+// then only updated: LongAdder counters are striped, so concurrent requests don't contend on
+// the same cache line.
+final class RouteMetrics {
+
+  static final String LATENCY = "gateway.route.latency";
+  static final String UPSTREAM_LATENCY = "gateway.route.upstream.latency";
+  static final String IN_FLIGHT = "gateway.route.in.flight";
+  static final String REQUESTS = "gateway.route.requests";
+  static final String ERRORS = "gateway.route.errors";
+
+  private static final String NO_INSTANCE = "none";
+
+  private final String routeId;
+  private final MeterRegistry meterRegistry;
+  private final LongAdder inFlight = new LongAdder();
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private final Map<String, Timer> latencyByInstance = new ConcurrentHashMap<>();
+  private final Map<String, Timer> upstreamLatencyByInstance = new ConcurrentHashMap<>();
+
+  RouteMetrics(String routeId, MeterRegistry meterRegistry) {
+    this.routeId = routeId;
+    this.meterRegistry = meterRegistry;
+    Gauge.builder(IN_FLIGHT, inFlight, LongAdder::sum)
+        .tag("route", routeId)
+        .register(meterRegistry);
+    // Totals that only go up: counters, so that Prometheus rate() handles the restarts
+    counter(REQUESTS, requests);
+    counter(ERRORS, errors);
+  }
+
+  void started() {
+    inFlight.increment();
+  }
+
+  void completed(String instance, long latencyNanos, long upstreamLatencyNanos, boolean error) {
+    inFlight.decrement();
+    requests.increment();
+    if (error) {
+      errors.increment();
+    }
+    String tag = instance != null ? instance : NO_INSTANCE;
+    timer(latencyByInstance, LATENCY, tag).record(latencyNanos, TimeUnit.NANOSECONDS);
+    if (upstreamLatencyNanos >= 0) {
+      timer(upstreamLatencyByInstance, UPSTREAM_LATENCY, tag)
+          .record(upstreamLatencyNanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  String routeId() {
+    return routeId;
+  }
+
+  long inFlight() {
+    return inFlight.sum();
+  }
+
+  long requests() {
+    return requests.sum();
+  }
+
+  long errors() {
+    return errors.sum();
+  }
+
+  Map<String, Timer> latencyByInstance() {
+    return latencyByInstance;
+  }
+
+  Map<String, Timer> upstreamLatencyByInstance() {
+    return upstreamLatencyByInstance;
+  }
+
+  private void counter(String name, LongAdder value) {
+    FunctionCounter.builder(name, value, LongAdder::sum)
+        .tag("route", routeId)
+        .register(meterRegistry);
+  }
+
+  // Histogram buckets (for Prometheus, histogram_quantile) and client-side percentiles
+  // (for /actuator/routemetrics), both backed by Micrometer's HDR-style histograms.
+  private Timer timer(Map<String, Timer> timers, String name, String instance) {
+    Timer timer = timers.get(instance);
+    if (timer == null) {
+      timer =
+          timers.computeIfAbsent(
+              instance,
+              key ->
+                  Timer.builder(name)
+                      .tag("route", routeId)
+                      .tag("instance", key)
+                      .publishPercentileHistogram()
+                      .publishPercentiles(0.5, 0.95, 0.99)
+                      .register(meterRegistry));
+    }
+    return timer;
+  }
+}
@@ -0,0 +1,63 @@
+package com.mb.rest.webservices.apigateway.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+// http://localhost:8765/actuator/routemetrics
+// One entry per route: in-flight requests, requests, errors, error rate and the latency
+// percentiles (in milliseconds) per upstream instance, total and backend only.
+@Component
+@Endpoint(id = "routemetrics")
+public class RouteMetricsEndpoint {
+
+  private final RouteMetricsFilter routeMetricsFilter;
+
+  public RouteMetricsEndpoint(RouteMetricsFilter routeMetricsFilter) {
+    this.routeMetricsFilter = routeMetricsFilter;
+  }
+
+  @ReadOperation
+  public Map<String, Object> routeMetrics() {
+    Map<String, Object> routes = new TreeMap<>();
+    for (RouteMetrics route : routeMetricsFilter.routes()) {
+      Map<String, Object> summary = new LinkedHashMap<>();
+      long requests = route.requests();
+      summary.put("inFlight", route.inFlight());
+      summary.put("requests", requests);
+      summary.put("errors", route.errors());
+      summary.put("errorRate", requests == 0 ? 0.0 : (double) route.errors() / requests);
+      summary.put("latency", percentiles(route.latencyByInstance()));
+      summary.put("upstreamLatency", percentiles(route.upstreamLatencyByInstance()));
+      routes.put(route.routeId(), summary);
+    }
+    return routes;
+  }
+
+  private static Map<String, Object> percentiles(Map<String, Timer> timers) {
+    Map<String, Object> byInstance = new TreeMap<>();
+    timers.forEach(
+        (instance, timer) -> {
+          HistogramSnapshot snapshot = timer.takeSnapshot();
+          Map<String, Object> values = new LinkedHashMap<>();
+          values.put("count", snapshot.count());
+          values.put("mean", snapshot.mean(TimeUnit.MILLISECONDS));
+          for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            values.put(
+                "p" + Math.round(percentile.percentile() * 100),
+                percentile.value(TimeUnit.MILLISECONDS));
+          }
+          values.put("max", snapshot.max(TimeUnit.MILLISECONDS));
+          byInstance.put(instance, values);
+        });
+    return byInstance;
+  }
+}
@@ -0,0 +1,82 @@
+package com.mb.rest.webservices.apigateway.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+// Per-route metrics, for every request going through the gateway:
+//  - gateway.route.latency{route, instance}: total latency seen by the gateway
+//  - gateway.route.upstream.latency{route, instance}: the part spent in the backend
+//    (the difference is the gateway overhead, e.g. the /currency-conversion-new/** rewrite)
+//  - gateway.route.in.flight / requests / errors{route}: 5xx and exceptions are errors
+// The instance is the host:port picked by the load balancer for lb:// routes.
+// Available on /actuator/metrics, /actuator/prometheus and summarized on /actuator/routemetrics.
+@Component
+public class RouteMetricsFilter implements GlobalFilter, Ordered {
+
+  private final MeterRegistry meterRegistry;
+  private final Map<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+
+  public RouteMetricsFilter(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public int getOrder() {
+    // Right after the access log.
+    return Ordered.HIGHEST_PRECEDENCE + 1;
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+    if (route == null) {
+      return chain.filter(exchange);
+    }
+    RouteMetrics routeMetrics = routes.get(route.getId());
+    if (routeMetrics == null) {
+      routeMetrics =
+          routes.computeIfAbsent(
+              route.getId(), routeId -> new RouteMetrics(routeId, meterRegistry));
+    }
+
+    RouteMetrics metrics = routeMetrics;
+    long start = System.nanoTime();
+    metrics.started();
+    return chain.filter(exchange).doFinally(signal -> completed(exchange, metrics, start, signal));
+  }
+
+  private void completed(
+      ServerWebExchange exchange, RouteMetrics metrics, long start, SignalType signal) {
+    long end = System.nanoTime();
+    Long upstreamStart = exchange.getAttribute(UpstreamTimingFilter.UPSTREAM_START_ATTR);
+    URI upstream = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+    HttpStatus status = exchange.getResponse().getStatusCode();
+    boolean error = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+
+    metrics.completed(
+        upstream != null ? upstream.getAuthority() : null,
+        end - start,
+        upstreamStart != null ? end - upstreamStart : -1,
+        error);
+  }
+
+  Collection<RouteMetrics> routes() {
+    return routes.values();
+  }
+}
@@ -0,0 +1,29 @@
+package com.mb.rest.webservices.apigateway.metrics;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+// Runs just before the NettyRoutingFilter (the filter calling the backend) and remembers when
+// the request left the gateway filters. RouteMetricsFilter uses it to split the latency of a
+// route between the gateway (predicates, rewrites, load balancing...) and the backend.
+@Component
+public class UpstreamTimingFilter implements GlobalFilter, Ordered {
+
+  static final String UPSTREAM_START_ATTR = UpstreamTimingFilter.class.getName() + ".start";
+
+  @Override
+  public int getOrder() {
+    return NettyRoutingFilter.ORDER - 1;
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    exchange.getAttributes().put(UPSTREAM_START_ATTR, System.nanoTime());
+    return chain.filter(exchange);
+  }
+}
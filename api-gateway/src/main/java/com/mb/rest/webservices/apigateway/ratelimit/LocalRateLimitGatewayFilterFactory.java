@@ -0,0 +1,276 @@
+package com.mb.rest.webservices.apigateway.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.util.NetUtil;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+// Rate limit of a route, in the gateway, before the request costs anything to the backends:
+// - per client (the remote address, see RateLimitConfiguration#trustedProxies): a token bucket
+//   per client and route,
+//   above it the client gets a 429 with the seconds to wait in Retry-After
+// - for the whole gateway: a single bucket shared by the routes, each route has a priority.
+//   As the bucket runs out, the LOW routes get a 503 first, then the NORMAL ones, so the HIGH
+//   ones keep the rest of the capacity (see Priority).
+// Unlike the RequestRateLimiter of Spring Cloud Gateway, the buckets are in memory (no Redis)
+// and lock-free (see TokenBucket, StripedTokenBucket).
+// It's attached per route, in ApiGatewayConfiguration:
+//   .filters(f -> f.filter(rateLimit.apply(rateLimit.newConfig().setPriority(Priority.HIGH))))
+// or in the properties: spring.cloud.gateway.routes[0].filters[0]=LocalRateLimit=HIGH
+// Each route has its own client buckets, unless a name is given: the routes with the same name
+// share them. Metrics: gateway.rate.limit.rejected (by route and reason: client or overload),
+// gateway.rate.limit.clients (by route) and gateway.rate.limit.available (share of the gateway
+// bucket left).
+@Component
+public class LocalRateLimitGatewayFilterFactory
+    extends AbstractGatewayFilterFactory<LocalRateLimitGatewayFilterFactory.Config> {
+
+  private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+  private final RateLimitConfiguration configuration;
+  private final MeterRegistry meterRegistry;
+  private final Map<String, Limited> limiters = new ConcurrentHashMap<>();
+  // Created with the first request, null: no gateway-wide limit
+  private volatile StripedTokenBucket gatewayBucket;
+  private volatile boolean gatewayBucketCreated;
+
+  public LocalRateLimitGatewayFilterFactory(
+      RateLimitConfiguration configuration, MeterRegistry meterRegistry) {
+    super(Config.class);
+    this.configuration = configuration;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public List<String> shortcutFieldOrder() {
+    return List.of("priority", "replenishRate", "burstCapacity");
+  }
+
+  @Override
+  public GatewayFilter apply(Config config) {
+    return (exchange, chain) -> filter(exchange, chain, config);
+  }
+
+  private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, Config config) {
+    String name = config.getName();
+    if (name == null) {
+      Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+      name = route != null ? route.getId() : "unknown";
+    }
+    Limited limited = limiters.computeIfAbsent(name, n -> limited(n, config));
+    long now = System.nanoTime();
+
+    // The client first: a client above its own limit doesn't take from the gateway bucket
+    long waitNanos = limited.bucket(client(exchange.getRequest()), now).tryAcquire(now, 0);
+    if (waitNanos > 0) {
+      limited.clientRejected.increment();
+      return reject(
+          exchange,
+          HttpStatus.TOO_MANY_REQUESTS,
+          // Rounded up, 0 would say "try again right away"
+          (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+    StripedTokenBucket gateway = gatewayBucket();
+    if (gateway != null
+        && !gateway.tryAcquire(now, configuration.reserve(config.getPriority()))) {
+      limited.overloadRejected.increment();
+      return reject(exchange, HttpStatus.SERVICE_UNAVAILABLE, 1);
+    }
+    return chain.filter(exchange);
+  }
+
+  private static Mono<Void> reject(
+      ServerWebExchange exchange, HttpStatus status, long retryAfterSeconds) {
+    ServerHttpResponse response = exchange.getResponse();
+    response.setStatusCode(status);
+    response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    return response.setComplete();
+  }
+
+  private String client(ServerHttpRequest request) {
+    InetSocketAddress remoteAddress = request.getRemoteAddress();
+    if (remoteAddress == null || remoteAddress.getAddress() == null) {
+      return "unknown";
+    }
+    InetAddress address = remoteAddress.getAddress();
+    if (!configuration.isTrustedProxy(address)) {
+      return address.getHostAddress();
+    }
+    // From a trusted proxy: the client it names
+    String client = request.getHeaders().getFirst(configuration.getClientHeader());
+    if (client != null) {
+      return client;
+    }
+    // The addresses on the right were added by the trusted proxies, the first one from the
+    // right that isn't one of them is the client (the ones before it can be made up)
+    List<String> forwardedFor = request.getHeaders().get(X_FORWARDED_FOR);
+    if (forwardedFor != null) {
+      for (int i = forwardedFor.size() - 1; i >= 0; i--) {
+        String[] hops = forwardedFor.get(i).split(",");
+        for (int j = hops.length - 1; j >= 0; j--) {
+          // An IP literal, or null: never a DNS lookup
+          InetAddress hop = NetUtil.createInetAddressFromIpAddressString(hops[j].trim());
+          if (hop == null) {
+            return address.getHostAddress();
+          }
+          if (!configuration.isTrustedProxy(hop)) {
+            return hop.getHostAddress();
+          }
+        }
+      }
+    }
+    return address.getHostAddress();
+  }
+
+  private StripedTokenBucket gatewayBucket() {
+    if (!gatewayBucketCreated) {
+      synchronized (this) {
+        if (!gatewayBucketCreated) {
+          if (configuration.getGatewayRate() > 0) {
+            int stripes = configuration.getStripes();
+            gatewayBucket =
+                new StripedTokenBucket(
+                    configuration.getGatewayRate(),
+                    configuration.getGatewayBurst(),
+                    stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors());
+            Gauge.builder(
+                    "gateway.rate.limit.available",
+                    gatewayBucket,
+                    bucket -> bucket.available(System.nanoTime()))
+                .register(meterRegistry);
+          }
+          gatewayBucketCreated = true;
+        }
+      }
+    }
+    return gatewayBucket;
+  }
+
+  private Limited limited(String name, Config config) {
+    Limited limited =
+        new Limited(
+            config.getReplenishRate() != null
+                ? config.getReplenishRate()
+                : configuration.getReplenishRate(),
+            config.getBurstCapacity() != null
+                ? config.getBurstCapacity()
+                : configuration.getBurstCapacity(),
+            configuration.getMaxClients(),
+            Counter.builder("gateway.rate.limit.rejected")
+                .tag("route", name)
+                .tag("reason", "client")
+                .register(meterRegistry),
+            Counter.builder("gateway.rate.limit.rejected")
+                .tag("route", name)
+                .tag("reason", "overload")
+                .register(meterRegistry));
+    Gauge.builder("gateway.rate.limit.clients", limited.clients, Map::size)
+        .tag("route", name)
+        .register(meterRegistry);
+    return limited;
+  }
+
+  // The client buckets of a route (or name)
+  private static final class Limited {
+    // At most one sweep of the full buckets per second
+    private static final long SWEEP_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private final double replenishRate;
+    private final double burstCapacity;
+    private final int maxClients;
+    private final Counter clientRejected;
+    private final Counter overloadRejected;
+    private final Map<String, TokenBucket> clients = new ConcurrentHashMap<>();
+    private volatile long lastSweep = System.nanoTime();
+
+    private Limited(
+        double replenishRate,
+        double burstCapacity,
+        int maxClients,
+        Counter clientRejected,
+        Counter overloadRejected) {
+      this.replenishRate = replenishRate;
+      this.burstCapacity = burstCapacity;
+      this.maxClients = maxClients;
+      this.clientRejected = clientRejected;
+      this.overloadRejected = overloadRejected;
+    }
+
+    private TokenBucket bucket(String client, long now) {
+      TokenBucket bucket = clients.get(client);
+      if (bucket != null) {
+        return bucket;
+      }
+      if (clients.size() >= maxClients && now - lastSweep > SWEEP_INTERVAL) {
+        lastSweep = now;
+        clients.values().removeIf(b -> b.isFull(now));
+      }
+      return clients.computeIfAbsent(client, c -> new TokenBucket(replenishRate, burstCapacity));
+    }
+  }
+
+  public static class Config {
+    // null: the id of the route
+    private String name;
+    private Priority priority = Priority.NORMAL;
+    // null: api-gateway.rate-limit.replenish-rate and burst-capacity
+    private Double replenishRate;
+    private Double burstCapacity;
+
+    public String getName() {
+      return name;
+    }
+
+    public Config setName(String name) {
+      this.name = name;
+      return this;
+    }
+
+    public Priority getPriority() {
+      return priority;
+    }
+
+    public Config setPriority(Priority priority) {
+      this.priority = priority;
+      return this;
+    }
+
+    public Double getReplenishRate() {
+      return replenishRate;
+    }
+
+    public Config setReplenishRate(Double replenishRate) {
+      this.replenishRate = replenishRate;
+      return this;
+    }
+
+    public Double getBurstCapacity() {
+      return burstCapacity;
+    }
+
+    public Config setBurstCapacity(Double burstCapacity) {
+      this.burstCapacity = burstCapacity;
+      return this;
+    }
+  }
+}
@@ -0,0 +1,10 @@
+package com.mb.rest.webservices.apigateway.ratelimit;
+
+// Priority of the requests of a route, for the gateway-wide rate limit: as it runs out of
+// tokens, the LOW routes are rejected first, then the NORMAL ones, the HIGH ones last (see
+// RateLimitConfiguration#reserve).
+public enum Priority {
+  LOW,
+  NORMAL,
+  HIGH
+}
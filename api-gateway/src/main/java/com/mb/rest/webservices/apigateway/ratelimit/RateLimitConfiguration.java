@@ -0,0 +1,159 @@
+package com.mb.rest.webservices.apigateway.ratelimit;
+
+import io.netty.handler.ipfilter.IpFilterRuleType;
+import io.netty.handler.ipfilter.IpSubnetFilterRule;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+// Settings of the LocalRateLimit filter. The buckets are in the memory of the gateway (no
+// Redis): with several gateway instances, each one applies the limits to its own traffic.
+@Component
+@ConfigurationProperties("api-gateway.rate-limit")
+public class RateLimitConfiguration {
+
+  // Per client and route (unless the route sets its own): requests per second, and the requests
+  // a client can send at once after a pause.
+  private double replenishRate = 100;
+  private double burstCapacity = 200;
+  // The client is the remote address of the request. When it's one of the trusted proxies
+  // (addresses or CIDR blocks, e.g. 10.0.0.0/8), the client is the value of this header, or
+  // without it the last address of X-Forwarded-For that isn't a trusted proxy. Nobody is
+  // trusted by default: from anybody else, a client could send a new header for every request.
+  private String clientHeader = "X-Client-Id";
+  private List<String> trustedProxies = List.of();
+  private List<IpSubnetFilterRule> trustedProxyRules = List.of();
+  // Above this number of clients (per route), the full buckets are dropped: a client that comes
+  // back gets a new (full) one, nothing is lost.
+  private int maxClients = 100_000;
+
+  // Requests per second of the whole gateway (all the routes using the filter), 0: no limit.
+  private double gatewayRate = 2000;
+  private double gatewayBurst = 2000;
+  // Stripes of the gateway bucket (see StripedTokenBucket), 0: the number of processors.
+  private int stripes = 0;
+  // Share of the gateway bucket the LOW and NORMAL routes can't take: once it's down to 50%,
+  // only NORMAL and HIGH get through, below 20% only HIGH.
+  private double lowPriorityReserve = 0.5;
+  private double normalPriorityReserve = 0.2;
+
+  public double reserve(Priority priority) {
+    switch (priority) {
+      case LOW:
+        return lowPriorityReserve;
+      case NORMAL:
+        return normalPriorityReserve;
+      default:
+        return 0;
+    }
+  }
+
+  public double getReplenishRate() {
+    return replenishRate;
+  }
+
+  public void setReplenishRate(double replenishRate) {
+    this.replenishRate = replenishRate;
+  }
+
+  public double getBurstCapacity() {
+    return burstCapacity;
+  }
+
+  public void setBurstCapacity(double burstCapacity) {
+    this.burstCapacity = burstCapacity;
+  }
+
+  public String getClientHeader() {
+    return clientHeader;
+  }
+
+  public void setClientHeader(String clientHeader) {
+    this.clientHeader = clientHeader;
+  }
+
+  public boolean isTrustedProxy(InetAddress address) {
+    if (trustedProxyRules.isEmpty()) {
+      return false;
+    }
+    InetSocketAddress socketAddress = new InetSocketAddress(address, 0);
+    for (IpSubnetFilterRule rule : trustedProxyRules) {
+      if (rule.matches(socketAddress)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public List<String> getTrustedProxies() {
+    return trustedProxies;
+  }
+
+  // Parsed once here, not per request
+  public void setTrustedProxies(List<String> trustedProxies) {
+    List<IpSubnetFilterRule> rules = new ArrayList<>();
+    for (String trustedProxy : trustedProxies) {
+      String[] addressAndPrefix = trustedProxy.trim().split("/", 2);
+      String address = addressAndPrefix[0];
+      int prefix =
+          addressAndPrefix.length > 1
+              ? Integer.parseInt(addressAndPrefix[1])
+              : address.contains(":") ? 128 : 32;
+      rules.add(new IpSubnetFilterRule(address, prefix, IpFilterRuleType.ACCEPT));
+    }
+    this.trustedProxies = trustedProxies;
+    this.trustedProxyRules = rules;
+  }
+
+  public int getMaxClients() {
+    return maxClients;
+  }
+
+  public void setMaxClients(int maxClients) {
+    this.maxClients = maxClients;
+  }
+
+  public double getGatewayRate() {
+    return gatewayRate;
+  }
+
+  public void setGatewayRate(double gatewayRate) {
+    this.gatewayRate = gatewayRate;
+  }
+
+  public double getGatewayBurst() {
+    return gatewayBurst;
+  }
+
+  public void setGatewayBurst(double gatewayBurst) {
+    this.gatewayBurst = gatewayBurst;
+  }
+
+  public int getStripes() {
+    return stripes;
+  }
+
+  public void setStripes(int stripes) {
+    this.stripes = stripes;
+  }
+
+  public double getLowPriorityReserve() {
+    return lowPriorityReserve;
+  }
+
+  public void setLowPriorityReserve(double lowPriorityReserve) {
+    this.lowPriorityReserve = lowPriorityReserve;
+  }
+
+  public double getNormalPriorityReserve() {
+    return normalPriorityReserve;
+  }
+
+  public void setNormalPriorityReserve(double normalPriorityReserve) {
+    this.normalPriorityReserve = normalPriorityReserve;
+  }
+}
@@ -0,0 +1,62 @@
+package com.mb.rest.webservices.apigateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// A token bucket shared by all the requests of the gateway. A single TokenBucket would be one
+// compareAndSet target for every event loop thread: the rate and the tokens are split between
+// stripes (the same "time at which it's full again", see TokenBucket), each thread starts with
+// its own stripe and only moves on to the others when it's empty. A request is rejected when
+// none of them has a token left, so the split costs no capacity.
+public class StripedTokenBucket {
+
+  // The stripes are 128 bytes apart: two of them never share a cache line
+  private static final int PADDING = 16;
+
+  private final int mask;
+  private final long intervalNanos;
+  private final long capacityNanos;
+  private final AtomicLongArray fullAt;
+
+  // stripes: rounded to a power of 2, and to at most one token per stripe
+  public StripedTokenBucket(double rate, double burst, int stripes) {
+    int count = Integer.highestOneBit(Math.max(1, Math.min(stripes, (int) burst)));
+    this.mask = count - 1;
+    // Each stripe gets rate / count tokens per second and burst / count tokens, that's the
+    // same capacity in time as the whole bucket
+    this.intervalNanos = TokenBucket.intervalNanos(rate / count);
+    this.capacityNanos = TokenBucket.capacityNanos(burst, TokenBucket.intervalNanos(rate));
+    this.fullAt = new AtomicLongArray(count * PADDING);
+    for (int i = 0; i < count; i++) {
+      fullAt.set(i * PADDING, Long.MIN_VALUE);
+    }
+  }
+
+  // reserve: share of the tokens (0 to 1) that can't be taken, it's kept for higher priorities
+  public boolean tryAcquire(long now, double reserve) {
+    long allowedNanos = TokenBucket.allowedNanos(capacityNanos, reserve);
+    int first = (int) Thread.currentThread().getId();
+    for (int i = 0; i <= mask; i++) {
+      int index = ((first + i) & mask) * PADDING;
+      while (true) {
+        long current = fullAt.get(index);
+        long next = Math.max(current, now) + intervalNanos;
+        if (next - now > allowedNanos) {
+          break;
+        }
+        if (fullAt.compareAndSet(index, current, next)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  // Share of the tokens left (0 to 1)
+  public double available(long now) {
+    double used = 0;
+    for (int i = 0; i <= mask; i++) {
+      used += Math.max(0, fullAt.get(i * PADDING) - now);
+    }
+    return 1 - used / ((double) capacityNanos * (mask + 1));
+  }
+}
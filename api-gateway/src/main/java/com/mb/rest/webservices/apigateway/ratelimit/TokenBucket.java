@@ -0,0 +1,60 @@
+package com.mb.rest.webservices.apigateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// A token bucket held in a single long: the time at which it will be full again (the
+// "theoretical arrival time" of GCRA, the generic cell rate algorithm). Taking a token pushes that
+// time one interval later with a compareAndSet: no lock, and no thread refilling the buckets, the
+// tokens come back with the time.
+public class TokenBucket {
+
+  private final long intervalNanos;
+  private final long capacityNanos;
+  // Long.MIN_VALUE: full
+  private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+  // rate: tokens per second, burst: tokens of a full bucket
+  public TokenBucket(double rate, double burst) {
+    this.intervalNanos = intervalNanos(rate);
+    this.capacityNanos = capacityNanos(burst, intervalNanos);
+  }
+
+  // 0: the token is taken, otherwise the nanoseconds until it could be.
+  // reserve: share of the bucket (0 to 1) that can't be taken, it's kept for other requests.
+  public long tryAcquire(long now, double reserve) {
+    long allowedNanos = allowedNanos(capacityNanos, reserve);
+    while (true) {
+      long current = fullAt.get();
+      long next = Math.max(current, now) + intervalNanos;
+      if (next - now > allowedNanos) {
+        return next - now - allowedNanos;
+      }
+      if (fullAt.compareAndSet(current, next)) {
+        return 0;
+      }
+    }
+  }
+
+  // Nothing is taken from a full bucket: dropping it and starting a new one later is the same.
+  public boolean isFull(long now) {
+    return fullAt.get() <= now;
+  }
+
+  static long intervalNanos(double rate) {
+    if (rate <= 0) {
+      throw new IllegalArgumentException("The rate must be positive: " + rate);
+    }
+    return Math.max(1, (long) (1_000_000_000 / rate));
+  }
+
+  static long capacityNanos(double burst, long intervalNanos) {
+    if (burst < 1) {
+      throw new IllegalArgumentException("The burst must be at least 1 token: " + burst);
+    }
+    return (long) (burst * intervalNanos);
+  }
+
+  static long allowedNanos(long capacityNanos, double reserve) {
+    return (long) (capacityNanos * (1 - reserve));
+  }
+}
@@ -0,0 +1,136 @@
+package com.mb.rest.webservices.apigateway.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A path rewrite compiled once into segments, instead of a regular expression applied to every
+// path (RewritePath):
+//   from /currency-conversion-new/{*segment}   to /currency-conversion-feign/{segment}
+// In "from", a segment is a literal, {name} (one segment) or, last, {*name} (the rest of the
+// path, possibly empty, without its leading slash). "to" is literal text with {name} references.
+// The path is matched raw (still encoded), and the captured text is copied as it is.
+final class PathTemplate {
+
+  private final String[] literals;
+  // Index of the variable captured by each segment, -1 for a literal segment
+  private final int[] captures;
+  private final boolean rest;
+  private final int variables;
+  // Literal text of "to" (String) or index of the variable to insert (Integer)
+  private final Object[] replacement;
+
+  private PathTemplate(
+      String[] literals, int[] captures, boolean rest, int variables, Object[] replacement) {
+    this.literals = literals;
+    this.captures = captures;
+    this.rest = rest;
+    this.variables = variables;
+    this.replacement = replacement;
+  }
+
+  static PathTemplate compile(String from, String to) {
+    if (!from.startsWith("/")) {
+      throw new IllegalArgumentException("The template must start with /: " + from);
+    }
+    String[] segments = from.substring(1).split("/", -1);
+    String[] literals = new String[segments.length];
+    int[] captures = new int[segments.length];
+    List<String> names = new ArrayList<>();
+    boolean rest = false;
+    for (int i = 0; i < segments.length; i++) {
+      String segment = segments[i];
+      captures[i] = -1;
+      if (segment.startsWith("{*") && segment.endsWith("}")) {
+        if (i != segments.length - 1) {
+          throw new IllegalArgumentException("{*...} must be the last segment: " + from);
+        }
+        rest = true;
+        captures[i] = names.size();
+        names.add(segment.substring(2, segment.length() - 1));
+      } else if (segment.startsWith("{") && segment.endsWith("}")) {
+        captures[i] = names.size();
+        names.add(segment.substring(1, segment.length() - 1));
+      } else {
+        literals[i] = segment;
+      }
+    }
+    return new PathTemplate(literals, captures, rest, names.size(), replacement(to, names));
+  }
+
+  // The rewritten path, null when the path doesn't match "from"
+  String rewrite(String rawPath) {
+    int[] starts = new int[variables];
+    int[] ends = new int[variables];
+    int length = rawPath.length();
+    int position = 0;
+    for (int i = 0; i < literals.length; i++) {
+      if (position >= length || rawPath.charAt(position) != '/') {
+        return null;
+      }
+      position++;
+      if (rest && i == literals.length - 1) {
+        starts[captures[i]] = position;
+        ends[captures[i]] = length;
+        position = length;
+        break;
+      }
+      int end = rawPath.indexOf('/', position);
+      if (end < 0) {
+        end = length;
+      }
+      if (captures[i] < 0) {
+        String literal = literals[i];
+        if (end - position != literal.length()
+            || !rawPath.regionMatches(position, literal, 0, literal.length())) {
+          return null;
+        }
+      } else {
+        if (end == position) {
+          return null;
+        }
+        starts[captures[i]] = position;
+        ends[captures[i]] = end;
+      }
+      position = end;
+    }
+    if (position != length) {
+      return null;
+    }
+    StringBuilder path = new StringBuilder(length + 32);
+    for (Object part : replacement) {
+      if (part instanceof String) {
+        path.append((String) part);
+      } else {
+        int variable = (Integer) part;
+        path.append(rawPath, starts[variable], ends[variable]);
+      }
+    }
+    return path.toString();
+  }
+
+  private static Object[] replacement(String to, List<String> names) {
+    List<Object> parts = new ArrayList<>();
+    int position = 0;
+    while (position < to.length()) {
+      int open = to.indexOf('{', position);
+      if (open < 0) {
+        parts.add(to.substring(position));
+        break;
+      }
+      int close = to.indexOf('}', open);
+      if (close < 0) {
+        throw new IllegalArgumentException("Unclosed { in " + to);
+      }
+      int variable = names.indexOf(to.substring(open + 1, close));
+      if (variable < 0) {
+        throw new IllegalArgumentException("Unknown variable in " + to + ", known: " + names);
+      }
+      if (open > position) {
+        parts.add(to.substring(position, open));
+      }
+      parts.add(variable);
+      position = close + 1;
+    }
+    return parts.toArray();
+  }
+}
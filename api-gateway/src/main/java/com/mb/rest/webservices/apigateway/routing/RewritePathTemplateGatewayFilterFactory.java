@@ -0,0 +1,77 @@
+package com.mb.rest.webservices.apigateway.routing;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.addOriginalRequestUrl;
+
+// RewritePath without regular expressions: the path is rewritten by a PathTemplate compiled when
+// the route is built, e.g. in ApiGatewayConfiguration:
+//   .filter(rewritePathTemplate.apply(
+//       new Config("/currency-conversion-new/{*segment}", "/currency-conversion-feign/{segment}")))
+// or in the properties:
+//   spring.cloud.gateway.routes[0].filters[0]=RewritePathTemplate=/a/{*rest}, /b/{rest}
+// The paths which don't match are left unchanged. Otherwise it does what RewritePath does: the
+// original URL is kept in the exchange attributes.
+@Component
+public class RewritePathTemplateGatewayFilterFactory
+    extends AbstractGatewayFilterFactory<RewritePathTemplateGatewayFilterFactory.Config> {
+
+  public RewritePathTemplateGatewayFilterFactory() {
+    super(Config.class);
+  }
+
+  @Override
+  public List<String> shortcutFieldOrder() {
+    return List.of("from", "to");
+  }
+
+  @Override
+  public GatewayFilter apply(Config config) {
+    PathTemplate template = PathTemplate.compile(config.getFrom(), config.getTo());
+    return (exchange, chain) -> {
+      ServerHttpRequest request = exchange.getRequest();
+      String path = template.rewrite(request.getURI().getRawPath());
+      if (path == null) {
+        return chain.filter(exchange);
+      }
+      addOriginalRequestUrl(exchange, request.getURI());
+      ServerHttpRequest rewritten = request.mutate().path(path).build();
+      exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, rewritten.getURI());
+      return chain.filter(exchange.mutate().request(rewritten).build());
+    };
+  }
+
+  public static class Config {
+    private String from;
+    private String to;
+
+    public Config() {}
+
+    public Config(String from, String to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    public String getFrom() {
+      return from;
+    }
+
+    public void setFrom(String from) {
+      this.from = from;
+    }
+
+    public String getTo() {
+      return to;
+    }
+
+    public void setTo(String to) {
+      this.to = to;
+    }
+  }
+}
@@ -0,0 +1,174 @@
+package com.mb.rest.webservices.apigateway.routing;
+
+import org.springframework.cloud.gateway.handler.AsyncPredicate;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.HasConfig;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// The path patterns of the routes compiled into a tree of path segments, so that finding the
+// routes which may match a path costs a map lookup per segment, whatever the number of routes.
+//  - /currency-exchange/** : the route is a candidate for every path below currency-exchange
+//  - /items/{id} or /items/* : "id" is a wildcard segment
+// The trie only narrows the routes down: the candidates still have their predicate evaluated, in
+// the order of the routes, so the route selected is the one Spring Cloud Gateway would select.
+// It may return a route whose predicate won't match (e.g. match-trailing-slash=false), never
+// leave out one which would.
+// The routes which are not selected by a Path predicate alone (other predicates, or/negate,
+// patterns like /a/**/b) are candidates for every path.
+final class RouteTrie {
+
+  private final Route[] routes;
+  private final Node root = new Node();
+  // Routes which are candidates for every path
+  private final BitSet unindexed = new BitSet();
+  private final Map<String, Route[]> hotPaths = new ConcurrentHashMap<>();
+  private final int hotPathCacheSize;
+
+  private RouteTrie(List<Route> routes, int hotPathCacheSize) {
+    this.routes = routes.toArray(new Route[0]);
+    this.hotPathCacheSize = hotPathCacheSize;
+  }
+
+  // routes: in the order they are evaluated (the one of the RouteLocator)
+  static RouteTrie compile(List<Route> routes, int hotPathCacheSize) {
+    RouteTrie trie = new RouteTrie(routes, hotPathCacheSize);
+    for (int i = 0; i < trie.routes.length; i++) {
+      List<String> patterns = pathPatterns(trie.routes[i]);
+      boolean indexed = patterns != null;
+      if (indexed) {
+        for (String pattern : patterns) {
+          indexed &= trie.add(pattern, i);
+        }
+      }
+      if (!indexed) {
+        trie.unindexed.set(i);
+      }
+    }
+    return trie;
+  }
+
+  // The routes which may match the path, in order
+  Route[] candidates(PathContainer path) {
+    String key = path.value();
+    Route[] candidates = hotPaths.get(key);
+    if (candidates != null) {
+      return candidates;
+    }
+    List<String> segments = segments(path);
+    BitSet matches = (BitSet) unindexed.clone();
+    collect(root, segments, 0, matches);
+    candidates = new Route[matches.cardinality()];
+    for (int i = matches.nextSetBit(0), j = 0; i >= 0; i = matches.nextSetBit(i + 1), j++) {
+      candidates[j] = routes[i];
+    }
+    if (hotPaths.size() >= hotPathCacheSize) {
+      hotPaths.clear();
+    }
+    hotPaths.put(key, candidates);
+    return candidates;
+  }
+
+  int size() {
+    return routes.length;
+  }
+
+  int unindexedRoutes() {
+    return unindexed.cardinality();
+  }
+
+  // The patterns of a route selected by a single Path predicate, null otherwise
+  static List<String> pathPatterns(Route route) {
+    AsyncPredicate<ServerWebExchange> predicate = route.getPredicate();
+    if (!(predicate instanceof AsyncPredicate.DefaultAsyncPredicate)) {
+      return null;
+    }
+    List<HasConfig> leaves = new ArrayList<>();
+    predicate.accept(leaves::add);
+    if (leaves.size() != 1
+        || !(leaves.get(0).getConfig() instanceof PathRoutePredicateFactory.Config)) {
+      return null;
+    }
+    // A negated Path predicate has the same single leaf, only its description differs ("!...")
+    if (!predicate.toString().equals(leaves.get(0).toString())) {
+      return null;
+    }
+    return ((PathRoutePredicateFactory.Config) leaves.get(0).getConfig()).getPatterns();
+  }
+
+  // false: the pattern can't be indexed (a ** which isn't the last segment)
+  private boolean add(String pattern, int route) {
+    String[] segments = pattern.split("/");
+    Node node = root;
+    for (int i = 0; i < segments.length; i++) {
+      String segment = segments[i];
+      if (segment.isEmpty()) {
+        continue;
+      }
+      if (segment.equals("**") || (segment.startsWith("{*") && segment.endsWith("}"))) {
+        if (i != segments.length - 1) {
+          return false;
+        }
+        node.prefix.set(route);
+        return true;
+      }
+      if (segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0) {
+        if (node.wildcard == null) {
+          node.wildcard = new Node();
+        }
+        node = node.wildcard;
+      } else {
+        node = node.children.computeIfAbsent(segment, s -> new Node());
+      }
+    }
+    node.exact.set(route);
+    return true;
+  }
+
+  private static void collect(Node node, List<String> segments, int depth, BitSet matches) {
+    matches.or(node.prefix);
+    if (depth == segments.size()) {
+      matches.or(node.exact);
+      return;
+    }
+    Node child = node.children.get(segments.get(depth));
+    if (child != null) {
+      collect(child, segments, depth + 1, matches);
+    }
+    if (node.wildcard != null) {
+      collect(node.wildcard, segments, depth + 1, matches);
+    }
+  }
+
+  // The decoded segments, without the path parameters and the empty ones: what the path
+  // patterns are matched against.
+  private static List<String> segments(PathContainer path) {
+    List<String> segments = new ArrayList<>();
+    for (PathContainer.Element element : path.elements()) {
+      if (element instanceof PathContainer.PathSegment) {
+        String segment = ((PathContainer.PathSegment) element).valueToMatch();
+        if (!segment.isEmpty()) {
+          segments.add(segment);
+        }
+      }
+    }
+    return segments;
+  }
+
+  private static final class Node {
+    private final Map<String, Node> children = new HashMap<>();
+    private Node wildcard;
+    // Routes matching the path ending at this node
+    private final BitSet exact = new BitSet();
+    // Routes matching it and all the paths below it (/**)
+    private final BitSet prefix = new BitSet();
+  }
+}
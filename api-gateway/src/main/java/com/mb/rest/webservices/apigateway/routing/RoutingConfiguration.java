@@ -0,0 +1,32 @@
+package com.mb.rest.webservices.apigateway.routing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("api-gateway.routing")
+public class RoutingConfiguration {
+
+  // trie: the routes are looked up in a RouteTrie (see TrieRoutePredicateHandlerMapping).
+  // predicates: the predicates of all the routes are evaluated in order (Spring Cloud Gateway).
+  private String mode = "trie";
+  // Paths whose candidate routes are remembered. The map is cleared when it's full: paths with
+  // ids or quantities in them would make it grow without bounds.
+  private int hotPathCacheSize = 10_000;
+
+  public String getMode() {
+    return mode;
+  }
+
+  public void setMode(String mode) {
+    this.mode = mode;
+  }
+
+  public int getHotPathCacheSize() {
+    return hotPathCacheSize;
+  }
+
+  public void setHotPathCacheSize(int hotPathCacheSize) {
+    this.hotPathCacheSize = hotPathCacheSize;
+  }
+}
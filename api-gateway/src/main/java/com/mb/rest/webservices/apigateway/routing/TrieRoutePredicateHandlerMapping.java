@@ -0,0 +1,107 @@
+package com.mb.rest.webservices.apigateway.routing;
+
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_PREDICATE_ROUTE_ATTR;
+
+// RoutePredicateHandlerMapping evaluates the predicates of every route, in order, until one
+// matches: the cost of a request grows with the number of routes.
+// Here only the candidates given by the RouteTrie of the path are evaluated (usually one), the
+// rest is the same: same route selected, same attributes, same handler.
+// The trie is compiled from the routes of the RouteLocator on the first request, and again after
+// they are refreshed (RefreshRoutesResultEvent, e.g. POST /actuator/gateway/refresh).
+public class TrieRoutePredicateHandlerMapping extends RoutePredicateHandlerMapping
+    implements ApplicationListener<RefreshRoutesResultEvent> {
+
+  private final RouteLocator routeLocator;
+  private final RoutingConfiguration configuration;
+  // Incremented by every refresh: a trie compiled from older routes is not kept
+  private final AtomicLong generation = new AtomicLong();
+  private volatile RouteTrie routeTrie;
+
+  public TrieRoutePredicateHandlerMapping(
+      FilteringWebHandler webHandler,
+      RouteLocator routeLocator,
+      GlobalCorsProperties globalCorsProperties,
+      Environment environment,
+      RoutingConfiguration configuration) {
+    super(webHandler, routeLocator, globalCorsProperties, environment);
+    this.routeLocator = routeLocator;
+    this.configuration = configuration;
+  }
+
+  @Override
+  public void onApplicationEvent(RefreshRoutesResultEvent event) {
+    generation.incrementAndGet();
+    routeTrie = null;
+  }
+
+  @Override
+  protected Mono<Route> lookupRoute(ServerWebExchange exchange) {
+    RouteTrie trie = routeTrie;
+    if (trie != null) {
+      return lookupRoute(trie, exchange);
+    }
+    long compiledGeneration = generation.get();
+    return routeLocator
+        .getRoutes()
+        .collectList()
+        .map(
+            routes -> {
+              RouteTrie compiled =
+                  RouteTrie.compile(routes, configuration.getHotPathCacheSize());
+              if (generation.get() == compiledGeneration) {
+                routeTrie = compiled;
+              }
+              logger.info(
+                  "Route trie compiled: "
+                      + compiled.size()
+                      + " routes, "
+                      + compiled.unindexedRoutes()
+                      + " evaluated for every path");
+              return compiled;
+            })
+        .flatMap(compiled -> lookupRoute(compiled, exchange));
+  }
+
+  // Same as RoutePredicateHandlerMapping.lookupRoute, over the candidates only
+  private Mono<Route> lookupRoute(RouteTrie trie, ServerWebExchange exchange) {
+    Route[] candidates =
+        trie.candidates(exchange.getRequest().getPath().pathWithinApplication());
+    if (candidates.length == 0) {
+      return Mono.empty();
+    }
+    return Flux.fromArray(candidates)
+        .concatMap(
+            route ->
+                Mono.just(route)
+                    .filterWhen(
+                        r -> {
+                          exchange.getAttributes().put(GATEWAY_PREDICATE_ROUTE_ATTR, r.getId());
+                          return r.getPredicate().apply(exchange);
+                        })
+                    .doOnError(
+                        e ->
+                            logger.error(
+                                "Error applying predicate for route: " + route.getId(), e))
+                    .onErrorResume(e -> Mono.empty()))
+        .next()
+        .map(
+            route -> {
+              validateRoute(route, exchange);
+              return route;
+            });
+  }
+}
@@ -0,0 +1,31 @@
+package com.mb.rest.webservices.apigateway.routing;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+// api-gateway.routing.mode=trie (the default): replaces the RoutePredicateHandlerMapping of
+// Spring Cloud Gateway (it's only created when there's none).
+@Configuration
+@ConditionalOnProperty(
+    name = "api-gateway.routing.mode",
+    havingValue = "trie",
+    matchIfMissing = true)
+public class TrieRouting {
+
+  @Bean
+  public RoutePredicateHandlerMapping routePredicateHandlerMapping(
+      FilteringWebHandler webHandler,
+      RouteLocator routeLocator,
+      GlobalCorsProperties globalCorsProperties,
+      Environment environment,
+      RoutingConfiguration configuration) {
+    return new TrieRoutePredicateHandlerMapping(
+        webHandler, routeLocator, globalCorsProperties, environment, configuration);
+  }
+}
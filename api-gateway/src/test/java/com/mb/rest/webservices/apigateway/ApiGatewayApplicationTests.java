@@ -1,11 +1,54 @@
 package com.mb.rest.webservices.apigateway;
 
+import com.mb.rest.webservices.tracing.SpanExportReporter;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
 
 @SpringBootTest
 class ApiGatewayApplicationTests {
 
+  @Autowired RoutePredicateHandlerMapping handlerMapping;
+  @Autowired ApplicationContext context;
+
   @Test
   void contextLoads() {}
+
+  // The span-export module replaces the reporter of Sleuth
+  @Test
+  void exportsTheSpansThroughTheSharedPipeline() {
+    assertThat(context.getBean("zipkinReporter")).isInstanceOf(SpanExportReporter.class);
+  }
+
+  // The stream and the bulk calls don't share the concurrency limit of the lookups
+  @Test
+  void streamAndBulkCallsHaveTheirOwnRoutes() {
+    assertThat(routeId(HttpMethod.GET, "/currency-exchange/stream"))
+        .isEqualTo("currency-exchange-stream");
+    assertThat(routeId(HttpMethod.POST, "/currency-exchange/bulk"))
+        .isEqualTo("currency-exchange-bulk");
+    assertThat(routeId(HttpMethod.POST, "/currency-conversion/bulk"))
+        .isEqualTo("currency-conversion-bulk");
+    assertThat(routeId(HttpMethod.GET, "/currency-exchange/from/USD/to/CAD"))
+        .isEqualTo("currency-exchange");
+    assertThat(routeId(HttpMethod.GET, "/currency-conversion/from/USD/to/CAD/quantity/10"))
+        .isEqualTo("currency-conversion");
+  }
+
+  private String routeId(HttpMethod method, String path) {
+    MockServerWebExchange exchange =
+        MockServerWebExchange.from(MockServerHttpRequest.method(method, path));
+    handlerMapping.getHandler(exchange).block();
+    Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+    return route != null ? route.getId() : null;
+  }
 }
@@ -0,0 +1,193 @@
+package com.mb.rest.webservices.apigateway.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheGatewayFilterFactoryTests {
+
+  private static final String BODY = "{\"from\":\"USD\",\"to\":\"CAD\",\"conversionMultiple\":1.29}";
+  private static final MediaType COMPACT_RATE =
+      MediaType.parseMediaType("application/x-compact-rate");
+
+  private final ResponseCacheConfiguration configuration = new ResponseCacheConfiguration();
+  private final ResponseStore responseStore = new ResponseStore(configuration);
+  private final ResponseCacheGatewayFilterFactory factory =
+      new ResponseCacheGatewayFilterFactory(responseStore, configuration);
+  private final GatewayFilter filter = factory.apply(factory.newConfig());
+  private final AtomicInteger backendCalls = new AtomicInteger();
+
+  @Test
+  void servesTheSecondRequestFromTheCache() {
+    MockServerWebExchange first = get("/currency-exchange/from/USD/to/CAD");
+    filter.filter(first, backend(null)).block();
+    MockServerWebExchange second = get("/currency-exchange//from/USD/to/CAD/");
+    filter.filter(second, backend(null)).block();
+
+    assertThat(backendCalls).hasValue(1);
+    assertThat(second.getResponse().getHeaders().getFirst("X-Gateway-Cache")).isEqualTo("HIT");
+    assertThat(second.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+  }
+
+  @Test
+  void cachesEachFormatOnItsOwn() {
+    // JSON or the compact encoding of currency-exchange, for the same path
+    GatewayFilterChain negotiating =
+        exchange -> {
+          backendCalls.incrementAndGet();
+          List<MediaType> accept = exchange.getRequest().getHeaders().getAccept();
+          MediaType contentType = accept.isEmpty() ? MediaType.APPLICATION_JSON : accept.get(0);
+          ServerHttpResponse response = exchange.getResponse();
+          response.setStatusCode(HttpStatus.OK);
+          response.getHeaders().setContentType(contentType);
+          response.getHeaders().setVary(List.of(HttpHeaders.ACCEPT));
+          byte[] body = contentType.toString().getBytes(StandardCharsets.UTF_8);
+          response.getHeaders().setContentLength(body.length);
+          return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        };
+
+    filter.filter(get("/currency-exchange/from/USD/to/CAD"), negotiating).block();
+    filter.filter(accepting(COMPACT_RATE), negotiating).block();
+    MockServerWebExchange json = get("/currency-exchange/from/USD/to/CAD");
+    filter.filter(json, negotiating).block();
+    MockServerWebExchange compact = accepting(COMPACT_RATE);
+    filter.filter(compact, negotiating).block();
+
+    assertThat(backendCalls).hasValue(2);
+    assertThat(json.getResponse().getHeaders().getContentType())
+        .isEqualTo(MediaType.APPLICATION_JSON);
+    assertThat(compact.getResponse().getHeaders().getContentType()).isEqualTo(COMPACT_RATE);
+    assertThat(compact.getResponse().getHeaders().getFirst("X-Gateway-Cache")).isEqualTo("HIT");
+    assertThat(compact.getResponse().getHeaders().getVary()).containsExactly(HttpHeaders.ACCEPT);
+  }
+
+  @Test
+  void doesNotCacheResponsesThatVaryOnAnotherHeader() {
+    GatewayFilterChain byLanguage =
+        exchange -> {
+          exchange.getResponse().getHeaders().setVary(List.of(HttpHeaders.ACCEPT_LANGUAGE));
+          return backend(null).filter(exchange);
+        };
+
+    filter.filter(get("/currency-exchange/from/USD/to/CAD"), byLanguage).block();
+    filter.filter(get("/currency-exchange/from/USD/to/CAD"), byLanguage).block();
+
+    assertThat(backendCalls).hasValue(2);
+    assertThat(responseStore.size()).isZero();
+  }
+
+  @Test
+  void doesNotCacheNoStoreResponses() {
+    filter.filter(get("/currency-exchange/from/USD/to/CAD"), backend("no-store")).block();
+    filter.filter(get("/currency-exchange/from/USD/to/CAD"), backend("no-store")).block();
+
+    assertThat(backendCalls).hasValue(2);
+    assertThat(responseStore.size()).isZero();
+  }
+
+  @Test
+  void passesServerSentEventsStraightThrough() {
+    // The stream of /currency-exchange/stream: no Cache-Control, and it never ends
+    GatewayFilterChain stream =
+        exchange -> {
+          backendCalls.incrementAndGet();
+          ServerHttpResponse response = exchange.getResponse();
+          response.setStatusCode(HttpStatus.OK);
+          response.getHeaders().setContentType(MediaType.TEXT_EVENT_STREAM);
+          byte[] event = "data:{\"from\":\"USD\"}\n\n".getBytes(StandardCharsets.UTF_8);
+          return response.writeAndFlushWith(
+              Flux.concat(
+                  Mono.just(Mono.just(response.bufferFactory().wrap(event))), Flux.never()));
+        };
+
+    MockServerWebExchange first = get("/currency-exchange/stream");
+    filter.filter(first, stream).subscribe();
+    // Not collapsed onto the first one, which never completes
+    MockServerWebExchange second = get("/currency-exchange/stream");
+    filter.filter(second, stream).subscribe();
+
+    for (MockServerWebExchange exchange : List.of(first, second)) {
+      assertThat(
+              exchange
+                  .getResponse()
+                  .getBody()
+                  .next()
+                  .map(buffer -> buffer.toString(StandardCharsets.UTF_8))
+                  .block(Duration.ofSeconds(5)))
+          .startsWith("data:");
+    }
+    assertThat(backendCalls).hasValue(2);
+    assertThat(responseStore.size()).isZero();
+  }
+
+  @Test
+  void evictsTheLeastUsedEntriesAboveTheMaximumSize() {
+    ResponseCacheConfiguration smallConfiguration = new ResponseCacheConfiguration();
+    smallConfiguration.setMaxSize(DataSize.ofBytes(100));
+    ResponseStore smallStore = new ResponseStore(smallConfiguration);
+    long expiresAt = System.nanoTime() + 60_000_000_000L;
+
+    smallStore.put("a", new CachedResponse(HttpStatus.OK, null, new byte[40], expiresAt));
+    smallStore.put("b", new CachedResponse(HttpStatus.OK, null, new byte[40], expiresAt));
+    for (int i = 0; i < 5; i++) {
+      smallStore.get("a", System.nanoTime());
+    }
+    smallStore.put("c", new CachedResponse(HttpStatus.OK, null, new byte[40], expiresAt));
+
+    assertThat(smallStore.usedBytes()).isEqualTo(80);
+    assertThat(smallStore.size()).isEqualTo(2);
+    assertThat(smallStore.get("a", System.nanoTime())).isNotNull();
+  }
+
+  @Test
+  void dropsTheExpiredEntries() {
+    long now = System.nanoTime();
+    responseStore.put("a", new CachedResponse(HttpStatus.OK, null, new byte[40], now - 1));
+    responseStore.put(
+        "b", new CachedResponse(HttpStatus.OK, null, new byte[40], now + 60_000_000_000L));
+
+    assertThat(responseStore.get("a", now)).isNull();
+    assertThat(responseStore.get("b", now)).isNotNull();
+    assertThat(responseStore.size()).isEqualTo(1);
+  }
+
+  private static MockServerWebExchange get(String path) {
+    return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+  }
+
+  private static MockServerWebExchange accepting(MediaType mediaType) {
+    return MockServerWebExchange.from(
+        MockServerHttpRequest.get("/currency-exchange/from/USD/to/CAD").accept(mediaType));
+  }
+
+  private GatewayFilterChain backend(String cacheControl) {
+    return exchange -> {
+      backendCalls.incrementAndGet();
+      ServerHttpResponse response = exchange.getResponse();
+      response.setStatusCode(HttpStatus.OK);
+      response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+      if (cacheControl != null) {
+        response.getHeaders().set(HttpHeaders.CACHE_CONTROL, cacheControl);
+      }
+      byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+      response.getHeaders().setContentLength(body.length);
+      return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    };
+  }
+}
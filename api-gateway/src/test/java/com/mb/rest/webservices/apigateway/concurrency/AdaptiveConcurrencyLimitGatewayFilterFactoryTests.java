@@ -0,0 +1,55 @@
+package com.mb.rest.webservices.apigateway.concurrency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitGatewayFilterFactoryTests {
+
+  private final ConcurrencyLimitConfiguration configuration = new ConcurrencyLimitConfiguration();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AdaptiveConcurrencyLimitGatewayFilterFactory factory =
+      new AdaptiveConcurrencyLimitGatewayFilterFactory(configuration, meterRegistry);
+  private final GatewayFilter filter =
+      factory.apply(factory.newConfig().setName("currency-exchange"));
+
+  @Test
+  void rejectsTheRequestsAboveTheLimitWithA503() {
+    configuration.setInitialLimit(2);
+    // The backend doesn't answer until the end of the test
+    Sinks.Empty<Void> backend = Sinks.empty();
+    List<MockServerWebExchange> exchanges = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      MockServerWebExchange exchange = get();
+      filter.filter(exchange, e -> backend.asMono()).subscribe();
+      exchanges.add(exchange);
+    }
+
+    assertThat(exchanges.get(0).getResponse().getStatusCode()).isNull();
+    assertThat(exchanges.get(1).getResponse().getStatusCode()).isNull();
+    assertThat(exchanges.get(2).getResponse().getStatusCode())
+        .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    assertThat(meterRegistry.get("gateway.concurrency.rejected").counter().count()).isEqualTo(1);
+
+    backend.tryEmitEmpty();
+    assertThat(meterRegistry.get("gateway.concurrency.in.flight").gauge().value()).isZero();
+    MockServerWebExchange next = get();
+    filter.filter(next, e -> Mono.empty()).block();
+    assertThat(next.getResponse().getStatusCode()).isNull();
+  }
+
+  private static MockServerWebExchange get() {
+    return MockServerWebExchange.from(
+        MockServerHttpRequest.get("/currency-exchange/from/USD/to/CAD"));
+  }
+}
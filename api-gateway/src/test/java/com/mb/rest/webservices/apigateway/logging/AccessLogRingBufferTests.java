@@ -0,0 +1,48 @@
+package com.mb.rest.webservices.apigateway.logging;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.event.Level;
+import org.springframework.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessLogRingBufferTests {
+
+  @Test
+  void drainsThePublishedEventsInOrder() {
+    AccessLogRingBuffer ringBuffer = new AccessLogRingBuffer(4);
+    for (int status = 200; status < 203; status++) {
+      assertThat(publish(ringBuffer, status)).isTrue();
+    }
+
+    List<Integer> statuses = new ArrayList<>();
+    assertThat(ringBuffer.drain(event -> statuses.add(event.status))).isEqualTo(3);
+    assertThat(statuses).containsExactly(200, 201, 202);
+    assertThat(ringBuffer.drain(event -> statuses.add(event.status))).isZero();
+  }
+
+  @Test
+  void dropsTheEventsWhenFullAndReusesTheSlotsOnceDrained() {
+    AccessLogRingBuffer ringBuffer = new AccessLogRingBuffer(3);
+    assertThat(ringBuffer.capacity()).isEqualTo(4);
+    for (int i = 0; i < 4; i++) {
+      assertThat(publish(ringBuffer, 200)).isTrue();
+    }
+    assertThat(publish(ringBuffer, 500)).isFalse();
+    assertThat(ringBuffer.dropped()).isEqualTo(1);
+
+    ringBuffer.drain(event -> {});
+    assertThat(publish(ringBuffer, 503)).isTrue();
+    List<Integer> statuses = new ArrayList<>();
+    ringBuffer.drain(event -> statuses.add(event.status));
+    assertThat(statuses).containsExactly(503);
+  }
+
+  private static boolean publish(AccessLogRingBuffer ringBuffer, int status) {
+    return ringBuffer.tryPublish(
+        0L, Level.INFO, "currency-exchange", HttpMethod.GET, "/currency-exchange", null, status, 1L);
+  }
+}
@@ -0,0 +1,131 @@
+package com.mb.rest.webservices.apigateway.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+class RouteMetricsFilterTests {
+
+  private static final Route ROUTE =
+      Route.async()
+          .id("currency-exchange")
+          .uri("lb://currency-exchange")
+          .predicate(exchange -> true)
+          .build();
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final RouteMetricsFilter filter = new RouteMetricsFilter(meterRegistry);
+  private final UpstreamTimingFilter upstreamTimingFilter = new UpstreamTimingFilter();
+  private final RouteMetricsEndpoint endpoint = new RouteMetricsEndpoint(filter);
+
+  @Test
+  void recordsTheLatencyOfTheRouteAndOfTheBackend() {
+    // 20 ms in the gateway filters, then 50 ms in the backend
+    GatewayFilterChain chain =
+        exchange ->
+            pause(Duration.ofMillis(20))
+                .then(
+                    upstreamTimingFilter.filter(
+                        exchange, e -> backend(e, HttpStatus.OK, Duration.ofMillis(50))));
+    filter.filter(exchange(), chain).block();
+
+    Timer latency = timer(RouteMetrics.LATENCY);
+    Timer upstreamLatency = timer(RouteMetrics.UPSTREAM_LATENCY);
+    assertThat(latency.count()).isEqualTo(1);
+    assertThat(latency.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(70);
+    assertThat(upstreamLatency.totalTime(TimeUnit.MILLISECONDS))
+        .isGreaterThanOrEqualTo(50)
+        .isLessThan(latency.totalTime(TimeUnit.MILLISECONDS));
+    assertThat(meterRegistry.get(RouteMetrics.IN_FLIGHT).gauge().value()).isZero();
+  }
+
+  @Test
+  void countsTheServerErrorsAndTheExceptions() {
+    filter.filter(exchange(), e -> backend(e, HttpStatus.OK, Duration.ZERO)).block();
+    // A client error is not an error of the route
+    filter.filter(exchange(), e -> backend(e, HttpStatus.NOT_FOUND, Duration.ZERO)).block();
+    filter
+        .filter(exchange(), e -> backend(e, HttpStatus.SERVICE_UNAVAILABLE, Duration.ZERO))
+        .block();
+    filter
+        .filter(exchange(), e -> Mono.error(new IllegalStateException("connection refused")))
+        .onErrorResume(e -> Mono.empty())
+        .block();
+
+    FunctionCounter requests = meterRegistry.get(RouteMetrics.REQUESTS).functionCounter();
+    FunctionCounter errors = meterRegistry.get(RouteMetrics.ERRORS).functionCounter();
+    assertThat(requests.count()).isEqualTo(4);
+    assertThat(errors.count()).isEqualTo(2);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void summarizesTheRoutesOnTheEndpoint() {
+    filter.filter(exchange(), e -> backend(e, HttpStatus.OK, Duration.ZERO)).block();
+    filter.filter(exchange(), e -> backend(e, HttpStatus.BAD_GATEWAY, Duration.ZERO)).block();
+
+    Map<String, Object> route =
+        (Map<String, Object>) endpoint.routeMetrics().get("currency-exchange");
+    assertThat(route)
+        .containsEntry("inFlight", 0L)
+        .containsEntry("requests", 2L)
+        .containsEntry("errors", 1L)
+        .containsEntry("errorRate", 0.5);
+    Map<String, Map<String, Object>> latency =
+        (Map<String, Map<String, Object>>) route.get("latency");
+    assertThat(latency).containsOnlyKeys("localhost:8000");
+    assertThat(latency.get("localhost:8000"))
+        .containsEntry("count", 2L)
+        .containsKeys("mean", "p50", "p95", "p99", "max");
+  }
+
+  private Timer timer(String name) {
+    return meterRegistry.get(name).tag("route", "currency-exchange").timer();
+  }
+
+  private static MockServerWebExchange exchange() {
+    MockServerWebExchange exchange =
+        MockServerWebExchange.from(
+            MockServerHttpRequest.get("/currency-exchange/from/USD/to/CAD"));
+    exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, ROUTE);
+    return exchange;
+  }
+
+  // The load balancer picked localhost:8000
+  private static Mono<Void> backend(ServerWebExchange exchange, HttpStatus status, Duration delay) {
+    exchange
+        .getAttributes()
+        .put(GATEWAY_REQUEST_URL_ATTR, URI.create("http://localhost:8000/currency-exchange"));
+    return pause(delay)
+        .then(Mono.fromRunnable(() -> exchange.getResponse().setStatusCode(status)));
+  }
+
+  // On the calling thread (unlike Mono.delay): the metrics are recorded when block() returns
+  private static Mono<Void> pause(Duration duration) {
+    return Mono.fromRunnable(
+        () -> {
+          try {
+            Thread.sleep(duration.toMillis());
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+  }
+}
@@ -0,0 +1,167 @@
+package com.mb.rest.webservices.apigateway.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalRateLimitGatewayFilterFactoryTests {
+
+  private final RateLimitConfiguration configuration = new RateLimitConfiguration();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final LocalRateLimitGatewayFilterFactory factory =
+      new LocalRateLimitGatewayFilterFactory(configuration, meterRegistry);
+
+  // The requests of the tests come from a proxy in front of the gateway, with X-Client-Id
+  @BeforeEach
+  void trustTheProxy() {
+    configuration.setTrustedProxies(List.of("10.0.0.0/8"));
+  }
+
+  @Test
+  void rejectsTheRequestsOfAClientAboveItsLimitWithA429() {
+    configuration.setGatewayRate(0);
+    GatewayFilter filter =
+        factory.apply(
+            factory
+                .newConfig()
+                .setName("currency-exchange")
+                .setReplenishRate(0.1)
+                .setBurstCapacity(2.0));
+
+    assertThat(status(filter, "a")).isNull();
+    assertThat(status(filter, "a")).isNull();
+    MockServerWebExchange rejected = get("a");
+    filter.filter(rejected, e -> Mono.empty()).block();
+    assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    // One token every 10 seconds
+    assertThat(rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER))
+        .isEqualTo("10");
+    // Another client has its own bucket
+    assertThat(status(filter, "b")).isNull();
+    assertThat(
+            meterRegistry
+                .get("gateway.rate.limit.rejected")
+                .tag("reason", "client")
+                .counter()
+                .count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void ignoresTheClientHeaderOfUntrustedAddresses() {
+    configuration.setGatewayRate(0);
+    GatewayFilter filter =
+        factory.apply(
+            factory
+                .newConfig()
+                .setName("currency-exchange")
+                .setReplenishRate(0.1)
+                .setBurstCapacity(2.0));
+
+    // A new X-Client-Id for every request: still the same client, the remote address
+    assertThat(status(filter, from("203.0.113.7").header("X-Client-Id", "a"))).isNull();
+    assertThat(status(filter, from("203.0.113.7").header("X-Client-Id", "b"))).isNull();
+    assertThat(status(filter, from("203.0.113.7").header("X-Client-Id", "c")))
+        .isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    assertThat(status(filter, from("203.0.113.8").header("X-Client-Id", "c"))).isNull();
+    // No bucket per header
+    assertThat(meterRegistry.get("gateway.rate.limit.clients").gauge().value()).isEqualTo(2);
+  }
+
+  @Test
+  void takesTheClientFromTheForwardedAddressesOfATrustedProxy() {
+    configuration.setGatewayRate(0);
+    GatewayFilter filter =
+        factory.apply(
+            factory
+                .newConfig()
+                .setName("currency-exchange")
+                .setReplenishRate(0.1)
+                .setBurstCapacity(2.0));
+
+    // The first address is made up by the client, the last one is another trusted proxy
+    assertThat(status(filter, forwarded("198.51.100.1, 203.0.113.7, 10.0.0.2"))).isNull();
+    assertThat(status(filter, forwarded("198.51.100.2, 203.0.113.7, 10.0.0.2"))).isNull();
+    assertThat(status(filter, forwarded("203.0.113.7")))
+        .isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    assertThat(status(filter, forwarded("203.0.113.8, 10.0.0.2"))).isNull();
+  }
+
+  @Test
+  void shedsTheLowPriorityRoutesFirst() {
+    configuration.setGatewayRate(0.1);
+    configuration.setGatewayBurst(10);
+    configuration.setStripes(1);
+    GatewayFilter low = factory.apply(factory.newConfig().setName("get").setPriority(Priority.LOW));
+    GatewayFilter high =
+        factory.apply(
+            factory.newConfig().setName("currency-conversion").setPriority(Priority.HIGH));
+
+    // Half of the gateway bucket for the LOW route, then 503s
+    for (int i = 0; i < 5; i++) {
+      assertThat(status(low, "client-" + i)).isNull();
+    }
+    assertThat(status(low, "client-5")).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    // The HIGH route still has the other half
+    for (int i = 0; i < 5; i++) {
+      assertThat(status(high, "client-" + i)).isNull();
+    }
+    assertThat(status(high, "client-5")).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
+  @Test
+  void stripesDontLoseCapacity() {
+    StripedTokenBucket bucket = new StripedTokenBucket(1, 8, 4);
+    long now = System.nanoTime();
+
+    // A single thread starts with its own stripe, then takes the tokens of the others
+    for (int i = 0; i < 8; i++) {
+      assertThat(bucket.tryAcquire(now, 0)).isTrue();
+    }
+    assertThat(bucket.tryAcquire(now, 0)).isFalse();
+    assertThat(bucket.available(now)).isZero();
+    // 4 tokens back after 4 seconds, one per stripe
+    long later = now + TimeUnit.SECONDS.toNanos(4);
+    assertThat(bucket.available(later)).isEqualTo(0.5);
+    for (int i = 0; i < 4; i++) {
+      assertThat(bucket.tryAcquire(later, 0)).isTrue();
+    }
+    assertThat(bucket.tryAcquire(later, 0)).isFalse();
+  }
+
+  private static HttpStatus status(GatewayFilter filter, String client) {
+    return status(filter, from("10.0.0.1").header("X-Client-Id", client));
+  }
+
+  private static HttpStatus status(
+      GatewayFilter filter, MockServerHttpRequest.BaseBuilder<?> request) {
+    MockServerWebExchange exchange = MockServerWebExchange.from(request);
+    filter.filter(exchange, e -> Mono.empty()).block();
+    return exchange.getResponse().getStatusCode();
+  }
+
+  private static MockServerWebExchange get(String client) {
+    return MockServerWebExchange.from(from("10.0.0.1").header("X-Client-Id", client));
+  }
+
+  private static MockServerHttpRequest.BaseBuilder<?> forwarded(String forwardedFor) {
+    return from("10.0.0.1").header("X-Forwarded-For", forwardedFor);
+  }
+
+  private static MockServerHttpRequest.BaseBuilder<?> from(String remoteAddress) {
+    return MockServerHttpRequest.get("/currency-exchange/from/USD/to/CAD")
+        .remoteAddress(new InetSocketAddress(remoteAddress, 40000));
+  }
+}
@@ -0,0 +1,44 @@
+package com.mb.rest.webservices.apigateway.routing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PathTemplateTests {
+
+  @Test
+  void rewritesLikeTheRegularExpressionItReplaces() {
+    PathTemplate template =
+        PathTemplate.compile(
+            "/currency-conversion-new/{*segment}", "/currency-conversion-feign/{segment}");
+
+    for (String path :
+        new String[] {
+          "/currency-conversion-new/from/USD/to/CAD/quantity/10",
+          "/currency-conversion-new/",
+          "/currency-conversion-new/a%2Fb/c"
+        }) {
+      assertThat(template.rewrite(path))
+          .isEqualTo(
+              path.replaceAll(
+                  "/currency-conversion-new/(?<segment>.*)",
+                  "/currency-conversion-feign/${segment}"));
+    }
+    assertThat(template.rewrite("/currency-conversion-new")).isNull();
+    assertThat(template.rewrite("/currency-conversion-feign/from/USD")).isNull();
+  }
+
+  @Test
+  void capturesSingleSegments() {
+    PathTemplate template =
+        PathTemplate.compile("/rates/{from}/{to}", "/currency-exchange/from/{from}/to/{to}");
+
+    assertThat(template.rewrite("/rates/USD/CAD")).isEqualTo("/currency-exchange/from/USD/to/CAD");
+    assertThat(template.rewrite("/rates/USD")).isNull();
+    assertThat(template.rewrite("/rates/USD/CAD/more")).isNull();
+    assertThat(template.rewrite("/rates//CAD")).isNull();
+    assertThatThrownBy(() -> PathTemplate.compile("/rates/{from}", "/x/{to}"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,112 @@
+package com.mb.rest.webservices.apigateway.routing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.handler.AsyncPredicate;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.handler.predicate.MethodRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.CachingRouteLocator;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+class TrieRoutePredicateHandlerMappingTests {
+
+  private final PathRoutePredicateFactory path = new PathRoutePredicateFactory();
+  private final MethodRoutePredicateFactory method = new MethodRoutePredicateFactory();
+
+  private final RouteLocator routeLocator =
+      new CachingRouteLocator(
+          () ->
+              Flux.just(
+                  route("get", path("/get")),
+                  // Not indexed: evaluated for every path, before the routes which follow it
+                  route(
+                      "post-exchange",
+                      path("/currency-exchange/bulk")
+                          .and(method.applyAsync(c -> c.setMethods(HttpMethod.POST)))),
+                  route("exchange", path("/currency-exchange/**")),
+                  route("item", path("/items/{id}", "/things/*/detail")),
+                  route("not-admin", path("/admin/**").negate()),
+                  route("never", path("/items/**"))));
+
+  private final RoutePredicateHandlerMapping predicates =
+      new RoutePredicateHandlerMapping(
+          new FilteringWebHandler(List.of()),
+          routeLocator,
+          new GlobalCorsProperties(),
+          new MockEnvironment());
+  private final TrieRoutePredicateHandlerMapping trie =
+      new TrieRoutePredicateHandlerMapping(
+          new FilteringWebHandler(List.of()),
+          routeLocator,
+          new GlobalCorsProperties(),
+          new MockEnvironment(),
+          new RoutingConfiguration());
+
+  @Test
+  void selectsTheSameRouteAsThePredicateChain() {
+    for (String requestPath :
+        List.of(
+            "/get",
+            "/get/",
+            "/currency-exchange",
+            "/currency-exchange/from/USD/to/CAD",
+            "/currency-exchange//from/USD/to/CAD",
+            "/currency-exchange/bulk",
+            "/items/42",
+            "/items/42/more",
+            "/things/a/detail",
+            "/admin/users",
+            "/",
+            "/other")) {
+      for (HttpMethod httpMethod : List.of(HttpMethod.GET, HttpMethod.POST)) {
+        assertThat(routeId(trie, requestPath, httpMethod))
+            .as("%s %s", httpMethod, requestPath)
+            .isEqualTo(routeId(predicates, requestPath, httpMethod));
+      }
+    }
+    assertThat(routeId(trie, "/currency-exchange/bulk", HttpMethod.POST))
+        .isEqualTo("post-exchange");
+    assertThat(routeId(trie, "/items/42/more", HttpMethod.GET)).isEqualTo("not-admin");
+    assertThat(routeId(trie, "/admin/users", HttpMethod.GET)).isNull();
+  }
+
+  @Test
+  void indexesTheRoutesSelectedByAPathPredicateAlone() {
+    RouteTrie routeTrie = RouteTrie.compile(routeLocator.getRoutes().collectList().block(), 100);
+
+    assertThat(routeTrie.size()).isEqualTo(6);
+    // post-exchange (Path and Method) and not-admin (negated)
+    assertThat(routeTrie.unindexedRoutes()).isEqualTo(2);
+  }
+
+  private static String routeId(
+      RoutePredicateHandlerMapping mapping, String requestPath, HttpMethod httpMethod) {
+    ServerWebExchange exchange =
+        MockServerWebExchange.from(MockServerHttpRequest.method(httpMethod, requestPath));
+    mapping.getHandler(exchange).block();
+    Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+    return route != null ? route.getId() : null;
+  }
+
+  private AsyncPredicate<ServerWebExchange> path(String... patterns) {
+    return path.applyAsync(c -> c.setPatterns(List.of(patterns)));
+  }
+
+  private static Route route(String id, AsyncPredicate<ServerWebExchange> predicate) {
+    return Route.async().id(id).uri("http://localhost:8000").asyncPredicate(predicate).build();
+  }
+}
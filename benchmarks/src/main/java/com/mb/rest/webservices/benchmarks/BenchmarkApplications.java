@@ -0,0 +1,31 @@
+package com.mb.rest.webservices.benchmarks;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Starts the Spring context of a service inside the benchmark JVM, without the config server,
+// Eureka or Zipkin: only the beans we want to measure.
+// The api-gateway needs a reactive context (the gateway beans depend on the server settings),
+// it's started on a random port but no request is sent to it.
+final class BenchmarkApplications {
+
+  private static final String[] COMMON_PROPERTIES = {
+    "spring.main.banner-mode=off",
+    "spring.cloud.config.enabled=false",
+    "spring.cloud.config.import-check.enabled=false",
+    "eureka.client.enabled=false",
+    "logging.level.root=WARN"
+  };
+
+  private BenchmarkApplications() {}
+
+  static ConfigurableApplicationContext start(
+      Class<?> application, WebApplicationType webApplicationType, String... properties) {
+    return new SpringApplicationBuilder(application)
+        .web(webApplicationType)
+        .properties(COMMON_PROPERTIES)
+        .properties(properties)
+        .run();
+  }
+}
@@ -0,0 +1,115 @@
+package com.mb.rest.webservices.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mb.rest.webservices.currencyconversionservice.conversion.Controller;
+import com.mb.rest.webservices.currencyconversionservice.conversion.CurrencyConversion;
+import com.mb.rest.webservices.currencyconversionservice.conversion.bulk.BulkConversionConfiguration;
+import com.mb.rest.webservices.currencyconversionservice.conversion.bulk.BulkConversionService;
+import com.mb.rest.webservices.currencyconversionservice.conversion.bulk.BulkFormat;
+import com.mb.rest.webservices.currencyconversionservice.conversion.cache.CurrencyExchangeCache;
+import com.mb.rest.webservices.currencyconversionservice.conversion.stream.RateReplica;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Conversion of 100 000 NDJSON rows (5 pairs), the rates being known:
+//  - bulk: BulkConversionService, from the bytes of the body to the bytes of the response,
+//    with parallelism conversion threads (0: one per core)
+//  - perRow: what the jobs do without it, the row parsed, converted by
+//    calculateConvertCurrencyFeign and written with Jackson, one at a time (without the HTTP
+//    round trip of each row, which dominates in reality)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkConversionBenchmark {
+
+  private static final int ROWS = 100_000;
+  private static final String[] PAIRS = {"USD", "EUR", "GBP", "JPY", "CHF"};
+
+  @Param({"1", "0"})
+  private int parallelism;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final OutputStream discard = OutputStream.nullOutputStream();
+  private byte[] body;
+  private String[] lines;
+  private RateReplica rateReplica;
+  private BulkConversionService service;
+  private Controller controller;
+
+  @Setup
+  public void setUp() {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < ROWS; i++) {
+      text.append("{\"from\":\"").append(PAIRS[i % PAIRS.length]);
+      text.append("\",\"to\":\"CAD\",\"quantity\":").append(i % 10_000).append(".25}\n");
+    }
+    body = text.toString().getBytes(StandardCharsets.UTF_8);
+    lines = text.toString().split("\n");
+
+    // Rates in the replica: no call to currency-exchange
+    rateReplica =
+        new RateReplica() {
+          @Override
+          public CurrencyConversion find(String from, String to) {
+            return new CurrencyConversion(
+                10001L, from, to, null, new BigDecimal("1.2934"), null, "8000");
+          }
+        };
+    BulkConversionConfiguration configuration = new BulkConversionConfiguration();
+    configuration.setParallelism(parallelism);
+    service = new BulkConversionService(rateReplica, null, configuration);
+    controller = new Controller();
+    ReflectionTestUtils.setField(controller, "rateReplica", rateReplica);
+  }
+
+  @TearDown
+  public void tearDown() {
+    service.shutdown();
+  }
+
+  @Benchmark
+  public long bulk() throws IOException {
+    return service.convert(
+        BulkFormat.NDJSON.reader(new ByteArrayInputStream(body), objectMapper.getFactory()),
+        BulkFormat.NDJSON,
+        discard);
+  }
+
+  @Benchmark
+  public long perRow() throws IOException {
+    for (String line : lines) {
+      Row row = objectMapper.readValue(line, Row.class);
+      discard.write(
+          objectMapper.writeValueAsBytes(
+              controller.calculateConvertCurrencyFeign(row.from, row.to, row.quantity)));
+    }
+    return lines.length;
+  }
+
+  public static class Row {
+    public String from;
+    public String to;
+    public BigDecimal quantity;
+  }
+}
@@ -0,0 +1,93 @@
+package com.mb.rest.webservices.benchmarks;
+
+import com.mb.rest.webservices.currencyconversionservice.conversion.Controller;
+import com.mb.rest.webservices.currencyconversionservice.conversion.CurrencyConversion;
+import com.mb.rest.webservices.currencyconversionservice.conversion.CurrencyExchangeProxy;
+import com.mb.rest.webservices.currencyconversionservice.conversion.CurrencyPair;
+import com.mb.rest.webservices.currencyconversionservice.conversion.batching.BatchingConfiguration;
+import com.mb.rest.webservices.currencyconversionservice.conversion.batching.CurrencyExchangeBatcher;
+import com.mb.rest.webservices.currencyconversionservice.conversion.cache.CurrencyExchangeCache;
+import com.mb.rest.webservices.currencyconversionservice.conversion.cache.RateCacheConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Conversion math of currency-conversion-service:
+//  - multiply: the BigDecimal multiplication alone (quantity x conversionMultiple)
+//  - calculateConvertCurrencyFeign: the whole controller method, the rate being in the cache
+//    (the common case), so it measures cache lookup + multiplication + response object.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionBenchmark {
+
+  private final BigDecimal quantity = new BigDecimal("100");
+  private final BigDecimal conversionMultiple = new BigDecimal("1.29");
+
+  private CurrencyExchangeBatcher batcher;
+  private CurrencyExchangeCache cache;
+  private Controller controller;
+
+  @Setup
+  public void setUp() {
+    CurrencyConversion rate =
+        new CurrencyConversion(10001L, "USD", "CAD", null, conversionMultiple, null, "8000");
+    CurrencyExchangeProxy proxy =
+        new CurrencyExchangeProxy() {
+          @Override
+          public CurrencyConversion retrieveExchangeValue(String from, String to) {
+            return rate;
+          }
+
+          @Override
+          public List<CurrencyConversion> retrieveExchangeValues(List<CurrencyPair> pairs) {
+            return List.of(rate);
+          }
+        };
+
+    batcher = new CurrencyExchangeBatcher();
+    ReflectionTestUtils.setField(batcher, "currencyExchangeProxy", proxy);
+    ReflectionTestUtils.setField(batcher, "configuration", new BatchingConfiguration());
+    cache =
+        new CurrencyExchangeCache(
+            batcher, new RateCacheConfiguration(), new SimpleMeterRegistry());
+    controller = new Controller();
+    ReflectionTestUtils.setField(controller, "currencyExchangeCache", cache);
+
+    // Loads USD/CAD in the cache.
+    controller.calculateConvertCurrencyFeign("USD", "CAD", quantity);
+  }
+
+  @TearDown
+  public void tearDown() {
+    cache.shutdown();
+    batcher.shutdown();
+  }
+
+  @Benchmark
+  public BigDecimal multiply() {
+    return quantity.multiply(conversionMultiple);
+  }
+
+  @Benchmark
+  public CurrencyConversion calculateConvertCurrencyFeign() {
+    return controller.calculateConvertCurrencyFeign("USD", "CAD", quantity);
+  }
+}
@@ -0,0 +1,90 @@
+package com.mb.rest.webservices.benchmarks;
+
+import com.mb.rest.webservices.currencyexchangeservice.CurrencyExchangeServiceApplication;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.CurrencyExchange;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.CurrencyExchangeRepository;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable.RateTableService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Lookup of a rate in currency-exchange-service, with an H2 in-memory database:
+//  - findByFromAndTo: the Spring Data JPA derived query
+//  - rateTable: the in-memory RateTableService used by the controller
+// "rows" is the number of rows of the currency_exchange table (the 3 rows of data.sql plus
+// generated ones).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExchangeLookupBenchmark {
+
+  @Param({"3", "1000"})
+  private int rows;
+
+  private ConfigurableApplicationContext context;
+  private CurrencyExchangeRepository repository;
+  private RateTableService rateTableService;
+
+  @Setup
+  public void setUp() {
+    context =
+        BenchmarkApplications.start(
+            CurrencyExchangeServiceApplication.class,
+            WebApplicationType.NONE,
+            "spring.cloud.gateway.enabled=false",
+            "spring.datasource.url=jdbc:h2:mem:benchmark",
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.jpa.show-sql=false");
+    repository = context.getBean(CurrencyExchangeRepository.class);
+    rateTableService = context.getBean(RateTableService.class);
+
+    List<CurrencyExchange> currencyExchanges = new ArrayList<>();
+    currencyExchanges.add(new CurrencyExchange(null, "USD", "CAD", new BigDecimal("1.29"), "0"));
+    currencyExchanges.add(new CurrencyExchange(null, "EUR", "CAD", new BigDecimal("1.34"), "0"));
+    currencyExchanges.add(new CurrencyExchange(null, "GBP", "CAD", new BigDecimal("1.58"), "0"));
+    for (int i = 3; i < rows; i++) {
+      // AAD, AAE... to XXX: unique pairs that are never looked up.
+      char[] from = {
+        (char) ('A' + i / 676 % 26), (char) ('A' + i / 26 % 26), (char) ('A' + i % 26)
+      };
+      currencyExchanges.add(
+          new CurrencyExchange(null, String.valueOf(from), "XXX", BigDecimal.ONE, "0"));
+    }
+    repository.saveAll(currencyExchanges);
+    rateTableService.refresh();
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public CurrencyExchange findByFromAndTo() {
+    return repository.findByFromAndTo("GBP", "CAD");
+  }
+
+  @Benchmark
+  public CurrencyExchange rateTable() {
+    return rateTableService.find("GBP", "CAD");
+  }
+}
@@ -0,0 +1,86 @@
+package com.mb.rest.webservices.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.CurrencyExchange;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable.CrossRateMatrix;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable.EncodedRate;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable.RateTableSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Body of the /currency-exchange/from/{from}/to/{to} response:
+//  - serializePerRequest: what the controller did before, a copy of the row carrying the port,
+//    written by Jackson on each call
+//  - preEncoded: the bytes the RateTableSnapshot encoded when it was built
+//  - preEncodedCrossRate: the same for a derived rate (encoded on its first lookup)
+// The bytes allocated per request are the gc.alloc.rate.norm lines of the GC profiler, e.g.
+//   mvn package exec:exec -Djmh.include=ExchangeResponse
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExchangeResponseBenchmark {
+
+  private static final String PORT = "8000";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private RateTableSnapshot snapshot;
+
+  @Setup
+  public void setUp() {
+    List<CurrencyExchange> rows =
+        List.of(
+            new CurrencyExchange(10001L, "USD", "CAD", new BigDecimal("1.29"), null),
+            new CurrencyExchange(10002L, "EUR", "CAD", new BigDecimal("1.34"), null),
+            new CurrencyExchange(10003L, "GBP", "CAD", new BigDecimal("1.58"), null));
+    snapshot =
+        RateTableSnapshot.of(
+            rows,
+            CrossRateMatrix.of(rows, "CAD"),
+            currencyExchange -> new EncodedRate(serialize(currencyExchange), null));
+  }
+
+  @Benchmark
+  public byte[] serializePerRequest() {
+    return serialize(snapshot.find("USD", "CAD"));
+  }
+
+  @Benchmark
+  public byte[] preEncoded() {
+    return snapshot.encoded("USD", "CAD").getJson();
+  }
+
+  @Benchmark
+  public byte[] preEncodedCrossRate() {
+    return snapshot.encoded("USD", "EUR").getJson();
+  }
+
+  private byte[] serialize(CurrencyExchange currencyExchange) {
+    try {
+      return objectMapper.writeValueAsBytes(
+          new CurrencyExchange(
+              currencyExchange.getId(),
+              currencyExchange.getFrom(),
+              currencyExchange.getTo(),
+              currencyExchange.getConversionMultiple(),
+              PORT));
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package com.mb.rest.webservices.benchmarks;
+
+import com.mb.rest.webservices.currencyexchangeservice.CurrencyExchangeServiceApplication;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.history.HistoricalRate;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.history.HistoricalRateRepository;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.history.HistoricalRateWriter;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.history.HistoryConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Load of a day of ticks (a rate per second of a pair: 86400 rows) into historical_rate, with an
+// H2 in-memory database:
+//  - writer: HistoricalRateWriter, JDBC batches of batchSize rows (1: a round trip per row)
+//  - saveAll: HistoricalRateRepository.saveAll, an insert per row through the persistence
+//    context (identity ids are never batched by Hibernate)
+// The table is emptied before every load. saveAll doesn't depend on batchSize.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HistoryIngestionBenchmark {
+
+  private static final int TICKS = 86_400;
+
+  @Param({"1", "1000"})
+  private int batchSize;
+
+  private ConfigurableApplicationContext context;
+  private HistoricalRateRepository repository;
+  private HistoricalRateWriter writer;
+  private JdbcTemplate jdbcTemplate;
+  private List<HistoricalRate> ticks;
+
+  @Setup
+  public void setUp() {
+    context =
+        BenchmarkApplications.start(
+            CurrencyExchangeServiceApplication.class,
+            WebApplicationType.NONE,
+            "spring.cloud.gateway.enabled=false",
+            "spring.datasource.url=jdbc:h2:mem:benchmark",
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.jpa.show-sql=false",
+            "currency-exchange.history.record-refreshes=false");
+    repository = context.getBean(HistoricalRateRepository.class);
+    writer = context.getBean(HistoricalRateWriter.class);
+    jdbcTemplate = context.getBean(JdbcTemplate.class);
+    context.getBean(HistoryConfiguration.class).setBatchSize(batchSize);
+
+    Instant start = Instant.parse("2022-05-01T00:00:00Z");
+    ticks = new ArrayList<>(TICKS);
+    for (int i = 0; i < TICKS; i++) {
+      BigDecimal multiple = BigDecimal.valueOf(129_000_000L + i % 1000, 8);
+      ticks.add(new HistoricalRate(null, "USD", "CAD", multiple, start.plusSeconds(i)));
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void emptyTable() {
+    jdbcTemplate.update("delete from historical_rate");
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public int writer() {
+    return writer.append(ticks);
+  }
+
+  @Benchmark
+  public int saveAll() {
+    // New entities every time: saveAll sets their ids, they would then be merged instead
+    List<HistoricalRate> entities = new ArrayList<>(ticks.size());
+    for (HistoricalRate tick : ticks) {
+      entities.add(
+          new HistoricalRate(
+              null,
+              tick.getFrom(),
+              tick.getTo(),
+              tick.getConversionMultiple(),
+              tick.getEffectiveAt()));
+    }
+    return repository.saveAll(entities).size();
+  }
+}
@@ -0,0 +1,89 @@
+package com.mb.rest.webservices.benchmarks;
+
+import com.mb.rest.webservices.apigateway.ApiGatewayApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.web.server.adapter.DefaultServerWebExchange;
+import org.springframework.web.server.i18n.AcceptHeaderLocaleContextResolver;
+import org.springframework.web.server.i18n.LocaleContextResolver;
+import org.springframework.web.server.session.DefaultWebSessionManager;
+import org.springframework.web.server.session.WebSessionManager;
+
+import java.util.concurrent.TimeUnit;
+
+// Route resolution of the api-gateway: the RoutePredicateHandlerMapping evaluates the path
+// predicates of the routes of ApiGatewayConfiguration, in order, until one matches.
+// One request path per route (the later the route, the more predicates are evaluated).
+// The time includes the creation of the (mock) exchange, but its session manager, codecs and
+// locale resolver are shared: MockServerWebExchange.from creates new ones for every exchange,
+// which costs far more than the route lookup itself.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteMatchingBenchmark {
+
+  @Param({
+    "/get",
+    "/currency-exchange/from/USD/to/CAD",
+    "/currency-conversion/from/USD/to/CAD/quantity/10",
+    "/currency-conversion-feign/from/USD/to/CAD/quantity/10",
+    "/currency-conversion-new/from/USD/to/CAD/quantity/10"
+  })
+  private String path;
+
+  private ConfigurableApplicationContext context;
+  private RoutePredicateHandlerMapping handlerMapping;
+  private final WebSessionManager sessionManager = new DefaultWebSessionManager();
+  private final ServerCodecConfigurer codecConfigurer = ServerCodecConfigurer.create();
+  private final LocaleContextResolver localeResolver = new AcceptHeaderLocaleContextResolver();
+
+  @Setup
+  public void setUp() {
+    context =
+        BenchmarkApplications.start(
+            ApiGatewayApplication.class,
+            WebApplicationType.REACTIVE,
+            "server.port=0",
+            "spring.autoconfigure.exclude="
+                + "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration,"
+                + "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration",
+            "api-gateway.access-log.enabled=false");
+    handlerMapping = context.getBean(RoutePredicateHandlerMapping.class);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Object lookupRoute() {
+    DefaultServerWebExchange exchange =
+        new DefaultServerWebExchange(
+            MockServerHttpRequest.get(path).build(),
+            new MockServerHttpResponse(),
+            sessionManager,
+            codecConfigurer,
+            localeResolver);
+    return handlerMapping.getHandler(exchange).block();
+  }
+}
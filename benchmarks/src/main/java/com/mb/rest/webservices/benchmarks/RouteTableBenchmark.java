@@ -0,0 +1,102 @@
+package com.mb.rest.webservices.benchmarks;
+
+import com.mb.rest.webservices.apigateway.routing.RoutingConfiguration;
+import com.mb.rest.webservices.apigateway.routing.TrieRoutePredicateHandlerMapping;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.CachingRouteLocator;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.web.server.adapter.DefaultServerWebExchange;
+import org.springframework.web.server.i18n.AcceptHeaderLocaleContextResolver;
+import org.springframework.web.server.i18n.LocaleContextResolver;
+import org.springframework.web.server.session.DefaultWebSessionManager;
+import org.springframework.web.server.session.WebSessionManager;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Route resolution with a growing route table: the RoutePredicateHandlerMapping of Spring Cloud
+// Gateway (predicates: every route is evaluated in order until one matches) against the trie of
+// the api-gateway (api-gateway.routing.mode=trie: only the routes of the path are evaluated).
+// The routes are /service-{i}/** and /service-{i}/items/{id}, the request is for the last one,
+// the worst case of the predicates. Same exchange construction as RouteMatchingBenchmark.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteTableBenchmark {
+
+  @Param({"10", "100", "1000"})
+  private int routes;
+
+  @Param({"predicates", "trie"})
+  private String mode;
+
+  private RoutePredicateHandlerMapping handlerMapping;
+  private String path;
+  private final WebSessionManager sessionManager = new DefaultWebSessionManager();
+  private final ServerCodecConfigurer codecConfigurer = ServerCodecConfigurer.create();
+  private final LocaleContextResolver localeResolver = new AcceptHeaderLocaleContextResolver();
+
+  @Setup
+  public void setUp() {
+    PathRoutePredicateFactory pathPredicate = new PathRoutePredicateFactory();
+    List<Route> routeTable = new ArrayList<>();
+    for (int i = 0; i < routes; i++) {
+      String pattern = i % 2 == 0 ? "/service-" + i + "/items/{id}" : "/service-" + i + "/**";
+      routeTable.add(
+          Route.async()
+              .id("route-" + i)
+              .uri("http://localhost:8000")
+              .asyncPredicate(pathPredicate.applyAsync(c -> c.setPatterns(List.of(pattern))))
+              .build());
+    }
+    path = "/service-" + (routes - 1) + "/items/42";
+    RouteLocator routeLocator = new CachingRouteLocator(() -> Flux.fromIterable(routeTable));
+    FilteringWebHandler webHandler = new FilteringWebHandler(List.of());
+    handlerMapping =
+        "trie".equals(mode)
+            ? new TrieRoutePredicateHandlerMapping(
+                webHandler,
+                routeLocator,
+                new GlobalCorsProperties(),
+                new StandardEnvironment(),
+                new RoutingConfiguration())
+            : new RoutePredicateHandlerMapping(
+                webHandler, routeLocator, new GlobalCorsProperties(), new StandardEnvironment());
+  }
+
+  @Benchmark
+  public Object lookupRoute() {
+    DefaultServerWebExchange exchange =
+        new DefaultServerWebExchange(
+            MockServerHttpRequest.get(path).build(),
+            new MockServerHttpResponse(),
+            sessionManager,
+            codecConfigurer,
+            localeResolver);
+    return handlerMapping.getHandler(exchange).block();
+  }
+}
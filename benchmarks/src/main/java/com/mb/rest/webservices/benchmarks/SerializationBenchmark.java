@@ -0,0 +1,80 @@
+package com.mb.rest.webservices.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mb.rest.webservices.currencyconversionservice.conversion.CurrencyConversion;
+import com.mb.rest.webservices.currencyconversionservice.conversion.wire.CompactRate;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.CurrencyExchange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Jackson work done for every conversion:
+//  - writeCurrencyExchange: currency-exchange writing its response
+//  - readCurrencyConversion: currency-conversion reading it (Feign / RestTemplate decoder)
+//  - readCompactCurrencyConversion: the same with the CompactRate encoding
+//    (currency-conversion.wire-format.compact=true)
+//  - writeCurrencyConversion: currency-conversion writing its own response
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private CurrencyExchange currencyExchange;
+  private CurrencyConversion currencyConversion;
+  private byte[] currencyExchangeJson;
+  private byte[] currencyExchangeCompact;
+
+  @Setup
+  public void setUp() throws Exception {
+    currencyExchange =
+        new CurrencyExchange(10001L, "USD", "CAD", new BigDecimal("1.29"), "8000");
+    currencyConversion =
+        new CurrencyConversion(
+            10001L,
+            "USD",
+            "CAD",
+            new BigDecimal("100"),
+            new BigDecimal("1.29"),
+            new BigDecimal("129.00"),
+            "8000 feign");
+    currencyExchangeJson = objectMapper.writeValueAsBytes(currencyExchange);
+    currencyExchangeCompact =
+        com.mb.rest.webservices.currencyexchangeservice.currencyexchange.wire.CompactRate.encode(
+            currencyExchange);
+  }
+
+  @Benchmark
+  public byte[] writeCurrencyExchange() throws Exception {
+    return objectMapper.writeValueAsBytes(currencyExchange);
+  }
+
+  @Benchmark
+  public CurrencyConversion readCurrencyConversion() throws Exception {
+    return objectMapper.readValue(currencyExchangeJson, CurrencyConversion.class);
+  }
+
+  @Benchmark
+  public CurrencyConversion readCompactCurrencyConversion() {
+    return CompactRate.decode(currencyExchangeCompact);
+  }
+
+  @Benchmark
+  public byte[] writeCurrencyConversion() throws Exception {
+    return objectMapper.writeValueAsBytes(currencyConversion);
+  }
+}
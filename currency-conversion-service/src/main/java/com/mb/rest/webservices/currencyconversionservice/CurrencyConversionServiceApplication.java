@@ -2,6 +2,7 @@ package com.mb.rest.webservices.currencyconversionservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 
 @SpringBootApplication
@@ -9,6 +10,10 @@ import org.springframework.cloud.openfeign.EnableFeignClients;
 public class CurrencyConversionServiceApplication {
 
   public static void main(String[] args) {
-    SpringApplication.run(CurrencyConversionServiceApplication.class, args);
+    SpringApplication application =
+        new SpringApplication(CurrencyConversionServiceApplication.class);
+    // Startup steps recorded for StartupReport and /actuator/startup
+    application.setApplicationStartup(new BufferingApplicationStartup(8192));
+    application.run(args);
   }
 }
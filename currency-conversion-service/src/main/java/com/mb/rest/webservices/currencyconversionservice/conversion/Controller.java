@@ -1,6 +1,10 @@
 package com.mb.rest.webservices.currencyconversionservice.conversion;
 
+import com.mb.rest.webservices.currencyconversionservice.conversion.cache.CurrencyExchangeCache;
+import com.mb.rest.webservices.currencyconversionservice.conversion.client.ExchangeClientConfiguration;
+import com.mb.rest.webservices.currencyconversionservice.conversion.stream.RateReplica;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -10,10 +14,25 @@ import org.springframework.web.client.RestTemplate;
 import java.math.BigDecimal;
 import java.util.HashMap;
 
+// Blocking mode (the default), see ReactiveController for currency-conversion.client.mode=reactive
 @RestController
+@ConditionalOnProperty(
+    name = "currency-conversion.client.mode",
+    havingValue = "blocking",
+    matchIfMissing = true)
 public class Controller {
 
-  @Autowired CurrencyExchangeProxy currencyExchangeProxy;
+  // Local cache of the rates (currency-conversion.cache), the misses go through
+  // CurrencyExchangeProxy, merging the concurrent lookups into bulk calls
+  // when currency-conversion.batching.enabled=true
+  @Autowired CurrencyExchangeCache currencyExchangeCache;
+
+  // Rates pushed by currency-exchange (currency-conversion.rate-stream.transport), looked up first
+  @Autowired RateReplica rateReplica;
+
+  // Shared RestTemplate (see ExchangeClients), the connections are reused between the requests.
+  @Autowired RestTemplate restTemplate;
+  @Autowired ExchangeClientConfiguration exchangeClientConfiguration;
 
   // For leaning purposes, we will leave
   // both methods (calculateConvertCurrencyRESTemplate & calculateConvertCurrencyFeign).
@@ -61,11 +80,10 @@ public class Controller {
 
     // This is meant for learning purposes (no validation has been added)
     ResponseEntity<CurrencyConversion> responseEntity =
-        new RestTemplate()
-            .getForEntity(
-                "http://currency-exchange:8000/currency-exchange/from/{from}/to/{to}",
-                CurrencyConversion.class,
-                uriVariable);
+        restTemplate.getForEntity(
+            exchangeClientConfiguration.getDirectUrl() + "/currency-exchange/from/{from}/to/{to}",
+            CurrencyConversion.class,
+            uriVariable);
 
     CurrencyConversion currencyConversion = responseEntity.getBody();
 
@@ -85,7 +103,10 @@ public class Controller {
       @PathVariable String from, @PathVariable String to, @PathVariable BigDecimal quantity) {
 
     // This is meant for learning purposes (no validation has been added)
-    CurrencyConversion currencyConversion = currencyExchangeProxy.retrieveExchangeValue(from, to);
+    CurrencyConversion currencyConversion = rateReplica.find(from, to);
+    if (currencyConversion == null) {
+      currencyConversion = currencyExchangeCache.retrieveExchangeValue(from, to);
+    }
 
     return new CurrencyConversion(
         currencyConversion.getId(),
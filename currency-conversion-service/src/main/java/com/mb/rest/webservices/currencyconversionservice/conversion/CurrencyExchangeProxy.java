@@ -3,6 +3,10 @@ package com.mb.rest.webservices.currencyconversionservice.conversion;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.List;
 
 // Typically, we would use the application name of the service that we would want to call
 // In our case the microService that we want to call has the property name:
@@ -19,4 +23,8 @@ public interface CurrencyExchangeProxy {
   @GetMapping("/currency-exchange/from/{from}/to/{to}")
   CurrencyConversion retrieveExchangeValue(
       @PathVariable String from, @PathVariable String to);
+
+  // Many pairs in one round trip, the unknown pairs are left out of the response.
+  @PostMapping("/currency-exchange/bulk")
+  List<CurrencyConversion> retrieveExchangeValues(@RequestBody List<CurrencyPair> pairs);
 }
@@ -0,0 +1,16 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// One (from, to) entry of a bulk request sent to currency-exchange (/currency-exchange/bulk)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CurrencyPair {
+  private String from;
+  private String to;
+}
@@ -0,0 +1,84 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion;
+
+import com.mb.rest.webservices.currencyconversionservice.conversion.stream.RateReplica;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+// Non-blocking version of Controller, enabled with currency-conversion.client.mode=reactive.
+// The methods return a Mono: Spring MVC releases the servlet thread while the call to
+// currency-exchange is in flight, and completes the response when the Mono emits.
+// So slow currency-exchange responses don't saturate the Tomcat thread pool anymore.
+@RestController
+@ConditionalOnProperty(name = "currency-conversion.client.mode", havingValue = "reactive")
+public class ReactiveController {
+
+  private static final String EXCHANGE_URI = "/currency-exchange/from/{from}/to/{to}";
+
+  @Autowired
+  @Qualifier("directExchangeWebClient")
+  WebClient directExchangeWebClient;
+
+  @Autowired
+  @Qualifier("loadBalancedExchangeWebClient")
+  WebClient loadBalancedExchangeWebClient;
+
+  // Rates pushed by currency-exchange (currency-conversion.rate-stream.transport), looked up first
+  @Autowired RateReplica rateReplica;
+
+  @GetMapping("/currency-conversion/from/{from}/to/{to}/quantity/{quantity}")
+  // http://localhost:8100/currency-conversion/from/USD/to/CAD/quantity/100
+  public Mono<CurrencyConversion> calculateConvertCurrencyWebClient(
+      @PathVariable String from, @PathVariable String to, @PathVariable BigDecimal quantity) {
+
+    return convert(directExchangeWebClient, from, to, quantity, " web client");
+  }
+
+  @GetMapping("/currency-conversion-feign/from/{from}/to/{to}/quantity/{quantity}")
+  // http://localhost:8100/currency-conversion-feign/from/USD/to/CAD/quantity/100
+  public Mono<CurrencyConversion> calculateConvertCurrencyLoadBalancedWebClient(
+      @PathVariable String from, @PathVariable String to, @PathVariable BigDecimal quantity) {
+
+    CurrencyConversion replicated = rateReplica.find(from, to);
+    if (replicated != null) {
+      return Mono.just(converted(replicated, from, to, quantity, " web client load balanced"));
+    }
+    // Same Eureka client-side load balancing as the Feign client, but non-blocking.
+    return convert(loadBalancedExchangeWebClient, from, to, quantity, " web client load balanced");
+  }
+
+  private Mono<CurrencyConversion> convert(
+      WebClient webClient, String from, String to, BigDecimal quantity, String client) {
+
+    // This is meant for learning purposes (no validation has been added)
+    return webClient
+        .get()
+        .uri(EXCHANGE_URI, from, to)
+        .retrieve()
+        .bodyToMono(CurrencyConversion.class)
+        .map(currencyConversion -> converted(currencyConversion, from, to, quantity, client));
+  }
+
+  private static CurrencyConversion converted(
+      CurrencyConversion currencyConversion,
+      String from,
+      String to,
+      BigDecimal quantity,
+      String client) {
+    return new CurrencyConversion(
+        currencyConversion.getId(),
+        from,
+        to,
+        quantity,
+        currencyConversion.getConversionMultiple(),
+        quantity.multiply(currencyConversion.getConversionMultiple()),
+        currencyConversion.getEnvironment() + client);
+  }
+}
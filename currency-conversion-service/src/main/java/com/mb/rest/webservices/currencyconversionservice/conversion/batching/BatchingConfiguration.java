@@ -0,0 +1,22 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.batching;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("currency-conversion.batching")
+public class BatchingConfiguration {
+  // When disabled, every lookup is a single Feign call (the original behavior).
+  private boolean enabled = false;
+  // How long (in milliseconds) we wait for other lookups before sending the bulk request.
+  private long windowMillis = 5;
+  // Maximum number of pairs sent in one bulk request.
+  private int maxBatchSize = 100;
+  // Threads doing the bulk calls, and batches waiting for one of them (the next ones fail).
+  private int callThreads = 16;
+  private int callQueueSize = 100;
+}
@@ -0,0 +1,221 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.batching;
+
+import com.mb.rest.webservices.currencyconversionservice.conversion.CurrencyConversion;
+import com.mb.rest.webservices.currencyconversionservice.conversion.CurrencyExchangeProxy;
+import com.mb.rest.webservices.currencyconversionservice.conversion.CurrencyPair;
+import feign.Request;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.openfeign.FeignClientProperties;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Request coalescing in front of CurrencyExchangeProxy.
+// The single-pair lookups arriving within a short window (currency-conversion.batching.window-millis)
+// are merged into one call to /currency-exchange/bulk. Concurrent lookups of the same pair share
+// the same pending result, so a pair is only requested once per window.
+// A lookup fails once the Feign timeouts of currency-exchange are over (plus the window), so a
+// caller is never held longer than a single Feign call would hold it.
+@Component
+public class CurrencyExchangeBatcher {
+
+  private final Logger logger = LoggerFactory.getLogger(CurrencyExchangeBatcher.class);
+
+  @Autowired private CurrencyExchangeProxy currencyExchangeProxy;
+  @Autowired private BatchingConfiguration configuration;
+  // The feign.client.config properties, for the timeouts of the currency-exchange client
+  @Autowired private ObjectProvider<FeignClientProperties> feignClientProperties;
+
+  private final Map<String, PendingLookup> pending = new ConcurrentHashMap<>();
+  private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+  private ScheduledExecutorService scheduler;
+  // The bulk calls are blocking (Feign), they are not executed on the scheduler thread
+  // so that the next window can be flushed while a call is in flight.
+  // Bounded: when currency-exchange is slow, the batches beyond call-threads wait in a queue of
+  // call-queue-size, the ones beyond are failed instead of starting more threads.
+  private ExecutorService callExecutor;
+  private long lookupTimeoutMillis;
+
+  @PostConstruct
+  public void start() {
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(daemonThread("exchange-batch-scheduler"));
+    callExecutor =
+        new ThreadPoolExecutor(
+            configuration.getCallThreads(),
+            configuration.getCallThreads(),
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(configuration.getCallQueueSize()),
+            daemonThread("exchange-batch-call"));
+    lookupTimeoutMillis = configuration.getWindowMillis() + feignTimeoutMillis();
+  }
+
+  public CurrencyConversion retrieveExchangeValue(String from, String to) {
+    if (!configuration.isEnabled()) {
+      return currencyExchangeProxy.retrieveExchangeValue(from, to);
+    }
+    try {
+      // Completed by the timeout of the lookup at the latest
+      return submit(from, to).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  // Asynchronous version of retrieveExchangeValue, when batching is disabled the Feign call is
+  // executed on the given executor.
+  public CompletableFuture<CurrencyConversion> retrieveExchangeValueAsync(
+      String from, String to, Executor executor) {
+    if (!configuration.isEnabled()) {
+      return CompletableFuture.supplyAsync(
+          () -> currencyExchangeProxy.retrieveExchangeValue(from, to), executor);
+    }
+    return submit(from, to);
+  }
+
+  public CompletableFuture<CurrencyConversion> submit(String from, String to) {
+    PendingLookup lookup =
+        pending.computeIfAbsent(
+            from + "/" + to, key -> new PendingLookup(from, to, lookupTimeoutMillis));
+    if (flushScheduled.compareAndSet(false, true)) {
+      scheduler.schedule(this::flush, configuration.getWindowMillis(), TimeUnit.MILLISECONDS);
+    }
+    return lookup.result;
+  }
+
+  private void flush() {
+    // Reset the flag before draining: a lookup added after this point either is drained below
+    // or schedules the next flush itself.
+    flushScheduled.set(false);
+
+    List<PendingLookup> batch = new ArrayList<>();
+    for (String key : pending.keySet()) {
+      PendingLookup lookup = pending.remove(key);
+      if (lookup != null) {
+        batch.add(lookup);
+      }
+      if (batch.size() == configuration.getMaxBatchSize()) {
+        dispatch(batch);
+        batch = new ArrayList<>();
+      }
+    }
+    if (!batch.isEmpty()) {
+      dispatch(batch);
+    }
+  }
+
+  private void dispatch(List<PendingLookup> batch) {
+    try {
+      callExecutor.execute(() -> call(batch));
+    } catch (RejectedExecutionException e) {
+      // All the call threads busy and the queue full, or shutting down
+      logger.warn("Bulk exchange call rejected for {} pairs", batch.size());
+      batch.forEach(lookup -> lookup.result.completeExceptionally(e));
+    }
+  }
+
+  private void call(List<PendingLookup> batch) {
+    List<CurrencyPair> pairs = new ArrayList<>(batch.size());
+    for (PendingLookup lookup : batch) {
+      pairs.add(new CurrencyPair(lookup.from, lookup.to));
+    }
+
+    List<CurrencyConversion> currencyConversions;
+    try {
+      currencyConversions = currencyExchangeProxy.retrieveExchangeValues(pairs);
+    } catch (RuntimeException e) {
+      logger.warn("Bulk exchange call failed for {} pairs", pairs.size(), e);
+      batch.forEach(lookup -> lookup.result.completeExceptionally(e));
+      return;
+    }
+
+    Map<String, CurrencyConversion> byPair = new HashMap<>();
+    for (CurrencyConversion currencyConversion : currencyConversions) {
+      byPair.put(
+          currencyConversion.getFrom() + "/" + currencyConversion.getTo(), currencyConversion);
+    }
+    for (PendingLookup lookup : batch) {
+      CurrencyConversion currencyConversion = byPair.get(lookup.from + "/" + lookup.to);
+      if (currencyConversion != null) {
+        lookup.result.complete(currencyConversion);
+      } else {
+        lookup.result.completeExceptionally(
+            new RuntimeException("Unable to find data for " + lookup.from + "to " + lookup.to));
+      }
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdown();
+    callExecutor.shutdown();
+  }
+
+  // Connect and read timeouts of the currency-exchange Feign client: its own configuration, else
+  // the default one, else the Feign defaults
+  private long feignTimeoutMillis() {
+    Request.Options defaults = new Request.Options();
+    long connectTimeout = defaults.connectTimeoutMillis();
+    long readTimeout = defaults.readTimeoutMillis();
+    FeignClientProperties properties = feignClientProperties.getIfAvailable();
+    if (properties != null) {
+      for (String name : List.of(properties.getDefaultConfig(), "currency-exchange")) {
+        FeignClientProperties.FeignClientConfiguration client = properties.getConfig().get(name);
+        if (client != null && client.getConnectTimeout() != null) {
+          connectTimeout = client.getConnectTimeout();
+        }
+        if (client != null && client.getReadTimeout() != null) {
+          readTimeout = client.getReadTimeout();
+        }
+      }
+    }
+    return connectTimeout + readTimeout;
+  }
+
+  private static ThreadFactory daemonThread(String name) {
+    return runnable -> {
+      Thread thread = new Thread(runnable, name);
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  private static final class PendingLookup {
+    private final String from;
+    private final String to;
+    private final CompletableFuture<CurrencyConversion> result = new CompletableFuture<>();
+
+    private PendingLookup(String from, String to, long timeoutMillis) {
+      this.from = from;
+      this.to = to;
+      // Shared by the concurrent lookups of the pair, they all wait for the same call
+      result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+}
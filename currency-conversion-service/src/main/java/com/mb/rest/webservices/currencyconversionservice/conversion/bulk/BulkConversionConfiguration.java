@@ -0,0 +1,20 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.bulk;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("currency-conversion.bulk-conversion")
+public class BulkConversionConfiguration {
+  // Rows per chunk: a chunk is converted by one thread, and written (then flushed) at once.
+  private int chunkSize = 1024;
+  // Threads converting the chunks, shared by all the bulk requests. 0: one per core.
+  private int parallelism = 0;
+  // Chunks of a request read ahead of the one being written, per thread. With the chunk size,
+  // it bounds the memory of a request, whatever the size of its body.
+  private int chunksInFlightPerThread = 2;
+}
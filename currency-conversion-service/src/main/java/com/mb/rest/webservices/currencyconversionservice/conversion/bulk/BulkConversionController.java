@@ -0,0 +1,46 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+public class BulkConversionController {
+
+  private final Logger logger = LoggerFactory.getLogger(BulkConversionController.class);
+
+  @Autowired BulkConversionService bulkConversionService;
+  @Autowired ObjectMapper objectMapper;
+
+  // Many conversions in one request, streamed both ways: the body is read as it arrives and the
+  // results are sent back chunk by chunk, in the order of the rows. e.g.
+  // curl -X POST -T rows.ndjson -H "Content-Type: application/x-ndjson" \
+  //   http://localhost:8100/currency-conversion/bulk
+  // The body is not bound to objects (InputStream): it would have to be read entirely first.
+  @PostMapping(
+      path = "/currency-conversion/bulk",
+      consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+  public void convertBulk(
+      @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+      InputStream body,
+      HttpServletResponse response)
+      throws IOException {
+
+    BulkFormat format = BulkFormat.of(MediaType.parseMediaType(contentType));
+    response.setContentType(format.getMediaType().toString());
+    long rows =
+        bulkConversionService.convert(
+            format.reader(body, objectMapper.getFactory()), format, response.getOutputStream());
+    logger.info("convertBulk converted {} rows", rows);
+  }
+}
@@ -0,0 +1,163 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.bulk;
+
+import com.mb.rest.webservices.currencyconversionservice.conversion.CurrencyConversion;
+import com.mb.rest.webservices.currencyconversionservice.conversion.bulk.ConversionChunk.PairRate;
+import com.mb.rest.webservices.currencyconversionservice.conversion.cache.CurrencyExchangeCache;
+import com.mb.rest.webservices.currencyconversionservice.conversion.stream.RateReplica;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Conversion of a stream of rows (see BulkFormat), for the jobs which have millions of them:
+//  - the request thread reads the body a chunk at a time, and resolves the rate of each pair the
+//    first time it appears (RateReplica, then CurrencyExchangeCache): once per request, not once
+//    per row
+//  - the chunks are converted and written to bytes in parallel, by the conversion threads
+//  - the request thread writes them to the response in their order, and flushes each one: the
+//    client gets the first results while it's still sending the rows.
+// At most chunks-in-flight-per-thread x parallelism chunks of a request are in memory: reading
+// waits for the writing, the memory doesn't depend on the size of the body.
+@Service
+public class BulkConversionService {
+
+  private final Logger logger = LoggerFactory.getLogger(BulkConversionService.class);
+
+  private final RateReplica rateReplica;
+  private final CurrencyExchangeCache currencyExchangeCache;
+  private final BulkConversionConfiguration configuration;
+  private final int parallelism;
+  private final ExecutorService conversionExecutor;
+
+  public BulkConversionService(
+      RateReplica rateReplica,
+      CurrencyExchangeCache currencyExchangeCache,
+      BulkConversionConfiguration configuration) {
+    this.rateReplica = rateReplica;
+    this.currencyExchangeCache = currencyExchangeCache;
+    this.configuration = configuration;
+    this.parallelism =
+        configuration.getParallelism() > 0
+            ? configuration.getParallelism()
+            : Runtime.getRuntime().availableProcessors();
+
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("bulk-conversion-");
+    threadFactory.setDaemon(true);
+    this.conversionExecutor = Executors.newFixedThreadPool(parallelism, threadFactory);
+  }
+
+  // Returns the number of rows read. An unreadable body (malformed JSON) ends the response with
+  // an error row: the rows before it have already been answered.
+  public long convert(RowReader reader, BulkFormat format, OutputStream out) throws IOException {
+    int maxInFlight = Math.max(1, parallelism * configuration.getChunksInFlightPerThread());
+    Deque<Future<byte[]>> inFlight = new ArrayDeque<>();
+    // Empty: the pair is unknown to currency-exchange
+    Map<String, Optional<PairRate>> rates = new HashMap<>();
+    long rows = 0;
+    out.write(format.header().getBytes(StandardCharsets.US_ASCII));
+    try {
+      boolean more = true;
+      while (more) {
+        ConversionChunk chunk = new ConversionChunk(configuration.getChunkSize());
+        try {
+          more = reader.read(chunk);
+        } catch (IOException e) {
+          more = false;
+          long failedRow = rows + chunk.size() + 1;
+          logger.info("Bulk conversion stopped at row {}: {}", failedRow, e.getMessage());
+          chunk.reject(failedRow, "unreadable body");
+        }
+        if (chunk.size() == 0) {
+          break;
+        }
+        rows += chunk.size();
+        resolveRates(chunk, rates);
+        inFlight.addLast(
+            conversionExecutor.submit(
+                () -> {
+                  chunk.convert();
+                  return chunk.write(format);
+                }));
+        while (inFlight.size() >= maxInFlight) {
+          writeFirst(inFlight, out);
+        }
+      }
+      while (!inFlight.isEmpty()) {
+        writeFirst(inFlight, out);
+      }
+    } finally {
+      // The client has gone (or a conversion failed): the chunks still queued are not needed
+      for (Future<byte[]> pending : inFlight) {
+        pending.cancel(false);
+      }
+    }
+    return rows;
+  }
+
+  private void resolveRates(ConversionChunk chunk, Map<String, Optional<PairRate>> rates) {
+    for (int i = 0; i < chunk.size(); i++) {
+      if (chunk.isRejected(i)) {
+        continue;
+      }
+      String from = chunk.from(i);
+      String to = chunk.to(i);
+      Optional<PairRate> rate = rates.get(from + to);
+      if (rate == null) {
+        rate = Optional.ofNullable(retrieveRate(from, to));
+        rates.put(from + to, rate);
+      }
+      chunk.setRate(i, rate.orElse(null));
+    }
+  }
+
+  private PairRate retrieveRate(String from, String to) {
+    CurrencyConversion currencyConversion = rateReplica.find(from, to);
+    if (currencyConversion == null) {
+      try {
+        currencyConversion = currencyExchangeCache.retrieveExchangeValue(from, to);
+      } catch (RuntimeException e) {
+        // The rows of the pair are answered with an error, the other ones are still converted
+        logger.info("No rate for {} to {}: {}", from, to, e.getMessage());
+        return null;
+      }
+    }
+    if (currencyConversion == null || currencyConversion.getConversionMultiple() == null) {
+      return null;
+    }
+    return new PairRate(currencyConversion.getConversionMultiple());
+  }
+
+  private static void writeFirst(Deque<Future<byte[]>> inFlight, OutputStream out)
+      throws IOException {
+    byte[] bytes;
+    try {
+      bytes = inFlight.removeFirst().get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted bulk conversion", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Bulk conversion failed", e.getCause());
+    }
+    out.write(bytes);
+    out.flush();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    conversionExecutor.shutdown();
+  }
+}
@@ -0,0 +1,166 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.bulk;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+// The formats of /currency-conversion/bulk, the response has the format of the request:
+//  - NDJSON, a JSON object per line:
+//    {"from":"USD","to":"CAD","quantity":100}
+//    -> {"row":1,"from":"USD","to":"CAD","quantity":100,"conversionMultiple":1.29,
+//        "totalCalculatedAmount":129.00}
+//  - CSV, "from,to,quantity" lines (the header line is optional):
+//    USD,CAD,100
+//    -> row,from,to,quantity,conversionMultiple,totalCalculatedAmount,error
+//       1,USD,CAD,100,1.29,129.00,
+// A row which can't be converted is answered with its error, e.g. {"row":2,"error":"unknown pair"}
+// The numbers are written in plain notation, as BigDecimal.toPlainString.
+public enum BulkFormat {
+  NDJSON(MediaType.APPLICATION_NDJSON) {
+    @Override
+    public RowReader reader(InputStream body, JsonFactory jsonFactory) throws IOException {
+      JsonParser parser = jsonFactory.createParser(body);
+      long[] row = {0};
+      return chunk -> {
+        while (!chunk.isFull()) {
+          JsonToken token = parser.nextToken();
+          if (token == null) {
+            return false;
+          }
+          row[0]++;
+          if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            chunk.reject(row[0], "not an object");
+            continue;
+          }
+          String from = null;
+          String to = null;
+          String quantity = null;
+          while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("from".equals(field) && value == JsonToken.VALUE_STRING) {
+              from = parser.getText();
+            } else if ("to".equals(field) && value == JsonToken.VALUE_STRING) {
+              to = parser.getText();
+            } else if ("quantity".equals(field) && value.isScalarValue()) {
+              // The number as written: no double, no BigDecimal when it fits in a long
+              quantity = parser.getText();
+            } else {
+              parser.skipChildren();
+            }
+          }
+          chunk.add(row[0], from, to, quantity);
+        }
+        return true;
+      };
+    }
+
+    @Override
+    void writeRow(StringBuilder out, ConversionChunk chunk, int i) {
+      out.append("{\"row\":").append(chunk.row(i));
+      out.append(",\"from\":\"").append(chunk.from(i));
+      out.append("\",\"to\":\"").append(chunk.to(i));
+      out.append("\",\"quantity\":");
+      chunk.appendQuantity(out, i);
+      out.append(",\"conversionMultiple\":");
+      chunk.appendConversionMultiple(out, i);
+      out.append(",\"totalCalculatedAmount\":");
+      chunk.appendTotal(out, i);
+      out.append("}\n");
+    }
+
+    @Override
+    void writeError(StringBuilder out, long row, String error) {
+      out.append("{\"row\":").append(row).append(",\"error\":\"").append(error).append("\"}\n");
+    }
+  },
+
+  CSV(MediaType.parseMediaType("text/csv")) {
+    @Override
+    public RowReader reader(InputStream body, JsonFactory jsonFactory) {
+      BufferedReader reader =
+          new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+      long[] row = {0};
+      return chunk -> {
+        while (!chunk.isFull()) {
+          String line = reader.readLine();
+          if (line == null) {
+            return false;
+          }
+          if (line.isBlank() || (row[0] == 0 && line.regionMatches(true, 0, "from,", 0, 5))) {
+            continue;
+          }
+          row[0]++;
+          String[] fields = line.split(",", -1);
+          if (fields.length != 3) {
+            chunk.reject(row[0], "expected from,to,quantity");
+          } else {
+            chunk.add(row[0], fields[0].trim(), fields[1].trim(), fields[2].trim());
+          }
+        }
+        return true;
+      };
+    }
+
+    @Override
+    String header() {
+      return "row,from,to,quantity,conversionMultiple,totalCalculatedAmount,error\n";
+    }
+
+    @Override
+    void writeRow(StringBuilder out, ConversionChunk chunk, int i) {
+      out.append(chunk.row(i)).append(',');
+      out.append(chunk.from(i)).append(',');
+      out.append(chunk.to(i)).append(',');
+      chunk.appendQuantity(out, i);
+      out.append(',');
+      chunk.appendConversionMultiple(out, i);
+      out.append(',');
+      chunk.appendTotal(out, i);
+      out.append(",\n");
+    }
+
+    @Override
+    void writeError(StringBuilder out, long row, String error) {
+      out.append(row).append(",,,,,,").append(error).append('\n');
+    }
+  };
+
+  private final MediaType mediaType;
+
+  BulkFormat(MediaType mediaType) {
+    this.mediaType = mediaType;
+  }
+
+  public MediaType getMediaType() {
+    return mediaType;
+  }
+
+  // null when the content type is neither NDJSON nor CSV
+  public static BulkFormat of(MediaType contentType) {
+    for (BulkFormat format : values()) {
+      if (format.mediaType.includes(contentType)) {
+        return format;
+      }
+    }
+    return null;
+  }
+
+  public abstract RowReader reader(InputStream body, JsonFactory jsonFactory) throws IOException;
+
+  String header() {
+    return "";
+  }
+
+  abstract void writeRow(StringBuilder out, ConversionChunk chunk, int i);
+
+  abstract void writeError(StringBuilder out, long row, String error);
+}
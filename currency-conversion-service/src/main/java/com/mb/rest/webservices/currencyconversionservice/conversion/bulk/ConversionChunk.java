@@ -0,0 +1,204 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.bulk;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+// A block of rows of a bulk conversion, read in order by the request thread, then converted and
+// written to bytes by a worker (see BulkConversionService).
+// The rows are stored column by column in arrays (no object per row): the conversion is a loop
+// over long arrays, and the memory of a chunk is allocated once for all its rows.
+final class ConversionChunk {
+
+  private final int capacity;
+  private int size;
+
+  private final long[] rows;
+  private final String[] from;
+  private final String[] to;
+  // quantity = quantityUnscaled x 10^-quantityScale, or quantityDecimal when it doesn't fit
+  private final long[] quantityUnscaled;
+  private final int[] quantityScale;
+  private final BigDecimal[] quantityDecimal;
+  private final PairRate[] rates;
+  private final long[] totalUnscaled;
+  private final int[] totalScale;
+  private final BigDecimal[] totalDecimal;
+  // Rows which can't be converted: the reason, written instead of the amounts
+  private final String[] errors;
+
+  ConversionChunk(int capacity) {
+    this.capacity = capacity;
+    this.rows = new long[capacity];
+    this.from = new String[capacity];
+    this.to = new String[capacity];
+    this.quantityUnscaled = new long[capacity];
+    this.quantityScale = new int[capacity];
+    this.quantityDecimal = new BigDecimal[capacity];
+    this.rates = new PairRate[capacity];
+    this.totalUnscaled = new long[capacity];
+    this.totalScale = new int[capacity];
+    this.totalDecimal = new BigDecimal[capacity];
+    this.errors = new String[capacity];
+  }
+
+  boolean isFull() {
+    return size == capacity;
+  }
+
+  int size() {
+    return size;
+  }
+
+  // row: number of the row in the body, from 1. Returns false when the row is rejected.
+  boolean add(long row, String from, String to, String quantity) {
+    int i = size++;
+    rows[i] = row;
+    if (!isCurrency(from) || !isCurrency(to)) {
+      errors[i] = "invalid currency";
+      return false;
+    }
+    this.from[i] = from;
+    this.to[i] = to;
+    if (quantity == null) {
+      errors[i] = "missing quantity";
+      return false;
+    }
+    long unscaled = FixedPoint.unscaled(quantity);
+    if (unscaled != FixedPoint.NOT_FIXED) {
+      quantityUnscaled[i] = unscaled;
+      quantityScale[i] = FixedPoint.scale(quantity);
+      return true;
+    }
+    try {
+      quantityUnscaled[i] = FixedPoint.NOT_FIXED;
+      quantityDecimal[i] = new BigDecimal(quantity);
+      return true;
+    } catch (NumberFormatException e) {
+      errors[i] = "invalid quantity";
+      return false;
+    }
+  }
+
+  void reject(long row, String error) {
+    int i = size++;
+    rows[i] = row;
+    errors[i] = error;
+  }
+
+  boolean isRejected(int i) {
+    return errors[i] != null;
+  }
+
+  String from(int i) {
+    return from[i];
+  }
+
+  String to(int i) {
+    return to[i];
+  }
+
+  // rate: null when the pair is unknown
+  void setRate(int i, PairRate rate) {
+    if (rate == null) {
+      errors[i] = "unknown pair";
+    }
+    rates[i] = rate;
+  }
+
+  // The conversions of all the rows: the long multiplications first, in a tight loop, then the
+  // rows which didn't fit with BigDecimal.
+  void convert() {
+    boolean fallback = false;
+    for (int i = 0; i < size; i++) {
+      PairRate rate = rates[i];
+      long total = FixedPoint.NOT_FIXED;
+      if (rate != null
+          && rate.unscaled != FixedPoint.NOT_FIXED
+          && quantityUnscaled[i] != FixedPoint.NOT_FIXED) {
+        total = FixedPoint.multiply(quantityUnscaled[i], rate.unscaled);
+        totalScale[i] = quantityScale[i] + rate.scale;
+      }
+      totalUnscaled[i] = total;
+      fallback |= total == FixedPoint.NOT_FIXED;
+    }
+    if (fallback) {
+      for (int i = 0; i < size; i++) {
+        if (totalUnscaled[i] == FixedPoint.NOT_FIXED && errors[i] == null) {
+          totalDecimal[i] = quantity(i).multiply(rates[i].multiple);
+        }
+      }
+    }
+  }
+
+  byte[] write(BulkFormat format) {
+    StringBuilder out = new StringBuilder(size * 96);
+    for (int i = 0; i < size; i++) {
+      if (errors[i] != null) {
+        format.writeError(out, rows[i], errors[i]);
+      } else {
+        format.writeRow(out, this, i);
+      }
+    }
+    // ASCII only: the currencies are validated, the numbers and the errors are ours
+    return out.toString().getBytes(StandardCharsets.US_ASCII);
+  }
+
+  long row(int i) {
+    return rows[i];
+  }
+
+  void appendQuantity(StringBuilder out, int i) {
+    if (quantityUnscaled[i] != FixedPoint.NOT_FIXED) {
+      FixedPoint.append(out, quantityUnscaled[i], quantityScale[i]);
+    } else {
+      out.append(quantityDecimal[i].toPlainString());
+    }
+  }
+
+  void appendConversionMultiple(StringBuilder out, int i) {
+    out.append(rates[i].text);
+  }
+
+  void appendTotal(StringBuilder out, int i) {
+    if (totalUnscaled[i] != FixedPoint.NOT_FIXED) {
+      FixedPoint.append(out, totalUnscaled[i], totalScale[i]);
+    } else {
+      out.append(totalDecimal[i].toPlainString());
+    }
+  }
+
+  private BigDecimal quantity(int i) {
+    return quantityUnscaled[i] != FixedPoint.NOT_FIXED
+        ? BigDecimal.valueOf(quantityUnscaled[i], quantityScale[i])
+        : quantityDecimal[i];
+  }
+
+  // ISO 4217 codes: three upper case letters. Nothing else gets written back to the client.
+  private static boolean isCurrency(String currency) {
+    if (currency == null || currency.length() != 3) {
+      return false;
+    }
+    for (int i = 0; i < 3; i++) {
+      char c = currency.charAt(i);
+      if (c < 'A' || c > 'Z') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // The rate of a pair, resolved once per bulk request and shared by its rows.
+  static final class PairRate {
+    final BigDecimal multiple;
+    final long unscaled;
+    final int scale;
+    final String text;
+
+    PairRate(BigDecimal multiple) {
+      this.multiple = multiple;
+      this.unscaled = FixedPoint.unscaled(multiple);
+      this.scale = multiple.scale();
+      this.text = multiple.toPlainString();
+    }
+  }
+}
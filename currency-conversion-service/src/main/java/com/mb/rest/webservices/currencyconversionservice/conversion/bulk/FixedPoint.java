@@ -0,0 +1,91 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.bulk;
+
+import java.math.BigDecimal;
+
+// Decimal numbers as a long unscaled value and a scale (value = unscaled x 10^-scale), the way
+// BigDecimal stores them, without the objects: parsing, multiplying and printing a quantity is a
+// few long operations. The results are exactly those of BigDecimal.multiply.
+// Whatever doesn't fit in a long (NOT_FIXED) is left to BigDecimal by the caller.
+final class FixedPoint {
+
+  static final long NOT_FIXED = Long.MIN_VALUE;
+
+  // Up to 18 digits, the unscaled value always fits in a long
+  static final int MAX_DIGITS = 18;
+
+  // Padding of the values smaller than 1: 18 + 18 decimals at most (quantity x rate)
+  private static final String ZEROS = "0000000000000000000000000000000000000";
+
+  private FixedPoint() {}
+
+  // "129.50" -> 12950, "-7" -> -7. NOT_FIXED for more than 18 digits or anything else than an
+  // optional sign, digits and a decimal point (e.g. an exponent).
+  static long unscaled(String text) {
+    int length = text.length();
+    int i = 0;
+    boolean negative = false;
+    if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+      negative = text.charAt(0) == '-';
+      i = 1;
+    }
+    long value = 0;
+    int digits = 0;
+    boolean point = false;
+    for (; i < length; i++) {
+      char c = text.charAt(i);
+      if (c == '.' && !point) {
+        point = true;
+      } else if (c >= '0' && c <= '9' && ++digits <= MAX_DIGITS) {
+        value = value * 10 + (c - '0');
+      } else {
+        return NOT_FIXED;
+      }
+    }
+    if (digits == 0) {
+      return NOT_FIXED;
+    }
+    return negative ? -value : value;
+  }
+
+  // Number of decimals of a text accepted by unscaled
+  static int scale(String text) {
+    int point = text.indexOf('.');
+    return point < 0 ? 0 : text.length() - point - 1;
+  }
+
+  // NOT_FIXED for a conversion multiple too large for a long or with a negative scale
+  static long unscaled(BigDecimal value) {
+    if (value.scale() < 0
+        || value.scale() > MAX_DIGITS
+        || value.unscaledValue().bitLength() > 63) {
+      return NOT_FIXED;
+    }
+    // -2^63 is NOT_FIXED itself
+    return value.unscaledValue().longValue();
+  }
+
+  // a x b, NOT_FIXED when the product doesn't fit in a long. The scale of the product is the sum
+  // of the scales, as with BigDecimal.
+  static long multiply(long a, long b) {
+    long high = Math.multiplyHigh(a, b);
+    long low = a * b;
+    return high == (low >> 63) && low != NOT_FIXED ? low : NOT_FIXED;
+  }
+
+  // Same text as BigDecimal.valueOf(unscaled, scale).toPlainString(), written in place
+  static void append(StringBuilder out, long unscaled, int scale) {
+    if (unscaled < 0) {
+      out.append('-');
+    }
+    int start = out.length();
+    out.append(Math.abs(unscaled));
+    if (scale > 0) {
+      int integerDigits = out.length() - start - scale;
+      if (integerDigits <= 0) {
+        out.insert(start, ZEROS, 0, 1 - integerDigits);
+        integerDigits = 1;
+      }
+      out.insert(start + integerDigits, '.');
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.bulk;
+
+import java.io.IOException;
+
+// Reads the rows of a bulk conversion body, a chunk at a time: only the current chunk is in
+// memory, whatever the size of the body.
+public interface RowReader {
+
+  // Adds rows to the chunk until it's full or the body is over. Returns false at the end.
+  boolean read(ConversionChunk chunk) throws IOException;
+}
@@ -0,0 +1,86 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mb.rest.webservices.currencyconversionservice.conversion.CurrencyConversion;
+import com.mb.rest.webservices.currencyconversionservice.conversion.batching.CurrencyExchangeBatcher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Local cache of the exchange rates, in front of CurrencyExchangeProxy (through the batcher).
+// The rates are seeded from data.sql on currency-exchange and rarely change, so most of the
+// conversions don't need a call to currency-exchange at all.
+//  - fresh tier: rates younger than refresh-after are served directly
+//  - stale tier: rates older than refresh-after are served directly too, while a single
+//    background call reloads them (stale-while-revalidate)
+//  - expired rates (older than expire-after) and the least used pairs above maximum-size are evicted
+// Concurrent requests for a cold pair share the same pending load: exactly one call to
+// currency-exchange per pair (single flight).
+// The statistics (hits, misses, evictions, load durations) are published as "cache.*" metrics
+// with the tag cache=exchange-rates: /actuator/metrics/cache.gets?tag=cache:exchange-rates
+@Component
+public class CurrencyExchangeCache {
+
+  public static final String CACHE_NAME = "exchange-rates";
+
+  private final CurrencyExchangeBatcher currencyExchangeBatcher;
+  private final RateCacheConfiguration configuration;
+  private final ExecutorService loadExecutor;
+  private final AsyncLoadingCache<String, CurrencyConversion> cache;
+
+  public CurrencyExchangeCache(
+      CurrencyExchangeBatcher currencyExchangeBatcher,
+      RateCacheConfiguration configuration,
+      MeterRegistry meterRegistry) {
+    this.currencyExchangeBatcher = currencyExchangeBatcher;
+    this.configuration = configuration;
+
+    // The loads are blocking Feign calls, they get their own threads instead of the common pool.
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("exchange-rate-load-");
+    threadFactory.setDaemon(true);
+    this.loadExecutor = Executors.newCachedThreadPool(threadFactory);
+
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(configuration.getMaximumSize())
+            .refreshAfterWrite(configuration.getRefreshAfter())
+            .expireAfterWrite(configuration.getExpireAfter())
+            .executor(loadExecutor)
+            .recordStats()
+            .buildAsync(
+                (pair, executor) -> {
+                  String[] currencies = pair.split("/", 2);
+                  return currencyExchangeBatcher.retrieveExchangeValueAsync(
+                      currencies[0], currencies[1], loadExecutor);
+                });
+
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+  }
+
+  public CurrencyConversion retrieveExchangeValue(String from, String to) {
+    if (!configuration.isEnabled()) {
+      return currencyExchangeBatcher.retrieveExchangeValue(from, to);
+    }
+    try {
+      return cache.get(from + "/" + to).join();
+    } catch (CompletionException e) {
+      // A failed load is not cached, the next request will try again.
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    loadExecutor.shutdown();
+  }
+}
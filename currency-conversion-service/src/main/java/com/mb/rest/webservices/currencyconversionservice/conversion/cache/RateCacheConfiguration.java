@@ -0,0 +1,24 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("currency-conversion.cache")
+public class RateCacheConfiguration {
+  // When disabled, every conversion calls currency-exchange (the original behavior).
+  private boolean enabled = true;
+  // Maximum number of currency pairs kept in memory, the least used ones are evicted first.
+  private long maximumSize = 1000;
+  // A rate younger than refresh-after is fresh: it's served without calling currency-exchange.
+  private Duration refreshAfter = Duration.ofSeconds(30);
+  // Between refresh-after and expire-after, the rate is stale: it's still served, and it's
+  // reloaded in the background. After expire-after the next request waits for a new rate.
+  private Duration expireAfter = Duration.ofMinutes(5);
+}
@@ -0,0 +1,23 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("currency-conversion.client")
+public class ExchangeClientConfiguration {
+  // blocking: Controller (RestTemplate and Feign, one servlet thread per in-flight call)
+  // reactive: ReactiveController (WebClient, the servlet thread is released during the call)
+  private String mode = "blocking";
+  // Used by /currency-conversion (the direct call, without Eureka).
+  private String directUrl = "http://currency-exchange:8000";
+  // Used by /currency-conversion-feign in reactive mode, resolved through Eureka.
+  private String loadBalancedUrl = "http://currency-exchange";
+  // Size of the keep-alive connection pool shared by the WebClients.
+  private int maxConnections = 500;
+  private long maxIdleTimeMillis = 30000;
+}
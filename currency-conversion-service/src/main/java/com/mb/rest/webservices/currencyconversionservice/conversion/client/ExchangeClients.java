@@ -0,0 +1,63 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.client;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+// The HTTP clients used to call currency-exchange.
+// They are created once and shared by all the requests, instead of doing a new RestTemplate()
+// per request, so that the connections to currency-exchange are pooled and kept alive.
+@Configuration
+public class ExchangeClients {
+
+  @Bean
+  public RestTemplate restTemplate(RestTemplateBuilder restTemplateBuilder) {
+    return restTemplateBuilder.build();
+  }
+
+  @Bean(destroyMethod = "dispose")
+  public ConnectionProvider exchangeConnectionProvider(ExchangeClientConfiguration configuration) {
+    return ConnectionProvider.builder("currency-exchange")
+        .maxConnections(configuration.getMaxConnections())
+        .maxIdleTime(Duration.ofMillis(configuration.getMaxIdleTimeMillis()))
+        .build();
+  }
+
+  // @LoadBalanced: the host of the URL is the name of the service registered in Eureka,
+  // exactly like @FeignClient(name = "currency-exchange").
+  @Bean
+  @LoadBalanced
+  public WebClient.Builder loadBalancedWebClientBuilder(
+      ConnectionProvider exchangeConnectionProvider) {
+    return WebClient.builder().clientConnector(connector(exchangeConnectionProvider));
+  }
+
+  @Bean
+  public WebClient loadBalancedExchangeWebClient(
+      @Qualifier("loadBalancedWebClientBuilder") WebClient.Builder loadBalancedWebClientBuilder,
+      ExchangeClientConfiguration configuration) {
+    return loadBalancedWebClientBuilder.baseUrl(configuration.getLoadBalancedUrl()).build();
+  }
+
+  @Bean
+  public WebClient directExchangeWebClient(
+      ConnectionProvider exchangeConnectionProvider, ExchangeClientConfiguration configuration) {
+    return WebClient.builder()
+        .clientConnector(connector(exchangeConnectionProvider))
+        .baseUrl(configuration.getDirectUrl())
+        .build();
+  }
+
+  private static ReactorClientHttpConnector connector(ConnectionProvider connectionProvider) {
+    return new ReactorClientHttpConnector(HttpClient.create(connectionProvider).keepAlive(true));
+  }
+}
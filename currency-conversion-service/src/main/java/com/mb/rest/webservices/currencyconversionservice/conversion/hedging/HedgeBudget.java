@@ -0,0 +1,27 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.hedging;
+
+// Every call adds budget-percent / 100 of a token, every hedge takes a whole token.
+// The balance is capped, so a quiet period doesn't allow a burst of hedges afterwards.
+class HedgeBudget {
+
+  static final double MAX_BALANCE = 10;
+
+  private final double depositPerCall;
+  private double balance;
+
+  HedgeBudget(double budgetPercent) {
+    this.depositPerCall = budgetPercent / 100;
+  }
+
+  synchronized void deposit() {
+    balance = Math.min(MAX_BALANCE, balance + depositPerCall);
+  }
+
+  synchronized boolean tryWithdraw() {
+    if (balance < 1) {
+      return false;
+    }
+    balance -= 1;
+    return true;
+  }
+}
@@ -0,0 +1,210 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.hedging;
+
+import com.mb.rest.webservices.currencyconversionservice.conversion.hedging.HedgingConfiguration.ClientHedging;
+import com.mb.rest.webservices.currencyconversionservice.conversion.loadbalancer.InstanceChoice;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hedged requests: when the answer of a call is slower than usual, the same request is sent to
+// another instance and the first answer wins, so one slow instance doesn't make the whole
+// conversion wait (unlike a retry, nothing has to fail first).
+// Only the GET calls (idempotent) of the clients enabled in currency-conversion.hedging.clients
+// are hedged, the other calls go straight to the delegate, on the calling thread.
+class HedgedClient implements Client {
+
+  private static final double NANOS_PER_MILLI = 1_000_000;
+
+  private final Client delegate;
+  private final HedgingConfiguration configuration;
+  private final ExecutorService executor;
+  private final MeterRegistry meterRegistry;
+
+  private final Map<String, ClientState> states = new ConcurrentHashMap<>();
+
+  HedgedClient(
+      Client delegate,
+      HedgingConfiguration configuration,
+      ExecutorService executor,
+      MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.configuration = configuration;
+    this.executor = executor;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public Response execute(Request request, Request.Options options) throws IOException {
+    String name = clientName(request);
+    ClientHedging settings = name == null ? null : configuration.getClients().get(name);
+    boolean idempotent = request.httpMethod() == Request.HttpMethod.GET;
+    if (settings == null || !settings.isEnabled() || !idempotent) {
+      return delegate.execute(request, options);
+    }
+    ClientState state = states.computeIfAbsent(name, key -> new ClientState(key, settings));
+    return hedged(request, options, state);
+  }
+
+  private Response hedged(Request request, Request.Options options, ClientState state)
+      throws IOException {
+    state.requests.increment();
+    state.budget.deposit();
+
+    Race race = new Race();
+    InstanceChoice first = new InstanceChoice(null);
+    Future<?> primary = race.start(() -> primaryAttempt(request, options, first, state), false);
+    Future<?> hedge = null;
+    try {
+      Winner winner;
+      try {
+        winner = race.result.get(state.delayNanos(System.nanoTime()), TimeUnit.NANOSECONDS);
+      } catch (TimeoutException e) {
+        if (state.budget.tryWithdraw()) {
+          // first.chosen() is null if the first call hasn't even been sent yet (all the threads
+          // busy), the hedge then goes to whatever instance the load balancer picks.
+          InstanceChoice second = new InstanceChoice(first.chosen());
+          hedge = race.start(() -> second.call(() -> delegate.execute(request, options)), true);
+        } else {
+          state.budgetExhausted.increment();
+        }
+        winner = race.result.get();
+      }
+      if (hedge != null) {
+        (winner.hedge ? state.hedgeWins : state.primaryWins).increment();
+      }
+      return winner.response;
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException(cause);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for " + request.url());
+    } finally {
+      // Cancel the loser. The blocking HTTP client can't abort an exchange in progress: the
+      // attempt is interrupted if it's still waiting for a thread or an instance, otherwise its
+      // response is closed as soon as it arrives (see Race).
+      primary.cancel(true);
+      if (hedge != null) {
+        hedge.cancel(true);
+      }
+    }
+  }
+
+  private Response primaryAttempt(
+      Request request, Request.Options options, InstanceChoice choice, ClientState state)
+      throws Exception {
+    long start = System.nanoTime();
+    Response response = choice.call(() -> delegate.execute(request, options));
+    // Only the first calls are measured: with the hedges, the answers get faster, the delay
+    // would go down and more calls would be hedged.
+    state.latencies.record(System.nanoTime() - start);
+    return response;
+  }
+
+  private static String clientName(Request request) {
+    if (request.requestTemplate() == null || request.requestTemplate().feignTarget() == null) {
+      return null;
+    }
+    return request.requestTemplate().feignTarget().name();
+  }
+
+  // The attempts of one call: the first response wins, the ones arriving after it are closed.
+  private final class Race {
+    private final CompletableFuture<Winner> result = new CompletableFuture<>();
+    private final AtomicInteger running = new AtomicInteger();
+
+    private Future<?> start(Callable<Response> attempt, boolean hedge) {
+      running.incrementAndGet();
+      return executor.submit(() -> {
+        try {
+          Response response = attempt.call();
+          if (!result.complete(new Winner(response, hedge))) {
+            response.close();
+          }
+        } catch (Exception e) {
+          // The call only fails when there's no attempt left that could still answer.
+          if (running.decrementAndGet() == 0) {
+            result.completeExceptionally(e);
+          }
+        }
+      });
+    }
+  }
+
+  private static final class Winner {
+    private final Response response;
+    private final boolean hedge;
+
+    private Winner(Response response, boolean hedge) {
+      this.response = response;
+      this.hedge = hedge;
+    }
+  }
+
+  private final class ClientState {
+    private final ClientHedging settings;
+    private final LatencyWindow latencies = new LatencyWindow();
+    private final HedgeBudget budget;
+
+    private final Counter requests;
+    private final Counter primaryWins;
+    private final Counter hedgeWins;
+    private final Counter budgetExhausted;
+
+    private ClientState(String name, ClientHedging settings) {
+      this.settings = settings;
+      this.budget = new HedgeBudget(settings.getBudgetPercent());
+      // The hedgeable calls, and among them the hedged ones by winner
+      this.requests = Counter.builder("hedging.requests")
+          .tag("client", name)
+          .register(meterRegistry);
+      this.primaryWins = Counter.builder("hedging.hedges")
+          .tag("client", name)
+          .tag("winner", "primary")
+          .register(meterRegistry);
+      this.hedgeWins = Counter.builder("hedging.hedges")
+          .tag("client", name)
+          .tag("winner", "hedge")
+          .register(meterRegistry);
+      // The slow calls that were not hedged because of budget-percent
+      this.budgetExhausted = Counter.builder("hedging.budget.exhausted")
+          .tag("client", name)
+          .register(meterRegistry);
+      Gauge.builder("hedging.delay", this, s -> s.delayNanos(System.nanoTime()) / NANOS_PER_MILLI)
+          .tag("client", name)
+          .baseUnit("milliseconds")
+          .register(meterRegistry);
+    }
+
+    private long delayNanos(long now) {
+      long percentile = latencies.percentileNanos(settings.getPercentile(), now);
+      long maxDelay = settings.getMaxDelay().toNanos();
+      if (percentile < 0) {
+        return maxDelay;
+      }
+      return Math.max(settings.getMinDelay().toNanos(), Math.min(maxDelay, percentile));
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.hedging;
+
+import brave.propagation.CurrentTraceContext;
+import feign.Capability;
+import feign.Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Picked up by every @FeignClient: their HTTP client (already load balanced) is wrapped in a
+// HedgedClient, which does nothing for the clients that are not enabled in
+// currency-conversion.hedging.clients.
+@Component
+public class HedgingCapability implements Capability {
+
+  @Autowired private HedgingConfiguration configuration;
+  @Autowired private MeterRegistry meterRegistry;
+  // The attempts are sent from the hedging threads, the trace of the request goes along with them.
+  @Autowired(required = false) private CurrentTraceContext currentTraceContext;
+
+  private ExecutorService executor;
+
+  @PostConstruct
+  public void start() {
+    ExecutorService threads = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "feign-hedging");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor = currentTraceContext == null
+        ? threads
+        : currentTraceContext.executorService(threads);
+  }
+
+  @Override
+  public Client enrich(Client client) {
+    return new HedgedClient(client, configuration, executor, meterRegistry);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+}
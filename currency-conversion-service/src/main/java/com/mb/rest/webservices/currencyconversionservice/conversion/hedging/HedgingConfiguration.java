@@ -0,0 +1,35 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.hedging;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("currency-conversion.hedging")
+public class HedgingConfiguration {
+  // By Feign client name, e.g. currency-conversion.hedging.clients.currency-exchange.enabled=true
+  // The clients that are not listed here are never hedged.
+  private Map<String, ClientHedging> clients = new HashMap<>();
+
+  @Getter
+  @Setter
+  public static class ClientHedging {
+    private boolean enabled = false;
+    // The hedge is sent when the first call has taken longer than this percentile of the latencies
+    // of the recent calls, within [min-delay, max-delay].
+    private double percentile = 95;
+    private Duration minDelay = Duration.ofMillis(5);
+    // Also the delay used until enough calls have been measured.
+    private Duration maxDelay = Duration.ofMillis(200);
+    // At most budget-percent of the calls are hedged, so that an instance that is slow because
+    // it's overloaded doesn't get twice the traffic.
+    private double budgetPercent = 5;
+  }
+}
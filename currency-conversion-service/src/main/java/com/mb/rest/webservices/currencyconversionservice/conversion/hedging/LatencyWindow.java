@@ -0,0 +1,46 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.hedging;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// The latencies of the last SIZE calls of a Feign client.
+// The percentile is recomputed at most once per second, it's read by every hedged call.
+class LatencyWindow {
+
+  static final int SIZE = 1024;
+  // Below this number of calls the percentile isn't meaningful.
+  static final int MIN_SAMPLES = 100;
+
+  private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final long[] samples = new long[SIZE];
+  private int next;
+  private int count;
+
+  private long percentileNanos = -1;
+  private long computedAt;
+  private boolean computed;
+
+  synchronized void record(long latencyNanos) {
+    samples[next] = latencyNanos;
+    next = (next + 1) % SIZE;
+    count = Math.min(SIZE, count + 1);
+  }
+
+  // -1 until MIN_SAMPLES calls have been recorded
+  synchronized long percentileNanos(double percentile, long now) {
+    if (!computed || now - computedAt >= REFRESH_NANOS) {
+      computed = true;
+      computedAt = now;
+      if (count < MIN_SAMPLES) {
+        percentileNanos = -1;
+      } else {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * count) - 1;
+        percentileNanos = sorted[Math.max(0, Math.min(count - 1, index))];
+      }
+    }
+    return percentileNanos;
+  }
+}
@@ -0,0 +1,51 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.concurrent.Callable;
+
+// The instance chosen by PeakEwmaLoadBalancer for a call made on the current thread, and the
+// instance it should avoid, if possible.
+// Used by the hedged requests: the hedge must go to another instance than the slow first call.
+// Feign chooses the instance synchronously on the calling thread, before sending the request,
+// so a thread local is enough to pass them around.
+public final class InstanceChoice {
+
+  private static final ThreadLocal<InstanceChoice> CURRENT = new ThreadLocal<>();
+
+  private final ServiceInstance avoid;
+  private volatile ServiceInstance chosen;
+
+  public InstanceChoice(ServiceInstance avoid) {
+    this.avoid = avoid;
+  }
+
+  public <T> T call(Callable<T> callable) throws Exception {
+    CURRENT.set(this);
+    try {
+      return callable.call();
+    } finally {
+      CURRENT.remove();
+    }
+  }
+
+  public ServiceInstance chosen() {
+    return chosen;
+  }
+
+  ServiceInstance avoid() {
+    return avoid;
+  }
+
+  void chose(ServiceInstance instance) {
+    chosen = instance;
+  }
+
+  static InstanceChoice current() {
+    return CURRENT.get();
+  }
+
+  static boolean sameInstance(ServiceInstance a, ServiceInstance b) {
+    return a.getHost().equals(b.getHost()) && a.getPort() == b.getPort();
+  }
+}
@@ -0,0 +1,84 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.loadbalancer;
+
+// What one instance of currency-exchange has recently looked like from here.
+// The latency is a peak EWMA: a slower response is taken as is, so that a slow or pausing
+// instance is avoided right away, and a faster one only lowers the average progressively.
+// All the times are System.nanoTime() values, passed by the caller to keep this class testable.
+public class InstanceStats {
+
+  // Score multiplier of an ejected instance, it still wins against another ejected instance.
+  static final double EJECTION_PENALTY = 1_000_000;
+
+  private final double decayNanos;
+  private final int failureThreshold;
+  private final long ejectionNanos;
+
+  private double latencyNanos;
+  private long lastUpdate;
+  private int inFlight;
+  private int consecutiveFailures;
+  private long ejectedUntil;
+  private boolean ejected;
+
+  InstanceStats(LoadBalancingConfiguration configuration, long now) {
+    this.decayNanos = configuration.getDecayTime().toNanos();
+    this.failureThreshold = configuration.getFailureThreshold();
+    this.ejectionNanos = configuration.getEjectionTime().toNanos();
+    this.lastUpdate = now;
+  }
+
+  // Lower is better: the latency expected for one more request queued behind the in-flight ones.
+  public synchronized double score(long now) {
+    // +1: an instance that has never been called (latency 0) still counts its in-flight requests.
+    double score = (latencyNanos(now) + 1) * (inFlight + 1);
+    return isEjected(now) ? score * EJECTION_PENALTY : score;
+  }
+
+  public synchronized double latencyNanos(long now) {
+    // Without any new response, the latency decays towards 0 so that an instance that was slow
+    // some time ago gets traffic again, and its new latency is measured.
+    return latencyNanos * weight(now);
+  }
+
+  public synchronized int inFlight() {
+    return inFlight;
+  }
+
+  public synchronized boolean isEjected(long now) {
+    if (ejected && now - ejectedUntil >= 0) {
+      // Back in the rotation, a single new failure doesn't eject it again.
+      ejected = false;
+      consecutiveFailures = 0;
+    }
+    return ejected;
+  }
+
+  synchronized void started() {
+    inFlight++;
+  }
+
+  synchronized void completed(long latency, boolean failed, long now) {
+    inFlight = Math.max(0, inFlight - 1);
+    // latency 0: unknown, only the in-flight count and the outcome are recorded.
+    if (latency > latencyNanos) {
+      latencyNanos = latency;
+      lastUpdate = now;
+    } else if (latency > 0) {
+      double weight = weight(now);
+      latencyNanos = latencyNanos * weight + latency * (1 - weight);
+      lastUpdate = now;
+    }
+
+    if (!failed) {
+      consecutiveFailures = 0;
+    } else if (!isEjected(now) && ++consecutiveFailures >= failureThreshold) {
+      ejected = true;
+      ejectedUntil = now + ejectionNanos;
+    }
+  }
+
+  private double weight(long now) {
+    long elapsed = Math.max(0, now - lastUpdate);
+    return Math.exp(-elapsed / decayNanos);
+  }
+}
@@ -0,0 +1,60 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.loadbalancer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// The InstanceStats of every instance called through the load balancer, shared by the
+// load balancer (to pick an instance) and the lifecycle (to record the calls).
+// The per-instance values are published on /actuator/metrics/loadbalancer.instance.*
+// with the service and instance (host:port) tags.
+public class InstanceStatsRegistry {
+
+  private static final double NANOS_PER_MILLI = 1_000_000;
+
+  private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+  private final LoadBalancingConfiguration configuration;
+  private final MeterRegistry meterRegistry;
+
+  public InstanceStatsRegistry(
+      LoadBalancingConfiguration configuration, MeterRegistry meterRegistry) {
+    this.configuration = configuration;
+    this.meterRegistry = meterRegistry;
+  }
+
+  public InstanceStats stats(ServiceInstance instance) {
+    String key = instance.getServiceId() + "/" + instance.getHost() + ":" + instance.getPort();
+    return stats.computeIfAbsent(key, k -> register(instance));
+  }
+
+  private InstanceStats register(ServiceInstance instance) {
+    InstanceStats instanceStats = new InstanceStats(configuration, System.nanoTime());
+    Tags tags = Tags.of(
+        "service", instance.getServiceId(),
+        "instance", instance.getHost() + ":" + instance.getPort());
+    // The expected latency of the next request in milliseconds, the lowest of two random
+    // instances is picked.
+    Gauge.builder("loadbalancer.instance.score", instanceStats,
+            s -> s.score(System.nanoTime()) / NANOS_PER_MILLI)
+        .tags(tags)
+        .register(meterRegistry);
+    Gauge.builder("loadbalancer.instance.latency", instanceStats,
+            s -> s.latencyNanos(System.nanoTime()) / NANOS_PER_MILLI)
+        .tags(tags)
+        .baseUnit("milliseconds")
+        .register(meterRegistry);
+    Gauge.builder("loadbalancer.instance.in.flight", instanceStats, InstanceStats::inFlight)
+        .tags(tags)
+        .register(meterRegistry);
+    Gauge.builder("loadbalancer.instance.ejected", instanceStats,
+            s -> s.isEjected(System.nanoTime()) ? 1 : 0)
+        .tags(tags)
+        .register(meterRegistry);
+    return instanceStats;
+  }
+}
@@ -0,0 +1,25 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.loadbalancer;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("currency-conversion.load-balancer")
+public class LoadBalancingConfiguration {
+  // peak-ewma: the least loaded of two random instances of currency-exchange is called,
+  // round-robin: the default Spring Cloud LoadBalancer strategy (the original behavior).
+  private String strategy = "peak-ewma";
+  // How fast the latency of an instance is forgotten: after decay-time without a slower response,
+  // about two thirds of a latency peak is gone.
+  private Duration decayTime = Duration.ofSeconds(10);
+  // After failure-threshold failed calls in a row (errors or 5xx), the instance is ejected:
+  // it's only picked when the other choice is ejected too, until ejection-time is over.
+  private int failureThreshold = 5;
+  private Duration ejectionTime = Duration.ofSeconds(30);
+}
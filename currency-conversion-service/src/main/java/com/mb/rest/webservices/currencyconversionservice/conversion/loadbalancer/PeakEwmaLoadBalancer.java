@@ -0,0 +1,84 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Power of two choices: two distinct instances are drawn at random, and the one with the lowest
+// InstanceStats score is called.
+// Comparing only two instances is enough to avoid the slow ones (the slowest instance is never
+// picked), while the traffic still spreads over all the fast ones instead of piling up on the
+// single best instance, which is what happens when every client picks the minimum of all scores.
+public class PeakEwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+  private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+  private final InstanceStatsRegistry registry;
+
+  public PeakEwmaLoadBalancer(
+      ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+      InstanceStatsRegistry registry) {
+    this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+    this.registry = registry;
+  }
+
+  @Override
+  public Mono<Response<ServiceInstance>> choose(Request request) {
+    ServiceInstanceListSupplier supplier =
+        serviceInstanceListSupplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+    // Read here, on the calling thread: the instances may be listed on another one.
+    InstanceChoice choice = InstanceChoice.current();
+    return supplier.get(request).next().map(instances -> choose(instances, choice));
+  }
+
+  Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+    return choose(instances, null);
+  }
+
+  private Response<ServiceInstance> choose(List<ServiceInstance> instances, InstanceChoice choice) {
+    if (choice != null && choice.avoid() != null && instances.size() > 1) {
+      List<ServiceInstance> others = new ArrayList<>(instances.size() - 1);
+      for (ServiceInstance instance : instances) {
+        if (!InstanceChoice.sameInstance(instance, choice.avoid())) {
+          others.add(instance);
+        }
+      }
+      instances = others.isEmpty() ? instances : others;
+    }
+    Response<ServiceInstance> response = powerOfTwoChoices(instances);
+    if (choice != null && response.hasServer()) {
+      choice.chose(response.getServer());
+    }
+    return response;
+  }
+
+  private Response<ServiceInstance> powerOfTwoChoices(List<ServiceInstance> instances) {
+    if (instances.isEmpty()) {
+      return new EmptyResponse();
+    }
+    if (instances.size() == 1) {
+      return new DefaultResponse(instances.get(0));
+    }
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int first = random.nextInt(instances.size());
+    int second = random.nextInt(instances.size() - 1);
+    if (second >= first) {
+      second++;
+    }
+    long now = System.nanoTime();
+    ServiceInstance a = instances.get(first);
+    ServiceInstance b = instances.get(second);
+    boolean aIsBetter = registry.stats(a).score(now) <= registry.stats(b).score(now);
+    return new DefaultResponse(aIsBetter ? a : b);
+  }
+}
@@ -0,0 +1,26 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+// Loaded in the child context that Spring Cloud LoadBalancer creates for currency-exchange,
+// in place of the default round-robin load balancer.
+// It is deliberately not a @Configuration: it would be picked up by the component scan and would
+// then replace the load balancer of every service, not only currency-exchange.
+public class PeakEwmaLoadBalancerClientConfiguration {
+
+  @Bean
+  public ReactorLoadBalancer<ServiceInstance> peakEwmaLoadBalancer(
+      Environment environment,
+      LoadBalancerClientFactory loadBalancerClientFactory,
+      InstanceStatsRegistry instanceStatsRegistry) {
+    String name = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+    return new PeakEwmaLoadBalancer(
+        loadBalancerClientFactory.getLazyProvider(name, ServiceInstanceListSupplier.class),
+        instanceStatsRegistry);
+  }
+}
@@ -0,0 +1,66 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+
+// Called by Feign and by the @LoadBalanced WebClient around every call to an instance chosen by
+// the load balancer: it counts the in-flight calls and records their latency and outcome.
+public class PeakEwmaLoadBalancerLifecycle
+    implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+  private final InstanceStatsRegistry registry;
+
+  public PeakEwmaLoadBalancerLifecycle(InstanceStatsRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public void onStart(Request<Object> request) {
+  }
+
+  @Override
+  public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+    if (!lbResponse.hasServer()) {
+      return;
+    }
+    // The Feign and WebClient request contexts are timed, the start time is set here
+    // (like the micrometer stats lifecycle does) so that the connection time is included.
+    if (request.getContext() instanceof TimedRequestContext) {
+      ((TimedRequestContext) request.getContext()).setRequestStartTime(System.nanoTime());
+    }
+    registry.stats(lbResponse.getServer()).started();
+  }
+
+  @Override
+  public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+    Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+    if (lbResponse == null || !lbResponse.hasServer()) {
+      return;
+    }
+    long now = System.nanoTime();
+    Object context = completionContext.getLoadBalancerRequest().getContext();
+    // Without a start time, the call is still counted as finished but its latency is ignored.
+    long latency = context instanceof TimedRequestContext
+        ? now - ((TimedRequestContext) context).getRequestStartTime()
+        : 0;
+    registry.stats(lbResponse.getServer()).completed(latency, failed(completionContext), now);
+  }
+
+  private static boolean failed(CompletionContext<Object, ServiceInstance, Object> context) {
+    if (context.status() == CompletionContext.Status.FAILED) {
+      return true;
+    }
+    // A 4xx is an answer of a healthy instance (e.g. an unknown currency pair), a 5xx isn't.
+    Object clientResponse = context.getClientResponse();
+    if (clientResponse instanceof ResponseData) {
+      Integer status = ((ResponseData) clientResponse).getRawHttpStatus();
+      return status != null && status >= 500;
+    }
+    return false;
+  }
+}
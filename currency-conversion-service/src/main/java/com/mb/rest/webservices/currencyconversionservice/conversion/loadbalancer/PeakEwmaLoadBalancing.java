@@ -0,0 +1,33 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.loadbalancer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Latency-aware load balancing of the calls to currency-exchange, the ones done by
+// @FeignClient(name = "currency-exchange") and by the @LoadBalanced WebClient.
+// With round-robin, one slow or GC-pausing instance slows down 1/n of the conversions.
+@Configuration
+@ConditionalOnProperty(
+    name = "currency-conversion.load-balancer.strategy",
+    havingValue = "peak-ewma",
+    matchIfMissing = true)
+@LoadBalancerClient(
+    name = "currency-exchange",
+    configuration = PeakEwmaLoadBalancerClientConfiguration.class)
+public class PeakEwmaLoadBalancing {
+
+  @Bean
+  public InstanceStatsRegistry instanceStatsRegistry(
+      LoadBalancingConfiguration configuration, MeterRegistry meterRegistry) {
+    return new InstanceStatsRegistry(configuration, meterRegistry);
+  }
+
+  @Bean
+  public PeakEwmaLoadBalancerLifecycle peakEwmaLoadBalancerLifecycle(
+      InstanceStatsRegistry instanceStatsRegistry) {
+    return new PeakEwmaLoadBalancerLifecycle(instanceStatsRegistry);
+  }
+}
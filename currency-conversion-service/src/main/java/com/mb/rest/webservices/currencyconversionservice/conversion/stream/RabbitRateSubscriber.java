@@ -0,0 +1,102 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.listener.AsyncConsumerRestartedEvent;
+import org.springframework.amqp.rabbit.listener.ListenerContainerConsumerFailedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.util.retry.Retry;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Keeps the RateReplica up to date from the fanout exchange of currency-exchange
+// (currency-exchange.rate-stream.rabbit.enabled=true on its side). Every instance of
+// currency-conversion binds its own anonymous queue, so it receives all the events.
+// The snapshot comes from /currency-exchange/rates, at startup and whenever events are missing.
+// When the consumer fails (e.g. the connection to the broker is lost), the replica is cleared:
+// the queue is deleted with the connection, the events of the outage are lost. The snapshot is
+// loaded again once the consumer is restarted.
+@Configuration
+@ConditionalOnProperty(name = "currency-conversion.rate-stream.transport", havingValue = "rabbit")
+public class RabbitRateSubscriber {
+
+  private static final String RATES_URI = "/currency-exchange/rates";
+
+  @Autowired RateReplica rateReplica;
+  @Autowired RateStreamConfiguration configuration;
+  @Autowired ObjectMapper objectMapper;
+
+  @Autowired
+  @Qualifier("loadBalancedExchangeWebClient")
+  WebClient loadBalancedExchangeWebClient;
+
+  private final Logger logger = LoggerFactory.getLogger(RabbitRateSubscriber.class);
+  private final AtomicBoolean loadingSnapshot = new AtomicBoolean();
+
+  @Bean
+  public FanoutExchange rateChangeExchange() {
+    return new FanoutExchange(configuration.getRabbitExchange());
+  }
+
+  // Exclusive and deleted with the connection
+  @Bean
+  public Queue rateChangeQueue() {
+    return new AnonymousQueue();
+  }
+
+  @Bean
+  public Binding rateChangeBinding(Queue rateChangeQueue, FanoutExchange rateChangeExchange) {
+    return BindingBuilder.bind(rateChangeQueue).to(rateChangeExchange);
+  }
+
+  @RabbitListener(queues = "#{rateChangeQueue.name}")
+  public void onRateChange(String message) throws JsonProcessingException {
+    if (!rateReplica.apply(objectMapper.readValue(message, RateChangeEvent.class))) {
+      loadSnapshot();
+    }
+  }
+
+  @EventListener
+  public void onConsumerFailed(ListenerContainerConsumerFailedEvent event) {
+    logger.warn("Rate changes consumer failed, replica cleared: {}", event.getReason());
+    rateReplica.clear();
+  }
+
+  @EventListener
+  public void onConsumerRestarted(AsyncConsumerRestartedEvent event) {
+    loadSnapshot();
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadSnapshot() {
+    // One load at a time, the events received meanwhile trigger no other one
+    if (!loadingSnapshot.compareAndSet(false, true)) {
+      return;
+    }
+    loadBalancedExchangeWebClient
+        .get()
+        .uri(RATES_URI)
+        .retrieve()
+        .bodyToMono(RateChangeEvent.class)
+        .retryWhen(
+            Retry.backoff(Long.MAX_VALUE, configuration.getReconnectDelay())
+                .maxBackoff(configuration.getMaxReconnectDelay()))
+        .doFinally(signal -> loadingSnapshot.set(false))
+        .subscribe(rateReplica::apply);
+  }
+}
@@ -0,0 +1,22 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.stream;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+// The new rate of one pair, as sent by currency-exchange (see RateChangeEvent).
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class RateChange {
+  // Of the currency_exchange row
+  private Long id;
+  private String from;
+  private String to;
+  // null: the pair has been removed
+  private BigDecimal conversionMultiple;
+}
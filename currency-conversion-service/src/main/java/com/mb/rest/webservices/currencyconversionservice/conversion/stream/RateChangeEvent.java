@@ -0,0 +1,23 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.stream;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+// The changes of one refresh of the rate table of an instance of currency-exchange (its epoch),
+// from previousVersion to version, or the whole table when snapshot is true.
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class RateChangeEvent {
+  private String epoch;
+  private long version;
+  private long previousVersion;
+  private boolean snapshot;
+  private String environment;
+  private List<RateChange> changes;
+}
@@ -0,0 +1,95 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.stream;
+
+import com.mb.rest.webservices.currencyconversionservice.conversion.CurrencyConversion;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Local copy of the rate table of currency-exchange, kept up to date by the RateChangeEvents
+// it pushes (see SseRateSubscriber and RabbitRateSubscriber). Once it's loaded, the conversions
+// of the pairs it knows don't call currency-exchange at all.
+// The pairs it doesn't know (e.g. the cross rates derived by currency-exchange) still go
+// through CurrencyExchangeCache.
+// When the subscription is interrupted, the replica is cleared: the rates it holds would not
+// change anymore, the conversions go through CurrencyExchangeCache (and its expiry) until a
+// snapshot is applied again.
+@Component
+public class RateReplica {
+
+  private final Map<String, CurrencyConversion> rates = new ConcurrentHashMap<>();
+  // Last version applied, per epoch (instance of currency-exchange). Guarded by this.
+  private final Map<String, Long> versions = new HashMap<>();
+
+  // null if the pair isn't in the replica (or the replica isn't loaded yet)
+  public CurrencyConversion find(String from, String to) {
+    return rates.get(from + "/" + to);
+  }
+
+  // false: the event doesn't follow the last version applied for its epoch (some events have
+  // been missed), or nothing has been loaded yet. Nothing is applied, a snapshot is needed.
+  public synchronized boolean apply(RateChangeEvent event) {
+    if (event.isSnapshot()) {
+      Set<String> pairs = new HashSet<>();
+      for (RateChange change : event.getChanges()) {
+        pairs.add(put(change, event.getEnvironment()));
+      }
+      rates.keySet().retainAll(pairs);
+      versions.clear();
+      versions.put(event.getEpoch(), event.getVersion());
+      return true;
+    }
+
+    Long applied = versions.get(event.getEpoch());
+    if (applied != null) {
+      if (event.getVersion() <= applied) {
+        // Already applied (e.g. replayed after a reconnection)
+        return true;
+      }
+      if (event.getPreviousVersion() != applied) {
+        return false;
+      }
+    } else if (versions.isEmpty()) {
+      return false;
+    }
+    // The first event of another instance (RabbitMQ delivers the events of all of them): its
+    // changes carry the new rates themselves, so they can be applied on top of our snapshot.
+    for (RateChange change : event.getChanges()) {
+      put(change, event.getEnvironment());
+    }
+    versions.put(event.getEpoch(), event.getVersion());
+    return true;
+  }
+
+  // Nothing is found, and a snapshot is needed before the next events are applied
+  public synchronized void clear() {
+    rates.clear();
+    versions.clear();
+  }
+
+  public int size() {
+    return rates.size();
+  }
+
+  private String put(RateChange change, String environment) {
+    String pair = change.getFrom() + "/" + change.getTo();
+    if (change.getConversionMultiple() == null) {
+      rates.remove(pair);
+    } else {
+      rates.put(
+          pair,
+          new CurrencyConversion(
+              change.getId(),
+              change.getFrom(),
+              change.getTo(),
+              null,
+              change.getConversionMultiple(),
+              null,
+              environment + " replica"));
+    }
+    return pair;
+  }
+}
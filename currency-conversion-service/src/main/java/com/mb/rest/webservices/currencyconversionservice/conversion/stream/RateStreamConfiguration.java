@@ -0,0 +1,27 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.stream;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("currency-conversion.rate-stream")
+public class RateStreamConfiguration {
+  // How the RateReplica is kept up to date:
+  // none: it isn't, every conversion goes through the cache (the original behavior)
+  // sse: /currency-exchange/stream of an instance of currency-exchange (through Eureka)
+  // rabbit: the fanout exchange of currency-exchange, with a snapshot from /currency-exchange/rates
+  private String transport = "none";
+  // Delay before reconnecting, doubled after every failure up to max-reconnect-delay.
+  private Duration reconnectDelay = Duration.ofSeconds(1);
+  private Duration maxReconnectDelay = Duration.ofSeconds(30);
+  // sse: without any event nor heartbeat for this long (currency-exchange sends a heartbeat
+  // every currency-exchange.rate-stream.heartbeat-interval), the stream is considered dead.
+  private Duration heartbeatTimeout = Duration.ofSeconds(45);
+  private String rabbitExchange = "currency-exchange.rates";
+}
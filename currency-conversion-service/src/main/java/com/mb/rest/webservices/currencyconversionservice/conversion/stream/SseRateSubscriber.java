@@ -0,0 +1,108 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import javax.annotation.PreDestroy;
+
+// Keeps the RateReplica up to date from /currency-exchange/stream (server-sent events), with a
+// single long-lived connection to an instance of currency-exchange (chosen through Eureka).
+// When the connection is closed, it reconnects with the id of the last event applied
+// (Last-Event-ID): currency-exchange sends the events missed in between, or a snapshot.
+// When it fails, or misses the heartbeats (heartbeat-timeout), the replica is cleared until the
+// snapshot of the next connection: the conversions go through the cache meanwhile.
+@Component
+@ConditionalOnProperty(name = "currency-conversion.rate-stream.transport", havingValue = "sse")
+public class SseRateSubscriber {
+
+  private static final String STREAM_URI = "/currency-exchange/stream";
+  private static final ParameterizedTypeReference<ServerSentEvent<RateChangeEvent>> EVENT_TYPE =
+      new ParameterizedTypeReference<>() {};
+
+  private final Logger logger = LoggerFactory.getLogger(SseRateSubscriber.class);
+
+  @Autowired RateReplica rateReplica;
+  @Autowired RateStreamConfiguration configuration;
+
+  @Autowired
+  @Qualifier("loadBalancedExchangeWebClient")
+  WebClient loadBalancedExchangeWebClient;
+
+  private volatile String lastEventId;
+  private Disposable subscription;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void subscribe() {
+    subscription =
+        Flux.defer(this::stream)
+            // currency-exchange closes the stream after its timeout
+            .repeatWhen(completed -> completed.delayElements(configuration.getReconnectDelay()))
+            .retryWhen(
+                Retry.backoff(Long.MAX_VALUE, configuration.getReconnectDelay())
+                    .maxBackoff(configuration.getMaxReconnectDelay())
+                    // the delay starts again from reconnect-delay once events are received
+                    .transientErrors(true)
+                    .doBeforeRetry(
+                        signal -> {
+                          logger.warn(
+                              "Rate stream interrupted, reconnecting: {}",
+                              signal.failure().toString());
+                          rateReplica.clear();
+                          lastEventId = null;
+                        }))
+            .subscribe();
+  }
+
+  @PreDestroy
+  public void unsubscribe() {
+    if (subscription != null) {
+      subscription.dispose();
+    }
+  }
+
+  private Flux<ServerSentEvent<RateChangeEvent>> stream() {
+    String resumeFrom = lastEventId;
+    return loadBalancedExchangeWebClient
+        .get()
+        .uri(STREAM_URI)
+        .accept(MediaType.TEXT_EVENT_STREAM)
+        .headers(
+            headers -> {
+              if (resumeFrom != null) {
+                headers.set("Last-Event-ID", resumeFrom);
+              }
+            })
+        .retrieve()
+        .bodyToFlux(EVENT_TYPE)
+        // The heartbeats are events too
+        .timeout(configuration.getHeartbeatTimeout())
+        .doOnNext(this::onEvent);
+  }
+
+  private void onEvent(ServerSentEvent<RateChangeEvent> event) {
+    // The heartbeats are comments, without data
+    if (event.data() == null) {
+      return;
+    }
+    if (!rateReplica.apply(event.data())) {
+      // Reconnect without Last-Event-ID, to get a snapshot
+      lastEventId = null;
+      throw new IllegalStateException(
+          "Rate changes missing before version " + event.data().getVersion());
+    }
+    lastEventId = event.id();
+  }
+}
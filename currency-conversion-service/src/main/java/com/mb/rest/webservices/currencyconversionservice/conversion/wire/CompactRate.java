@@ -0,0 +1,55 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.wire;
+
+import com.mb.rest.webservices.currencyconversionservice.conversion.CurrencyConversion;
+import org.springframework.http.MediaType;
+
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Decoding of the binary encoding of a rate sent by currency-exchange (see CompactRate over
+// there for the layout), about 30 bytes instead of about 90 in JSON, and no parsing:
+//   byte    version (1)
+//   byte    flags: 1 = id present, 2 = environment present
+//   long    id (if present)
+//   3 bytes from, 3 bytes to (ASCII, ISO 4217)
+//   byte    scale of the conversion multiple
+//   long    unscaled value of the conversion multiple (multiple = unscaled x 10^-scale)
+//   byte    length of the environment, then its UTF-8 bytes (if present)
+public final class CompactRate {
+
+  public static final String MEDIA_TYPE_VALUE = "application/x-compact-rate";
+  public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+  static final byte VERSION = 1;
+  static final int ID_PRESENT = 1;
+  static final int ENVIRONMENT_PRESENT = 2;
+
+  private CompactRate() {}
+
+  public static CurrencyConversion decode(byte[] bytes) {
+    try {
+      ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      byte version = buffer.get();
+      if (version != VERSION) {
+        throw new IllegalArgumentException("Unsupported compact rate version " + version);
+      }
+      int flags = buffer.get();
+      Long id = (flags & ID_PRESENT) != 0 ? buffer.getLong() : null;
+      String from = new String(bytes, buffer.position(), 3, StandardCharsets.US_ASCII);
+      String to = new String(bytes, buffer.position() + 3, 3, StandardCharsets.US_ASCII);
+      buffer.position(buffer.position() + 6);
+      int scale = buffer.get();
+      BigDecimal conversionMultiple = BigDecimal.valueOf(buffer.getLong(), scale);
+      String environment = null;
+      if ((flags & ENVIRONMENT_PRESENT) != 0) {
+        int length = Byte.toUnsignedInt(buffer.get());
+        environment = new String(bytes, buffer.position(), length, StandardCharsets.UTF_8);
+      }
+      return new CurrencyConversion(id, from, to, null, conversionMultiple, null, environment);
+    } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+      throw new IllegalArgumentException("Truncated compact rate", e);
+    }
+  }
+}
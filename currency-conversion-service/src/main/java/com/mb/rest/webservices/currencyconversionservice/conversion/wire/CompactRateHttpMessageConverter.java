@@ -0,0 +1,57 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.wire;
+
+import com.mb.rest.webservices.currencyconversionservice.conversion.CurrencyConversion;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.util.List;
+
+// Reads the CompactRate responses of currency-exchange, for the Feign clients (SpringDecoder)
+// and the RestTemplate, which both take the HttpMessageConverters of the context.
+// Read only: the responses of currency-conversion stay in JSON, canWrite is always false so
+// write is never called.
+public class CompactRateHttpMessageConverter implements HttpMessageConverter<CurrencyConversion> {
+
+  private static final List<MediaType> SUPPORTED_MEDIA_TYPES = List.of(CompactRate.MEDIA_TYPE);
+
+  @Override
+  public boolean canRead(Class<?> clazz, MediaType mediaType) {
+    return CurrencyConversion.class == clazz
+        && (mediaType == null || CompactRate.MEDIA_TYPE.includes(mediaType));
+  }
+
+  @Override
+  public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  public List<MediaType> getSupportedMediaTypes() {
+    return SUPPORTED_MEDIA_TYPES;
+  }
+
+  @Override
+  public CurrencyConversion read(
+      Class<? extends CurrencyConversion> clazz, HttpInputMessage inputMessage)
+      throws IOException {
+    try {
+      return CompactRate.decode(StreamUtils.copyToByteArray(inputMessage.getBody()));
+    } catch (IllegalArgumentException e) {
+      throw new HttpMessageNotReadableException(e.getMessage(), e, inputMessage);
+    }
+  }
+
+  @Override
+  public void write(
+      CurrencyConversion currencyConversion,
+      MediaType contentType,
+      HttpOutputMessage outputMessage) {
+    throw new HttpMessageNotWritableException("CompactRate is only read");
+  }
+}
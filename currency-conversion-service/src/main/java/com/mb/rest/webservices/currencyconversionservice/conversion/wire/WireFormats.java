@@ -0,0 +1,42 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.wire;
+
+import feign.RequestInterceptor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+// With currency-conversion.wire-format.compact=true, currency-exchange is asked for the
+// CompactRate encoding of the rates, the responses in JSON are still read (e.g. from an older
+// currency-exchange, or for a rate that doesn't fit the layout).
+//  - the RestTemplate sends the media types of the converters that can read the response, so
+//    registering the converter is enough
+//  - Feign doesn't send any Accept header, the interceptor adds it
+// The WebClients (reactive mode) keep JSON.
+@Configuration
+@ConditionalOnProperty(
+    name = "currency-conversion.wire-format.compact",
+    havingValue = "true",
+    matchIfMissing = true)
+public class WireFormats {
+
+  static final String ACCEPT =
+      CompactRate.MEDIA_TYPE_VALUE + ", " + MediaType.APPLICATION_JSON_VALUE;
+
+  // Picked up by HttpMessageConverters, in front of the default converters
+  @Bean
+  public CompactRateHttpMessageConverter compactRateHttpMessageConverter() {
+    return new CompactRateHttpMessageConverter();
+  }
+
+  // The bulk endpoint of currency-exchange only produces JSON, it ignores the compact type.
+  @Bean
+  public RequestInterceptor compactRateAcceptInterceptor() {
+    return template -> {
+      if (!template.headers().containsKey(HttpHeaders.ACCEPT)) {
+        template.header(HttpHeaders.ACCEPT, ACCEPT);
+      }
+    };
+  }
+}
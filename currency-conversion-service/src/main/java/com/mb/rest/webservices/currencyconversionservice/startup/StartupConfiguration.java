@@ -0,0 +1,35 @@
+package com.mb.rest.webservices.currencyconversionservice.startup;
+
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+// With spring.main.lazy-initialization=true (fast-start profile), a bean is only created when
+// another one needs it. The ones that have work of their own must stay eager.
+@Configuration
+public class StartupConfiguration {
+
+  // The @RabbitListener methods are only registered once their bean exists
+  // (e.g. RabbitRateSubscriber, with currency-conversion.rate-stream.transport=rabbit)
+  @Bean
+  static LazyInitializationExcludeFilter rabbitListenersExcludeFilter() {
+    return (beanName, beanDefinition, beanType) -> hasRabbitListener(beanType);
+  }
+
+  private static boolean hasRabbitListener(Class<?> beanType) {
+    if (beanType == null) {
+      return false;
+    }
+    for (Method method : ReflectionUtils.getUniqueDeclaredMethods(beanType)) {
+      if (AnnotatedElementUtils.hasAnnotation(method, RabbitListener.class)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,180 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion;
+
+import com.mb.rest.webservices.currencyconversionservice.CurrencyConversionServiceApplication;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Throughput of /currency-conversion-feign in blocking and reactive mode, for several sizes of
+// the Tomcat thread pool, while currency-exchange (a local stub) answers in EXCHANGE_DELAY_MILLIS.
+// It takes about a minute, so it only runs when asked:
+// mvn test -Dtest=ConversionModeLoadTest -Dload-test=true
+@EnabledIfSystemProperty(named = "load-test", matches = "true")
+class ConversionModeLoadTest {
+
+  private static final int EXCHANGE_DELAY_MILLIS = 50;
+  private static final int CLIENT_CONCURRENCY = 256;
+  private static final int[] TOMCAT_THREADS = {8, 32, 128};
+  private static final Duration WARM_UP = Duration.ofSeconds(2);
+  private static final Duration MEASUREMENT = Duration.ofSeconds(5);
+
+  private static final String EXCHANGE_RESPONSE =
+      "{\"id\":10001,\"from\":\"USD\",\"to\":\"CAD\",\"conversionMultiple\":1.29,"
+          + "\"environment\":\"stub\"}";
+
+  private static final Logger logger = LoggerFactory.getLogger(ConversionModeLoadTest.class);
+
+  private static HttpServer exchangeStub;
+  private static ExecutorService exchangeStubExecutor;
+
+  @BeforeAll
+  static void startExchangeStub() throws Exception {
+    exchangeStub = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+    exchangeStubExecutor = Executors.newFixedThreadPool(CLIENT_CONCURRENCY * 2);
+    exchangeStub.setExecutor(exchangeStubExecutor);
+    exchangeStub.createContext(
+        "/currency-exchange/",
+        exchange -> {
+          try {
+            Thread.sleep(EXCHANGE_DELAY_MILLIS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          byte[] body = EXCHANGE_RESPONSE.getBytes(StandardCharsets.UTF_8);
+          exchange.getResponseHeaders().add("Content-Type", "application/json");
+          exchange.sendResponseHeaders(200, body.length);
+          try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+          }
+        });
+    exchangeStub.start();
+  }
+
+  @AfterAll
+  static void stopExchangeStub() {
+    exchangeStub.stop(0);
+    exchangeStubExecutor.shutdownNow();
+  }
+
+  @Test
+  void throughputVersusThreadCount() throws Exception {
+    List<String> report = new ArrayList<>();
+    report.add(String.format("%-10s %15s %15s %10s", "mode", "tomcat threads", "requests/s", "errors"));
+
+    for (String mode : new String[] {"blocking", "reactive"}) {
+      for (int threads : TOMCAT_THREADS) {
+        try (ConfigurableApplicationContext context = startConversionService(mode, threads)) {
+          String port = context.getEnvironment().getProperty("local.server.port");
+          URI uri =
+              URI.create(
+                  "http://localhost:"
+                      + port
+                      + "/currency-conversion-feign/from/USD/to/CAD/quantity/10");
+
+          drive(uri, WARM_UP);
+          long[] result = drive(uri, MEASUREMENT);
+          report.add(
+              String.format(
+                  "%-10s %15d %15d %10d",
+                  mode, threads, result[0] / MEASUREMENT.toSeconds(), result[1]));
+          assertThat(result[0]).isPositive();
+        }
+      }
+    }
+
+    logger.info(
+        "Exchange delay {} ms, {} clients\n{}",
+        EXCHANGE_DELAY_MILLIS,
+        CLIENT_CONCURRENCY,
+        String.join("\n", report));
+  }
+
+  private static ConfigurableApplicationContext startConversionService(String mode, int threads) {
+    String exchangeUrl = "http://localhost:" + exchangeStub.getAddress().getPort();
+    // Command-line arguments: the default properties of the builder would lose against
+    // application.properties (currency-conversion.client.mode=blocking for both modes)
+    return new SpringApplicationBuilder(CurrencyConversionServiceApplication.class)
+        .run(
+            "--server.port=0",
+            "--server.tomcat.threads.max=" + threads,
+            "--server.tomcat.threads.min-spare=" + threads,
+            "--currency-conversion.client.mode=" + mode,
+            "--currency-conversion.client.direct-url=" + exchangeUrl,
+            "--spring.cloud.discovery.client.simple.instances.currency-exchange[0].uri="
+                + exchangeUrl,
+            // Both modes call the exchange stub for every request: with the rate cache the
+            // blocking mode would answer from memory after the first call
+            "--currency-conversion.cache.enabled=false",
+            "--eureka.client.enabled=false",
+            // No naming-server to push the registry changes either
+            "--registry-changes.enabled=false",
+            "--spring.zipkin.enabled=false",
+            "--spring.devtools.restart.enabled=false",
+            "--logging.level.root=WARN",
+            // The report of this test
+            "--logging.level." + ConversionModeLoadTest.class.getName() + "=INFO");
+  }
+
+  // Closed model: CLIENT_CONCURRENCY clients sending requests back to back.
+  // Returns {successful requests, errors}.
+  private static long[] drive(URI uri, Duration duration) throws InterruptedException {
+    // The HttpClient doesn't shut down the executor it's given
+    ExecutorService httpClientExecutor = Executors.newFixedThreadPool(CLIENT_CONCURRENCY);
+    HttpClient httpClient =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(httpClientExecutor)
+            .build();
+    HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+    AtomicLong successes = new AtomicLong();
+    AtomicLong errors = new AtomicLong();
+    long deadline = System.nanoTime() + duration.toNanos();
+
+    ExecutorService clients = Executors.newFixedThreadPool(CLIENT_CONCURRENCY);
+    for (int i = 0; i < CLIENT_CONCURRENCY; i++) {
+      clients.execute(
+          () -> {
+            while (System.nanoTime() < deadline) {
+              try {
+                HttpResponse<Void> response =
+                    httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                (response.statusCode() == 200 ? successes : errors).incrementAndGet();
+              } catch (Exception e) {
+                errors.incrementAndGet();
+              }
+            }
+          });
+    }
+    clients.shutdown();
+    try {
+      clients.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+    } finally {
+      clients.shutdownNow();
+      httpClientExecutor.shutdownNow();
+    }
+    return new long[] {successes.get(), errors.get()};
+  }
+}
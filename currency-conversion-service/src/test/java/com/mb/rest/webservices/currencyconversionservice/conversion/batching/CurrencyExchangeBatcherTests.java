@@ -0,0 +1,148 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.batching;
+
+import com.mb.rest.webservices.currencyconversionservice.conversion.CurrencyConversion;
+import com.mb.rest.webservices.currencyconversionservice.conversion.CurrencyExchangeProxy;
+import com.mb.rest.webservices.currencyconversionservice.conversion.CurrencyPair;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.openfeign.FeignClientProperties;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CurrencyExchangeBatcherTests {
+
+  private final CurrencyExchangeProxy currencyExchangeProxy = mock(CurrencyExchangeProxy.class);
+  private final BatchingConfiguration configuration = new BatchingConfiguration();
+  private final FeignClientProperties feignClientProperties = new FeignClientProperties();
+  private final CurrencyExchangeBatcher batcher = new CurrencyExchangeBatcher();
+  private final CountDownLatch stalled = new CountDownLatch(1);
+
+  @BeforeEach
+  void setUp() {
+    configuration.setEnabled(true);
+    configuration.setWindowMillis(50);
+    ReflectionTestUtils.setField(batcher, "currencyExchangeProxy", currencyExchangeProxy);
+    ReflectionTestUtils.setField(batcher, "configuration", configuration);
+    StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+    beanFactory.addBean("feignClientProperties", feignClientProperties);
+    ReflectionTestUtils.setField(
+        batcher,
+        "feignClientProperties",
+        beanFactory.getBeanProvider(FeignClientProperties.class));
+
+    when(currencyExchangeProxy.retrieveExchangeValues(anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<CurrencyPair> pairs = invocation.getArgument(0);
+              List<CurrencyConversion> currencyConversions = new ArrayList<>();
+              for (CurrencyPair pair : pairs) {
+                if (pair.getTo().equals("CAD")) {
+                  currencyConversions.add(
+                      new CurrencyConversion(
+                          1L, pair.getFrom(), "CAD", null, BigDecimal.ONE, null, "8000"));
+                }
+              }
+              return currencyConversions;
+            });
+  }
+
+  @AfterEach
+  void tearDown() {
+    stalled.countDown();
+    batcher.shutdown();
+  }
+
+  @Test
+  void mergesConcurrentLookupsIntoOneBulkCall() {
+    batcher.start();
+    List<CompletableFuture<CurrencyConversion>> results = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      results.add(batcher.submit("USD", "CAD"));
+      results.add(batcher.submit("EUR", "CAD"));
+    }
+
+    for (CompletableFuture<CurrencyConversion> result : results) {
+      assertThat(result.join().getTo()).isEqualTo("CAD");
+    }
+    verify(currencyExchangeProxy, times(1)).retrieveExchangeValues(anyList());
+  }
+
+  @Test
+  void failsTheLookupsOfUnknownPairs() {
+    batcher.start();
+    CompletableFuture<CurrencyConversion> known = batcher.submit("USD", "CAD");
+    CompletableFuture<CurrencyConversion> unknown = batcher.submit("USD", "EUR");
+
+    assertThat(known.join().getFrom()).isEqualTo("USD");
+    assertThatThrownBy(unknown::join)
+        .isInstanceOf(CompletionException.class)
+        .hasMessageContaining("Unable to find data for USD");
+  }
+
+  @Test
+  void failsTheLookupsOnceTheFeignTimeoutsAreOver() {
+    FeignClientProperties.FeignClientConfiguration client =
+        new FeignClientProperties.FeignClientConfiguration();
+    client.setConnectTimeout(100);
+    client.setReadTimeout(100);
+    feignClientProperties.getConfig().put("currency-exchange", client);
+    batcher.start();
+    stallTheBulkCalls();
+
+    assertThatThrownBy(() -> batcher.retrieveExchangeValue("USD", "CAD"))
+        .isInstanceOf(CompletionException.class)
+        .hasCauseInstanceOf(TimeoutException.class);
+  }
+
+  @Test
+  void failsTheBatchesBeyondTheCallQueue() {
+    // One batch per pair: one in the call thread, one in the queue, the last one rejected
+    configuration.setMaxBatchSize(1);
+    configuration.setCallThreads(1);
+    configuration.setCallQueueSize(1);
+    batcher.start();
+    stallTheBulkCalls();
+
+    List<CompletableFuture<CurrencyConversion>> results =
+        List.of(
+            batcher.submit("USD", "CAD"),
+            batcher.submit("EUR", "CAD"),
+            batcher.submit("GBP", "CAD"));
+
+    CompletableFuture.anyOf(results.toArray(new CompletableFuture<?>[0]))
+        .exceptionally(e -> null)
+        .join();
+    List<CompletableFuture<CurrencyConversion>> done =
+        results.stream().filter(CompletableFuture::isDone).collect(Collectors.toList());
+    assertThat(done).hasSize(1);
+    assertThatThrownBy(done.get(0)::join).hasCauseInstanceOf(RejectedExecutionException.class);
+  }
+
+  private void stallTheBulkCalls() {
+    when(currencyExchangeProxy.retrieveExchangeValues(anyList()))
+        .thenAnswer(
+            invocation -> {
+              stalled.await();
+              return List.of();
+            });
+  }
+}
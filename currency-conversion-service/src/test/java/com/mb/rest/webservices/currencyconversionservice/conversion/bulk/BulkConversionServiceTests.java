@@ -0,0 +1,131 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.bulk;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.mb.rest.webservices.currencyconversionservice.conversion.CurrencyConversion;
+import com.mb.rest.webservices.currencyconversionservice.conversion.cache.CurrencyExchangeCache;
+import com.mb.rest.webservices.currencyconversionservice.conversion.stream.RateReplica;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkConversionServiceTests {
+
+  private final RateReplica rateReplica = mock(RateReplica.class);
+  private final CurrencyExchangeCache currencyExchangeCache = mock(CurrencyExchangeCache.class);
+  private BulkConversionService service;
+
+  @BeforeEach
+  void setUp() {
+    BulkConversionConfiguration configuration = new BulkConversionConfiguration();
+    // Many small chunks on several threads: the order of the rows has to be kept anyway
+    configuration.setChunkSize(3);
+    configuration.setParallelism(4);
+    service = new BulkConversionService(rateReplica, currencyExchangeCache, configuration);
+    when(currencyExchangeCache.retrieveExchangeValue("USD", "CAD"))
+        .thenReturn(rate("USD", "CAD", "1.29"));
+    when(currencyExchangeCache.retrieveExchangeValue("EUR", "CAD"))
+        .thenReturn(rate("EUR", "CAD", "1.34"));
+    when(currencyExchangeCache.retrieveExchangeValue("XXX", "CAD"))
+        .thenThrow(new RuntimeException("Unable to find data"));
+  }
+
+  @AfterEach
+  void tearDown() {
+    service.shutdown();
+  }
+
+  @Test
+  void convertsEveryRowInOrderLikeBigDecimal() throws IOException {
+    String[] quantities = {"100", "0.005", "-12.5", "123456789012345678", "1e3", "99999.999999"};
+    StringBuilder body = new StringBuilder();
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      String quantity = quantities[i % quantities.length];
+      String from = i % 2 == 0 ? "USD" : "EUR";
+      String multiple = i % 2 == 0 ? "1.29" : "1.34";
+      body.append("{\"from\":\"").append(from).append("\",\"to\":\"CAD\",\"quantity\":");
+      body.append(quantity).append("}\n");
+      expected.add(
+          String.format(
+              "{\"row\":%d,\"from\":\"%s\",\"to\":\"CAD\",\"quantity\":%s,"
+                  + "\"conversionMultiple\":%s,\"totalCalculatedAmount\":%s}",
+              i + 1,
+              from,
+              new BigDecimal(quantity).toPlainString(),
+              multiple,
+              new BigDecimal(quantity).multiply(new BigDecimal(multiple)).toPlainString()));
+    }
+
+    assertThat(convert(BulkFormat.NDJSON, body.toString())).containsExactlyElementsOf(expected);
+    // Once per pair, not once per row
+    verify(currencyExchangeCache, times(2)).retrieveExchangeValue(anyString(), anyString());
+  }
+
+  @Test
+  void answersTheRowsWhichCantBeConvertedWithAnError() throws IOException {
+    String body =
+        "from,to,quantity\n"
+            + "USD,CAD,10\n"
+            + "XXX,CAD,10\n"
+            + "usd,CAD,10\n"
+            + "USD,CAD,ten\n"
+            + "USD,CAD\n"
+            + "EUR,CAD,2.5\n";
+
+    assertThat(convert(BulkFormat.CSV, body))
+        .containsExactly(
+            "row,from,to,quantity,conversionMultiple,totalCalculatedAmount,error",
+            "1,USD,CAD,10,1.29,12.90,",
+            "2,,,,,,unknown pair",
+            "3,,,,,,invalid currency",
+            "4,,,,,,invalid quantity",
+            "5,,,,,,expected from,to,quantity",
+            "6,EUR,CAD,2.5,1.34,3.350,");
+  }
+
+  @Test
+  void endsWithAnErrorRowOnAMalformedBody() throws IOException {
+    String body =
+        "{\"from\":\"USD\",\"to\":\"CAD\",\"quantity\":1}\n"
+            + "{\"from\":\"USD\",\"to\":\"CAD\",\"quantity\":2}\n"
+            + "{\"from\":\"USD\",\"to\":";
+
+    assertThat(convert(BulkFormat.NDJSON, body))
+        .containsExactly(
+            "{\"row\":1,\"from\":\"USD\",\"to\":\"CAD\",\"quantity\":1,"
+                + "\"conversionMultiple\":1.29,\"totalCalculatedAmount\":1.29}",
+            "{\"row\":2,\"from\":\"USD\",\"to\":\"CAD\",\"quantity\":2,"
+                + "\"conversionMultiple\":1.29,\"totalCalculatedAmount\":2.58}",
+            "{\"row\":3,\"error\":\"unreadable body\"}");
+  }
+
+  private List<String> convert(BulkFormat format, String body) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    service.convert(
+        format.reader(
+            new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), new JsonFactory()),
+        format,
+        out);
+    return List.of(out.toString(StandardCharsets.US_ASCII).split("\n"));
+  }
+
+  private static CurrencyConversion rate(String from, String to, String multiple) {
+    return new CurrencyConversion(
+        10001L, from, to, null, new BigDecimal(multiple), null, "8000");
+  }
+}
@@ -0,0 +1,63 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.cache;
+
+import com.mb.rest.webservices.currencyconversionservice.conversion.CurrencyConversion;
+import com.mb.rest.webservices.currencyconversionservice.conversion.batching.CurrencyExchangeBatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CurrencyExchangeCacheTests {
+
+  private final CurrencyExchangeBatcher currencyExchangeBatcher =
+      mock(CurrencyExchangeBatcher.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final CurrencyExchangeCache cache =
+      new CurrencyExchangeCache(
+          currencyExchangeBatcher, new RateCacheConfiguration(), meterRegistry);
+
+  @AfterEach
+  void tearDown() {
+    cache.shutdown();
+  }
+
+  @Test
+  void loadsAColdPairOnlyOnce() throws Exception {
+    CompletableFuture<CurrencyConversion> pendingLoad = new CompletableFuture<>();
+    when(currencyExchangeBatcher.retrieveExchangeValueAsync(eq("USD"), eq("CAD"), any()))
+        .thenReturn(pendingLoad);
+
+    ExecutorService requests = Executors.newFixedThreadPool(8);
+    List<Future<CurrencyConversion>> results = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      results.add(requests.submit(() -> cache.retrieveExchangeValue("USD", "CAD")));
+    }
+    pendingLoad.complete(
+        new CurrencyConversion(10001L, "USD", "CAD", null, BigDecimal.ONE, null, "8000"));
+
+    for (Future<CurrencyConversion> result : results) {
+      assertThat(result.get().getId()).isEqualTo(10001L);
+    }
+    assertThat(cache.retrieveExchangeValue("USD", "CAD").getId()).isEqualTo(10001L);
+    verify(currencyExchangeBatcher, times(1))
+        .retrieveExchangeValueAsync(eq("USD"), eq("CAD"), any());
+    assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count())
+        .isPositive();
+    requests.shutdown();
+  }
+}
@@ -0,0 +1,134 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.hedging;
+
+import com.mb.rest.webservices.currencyconversionservice.conversion.hedging.HedgingConfiguration.ClientHedging;
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.Target;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HedgedClientTests {
+
+  private final HedgingConfiguration configuration = new HedgingConfiguration();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  // The first call hangs until the end of the test, the next ones answer right away.
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final AtomicInteger calls = new AtomicInteger();
+  private final Client slowThenFast = (request, options) -> {
+    if (calls.incrementAndGet() == 1) {
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return response(request, "slow");
+    }
+    return response(request, "fast");
+  };
+
+  @AfterEach
+  void releaseTheSlowCall() {
+    release.countDown();
+    executor.shutdown();
+  }
+
+  @Test
+  void theHedgeAnswersWhenTheFirstCallIsSlow() throws Exception {
+    ClientHedging settings = enable("currency-exchange");
+    settings.setMaxDelay(Duration.ofMillis(20));
+    settings.setBudgetPercent(100);
+    HedgedClient client = new HedgedClient(slowThenFast, configuration, executor, meterRegistry);
+
+    Response response = client.execute(request("currency-exchange", Request.HttpMethod.GET), null);
+
+    assertThat(body(response)).isEqualTo("fast");
+    assertThat(calls).hasValue(2);
+    assertThat(meterRegistry.get("hedging.hedges").tag("winner", "hedge").counter().count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void noHedgeOutsideOfTheBudget() throws Exception {
+    ClientHedging settings = enable("currency-exchange");
+    settings.setMaxDelay(Duration.ofMillis(20));
+    settings.setBudgetPercent(0);
+    HedgedClient client = new HedgedClient(slowThenFast, configuration, executor, meterRegistry);
+
+    executor.execute(() -> sleepThenRelease(200));
+    Response response = client.execute(request("currency-exchange", Request.HttpMethod.GET), null);
+
+    assertThat(body(response)).isEqualTo("slow");
+    assertThat(calls).hasValue(1);
+    assertThat(meterRegistry.get("hedging.budget.exhausted").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void onlyTheGetCallsOfTheEnabledClientsAreHedged() throws Exception {
+    ClientHedging settings = enable("currency-exchange");
+    settings.setMaxDelay(Duration.ofMillis(20));
+    settings.setBudgetPercent(100);
+    HedgedClient client = new HedgedClient(slowThenFast, configuration, executor, meterRegistry);
+
+    executor.execute(() -> sleepThenRelease(200));
+    Response response = client.execute(request("currency-exchange", Request.HttpMethod.POST), null);
+
+    assertThat(body(response)).isEqualTo("slow");
+    assertThat(client.execute(request("other", Request.HttpMethod.GET), null)).isNotNull();
+    assertThat(calls).hasValue(2);
+    assertThat(meterRegistry.find("hedging.requests").counter()).isNull();
+  }
+
+  private ClientHedging enable(String name) {
+    ClientHedging settings = new ClientHedging();
+    settings.setEnabled(true);
+    configuration.getClients().put(name, settings);
+    return settings;
+  }
+
+  private void sleepThenRelease(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    release.countDown();
+  }
+
+  private static Request request(String clientName, Request.HttpMethod method) {
+    RequestTemplate template = new RequestTemplate();
+    template.feignTarget(
+        new Target.HardCodedTarget<>(Object.class, clientName, "http://" + clientName));
+    return Request.create(
+        method, "http://" + clientName + "/currency-exchange/from/USD/to/CAD",
+        Map.of(), null, StandardCharsets.UTF_8, template);
+  }
+
+  private static Response response(Request request, String body) {
+    return Response.builder()
+        .status(200)
+        .request(request)
+        .headers(Map.of())
+        .body(body, StandardCharsets.UTF_8)
+        .build();
+  }
+
+  private static String body(Response response) throws Exception {
+    return new String(response.body().asInputStream().readAllBytes(), StandardCharsets.UTF_8);
+  }
+}
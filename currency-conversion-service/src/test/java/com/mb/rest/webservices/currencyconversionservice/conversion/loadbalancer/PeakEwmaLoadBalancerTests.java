@@ -0,0 +1,97 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.loadbalancer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PeakEwmaLoadBalancerTests {
+
+  private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final LoadBalancingConfiguration configuration = new LoadBalancingConfiguration();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final InstanceStatsRegistry registry =
+      new InstanceStatsRegistry(configuration, meterRegistry);
+  private final PeakEwmaLoadBalancer loadBalancer = new PeakEwmaLoadBalancer(null, registry);
+
+  private final ServiceInstance fast = instance(8000);
+  private final ServiceInstance slow = instance(8001);
+
+  @Test
+  void avoidsTheSlowInstance() {
+    long now = System.nanoTime();
+    call(fast, 2 * MS, now);
+    call(slow, 200 * MS, now);
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(loadBalancer.choose(List.of(fast, slow)).getServer()).isSameAs(fast);
+    }
+    assertThat(meterRegistry.get("loadbalancer.instance.score")
+        .tag("instance", "localhost:8001").gauge().value()).isGreaterThan(100);
+  }
+
+  @Test
+  void countsTheInFlightCalls() {
+    InstanceStats stats = registry.stats(fast);
+    long now = System.nanoTime();
+    call(fast, 10 * MS, now);
+    double idle = stats.score(now);
+
+    stats.started();
+    stats.started();
+
+    assertThat(stats.inFlight()).isEqualTo(2);
+    assertThat(stats.score(now)).isEqualTo(3 * idle);
+  }
+
+  @Test
+  void takesThePeaksAndForgetsThemProgressively() {
+    InstanceStats stats = registry.stats(fast);
+    long now = System.nanoTime();
+    call(fast, 10 * MS, now);
+    call(fast, 100 * MS, now);
+    assertThat(stats.latencyNanos(now)).isEqualTo(100.0 * MS);
+
+    // A faster response right away barely changes the latency
+    call(fast, 10 * MS, now);
+    assertThat(stats.latencyNanos(now)).isEqualTo(100.0 * MS);
+
+    // decay-time later, about a third of it is left
+    long later = now + configuration.getDecayTime().toNanos();
+    assertThat(stats.latencyNanos(later)).isBetween(36.0 * MS, 37.0 * MS);
+  }
+
+  @Test
+  void ejectsAnInstanceThatKeepsFailing() {
+    InstanceStats stats = registry.stats(slow);
+    long now = System.nanoTime();
+    for (int i = 0; i < configuration.getFailureThreshold(); i++) {
+      stats.started();
+      stats.completed(MS, true, now);
+    }
+    call(fast, 500 * MS, now);
+
+    assertThat(stats.isEjected(now)).isTrue();
+    assertThat(loadBalancer.choose(List.of(fast, slow)).getServer()).isSameAs(fast);
+
+    long later = now + configuration.getEjectionTime().toNanos();
+    assertThat(stats.isEjected(later)).isFalse();
+  }
+
+  private void call(ServiceInstance instance, long latency, long now) {
+    InstanceStats stats = registry.stats(instance);
+    stats.started();
+    stats.completed(latency, false, now);
+  }
+
+  private static ServiceInstance instance(int port) {
+    return new DefaultServiceInstance(
+        "currency-exchange-" + port, "currency-exchange", "localhost", port, false);
+  }
+}
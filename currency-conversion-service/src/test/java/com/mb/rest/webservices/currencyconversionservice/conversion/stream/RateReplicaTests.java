@@ -0,0 +1,78 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateReplicaTests {
+
+  private final RateReplica replica = new RateReplica();
+
+  @Test
+  void needsASnapshotFirst() {
+    assertThat(replica.apply(delta("a", 1, 0, change("USD", "CAD", "1.30")))).isFalse();
+    assertThat(replica.find("USD", "CAD")).isNull();
+
+    assertThat(replica.apply(snapshot("a", 1, change("USD", "CAD", "1.29")))).isTrue();
+    assertThat(replica.find("USD", "CAD").getConversionMultiple()).isEqualByComparingTo("1.29");
+    assertThat(replica.find("USD", "CAD").getEnvironment()).isEqualTo("8000 replica");
+    assertThat(replica.find("USD", "CAD").getId()).isEqualTo(10001L);
+  }
+
+  @Test
+  void appliesTheDeltasInVersionOrder() {
+    replica.apply(snapshot("a", 3, change("USD", "CAD", "1.29"), change("EUR", "CAD", "1.34")));
+
+    assertThat(replica.apply(delta("a", 4, 3, change("USD", "CAD", "1.31")))).isTrue();
+    assertThat(replica.find("USD", "CAD").getConversionMultiple()).isEqualByComparingTo("1.31");
+    // Replayed
+    assertThat(replica.apply(delta("a", 4, 3, change("USD", "CAD", "1.31")))).isTrue();
+    // Removed
+    assertThat(replica.apply(delta("a", 5, 4, change("EUR", "CAD", null)))).isTrue();
+    assertThat(replica.find("EUR", "CAD")).isNull();
+    // Version 6 missed
+    assertThat(replica.apply(delta("a", 7, 6, change("USD", "CAD", "2")))).isFalse();
+    assertThat(replica.find("USD", "CAD").getConversionMultiple()).isEqualByComparingTo("1.31");
+  }
+
+  @Test
+  void aSnapshotReplacesTheWholeReplica() {
+    replica.apply(snapshot("a", 1, change("USD", "CAD", "1.29"), change("EUR", "CAD", "1.34")));
+    replica.apply(snapshot("b", 1, change("GBP", "CAD", "1.58")));
+
+    assertThat(replica.size()).isEqualTo(1);
+    assertThat(replica.find("USD", "CAD")).isNull();
+    // The events of another instance carry the rates themselves
+    assertThat(replica.apply(delta("c", 9, 8, change("USD", "CAD", "1.30")))).isTrue();
+    assertThat(replica.find("USD", "CAD").getConversionMultiple()).isEqualByComparingTo("1.30");
+  }
+
+  @Test
+  void needsASnapshotAgainOnceCleared() {
+    replica.apply(snapshot("a", 3, change("USD", "CAD", "1.29")));
+
+    replica.clear();
+
+    assertThat(replica.find("USD", "CAD")).isNull();
+    assertThat(replica.apply(delta("a", 4, 3, change("USD", "CAD", "1.31")))).isFalse();
+    assertThat(replica.find("USD", "CAD")).isNull();
+    assertThat(replica.apply(snapshot("a", 4, change("USD", "CAD", "1.31")))).isTrue();
+    assertThat(replica.find("USD", "CAD").getConversionMultiple()).isEqualByComparingTo("1.31");
+  }
+
+  private static RateChange change(String from, String to, String rate) {
+    return new RateChange(10001L, from, to, rate == null ? null : new BigDecimal(rate));
+  }
+
+  private static RateChangeEvent snapshot(String epoch, long version, RateChange... changes) {
+    return new RateChangeEvent(epoch, version, version, true, "8000", List.of(changes));
+  }
+
+  private static RateChangeEvent delta(
+      String epoch, long version, long previousVersion, RateChange... changes) {
+    return new RateChangeEvent(epoch, version, previousVersion, false, "8000", List.of(changes));
+  }
+}
@@ -0,0 +1,70 @@
+package com.mb.rest.webservices.currencyconversionservice.conversion.wire;
+
+import com.mb.rest.webservices.currencyconversionservice.conversion.CurrencyConversion;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompactRateTests {
+
+  // Same bytes as in the CompactRateTests of currency-exchange-service, which encodes them
+  static final String USD_CAD =
+      "0103" + "0000000000002711" + "555344" + "434144" + "02" + "0000000000000081" + "04"
+          + "38303030";
+
+  private final CompactRateHttpMessageConverter converter = new CompactRateHttpMessageConverter();
+
+  @Test
+  void readsTheRatesEncodedByCurrencyExchange() throws Exception {
+    CurrencyConversion currencyConversion =
+        converter.read(
+            CurrencyConversion.class,
+            new MockHttpInputMessage(HexFormat.of().parseHex(USD_CAD)));
+
+    assertThat(currencyConversion.getId()).isEqualTo(10001L);
+    assertThat(currencyConversion.getFrom()).isEqualTo("USD");
+    assertThat(currencyConversion.getTo()).isEqualTo("CAD");
+    assertThat(currencyConversion.getConversionMultiple()).isEqualByComparingTo("1.29");
+    assertThat(currencyConversion.getEnvironment()).isEqualTo("8000");
+  }
+
+  @Test
+  void readsTheRatesWithoutIdNorEnvironment() {
+    CurrencyConversion currencyConversion =
+        CompactRate.decode(
+            HexFormat.of().parseHex("0100" + "555344" + "455552" + "02" + "0000000000000060"));
+
+    assertThat(currencyConversion.getId()).isNull();
+    assertThat(currencyConversion.getTo()).isEqualTo("EUR");
+    assertThat(currencyConversion.getConversionMultiple()).isEqualByComparingTo("0.96");
+    assertThat(currencyConversion.getEnvironment()).isNull();
+  }
+
+  @Test
+  void rejectsTruncatedOrUnknownVersions() {
+    assertThatThrownBy(
+            () ->
+                converter.read(
+                    CurrencyConversion.class,
+                    new MockHttpInputMessage(HexFormat.of().parseHex(USD_CAD.substring(0, 20)))))
+        .isInstanceOf(HttpMessageNotReadableException.class);
+    assertThatThrownBy(() -> CompactRate.decode(HexFormat.of().parseHex("0203")))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void onlyReadsTheCompactRates() {
+    assertThat(converter.canRead(CurrencyConversion.class, CompactRate.MEDIA_TYPE)).isTrue();
+    assertThat(converter.canRead(CurrencyConversion.class, MediaType.APPLICATION_JSON)).isFalse();
+    assertThat(converter.canRead(String.class, CompactRate.MEDIA_TYPE)).isFalse();
+    // The responses of currency-conversion stay in JSON
+    assertThat(converter.canWrite(CurrencyConversion.class, CompactRate.MEDIA_TYPE)).isFalse();
+    assertThat(converter.canWrite(CurrencyConversion.class, null)).isFalse();
+  }
+}
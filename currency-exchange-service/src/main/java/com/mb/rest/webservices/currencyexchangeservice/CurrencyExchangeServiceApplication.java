@@ -2,11 +2,17 @@ package com.mb.rest.webservices.currencyexchangeservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class CurrencyExchangeServiceApplication {
 
   public static void main(String[] args) {
-    SpringApplication.run(CurrencyExchangeServiceApplication.class, args);
+    SpringApplication application = new SpringApplication(CurrencyExchangeServiceApplication.class);
+    // Startup steps recorded for StartupReport and /actuator/startup
+    application.setApplicationStartup(new BufferingApplicationStartup(8192));
+    application.run(args);
   }
 }
@@ -1,13 +1,30 @@
 package com.mb.rest.webservices.currencyexchangeservice.currencyexchange;
 
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.concurrency.AdaptiveConcurrencyLimit;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable.EncodedRate;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable.RateTableService;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.wire.CompactRate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 // We'll create all the components in the same package.
 // Ideally, if you have a large project, you would want to create separate packages for controllers,
 // for beans, and everything,
@@ -16,22 +33,85 @@ import org.springframework.web.bind.annotation.RestController;
 public class Controller {
 
   private Logger logger = LoggerFactory.getLogger(Controller.class);
+  @Autowired RateTableService rateTableService;
   @Autowired CurrencyExchangeRepository currencyExchangeRepository;
   @Autowired private Environment environment;
 
-  @GetMapping("/currency-exchange/from/{from}/to/{to}")
-  public CurrencyExchange retrieveExchangeValue(
-      @PathVariable String from, @PathVariable String to) {
+  // Above the concurrency limit (it follows the latency, see GradientLimit), the calls get a 503
+  // right away instead of queueing for a servlet thread.
+  // JSON, unless the client asks for the CompactRate encoding (currency-conversion does).
+  @GetMapping(
+      path = "/currency-exchange/from/{from}/to/{to}",
+      produces = {MediaType.APPLICATION_JSON_VALUE, CompactRate.MEDIA_TYPE_VALUE})
+  @AdaptiveConcurrencyLimit(name = "currency-exchange")
+  public ResponseEntity<byte[]> retrieveExchangeValue(
+      @PathVariable String from,
+      @PathVariable String to,
+      @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
 
     logger.info("retrieveExchangeValue called with from {} to {}", from, to);
-    CurrencyExchange currencyExchange = currencyExchangeRepository.findByFromAndTo(from, to);
+    // The lookup is answered by the in-memory rate table (no database round trip), with the
+    // responses it encoded when the rate was loaded: the bytes are copied as they are.
+    EncodedRate encodedRate = rateTableService.encoded(from, to);
 
-    if (currencyExchange == null) {
+    if (encodedRate == null) {
       throw new RuntimeException("Unable to find data for " + from + "to " + to);
     }
+    // The format depends on Accept: Vary tells the caches (the gateway's) to keep them apart
+    ResponseEntity.BodyBuilder ok = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+    if (encodedRate.getCompact() != null && CompactRate.isAccepted(accept)) {
+      return ok.contentType(CompactRate.MEDIA_TYPE).body(encodedRate.getCompact());
+    }
+    return ok.contentType(MediaType.APPLICATION_JSON).body(encodedRate.getJson());
+  }
+
+  // Bulk version of retrieveExchangeValue: many pairs in, many rates out, in one round trip.
+  // The pairs which are unknown are simply left out of the response.
+  // Its own limit: a bulk call is much slower than a lookup, sharing the limit of the lookups
+  // would keep lowering it and shed the cheap calls.
+  @PostMapping("/currency-exchange/bulk")
+  @AdaptiveConcurrencyLimit(name = "currency-exchange-bulk")
+  public List<CurrencyExchange> retrieveExchangeValues(@RequestBody List<CurrencyPair> pairs) {
+
+    logger.info("retrieveExchangeValues called with {} pairs", pairs.size());
     String port = environment.getProperty("local.server.port");
-    currencyExchange.setEnvironment(port);
+    List<CurrencyExchange> currencyExchanges = new ArrayList<>(pairs.size());
+
+    // The pairs which are not in the rate table yet are looked up with a single IN query.
+    Map<String, CurrencyPair> missingPairs = new HashMap<>();
+    for (CurrencyPair pair : pairs) {
+      CurrencyExchange currencyExchange = rateTableService.find(pair.getFrom(), pair.getTo());
+      if (currencyExchange != null) {
+        currencyExchanges.add(copyWithPort(currencyExchange, port));
+      } else {
+        missingPairs.put(pair.getFrom() + "/" + pair.getTo(), pair);
+      }
+    }
+
+    if (!missingPairs.isEmpty()) {
+      Set<String> from = new HashSet<>();
+      Set<String> to = new HashSet<>();
+      for (CurrencyPair pair : missingPairs.values()) {
+        from.add(pair.getFrom());
+        to.add(pair.getTo());
+      }
+      for (CurrencyExchange currencyExchange :
+          currencyExchangeRepository.findByFromInAndToIn(from, to)) {
+        if (missingPairs.containsKey(currencyExchange.getFrom() + "/" + currencyExchange.getTo())) {
+          currencyExchanges.add(copyWithPort(currencyExchange, port));
+        }
+      }
+    }
+
+    return currencyExchanges;
+  }
 
-    return currencyExchange;
+  private CurrencyExchange copyWithPort(CurrencyExchange currencyExchange, String port) {
+    return new CurrencyExchange(
+        currencyExchange.getId(),
+        currencyExchange.getFrom(),
+        currencyExchange.getTo(),
+        currencyExchange.getConversionMultiple(),
+        port);
   }
 }
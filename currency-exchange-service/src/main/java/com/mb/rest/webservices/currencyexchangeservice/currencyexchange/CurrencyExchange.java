@@ -9,6 +9,8 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
 import java.math.BigDecimal;
 
 @AllArgsConstructor
@@ -16,6 +18,15 @@ import java.math.BigDecimal;
 @Getter
 @Setter
 @Entity
+// findByFromAndTo (and the IN query of findByFromInAndToIn) is an index lookup instead of a
+// scan of the table, and a pair can't be inserted twice.
+@Table(
+    name = "currency_exchange",
+    indexes =
+        @Index(
+            name = "ux_currency_exchange_pair",
+            columnList = "currency_from, currency_to",
+            unique = true))
 public class CurrencyExchange {
 
   @Id @GeneratedValue private Long id;
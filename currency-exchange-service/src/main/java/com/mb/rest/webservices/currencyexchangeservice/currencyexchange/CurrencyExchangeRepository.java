@@ -2,6 +2,13 @@ package com.mb.rest.webservices.currencyexchangeservice.currencyexchange;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface CurrencyExchangeRepository extends JpaRepository<CurrencyExchange, Long> {
   CurrencyExchange findByFromAndTo(String from, String to);
+
+  // A single "currency_from in (...) and currency_to in (...)" query, the caller has to filter out
+  // the combinations that were not requested.
+  List<CurrencyExchange> findByFromInAndToIn(Collection<String> from, Collection<String> to);
 }
@@ -0,0 +1,16 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// One (from, to) entry of a bulk request sent to /currency-exchange/bulk
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CurrencyPair {
+  private String from;
+  private String to;
+}
@@ -1,5 +1,6 @@
 package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.circuitbreaker;
 
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.concurrency.AdaptiveConcurrencyLimit;
 import io.github.resilience4j.bulkhead.annotation.Bulkhead;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
@@ -107,6 +108,9 @@ public class CircuitBreakerController {
   // you can also configure how many concurrent calls are allowed.
   // That's called BulkHead.
   @Bulkhead(name = "default")
+  // The Bulkhead and RateLimiter limits are fixed: too tight for a big instance, too loose under
+  // a spike. The adaptive limit follows the latency instead, see GradientLimit.
+  @AdaptiveConcurrencyLimit(name = "default")
   public String sampleApiRateLimiter() {
     // We are sending 1 request per second.
     // watch -n 0.1 curl http://localhost:8000/sample-api-rate-limiter
@@ -120,6 +124,7 @@ public class CircuitBreakerController {
   // Example of a custom configuration (instead of using the "default" config)
   @RateLimiter(name = "sample-api-rate-limiter")
   @Bulkhead(name = "sample-api-rate-limiter")
+  @AdaptiveConcurrencyLimit(name = "sample-api-rate-limiter")
   public String sampleApiRateLimiterBulkheadCustomConfig() {
     // We are sending 1 request per second.
     // watch -n 0.1 curl http://localhost:8000/sample-api-rate-limiter-bulk-head
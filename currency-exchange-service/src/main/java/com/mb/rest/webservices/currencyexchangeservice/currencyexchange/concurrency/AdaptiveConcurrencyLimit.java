@@ -0,0 +1,20 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.concurrency;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Limits the number of calls in flight of a method, the limit adapting to the latency
+// (see GradientLimit). The calls above the limit get a 503 right away, instead of queueing.
+// It's used like the resilience4j annotations, which it can be combined with:
+//   @AdaptiveConcurrencyLimit(name = "sample-api")
+//   @RateLimiter(name = "sample-api")
+// The methods sharing a name share the same limit (currency-exchange.concurrency-limit.instances).
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface AdaptiveConcurrencyLimit {
+  String name() default "default";
+}
@@ -0,0 +1,78 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Applies @AdaptiveConcurrencyLimit.
+// It runs before the resilience4j aspects (their orders are close to Ordered.LOWEST_PRECEDENCE):
+// a rejected call doesn't consume a rate limiter permission, and isn't turned into a fallback
+// response by a circuit breaker. Not Ordered.HIGHEST_PRECEDENCE though, the annotation can only
+// be bound after Spring's ExposeInvocationInterceptor (HIGHEST_PRECEDENCE + 1).
+// Metrics, by name: concurrency.limit, concurrency.in.flight and concurrency.rejected.
+@Aspect
+@Component
+@Order(0)
+public class AdaptiveConcurrencyLimitAspect {
+
+  @Autowired private ConcurrencyLimitConfiguration configuration;
+  @Autowired private MeterRegistry meterRegistry;
+
+  private final Map<String, Limited> limiters = new ConcurrentHashMap<>();
+
+  @Around("@annotation(adaptiveConcurrencyLimit)")
+  public Object limit(
+      ProceedingJoinPoint joinPoint, AdaptiveConcurrencyLimit adaptiveConcurrencyLimit)
+      throws Throwable {
+    if (!configuration.isEnabled()) {
+      return joinPoint.proceed();
+    }
+    Limited limited = limiters.computeIfAbsent(adaptiveConcurrencyLimit.name(), this::limited);
+    AdaptiveLimiter limiter = limited.limiter;
+    if (!limiter.tryAcquire()) {
+      limited.rejected.increment();
+      throw new ConcurrencyLimitExceededException(adaptiveConcurrencyLimit.name(), limiter.limit());
+    }
+    long start = System.nanoTime();
+    try {
+      return joinPoint.proceed();
+    } finally {
+      // The failed calls count too: a call that fails slowly (a timeout) is a sign of overload.
+      limiter.release(System.nanoTime() - start);
+    }
+  }
+
+  private Limited limited(String name) {
+    AdaptiveLimiter limiter =
+        new AdaptiveLimiter(new GradientLimit(configuration.settings(name)));
+    Gauge.builder("concurrency.limit", limiter, AdaptiveLimiter::limit)
+        .tag("name", name)
+        .register(meterRegistry);
+    Gauge.builder("concurrency.in.flight", limiter, AdaptiveLimiter::inFlight)
+        .tag("name", name)
+        .register(meterRegistry);
+    Counter rejected = Counter.builder("concurrency.rejected")
+        .tag("name", name)
+        .register(meterRegistry);
+    return new Limited(limiter, rejected);
+  }
+
+  private static final class Limited {
+    private final AdaptiveLimiter limiter;
+    private final Counter rejected;
+
+    private Limited(AdaptiveLimiter limiter, Counter rejected) {
+      this.limiter = limiter;
+      this.rejected = rejected;
+    }
+  }
+}
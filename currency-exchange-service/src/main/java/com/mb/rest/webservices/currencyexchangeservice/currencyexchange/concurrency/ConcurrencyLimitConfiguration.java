@@ -0,0 +1,40 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.concurrency;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("currency-exchange.concurrency-limit")
+public class ConcurrencyLimitConfiguration {
+  private boolean enabled = true;
+  // By name, like the resilience4j instances:
+  // currency-exchange.concurrency-limit.instances.<name of @AdaptiveConcurrencyLimit>.*
+  // The names that are not listed here use the default values of LimitSettings.
+  private Map<String, LimitSettings> instances = new HashMap<>();
+
+  public LimitSettings settings(String name) {
+    return instances.getOrDefault(name, new LimitSettings());
+  }
+
+  @Getter
+  @Setter
+  public static class LimitSettings {
+    // The limit starts at initial-limit and then follows the latency, within [min, max].
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 500;
+    // The latency can go up to tolerance x the usual latency before the limit is lowered.
+    private double tolerance = 1.5;
+    // How much of the new limit is applied at each call (0 to 1).
+    private double smoothing = 0.2;
+    // Number of calls the usual (long term) latency is averaged over.
+    private int longWindow = 600;
+  }
+}
@@ -0,0 +1,11 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.concurrency;
+
+// Thrown instead of calling the method when its limit is reached, answered with a 503 by
+// ConcurrencyLimitExceptionHandler.
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+  public ConcurrencyLimitExceededException(String name, int limit) {
+    // No stack trace: it's thrown at the worst moment, when the instance is overloaded.
+    super("Concurrency limit of " + name + " reached (" + limit + ")", null, false, false);
+  }
+}
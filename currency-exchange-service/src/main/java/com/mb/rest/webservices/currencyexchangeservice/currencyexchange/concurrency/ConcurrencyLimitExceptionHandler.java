@@ -0,0 +1,20 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.concurrency;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class ConcurrencyLimitExceptionHandler {
+
+  // An empty 503, written directly (no error page, no stack trace): shedding the load must cost
+  // much less than serving it. Retry-After tells the caller to come back later.
+  @ExceptionHandler(ConcurrencyLimitExceededException.class)
+  public ResponseEntity<Void> concurrencyLimitExceeded() {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .build();
+  }
+}
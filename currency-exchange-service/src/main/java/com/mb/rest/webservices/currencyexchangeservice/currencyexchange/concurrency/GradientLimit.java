@@ -0,0 +1,69 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.concurrency;
+
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.concurrency.ConcurrencyLimitConfiguration.LimitSettings;
+
+// A concurrency limit that follows the latency (the gradient algorithm of Netflix
+// concurrency-limits, "Gradient2").
+// The limit is multiplied by usual latency / latency of the call: as long as the calls are as
+// fast as usual it stays the same, plus sqrt(limit) to probe for more capacity. When requests
+// start queueing somewhere (thread pool, database, CPU), the calls get slower than usual and the
+// limit goes down, before the queue builds up.
+// The usual latency is a long term average, so that it follows a slow drift of the latency
+// (a bigger table, another instance size) but not a spike.
+public class GradientLimit {
+
+  // The long term average starts as a plain average of the first calls.
+  private static final int WARMUP_SAMPLES = 10;
+
+  private final LimitSettings settings;
+
+  private double estimatedLimit;
+  private double longRttNanos;
+  private long samples;
+  // Read by every request without taking the lock.
+  private volatile int limit;
+
+  public GradientLimit(LimitSettings settings) {
+    this.settings = settings;
+    this.estimatedLimit = settings.getInitialLimit();
+    this.limit = settings.getInitialLimit();
+  }
+
+  public int limit() {
+    return limit;
+  }
+
+  // rttNanos: the duration of a call, inFlight: the number of calls in flight when it ended
+  public synchronized void onSample(long rttNanos, int inFlight) {
+    if (rttNanos <= 0) {
+      return;
+    }
+    double shortRtt = rttNanos;
+    samples++;
+    if (samples <= WARMUP_SAMPLES) {
+      longRttNanos += (shortRtt - longRttNanos) / samples;
+      return;
+    }
+    longRttNanos += (shortRtt - longRttNanos) * 2 / (settings.getLongWindow() + 1);
+
+    // The calls are much faster than the long term average (the load went down after a
+    // spike): the average catches up faster, otherwise the limit would grow for a long time.
+    if (longRttNanos / shortRtt > 2) {
+      longRttNanos *= 0.95;
+    }
+
+    // Far from the limit, the latency says nothing about it: the limit would keep growing
+    // without ever being tested.
+    if (inFlight < estimatedLimit / 2) {
+      return;
+    }
+
+    double gradient =
+        Math.max(0.5, Math.min(1.0, settings.getTolerance() * longRttNanos / shortRtt));
+    double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+    newLimit = estimatedLimit * (1 - settings.getSmoothing()) + newLimit * settings.getSmoothing();
+    estimatedLimit =
+        Math.max(settings.getMinLimit(), Math.min(settings.getMaxLimit(), newLimit));
+    limit = (int) estimatedLimit;
+  }
+}
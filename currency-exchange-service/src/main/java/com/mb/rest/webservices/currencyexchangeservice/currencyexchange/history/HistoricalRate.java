@@ -0,0 +1,55 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.history;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// A rate of a pair from effectiveAt until the next rate of the same pair.
+// The table is append-only: a new rate is a new row, the rows are never updated (@Immutable),
+// so the rate at any past time can be found again (see HistoricalRateRepository.findAsOf).
+// The rows are inserted by HistoricalRateWriter (JDBC batches), JPA is only used to read them.
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Immutable
+// The as-of lookup of a pair is a descending range scan of this index, stopped at the first row.
+@Table(
+    name = "historical_rate",
+    indexes =
+        @Index(
+            name = "ix_historical_rate_pair_time",
+            columnList = "currency_from, currency_to, effective_at"))
+public class HistoricalRate {
+
+  // Identity: the JDBC inserts leave it to the database.
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "currency_from", nullable = false, length = 3)
+  private String from;
+
+  @Column(name = "currency_to", nullable = false, length = 3)
+  private String to;
+
+  // The ticks have more decimals than the 2 of currency_exchange.conversion_multiple
+  @Column(nullable = false, precision = 19, scale = 8)
+  private BigDecimal conversionMultiple;
+
+  @Column(name = "effective_at", nullable = false)
+  private Instant effectiveAt;
+}
@@ -0,0 +1,20 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.history;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.Instant;
+
+public interface HistoricalRateRepository extends JpaRepository<HistoricalRate, Long> {
+
+  // The last rate of the pair at or before the given time, null if the pair had no rate yet.
+  // "where currency_from = ? and currency_to = ? and effective_at <= ?
+  //  order by effective_at desc, id desc limit 1": served by ix_historical_rate_pair_time.
+  // Of the rates of a pair at the same time (ticks), the last one inserted.
+  HistoricalRate findFirstByFromAndToAndEffectiveAtLessThanEqualOrderByEffectiveAtDescIdDesc(
+      String from, String to, Instant asOf);
+
+  default HistoricalRate findAsOf(String from, String to, Instant asOf) {
+    return findFirstByFromAndToAndEffectiveAtLessThanEqualOrderByEffectiveAtDescIdDesc(
+        from, to, asOf);
+  }
+}
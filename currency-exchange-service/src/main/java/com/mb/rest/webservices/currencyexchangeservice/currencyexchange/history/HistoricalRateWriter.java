@@ -0,0 +1,52 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.history;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+
+// Bulk ingestion of historical rates (e.g. a day of ticks), with plain JDBC batches:
+// saveAll would go through the persistence context row by row, and Hibernate doesn't batch the
+// inserts of an identity id at all.
+// A single transaction for the whole load: one commit instead of one per batch, and nothing is
+// visible to the as-of lookups if it fails half way.
+// Against a real database, the batches have to be enabled in the driver too
+// (MySQL: rewriteBatchedStatements=true, PostgreSQL: reWriteBatchedInserts=true in the URL).
+@Repository
+public class HistoricalRateWriter {
+
+  static final String INSERT =
+      "insert into historical_rate(currency_from, currency_to, conversion_multiple, effective_at)"
+          + " values (?, ?, ?, ?)";
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private HistoryConfiguration configuration;
+
+  // Returns the number of rows appended. The ids of the rates are left null.
+  @Transactional
+  public int append(Collection<HistoricalRate> rates) {
+    if (rates.isEmpty()) {
+      return 0;
+    }
+    int[][] counts =
+        jdbcTemplate.batchUpdate(
+            INSERT,
+            rates,
+            configuration.getBatchSize(),
+            (statement, rate) -> {
+              statement.setString(1, rate.getFrom());
+              statement.setString(2, rate.getTo());
+              statement.setBigDecimal(3, rate.getConversionMultiple());
+              statement.setTimestamp(4, Timestamp.from(rate.getEffectiveAt()));
+            });
+    int appended = 0;
+    for (int[] batch : counts) {
+      // Some drivers only report SUCCESS_NO_INFO (-2) for the rows of a batch
+      appended += batch.length;
+    }
+    return appended;
+  }
+}
@@ -0,0 +1,19 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.history;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("currency-exchange.history")
+public class HistoryConfiguration {
+  // The rates of the rate table are appended to historical_rate whenever they change
+  // (see RateHistoryRecorder).
+  private boolean recordRefreshes = true;
+  // Rows per JDBC batch of HistoricalRateWriter: one round trip (and one statement execution)
+  // per batch instead of per row.
+  private int batchSize = 1000;
+}
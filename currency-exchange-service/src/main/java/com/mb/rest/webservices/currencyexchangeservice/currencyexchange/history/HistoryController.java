@@ -0,0 +1,47 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.history;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+public class HistoryController {
+
+  private final Logger logger = LoggerFactory.getLogger(HistoryController.class);
+
+  @Autowired HistoricalRateRepository historicalRateRepository;
+  @Autowired HistoricalRateWriter historicalRateWriter;
+
+  // The rate of the pair at a past time, e.g.
+  // http://localhost:8000/currency-exchange/from/USD/to/CAD/as-of/2022-05-01T12:00:00Z
+  @GetMapping("/currency-exchange/from/{from}/to/{to}/as-of/{asOf}")
+  public HistoricalRate retrieveExchangeValueAsOf(
+      @PathVariable String from,
+      @PathVariable String to,
+      @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant asOf) {
+
+    HistoricalRate historicalRate = historicalRateRepository.findAsOf(from, to, asOf);
+    if (historicalRate == null) {
+      throw new RuntimeException("Unable to find data for " + from + "to " + to + " at " + asOf);
+    }
+    return historicalRate;
+  }
+
+  // Bulk load of historical rates (ticks), in JDBC batches, e.g.
+  // [{"from":"USD","to":"CAD","conversionMultiple":1.2912,"effectiveAt":"2022-05-01T12:00:00Z"}]
+  @PostMapping("/currency-exchange/history")
+  public int appendHistoricalRates(@RequestBody List<HistoricalRate> historicalRates) {
+    int appended = historicalRateWriter.append(historicalRates);
+    logger.info("{} historical rates appended", appended);
+    return appended;
+  }
+}
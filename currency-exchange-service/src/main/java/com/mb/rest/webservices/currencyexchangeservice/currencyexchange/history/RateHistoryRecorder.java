@@ -0,0 +1,103 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.history;
+
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.CurrencyExchange;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable.RateTableRefreshedEvent;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable.RateTableSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Appends the rates of currency_exchange to historical_rate when they change: the rate table is
+// the current rate of each pair, historical_rate keeps the previous ones.
+// A rate is compared with the last one historical_rate has for its pair, not with the previous
+// snapshot: a restart doesn't record the unchanged rates again, and a change made while the
+// instance was down is recorded at the first refresh. One as-of lookup per pair of the rate
+// table (an index range scan stopped at the first row): the cost doesn't grow with the history.
+// The writes are done by a single thread, never by the refreshing one. Only the latest snapshot
+// is waiting to be recorded: when refreshes come faster than the writes, the ones in between are
+// skipped, the next comparison with historical_rate catches up.
+@Component
+@ConditionalOnProperty(
+    name = "currency-exchange.history.record-refreshes",
+    havingValue = "true",
+    matchIfMissing = true)
+public class RateHistoryRecorder {
+
+  private final Logger logger = LoggerFactory.getLogger(RateHistoryRecorder.class);
+
+  @Autowired private HistoricalRateWriter historicalRateWriter;
+  @Autowired private HistoricalRateRepository historicalRateRepository;
+
+  private final AtomicReference<RateTableSnapshot> pending = new AtomicReference<>();
+  ExecutorService recorder;
+
+  @PostConstruct
+  void startRecorder() {
+    recorder = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("rate-history-"));
+  }
+
+  // The rates being recorded are finished, not the waiting ones
+  @PreDestroy
+  void stopRecorder() {
+    recorder.shutdown();
+  }
+
+  @EventListener
+  public void onRefresh(RateTableRefreshedEvent refreshedEvent) {
+    // A task is only submitted when none is waiting yet, it records the latest snapshot
+    if (pending.getAndSet(refreshedEvent.getCurrent()) != null) {
+      return;
+    }
+    try {
+      recorder.execute(this::recordPending);
+    } catch (RejectedExecutionException e) {
+      // Shutting down
+      pending.set(null);
+    }
+  }
+
+  private void recordPending() {
+    RateTableSnapshot snapshot = pending.getAndSet(null);
+    try {
+      record(snapshot);
+    } catch (RuntimeException e) {
+      // e.g. database unavailable: the next refresh compares with historical_rate again
+      logger.warn("Could not record the rates in the history: {}", e.toString());
+    }
+  }
+
+  // Returns the number of rates appended
+  int record(RateTableSnapshot snapshot) {
+    Instant now = Instant.now();
+    List<HistoricalRate> changed = new ArrayList<>();
+    for (CurrencyExchange current : snapshot.rows()) {
+      HistoricalRate last =
+          historicalRateRepository.findAsOf(current.getFrom(), current.getTo(), now);
+      if (last == null
+          || last.getConversionMultiple().compareTo(current.getConversionMultiple()) != 0) {
+        changed.add(
+            new HistoricalRate(
+                null, current.getFrom(), current.getTo(), current.getConversionMultiple(), now));
+      }
+    }
+    if (!changed.isEmpty()) {
+      historicalRateWriter.append(changed);
+      logger.info("{} rates appended to the history", changed.size());
+    }
+    return changed.size();
+  }
+}
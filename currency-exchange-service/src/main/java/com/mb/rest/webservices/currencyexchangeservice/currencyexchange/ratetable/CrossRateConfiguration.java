@@ -0,0 +1,17 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("currency-exchange.cross-rate")
+public class CrossRateConfiguration {
+  // When a pair isn't in the table, its rate is derived from the rates of its two currencies
+  // against the pivot (see CrossRateMatrix).
+  private boolean enabled = true;
+  private String pivot = "CAD";
+}
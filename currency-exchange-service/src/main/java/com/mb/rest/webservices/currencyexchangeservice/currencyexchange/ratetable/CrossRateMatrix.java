@@ -0,0 +1,187 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable;
+
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.CurrencyExchange;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+// The rate of every pair of currencies, derived from the rows quoted against a pivot currency:
+// with USD->CAD and EUR->CAD, USD->EUR is (USD->CAD) / (EUR->CAD). So the table only needs one
+// row per currency (O(N)), and every one of the N x N pairs is still answered.
+// The currencies get an ordinal (their order of appearance), the rates are stored in a dense
+// row-major double[] of N x N, a lookup is two array reads. A pair which can't be derived (one of
+// the currencies isn't quoted against the pivot) is NaN.
+// Like RateTableSnapshot, a matrix is never modified once built: refreshed() builds a new one.
+public final class CrossRateMatrix {
+
+  // currencyCode (3 letters x 5 bits) -> ordinal + 1, 0 for the currencies we don't know.
+  private static final int CODES = 1 << 15;
+
+  private final String pivot;
+  private final short[] ordinals;
+  private final int size;
+  // Rate of 1 unit of the currency of each ordinal in the pivot currency, NaN if unknown.
+  private final double[] toPivot;
+  // rates[from * size + to]
+  private final double[] rates;
+
+  private CrossRateMatrix(String pivot, short[] ordinals, int size, double[] toPivot) {
+    this.pivot = pivot;
+    this.ordinals = ordinals;
+    this.size = size;
+    this.toPivot = toPivot;
+    this.rates = new double[size * size];
+    for (int from = 0; from < size; from++) {
+      for (int to = 0; to < size; to++) {
+        rates[from * size + to] = toPivot[from] / toPivot[to];
+      }
+    }
+  }
+
+  private CrossRateMatrix(CrossRateMatrix previous, double[] toPivot, double[] rates) {
+    this.pivot = previous.pivot;
+    this.ordinals = previous.ordinals;
+    this.size = previous.size;
+    this.toPivot = toPivot;
+    this.rates = rates;
+  }
+
+  public static CrossRateMatrix empty() {
+    return of(List.of(), null);
+  }
+
+  // The rows from or to the pivot currency are used, the other ones (direct quotes between two
+  // other currencies) are ignored here: they are answered by the RateTableSnapshot itself.
+  public static CrossRateMatrix of(Collection<CurrencyExchange> currencyExchanges, String pivot) {
+    short[] ordinals = new short[CODES];
+    int size = 0;
+    int pivotCode = RateTableSnapshot.currencyCode(pivot);
+    if (pivotCode != RateTableSnapshot.NO_KEY) {
+      ordinals[pivotCode] = (short) ++size;
+      for (CurrencyExchange currencyExchange : currencyExchanges) {
+        int code = quotedCurrencyCode(currencyExchange, pivot);
+        if (code != RateTableSnapshot.NO_KEY && ordinals[code] == 0) {
+          ordinals[code] = (short) ++size;
+        }
+      }
+    }
+    return new CrossRateMatrix(
+        pivot, ordinals, size, toPivot(currencyExchanges, pivot, ordinals, size));
+  }
+
+  // A refresh of the table usually changes a few rates and no currency: only the rows and the
+  // columns of the currencies whose rate has changed are computed again (O(N) per currency
+  // instead of O(N x N)). A new or removed currency changes the ordinals, the matrix is rebuilt.
+  public CrossRateMatrix refreshed(Collection<CurrencyExchange> currencyExchanges, String pivot) {
+    if (!sameCurrencies(currencyExchanges, pivot)) {
+      return of(currencyExchanges, pivot);
+    }
+    double[] refreshedToPivot = toPivot(currencyExchanges, pivot, ordinals, size);
+    double[] refreshedRates = null;
+    for (int changed = 0; changed < size; changed++) {
+      if (Double.compare(refreshedToPivot[changed], toPivot[changed]) == 0) {
+        continue;
+      }
+      if (refreshedRates == null) {
+        refreshedRates = rates.clone();
+      }
+      for (int other = 0; other < size; other++) {
+        refreshedRates[changed * size + other] =
+            refreshedToPivot[changed] / refreshedToPivot[other];
+        refreshedRates[other * size + changed] =
+            refreshedToPivot[other] / refreshedToPivot[changed];
+      }
+    }
+    if (refreshedRates == null) {
+      return this;
+    }
+    return new CrossRateMatrix(this, refreshedToPivot, refreshedRates);
+  }
+
+  // NaN if one of the currencies is unknown or isn't quoted against the pivot.
+  public double rate(String from, String to) {
+    int fromOrdinal = ordinal(from);
+    int toOrdinal = ordinal(to);
+    if (fromOrdinal < 0 || toOrdinal < 0) {
+      return Double.NaN;
+    }
+    return rates[fromOrdinal * size + toOrdinal];
+  }
+
+  public String pivot() {
+    return pivot;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  private int ordinal(String currency) {
+    int code = RateTableSnapshot.currencyCode(currency);
+    return code == RateTableSnapshot.NO_KEY ? -1 : ordinals[code] - 1;
+  }
+
+  private boolean sameCurrencies(Collection<CurrencyExchange> currencyExchanges, String pivot) {
+    if (pivot == null || !pivot.equals(this.pivot)) {
+      return false;
+    }
+    boolean[] seen = new boolean[size];
+    seen[0] = true;
+    for (CurrencyExchange currencyExchange : currencyExchanges) {
+      int code = quotedCurrencyCode(currencyExchange, pivot);
+      if (code != RateTableSnapshot.NO_KEY) {
+        if (ordinals[code] == 0) {
+          return false;
+        }
+        seen[ordinals[code] - 1] = true;
+      }
+    }
+    for (boolean currency : seen) {
+      if (!currency) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // X->pivot gives the rate of X directly, pivot->X gives its inverse (X->pivot wins if the
+  // table has both).
+  private static double[] toPivot(
+      Collection<CurrencyExchange> currencyExchanges, String pivot, short[] ordinals, int size) {
+    double[] toPivot = new double[size];
+    Arrays.fill(toPivot, Double.NaN);
+    if (size == 0) {
+      return toPivot;
+    }
+    toPivot[0] = 1;
+    for (CurrencyExchange currencyExchange : currencyExchanges) {
+      int code = quotedCurrencyCode(currencyExchange, pivot);
+      if (code == RateTableSnapshot.NO_KEY || currencyExchange.getConversionMultiple() == null) {
+        continue;
+      }
+      int ordinal = ordinals[code] - 1;
+      double rate = currencyExchange.getConversionMultiple().doubleValue();
+      if (pivot.equals(currencyExchange.getTo())) {
+        toPivot[ordinal] = rate;
+      } else if (Double.isNaN(toPivot[ordinal])) {
+        toPivot[ordinal] = 1 / rate;
+      }
+    }
+    return toPivot;
+  }
+
+  // The code of the currency quoted against the pivot by this row, NO_KEY if the row doesn't
+  // involve the pivot (or is pivot->pivot).
+  private static int quotedCurrencyCode(CurrencyExchange currencyExchange, String pivot) {
+    String from = currencyExchange.getFrom();
+    String to = currencyExchange.getTo();
+    if (pivot.equals(to) && !pivot.equals(from)) {
+      return RateTableSnapshot.currencyCode(from);
+    }
+    if (pivot.equals(from) && !pivot.equals(to)) {
+      return RateTableSnapshot.currencyCode(to);
+    }
+    return RateTableSnapshot.NO_KEY;
+  }
+}
@@ -0,0 +1,13 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// The bodies of the response of a pair, encoded once per snapshot (see RateTableSnapshot).
+// compact is null when the rate doesn't fit CompactRate, the pair is then served in JSON only.
+@AllArgsConstructor
+@Getter
+public class EncodedRate {
+  private final byte[] json;
+  private final byte[] compact;
+}
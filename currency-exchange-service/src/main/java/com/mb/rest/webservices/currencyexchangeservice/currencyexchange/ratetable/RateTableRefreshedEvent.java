@@ -0,0 +1,12 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published by RateTableService after every refresh, in the refreshing thread.
+@AllArgsConstructor
+@Getter
+public class RateTableRefreshedEvent {
+  private final RateTableSnapshot previous;
+  private final RateTableSnapshot current;
+}
@@ -0,0 +1,150 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.CurrencyExchange;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.CurrencyExchangeRepository;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.wire.CompactRate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+// The currency_exchange table changes rarely, so instead of running a JPA query for every call
+// to /currency-exchange/from/{from}/to/{to}, we load all the rows once into a RateTableSnapshot
+// and answer the lookups from memory.
+// A refresh builds a new snapshot and publishes it with a single atomic swap:
+// readers either see the old table or the new one, never a half-built one.
+// The snapshot also holds the responses of each pair (see RateTableSnapshot.encoded): the JSON,
+// written with the ObjectMapper of the HTTP message converters, and the CompactRate encoding.
+// Only the rows which have changed since the previous snapshot are encoded again.
+@Service
+public class RateTableService implements SmartInitializingSingleton {
+
+  private final Logger logger = LoggerFactory.getLogger(RateTableService.class);
+
+  @Autowired private CurrencyExchangeRepository currencyExchangeRepository;
+  @Autowired private CrossRateConfiguration crossRateConfiguration;
+  // The consumers of the changes (see RateChangePublisher) listen to RateTableRefreshedEvent
+  @Autowired private ApplicationEventPublisher applicationEventPublisher;
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private Environment environment;
+
+  // Port the current snapshot was encoded with (environment field of the responses)
+  private String encodedPort;
+
+  private final AtomicReference<RateTableSnapshot> snapshot =
+      new AtomicReference<>(RateTableSnapshot.empty());
+
+  // Loaded once all the singletons are created: data.sql has been executed after Hibernate has
+  // created the schema (spring.jpa.defer-datasource-initialization=true), and the web server
+  // doesn't accept requests yet, so no lookup ever sees an empty table.
+  @Override
+  public void afterSingletonsInstantiated() {
+    refresh();
+  }
+
+  // The actual port is only known once the web server has started (server.port=0): the
+  // responses are encoded again with it.
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    refresh();
+  }
+
+  // Periodic reload, to pick up the rows that have been changed directly in the database.
+  @Scheduled(
+      initialDelayString = "${currency-exchange.rate-table.refresh-interval:60000}",
+      fixedDelayString = "${currency-exchange.rate-table.refresh-interval:60000}")
+  public void scheduledRefresh() {
+    refresh();
+  }
+
+  // synchronized: the scheduled refreshes and the other ones publish their events in order.
+  public synchronized RateTableSnapshot refresh() {
+    List<CurrencyExchange> currencyExchanges = currencyExchangeRepository.findAll();
+    // Built from the previous matrix: only the rates which have changed are computed again.
+    CrossRateMatrix crossRates =
+        crossRateConfiguration.isEnabled()
+            ? snapshot.get()
+                .crossRates()
+                .refreshed(currencyExchanges, crossRateConfiguration.getPivot())
+            : CrossRateMatrix.empty();
+    RateTableSnapshot current = snapshot.get();
+    // server.port until the web server has started
+    String port =
+        environment.getProperty("local.server.port", environment.getProperty("server.port"));
+    boolean samePort = Objects.equals(port, encodedPort);
+    RateTableSnapshot refreshed =
+        RateTableSnapshot.of(
+            currencyExchanges,
+            crossRates,
+            currencyExchange ->
+                samePort ? encode(current, currencyExchange, port) : encode(currencyExchange, port));
+    encodedPort = port;
+    RateTableSnapshot previous = snapshot.getAndSet(refreshed);
+    logger.info(
+        "Rate table refreshed with {} currency pairs, {} currencies quoted against {}",
+        refreshed.size(),
+        crossRates.size(),
+        crossRates.pivot());
+    applicationEventPublisher.publishEvent(new RateTableRefreshedEvent(previous, refreshed));
+    return refreshed;
+  }
+
+  public CurrencyExchange find(String from, String to) {
+    return snapshot.get().find(from, to);
+  }
+
+  // The responses of /currency-exchange/from/{from}/to/{to}, null if the pair is unknown
+  public EncodedRate encoded(String from, String to) {
+    return snapshot.get().encoded(from, to);
+  }
+
+  public RateTableSnapshot snapshot() {
+    return snapshot.get();
+  }
+
+  // The bytes of the previous snapshot are kept as long as the row is the same.
+  private EncodedRate encode(
+      RateTableSnapshot previous, CurrencyExchange currencyExchange, String port) {
+    int key = RateTableSnapshot.pairKey(currencyExchange.getFrom(), currencyExchange.getTo());
+    CurrencyExchange previousRow = previous.find(key);
+    if (previousRow != null
+        && Objects.equals(previousRow.getId(), currencyExchange.getId())
+        && previousRow.getConversionMultiple().equals(currencyExchange.getConversionMultiple())) {
+      EncodedRate previousEncoded = previous.encoded(key);
+      if (previousEncoded != null) {
+        return previousEncoded;
+      }
+    }
+    return encode(currencyExchange, port);
+  }
+
+  // The rows are entities of the persistence context, they're encoded through a copy carrying
+  // the port of this instance instead of being modified.
+  private EncodedRate encode(CurrencyExchange currencyExchange, String port) {
+    CurrencyExchange response =
+        new CurrencyExchange(
+            currencyExchange.getId(),
+            currencyExchange.getFrom(),
+            currencyExchange.getTo(),
+            currencyExchange.getConversionMultiple(),
+            port);
+    try {
+      return new EncodedRate(
+          objectMapper.writeValueAsBytes(response), CompactRate.encode(response));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,219 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable;
+
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.CurrencyExchange;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// An immutable, read-only view of the currency_exchange table.
+// Once built, a snapshot is never modified: a refresh builds a brand-new snapshot and the
+// RateTableService swaps the reference. That way readers never need a lock.
+
+// Each currency code is made of 3 upper-case letters (ISO 4217), so every letter fits in 5 bits
+// and a (from, to) pair fits in a single int (2 x 15 bits).
+// The pairs are stored in an open-addressing hash table made of primitive arrays,
+// a lookup is a hash probe without boxing or String concatenation.
+// The pairs which aren't in the table are derived from the CrossRateMatrix built with it.
+
+// Next to each row, the snapshot keeps the bodies of its HTTP response (EncodedRate), already
+// encoded by the encoder it was built with: a lookup hands out these bytes as they are, there's
+// no object to create nor JSON to write per request. The derived rates are encoded on their
+// first lookup. The bytes are shared by all the readers, they must never be modified.
+public final class RateTableSnapshot {
+
+  public static final int NO_KEY = -1;
+
+  // The key 0 can never be produced by pairKey ('A' is encoded as 1), it marks an empty slot.
+  private static final int EMPTY = 0;
+
+  // Significant digits of the derived rates (the stored ones are returned as they are).
+  private static final MathContext CROSS_RATE_PRECISION = new MathContext(10);
+
+  // Encoder of the snapshots built without one: encoded() always returns null.
+  private static final Function<CurrencyExchange, EncodedRate> NOT_ENCODED =
+      currencyExchange -> null;
+
+  private final int[] keys;
+  private final CurrencyExchange[] values;
+  private final EncodedRate[] encoded;
+  private final int mask;
+  private final List<CurrencyExchange> rows;
+  private final CrossRateMatrix crossRates;
+  private final Function<CurrencyExchange, EncodedRate> encoder;
+  private final Map<Integer, EncodedRate> encodedCrossRates = new ConcurrentHashMap<>();
+
+  private RateTableSnapshot(
+      Collection<CurrencyExchange> currencyExchanges,
+      CrossRateMatrix crossRates,
+      Function<CurrencyExchange, EncodedRate> encoder) {
+    // load factor <= 0.5 to keep the probe sequences short.
+    int capacity = Integer.highestOneBit(Math.max(currencyExchanges.size(), 1) * 2) << 1;
+    this.keys = new int[capacity];
+    this.values = new CurrencyExchange[capacity];
+    this.encoded = new EncodedRate[capacity];
+    this.mask = capacity - 1;
+    this.rows = List.copyOf(currencyExchanges);
+    this.crossRates = crossRates;
+    this.encoder = encoder;
+
+    for (CurrencyExchange currencyExchange : currencyExchanges) {
+      int key = pairKey(currencyExchange.getFrom(), currencyExchange.getTo());
+      if (key != NO_KEY) {
+        put(key, currencyExchange, encoder.apply(currencyExchange));
+      }
+    }
+  }
+
+  public static RateTableSnapshot of(Collection<CurrencyExchange> currencyExchanges) {
+    return new RateTableSnapshot(currencyExchanges, CrossRateMatrix.empty(), NOT_ENCODED);
+  }
+
+  public static RateTableSnapshot of(
+      Collection<CurrencyExchange> currencyExchanges, CrossRateMatrix crossRates) {
+    return new RateTableSnapshot(currencyExchanges, crossRates, NOT_ENCODED);
+  }
+
+  public static RateTableSnapshot of(
+      Collection<CurrencyExchange> currencyExchanges,
+      CrossRateMatrix crossRates,
+      Function<CurrencyExchange, EncodedRate> encoder) {
+    return new RateTableSnapshot(currencyExchanges, crossRates, encoder);
+  }
+
+  public static RateTableSnapshot empty() {
+    return new RateTableSnapshot(Collections.emptyList(), CrossRateMatrix.empty(), NOT_ENCODED);
+  }
+
+  // Packs a (from, to) pair into an int, or returns NO_KEY if one of the codes is not
+  // made of exactly 3 upper-case letters (such a pair can never be in the table).
+  public static int pairKey(String from, String to) {
+    int fromCode = currencyCode(from);
+    int toCode = currencyCode(to);
+    if (fromCode == NO_KEY || toCode == NO_KEY) {
+      return NO_KEY;
+    }
+    return (fromCode << 15) | toCode;
+  }
+
+  public static int currencyCode(String currency) {
+    if (currency == null || currency.length() != 3) {
+      return NO_KEY;
+    }
+    int code = 0;
+    for (int i = 0; i < 3; i++) {
+      char c = currency.charAt(i);
+      if (c < 'A' || c > 'Z') {
+        return NO_KEY;
+      }
+      code = (code << 5) | (c - 'A' + 1);
+    }
+    return code;
+  }
+
+  public CurrencyExchange find(String from, String to) {
+    int key = pairKey(from, to);
+    if (key == NO_KEY) {
+      return null;
+    }
+    CurrencyExchange currencyExchange = find(key);
+    return currencyExchange != null ? currencyExchange : crossRate(from, to);
+  }
+
+  public CurrencyExchange find(int key) {
+    for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+      int current = keys[slot];
+      if (current == key) {
+        return values[slot];
+      }
+      if (current == EMPTY) {
+        return null;
+      }
+    }
+  }
+
+  // The encoded response of a pair, null if the pair is unknown.
+  public EncodedRate encoded(String from, String to) {
+    int key = pairKey(from, to);
+    if (key == NO_KEY) {
+      return null;
+    }
+    EncodedRate encodedRow = encoded(key);
+    if (encodedRow != null) {
+      return encodedRow;
+    }
+    if (find(key) != null) {
+      // A row, but this snapshot has no encoder
+      return null;
+    }
+    EncodedRate encodedCrossRate = encodedCrossRates.get(key);
+    if (encodedCrossRate == null) {
+      CurrencyExchange crossRate = crossRate(from, to);
+      if (crossRate == null) {
+        return null;
+      }
+      // Two concurrent first lookups may both encode it, the result is the same.
+      encodedCrossRate = encoder.apply(crossRate);
+      if (encodedCrossRate != null) {
+        encodedCrossRates.put(key, encodedCrossRate);
+      }
+    }
+    return encodedCrossRate;
+  }
+
+  // The encoded response of a row of the table (not of a derived rate), null if there's none.
+  public EncodedRate encoded(int key) {
+    for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+      int current = keys[slot];
+      if (current == key) {
+        return encoded[slot];
+      }
+      if (current == EMPTY) {
+        return null;
+      }
+    }
+  }
+
+  public int size() {
+    return rows.size();
+  }
+
+  public List<CurrencyExchange> rows() {
+    return rows;
+  }
+
+  public CrossRateMatrix crossRates() {
+    return crossRates;
+  }
+
+  // A derived rate has no id (it isn't a row of the table).
+  private CurrencyExchange crossRate(String from, String to) {
+    double rate = crossRates.rate(from, to);
+    if (!Double.isFinite(rate)) {
+      return null;
+    }
+    return new CurrencyExchange(
+        null, from, to, new BigDecimal(rate, CROSS_RATE_PRECISION).stripTrailingZeros(), null);
+  }
+
+  private void put(int key, CurrencyExchange currencyExchange, EncodedRate encodedRate) {
+    int slot = mix(key) & mask;
+    while (keys[slot] != EMPTY && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    values[slot] = currencyExchange;
+    encoded[slot] = encodedRate;
+  }
+
+  // The low bits of a packed key only depend on the "to" currency, spread them before masking.
+  private static int mix(int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
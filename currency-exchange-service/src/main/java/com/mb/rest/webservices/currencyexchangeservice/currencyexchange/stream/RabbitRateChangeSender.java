@@ -0,0 +1,42 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Optional transport of the RateChangeEvents (currency-exchange.rate-stream.rabbit.enabled=true),
+// for the consumers which can't keep a connection to an instance of currency-exchange.
+// The events are published as JSON to a fanout exchange, declared here.
+@Configuration
+@ConditionalOnProperty(name = "currency-exchange.rate-stream.rabbit.enabled", havingValue = "true")
+public class RabbitRateChangeSender {
+
+  private final Logger logger = LoggerFactory.getLogger(RabbitRateChangeSender.class);
+
+  @Autowired private RateStreamConfiguration configuration;
+  @Autowired private RabbitTemplate rabbitTemplate;
+  @Autowired private ObjectMapper objectMapper;
+
+  @Bean
+  public FanoutExchange rateChangeExchange() {
+    return new FanoutExchange(configuration.getRabbit().getExchange());
+  }
+
+  public void send(RateChangeEvent event) {
+    try {
+      rabbitTemplate.convertAndSend(
+          configuration.getRabbit().getExchange(), "", objectMapper.writeValueAsString(event));
+    } catch (JsonProcessingException | AmqpException e) {
+      // The consumers see the gap in the versions and load a snapshot.
+      logger.warn("Rate change version {} not published to RabbitMQ", event.getVersion(), e);
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.stream;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+// The new rate of one pair. A change carries the value itself, not a difference, so applying
+// it twice (or receiving it from two instances) gives the same result.
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class RateChange {
+  // Of the currency_exchange row, returned as is by the conversions served from a replica
+  private Long id;
+  private String from;
+  private String to;
+  // null: the pair has been removed from the table
+  private BigDecimal conversionMultiple;
+}
@@ -0,0 +1,32 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.stream;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+// The changes of one refresh of the rate table, or the whole table (snapshot = true).
+// The versions are counted per instance of currency-exchange: the epoch identifies the instance
+// (and its start), version is the version of the table once the changes are applied and
+// previousVersion the one they apply to. A consumer which has applied previousVersion of this
+// epoch can apply the changes, otherwise it has missed some and needs a snapshot.
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class RateChangeEvent {
+  private String epoch;
+  private long version;
+  private long previousVersion;
+  private boolean snapshot;
+  // The port of the instance, like CurrencyExchange.environment
+  private String environment;
+  private List<RateChange> changes;
+
+  // The id of the server-sent event, sent back as Last-Event-ID when the consumer reconnects.
+  public String eventId() {
+    return epoch + ":" + version;
+  }
+}
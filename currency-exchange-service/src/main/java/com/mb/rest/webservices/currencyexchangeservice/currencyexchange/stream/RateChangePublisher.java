@@ -0,0 +1,336 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.stream;
+
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.CurrencyExchange;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable.RateTableRefreshedEvent;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable.RateTableSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Turns the refreshes of the rate table into versioned RateChangeEvents and pushes them to the
+// subscribers of /currency-exchange/stream (and to RabbitMQ when it's enabled), so the consumers
+// keep a replica of the rates instead of polling /currency-exchange/from/{from}/to/{to}.
+// A subscriber first gets the events it has missed (Last-Event-ID) when they are still in the
+// history, or a snapshot of the whole table, then every new event.
+// The methods are synchronized: an event is never queued for a subscriber before the catch-up.
+// The events are only queued here, they are sent by sender-threads threads: the refresh of the
+// rate table never waits for a subscriber. A subscriber whose queue is full (a slow or stalled
+// client) is completed, it reconnects with its Last-Event-ID and catches up.
+// The same goes for RabbitMQ: its events are queued, in version order, and published by one
+// sender thread at a time. When the broker is too slow and its queue is full, the event is
+// dropped: the consumers see the gap in the versions and load a snapshot.
+@Service
+@ConditionalOnProperty(
+    name = "currency-exchange.rate-stream.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class RateChangePublisher {
+
+  static final String EVENT_NAME = "rates";
+  private static final Object HEARTBEAT = new Object();
+
+  private final Logger logger = LoggerFactory.getLogger(RateChangePublisher.class);
+
+  @Autowired RateStreamConfiguration configuration;
+  @Autowired Environment environment;
+  @Autowired ObjectProvider<RabbitRateChangeSender> rabbitRateChangeSender;
+
+  // A new epoch at every start: the versions of another instance, or of a previous run of this
+  // one, can't be confused with ours.
+  private final String epoch = UUID.randomUUID().toString();
+  private final Deque<RateChangeEvent> history = new ArrayDeque<>();
+  private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+  private final AtomicBoolean rabbitDraining = new AtomicBoolean();
+  private BlockingQueue<RateChangeEvent> rabbitQueue;
+  ExecutorService sender;
+  private RateTableSnapshot current = RateTableSnapshot.empty();
+  private long version;
+
+  @PostConstruct
+  void startSender() {
+    rabbitQueue = new ArrayBlockingQueue<>(configuration.getSubscriberQueueSize());
+    sender =
+        Executors.newFixedThreadPool(
+            configuration.getSenderThreads(), new CustomizableThreadFactory("rate-stream-"));
+  }
+
+  @PreDestroy
+  void stopSender() {
+    sender.shutdownNow();
+  }
+
+  @EventListener
+  public synchronized void onRefresh(RateTableRefreshedEvent refreshedEvent) {
+    current = refreshedEvent.getCurrent();
+    List<RateChange> changes = changes(refreshedEvent.getPrevious(), current);
+    if (changes.isEmpty()) {
+      return;
+    }
+    RateChangeEvent event =
+        new RateChangeEvent(epoch, version + 1, version, false, port(), changes);
+    version = event.getVersion();
+    history.addLast(event);
+    while (history.size() > configuration.getHistorySize()) {
+      history.removeFirst();
+    }
+    logger.info("Rate table version {}: {} changed pairs", version, changes.size());
+
+    for (Subscriber subscriber : subscribers) {
+      subscriber.enqueue(event);
+    }
+    rabbitRateChangeSender.ifAvailable(rabbitSender -> enqueueForRabbit(rabbitSender, event));
+  }
+
+  // lastEventId: the Last-Event-ID header of a reconnecting subscriber, null for a new one.
+  public synchronized SseEmitter subscribe(String lastEventId) {
+    SseEmitter emitter = new SseEmitter(configuration.getTimeout().toMillis());
+    Subscriber subscriber = new Subscriber(emitter);
+    emitter.onCompletion(() -> subscribers.remove(subscriber));
+    emitter.onTimeout(() -> subscribers.remove(subscriber));
+    emitter.onError(error -> subscribers.remove(subscriber));
+
+    List<RateChangeEvent> missed = missedEvents(lastEventId);
+    // More missed events than the queue holds: the snapshot is a single event
+    if (missed == null || missed.size() >= configuration.getSubscriberQueueSize()) {
+      subscriber.enqueue(snapshot());
+    } else {
+      for (RateChangeEvent event : missed) {
+        subscriber.enqueue(event);
+      }
+    }
+    subscribers.add(subscriber);
+    return emitter;
+  }
+
+  // The whole table at the current version.
+  public synchronized RateChangeEvent snapshot() {
+    List<RateChange> rates = new ArrayList<>(current.size());
+    for (CurrencyExchange currencyExchange : current.rows()) {
+      rates.add(
+          new RateChange(
+              currencyExchange.getId(),
+              currencyExchange.getFrom(),
+              currencyExchange.getTo(),
+              currencyExchange.getConversionMultiple()));
+    }
+    return new RateChangeEvent(epoch, version, version, true, port(), rates);
+  }
+
+  @Scheduled(
+      initialDelayString = "${currency-exchange.rate-stream.heartbeat-interval:15000}",
+      fixedDelayString = "${currency-exchange.rate-stream.heartbeat-interval:15000}")
+  public synchronized void heartbeat() {
+    for (Subscriber subscriber : subscribers) {
+      subscriber.enqueue(HEARTBEAT);
+    }
+  }
+
+  private void enqueueForRabbit(RabbitRateChangeSender rabbitSender, RateChangeEvent event) {
+    if (!rabbitQueue.offer(event)) {
+      logger.warn(
+          "Rate change version {} not published to RabbitMQ, too far behind", event.getVersion());
+      return;
+    }
+    if (rabbitDraining.compareAndSet(false, true)) {
+      executeRabbit(rabbitSender);
+    }
+  }
+
+  private void drainRabbit(RabbitRateChangeSender rabbitSender) {
+    try {
+      RateChangeEvent event;
+      while ((event = rabbitQueue.poll()) != null) {
+        rabbitSender.send(event);
+      }
+    } finally {
+      rabbitDraining.set(false);
+    }
+    // Queued after the last poll, before draining was reset
+    if (!rabbitQueue.isEmpty() && rabbitDraining.compareAndSet(false, true)) {
+      executeRabbit(rabbitSender);
+    }
+  }
+
+  private void executeRabbit(RabbitRateChangeSender rabbitSender) {
+    try {
+      sender.execute(() -> drainRabbit(rabbitSender));
+    } catch (RejectedExecutionException e) {
+      // Shutting down
+      rabbitDraining.set(false);
+    }
+  }
+
+  int subscriberCount() {
+    return subscribers.size();
+  }
+
+  // null when the events after lastEventId are not all in the history anymore (or it's from
+  // another epoch): a snapshot is needed.
+  private List<RateChangeEvent> missedEvents(String lastEventId) {
+    if (lastEventId == null || !lastEventId.startsWith(epoch + ":")) {
+      return null;
+    }
+    long lastVersion;
+    try {
+      lastVersion = Long.parseLong(lastEventId.substring(epoch.length() + 1));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+    if (lastVersion > version) {
+      return null;
+    }
+    List<RateChangeEvent> missed = new ArrayList<>();
+    for (RateChangeEvent event : history) {
+      if (event.getVersion() > lastVersion) {
+        missed.add(event);
+      }
+    }
+    if (missed.isEmpty()) {
+      return lastVersion == version ? missed : null;
+    }
+    return missed.get(0).getPreviousVersion() == lastVersion ? missed : null;
+  }
+
+
+  private String port() {
+    return environment.getProperty("local.server.port");
+  }
+
+  // The pairs added or changed by the refresh, and the removed ones (with a null rate).
+  static List<RateChange> changes(RateTableSnapshot previous, RateTableSnapshot current) {
+    Map<String, CurrencyExchange> previousRows = new HashMap<>();
+    for (CurrencyExchange currencyExchange : previous.rows()) {
+      previousRows.put(pair(currencyExchange), currencyExchange);
+    }
+    List<RateChange> changes = new ArrayList<>();
+    for (CurrencyExchange currencyExchange : current.rows()) {
+      CurrencyExchange previousRow = previousRows.remove(pair(currencyExchange));
+      if (previousRow == null
+          || previousRow.getConversionMultiple().compareTo(currencyExchange.getConversionMultiple())
+              != 0) {
+        changes.add(
+            new RateChange(
+                currencyExchange.getId(),
+                currencyExchange.getFrom(),
+                currencyExchange.getTo(),
+                currencyExchange.getConversionMultiple()));
+      }
+    }
+    for (CurrencyExchange removed : previousRows.values()) {
+      changes.add(new RateChange(removed.getId(), removed.getFrom(), removed.getTo(), null));
+    }
+    return changes;
+  }
+
+  private static String pair(CurrencyExchange currencyExchange) {
+    return currencyExchange.getFrom() + "/" + currencyExchange.getTo();
+  }
+
+  // The events waiting to be sent to one subscriber, in order, at most one sender thread at a
+  // time drains them.
+  private class Subscriber {
+    private final SseEmitter emitter;
+    private final BlockingQueue<Object> queue =
+        new ArrayBlockingQueue<>(configuration.getSubscriberQueueSize());
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    Subscriber(SseEmitter emitter) {
+      this.emitter = emitter;
+    }
+
+    // event: a RateChangeEvent or HEARTBEAT
+    void enqueue(Object event) {
+      if (!queue.offer(event)) {
+        logger.info("Rate stream subscriber too far behind, completed");
+        close(null);
+        return;
+      }
+      if (draining.compareAndSet(false, true)) {
+        execute();
+      }
+    }
+
+    private void drain() {
+      try {
+        Object event;
+        while ((event = queue.poll()) != null) {
+          if (!send(event)) {
+            return;
+          }
+        }
+      } finally {
+        draining.set(false);
+      }
+      // Queued after the last poll, before draining was reset
+      if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+        execute();
+      }
+    }
+
+    private void execute() {
+      try {
+        sender.execute(this::drain);
+      } catch (RejectedExecutionException e) {
+        // Shutting down
+        draining.set(false);
+      }
+    }
+
+    private boolean send(Object event) {
+      try {
+        if (event == HEARTBEAT) {
+          emitter.send(SseEmitter.event().comment("heartbeat"));
+        } else {
+          RateChangeEvent rateChangeEvent = (RateChangeEvent) event;
+          emitter.send(
+              SseEmitter.event()
+                  .id(rateChangeEvent.eventId())
+                  .name(EVENT_NAME)
+                  .data(rateChangeEvent, MediaType.APPLICATION_JSON));
+        }
+        return true;
+      } catch (IOException | IllegalStateException e) {
+        // The subscriber is gone, it will reconnect with its Last-Event-ID
+        close(e);
+        return false;
+      }
+    }
+
+    private void close(Exception error) {
+      subscribers.remove(this);
+      queue.clear();
+      if (error != null) {
+        emitter.completeWithError(error);
+      } else {
+        emitter.complete();
+      }
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.stream;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("currency-exchange.rate-stream")
+public class RateStreamConfiguration {
+  private boolean enabled = true;
+  // Number of events kept to let a consumer reconnecting with Last-Event-ID catch up,
+  // beyond that it gets a snapshot.
+  private int historySize = 256;
+  // An SSE comment is sent to the subscribers when nothing else is, so idle connections are
+  // not closed by the clients or the proxies in between.
+  private long heartbeatInterval = 15000;
+  // A stream is closed after this (the consumers reconnect with Last-Event-ID).
+  private Duration timeout = Duration.ofMinutes(30);
+  // Events waiting to be sent to a subscriber: beyond that, it's too slow and its stream is
+  // completed (it reconnects with Last-Event-ID).
+  private int subscriberQueueSize = 64;
+  // Threads sending the events to the subscribers (a stalled client holds one until the write
+  // times out).
+  private int senderThreads = 2;
+  private Rabbit rabbit = new Rabbit();
+
+  @Getter
+  @Setter
+  public static class Rabbit {
+    // The events are also published to this fanout exchange (the consumers bind their own queue).
+    private boolean enabled = false;
+    private String exchange = "currency-exchange.rates";
+  }
+}
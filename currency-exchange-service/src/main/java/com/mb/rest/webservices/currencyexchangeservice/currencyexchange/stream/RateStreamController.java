@@ -0,0 +1,35 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@ConditionalOnProperty(
+    name = "currency-exchange.rate-stream.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class RateStreamController {
+
+  @Autowired RateChangePublisher rateChangePublisher;
+
+  // Server-sent events: a snapshot of the rates (or the events missed since Last-Event-ID),
+  // then an event for every refresh of the rate table which changes something.
+  // curl -N http://localhost:8000/currency-exchange/stream
+  @GetMapping(path = "/currency-exchange/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamRates(
+      @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+    return rateChangePublisher.subscribe(lastEventId);
+  }
+
+  // The snapshot alone, for the consumers receiving the events from RabbitMQ.
+  // http://localhost:8000/currency-exchange/rates
+  @GetMapping("/currency-exchange/rates")
+  public RateChangeEvent retrieveRates() {
+    return rateChangePublisher.snapshot();
+  }
+}
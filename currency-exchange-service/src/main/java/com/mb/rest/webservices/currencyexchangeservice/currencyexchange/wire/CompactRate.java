@@ -0,0 +1,87 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.wire;
+
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.CurrencyExchange;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable.RateTableSnapshot;
+import org.springframework.http.MediaType;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Binary encoding of a rate for the service-to-service calls (currency-conversion sends
+// Accept: application/x-compact-rate), the external clients keep getting JSON.
+// Fixed layout, big-endian, about 30 bytes instead of about 90 in JSON:
+//   byte    version (1)
+//   byte    flags: 1 = id present, 2 = environment present
+//   long    id (if present)
+//   3 bytes from, 3 bytes to (ASCII, ISO 4217)
+//   byte    scale of the conversion multiple
+//   long    unscaled value of the conversion multiple (multiple = unscaled x 10^-scale)
+//   byte    length of the environment, then its UTF-8 bytes (if present)
+// The same layout is decoded by CompactRate in currency-conversion-service: a change of the
+// layout goes with a new version.
+public final class CompactRate {
+
+  public static final String MEDIA_TYPE_VALUE = "application/x-compact-rate";
+  public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+  static final byte VERSION = 1;
+  static final int ID_PRESENT = 1;
+  static final int ENVIRONMENT_PRESENT = 2;
+
+  private CompactRate() {}
+
+  // Only a client which asks for it explicitly gets the compact encoding (*/* is not enough).
+  public static boolean isAccepted(String accept) {
+    if (accept == null) {
+      return false;
+    }
+    for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+      if (MEDIA_TYPE.equalsTypeAndSubtype(mediaType)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // null if the rate doesn't fit the layout (it's then only served in JSON)
+  public static byte[] encode(CurrencyExchange currencyExchange) {
+    BigDecimal multiple = currencyExchange.getConversionMultiple();
+    if (multiple == null
+        || multiple.unscaledValue().bitLength() > 63
+        || multiple.scale() != (byte) multiple.scale()
+        || RateTableSnapshot.pairKey(currencyExchange.getFrom(), currencyExchange.getTo())
+            == RateTableSnapshot.NO_KEY) {
+      return null;
+    }
+    byte[] environment =
+        currencyExchange.getEnvironment() == null
+            ? null
+            : currencyExchange.getEnvironment().getBytes(StandardCharsets.UTF_8);
+    if (environment != null && environment.length > 255) {
+      return null;
+    }
+
+    int flags =
+        (currencyExchange.getId() != null ? ID_PRESENT : 0)
+            | (environment != null ? ENVIRONMENT_PRESENT : 0);
+    ByteBuffer buffer =
+        ByteBuffer.allocate(
+            2
+                + (currencyExchange.getId() != null ? 8 : 0)
+                + 6
+                + 9
+                + (environment != null ? 1 + environment.length : 0));
+    buffer.put(VERSION).put((byte) flags);
+    if (currencyExchange.getId() != null) {
+      buffer.putLong(currencyExchange.getId());
+    }
+    buffer.put(currencyExchange.getFrom().getBytes(StandardCharsets.US_ASCII));
+    buffer.put(currencyExchange.getTo().getBytes(StandardCharsets.US_ASCII));
+    buffer.put((byte) multiple.scale()).putLong(multiple.unscaledValue().longValue());
+    if (environment != null) {
+      buffer.put((byte) environment.length).put(environment);
+    }
+    return buffer.array();
+  }
+}
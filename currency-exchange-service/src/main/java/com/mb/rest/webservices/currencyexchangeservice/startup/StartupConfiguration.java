@@ -0,0 +1,43 @@
+package com.mb.rest.webservices.currencyexchangeservice.startup;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.sql.init.AbstractScriptDatabaseInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+// With spring.main.lazy-initialization=true (fast-start profile), a bean is only created when
+// another one needs it. The ones that have work of their own must stay eager.
+@Configuration
+public class StartupConfiguration {
+
+  // The @Scheduled methods are only scheduled once their bean exists
+  // (e.g. the periodic reload of RateTableService)
+  @Bean
+  static LazyInitializationExcludeFilter scheduledBeansExcludeFilter() {
+    return (beanName, beanDefinition, beanType) -> hasScheduledMethod(beanType);
+  }
+
+  // Nothing depends on the data.sql initializer: lazy, it would never run and the rate table
+  // would stay empty
+  @Bean
+  static LazyInitializationExcludeFilter databaseInitializersExcludeFilter() {
+    return LazyInitializationExcludeFilter.forBeanTypes(AbstractScriptDatabaseInitializer.class);
+  }
+
+  private static boolean hasScheduledMethod(Class<?> beanType) {
+    if (beanType == null) {
+      return false;
+    }
+    for (Method method : ReflectionUtils.getUniqueDeclaredMethods(beanType)) {
+      if (AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,61 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.concurrency;
+
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.concurrency.ConcurrencyLimitConfiguration.LimitSettings;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradientLimitTests {
+
+  private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final LimitSettings settings = new LimitSettings();
+  private final GradientLimit limit = new GradientLimit(settings);
+
+  @Test
+  void growsWhileTheLatencyStaysTheSame() {
+    for (int i = 0; i < 100; i++) {
+      limit.onSample(10 * MS, limit.limit());
+    }
+
+    assertThat(limit.limit()).isGreaterThan(settings.getInitialLimit() * 2);
+  }
+
+  @Test
+  void doesNotGrowFarFromTheLimit() {
+    for (int i = 0; i < 100; i++) {
+      limit.onSample(10 * MS, 1);
+    }
+
+    assertThat(limit.limit()).isEqualTo(settings.getInitialLimit());
+  }
+
+  @Test
+  void shrinksWhenTheCallsQueue() {
+    for (int i = 0; i < 100; i++) {
+      limit.onSample(10 * MS, limit.limit());
+    }
+    int reached = limit.limit();
+
+    // 4 times slower than usual: the calls are waiting somewhere
+    for (int i = 0; i < 20; i++) {
+      limit.onSample(40 * MS, limit.limit());
+    }
+
+    assertThat(limit.limit()).isLessThan(reached / 2).isGreaterThanOrEqualTo(settings.getMinLimit());
+  }
+
+  @Test
+  void rejectsTheCallsAboveTheLimit() {
+    AdaptiveLimiter limiter = new AdaptiveLimiter(limit);
+    for (int i = 0; i < settings.getInitialLimit(); i++) {
+      assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    assertThat(limiter.tryAcquire()).isFalse();
+    limiter.release(10 * MS);
+    assertThat(limiter.tryAcquire()).isTrue();
+  }
+}
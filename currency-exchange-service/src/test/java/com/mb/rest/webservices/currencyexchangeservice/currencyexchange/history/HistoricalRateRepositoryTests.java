@@ -0,0 +1,62 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.history;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({HistoricalRateWriter.class, HistoryConfiguration.class})
+class HistoricalRateRepositoryTests {
+
+  private static final Instant T0 = Instant.parse("2022-05-01T12:00:00Z");
+
+  @Autowired HistoricalRateRepository repository;
+  @Autowired HistoricalRateWriter writer;
+  @Autowired HistoryConfiguration configuration;
+
+  @BeforeEach
+  void appendTicks() {
+    // Several batches, the last one incomplete
+    configuration.setBatchSize(2);
+    int appended =
+        writer.append(
+            List.of(
+                rate("USD", "CAD", "1.29", T0),
+                rate("USD", "CAD", "1.2912", T0.plusSeconds(60)),
+                rate("EUR", "CAD", "1.34", T0.plusSeconds(30)),
+                rate("USD", "CAD", "1.2875", T0.plusSeconds(120)),
+                rate("USD", "EUR", "0.96", T0.plusSeconds(90))));
+    assertThat(appended).isEqualTo(5);
+  }
+
+  @Test
+  void findsTheLastRateAtOrBeforeTheTime() {
+    assertThat(repository.findAsOf("USD", "CAD", T0).getConversionMultiple())
+        .isEqualByComparingTo("1.29");
+    assertThat(repository.findAsOf("USD", "CAD", T0.plusSeconds(90)).getConversionMultiple())
+        .isEqualByComparingTo("1.2912");
+    assertThat(repository.findAsOf("USD", "CAD", T0.plusSeconds(3600)).getConversionMultiple())
+        .isEqualByComparingTo("1.2875");
+    assertThat(repository.findAsOf("EUR", "CAD", T0.plusSeconds(60)).getEffectiveAt())
+        .isEqualTo(T0.plusSeconds(30));
+  }
+
+  @Test
+  void findsNothingBeforeTheFirstRateOfThePair() {
+    assertThat(repository.findAsOf("USD", "CAD", T0.minusSeconds(1))).isNull();
+    assertThat(repository.findAsOf("EUR", "CAD", T0)).isNull();
+    assertThat(repository.findAsOf("GBP", "CAD", T0.plusSeconds(3600))).isNull();
+  }
+
+  private static HistoricalRate rate(String from, String to, String multiple, Instant at) {
+    return new HistoricalRate(null, from, to, new BigDecimal(multiple), at);
+  }
+}
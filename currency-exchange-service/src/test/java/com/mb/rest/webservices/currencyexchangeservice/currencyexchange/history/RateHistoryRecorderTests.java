@@ -0,0 +1,128 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.history;
+
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.CurrencyExchange;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable.RateTableRefreshedEvent;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable.RateTableSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({RateHistoryRecorder.class, HistoricalRateWriter.class, HistoryConfiguration.class})
+class RateHistoryRecorderTests {
+
+  private static final Instant T0 = Instant.parse("2022-05-01T12:00:00Z");
+
+  @Autowired RateHistoryRecorder recorder;
+  @Autowired HistoricalRateRepository repository;
+  @Autowired HistoricalRateWriter writer;
+  @Autowired JdbcTemplate jdbcTemplate;
+
+  @Test
+  void recordsNothingAfterARestartWithTheSameRates() {
+    writer.append(List.of(rate("USD", "CAD", "1.29", T0), rate("EUR", "CAD", "1.34", T0)));
+
+    // Same rates, other scale: currency_exchange has 2 decimals, historical_rate 8
+    assertThat(
+            recorder.record(
+                snapshot(exchange("USD", "CAD", "1.2900"), exchange("EUR", "CAD", "1.34"))))
+        .isZero();
+    assertThat(repository.count()).isEqualTo(2);
+  }
+
+  @Test
+  void recordsTheChangedRatesAndTheNewPairs() {
+    writer.append(List.of(rate("USD", "CAD", "1.29", T0), rate("EUR", "CAD", "1.34", T0)));
+
+    assertThat(
+            recorder.record(
+                snapshot(
+                    exchange("USD", "CAD", "1.29"),
+                    exchange("EUR", "CAD", "1.35"),
+                    exchange("USD", "EUR", "0.96"))))
+        .isEqualTo(2);
+    assertThat(repository.findAsOf("EUR", "CAD", Instant.now()).getConversionMultiple())
+        .isEqualByComparingTo("1.35");
+    assertThat(repository.findAsOf("USD", "EUR", Instant.now())).isNotNull();
+    assertThat(repository.findAsOf("USD", "CAD", Instant.now()).getEffectiveAt()).isEqualTo(T0);
+  }
+
+  @Test
+  void comparesWithTheLastRateOfThePair() {
+    writer.append(
+        List.of(
+            rate("USD", "CAD", "1.28", T0),
+            rate("USD", "CAD", "1.29", T0.plusSeconds(60)),
+            // Same time: the last one inserted
+            rate("EUR", "CAD", "1.33", T0),
+            rate("EUR", "CAD", "1.34", T0)));
+
+    assertThat(
+            recorder.record(
+                snapshot(exchange("USD", "CAD", "1.29"), exchange("EUR", "CAD", "1.34"))))
+        .isZero();
+    assertThat(recorder.record(snapshot(exchange("USD", "CAD", "1.28")))).isEqualTo(1);
+  }
+
+  @Test
+  void findsTheLastRateAmongTheTicksOfADay() {
+    // A tick per second and per pair, the last one of each pair is the current rate
+    List<HistoricalRate> ticks = new ArrayList<>();
+    for (int second = 0; second < 86_400; second++) {
+      String multiple = second % 2 == 0 ? "1.28" : "1.29";
+      ticks.add(rate("USD", "CAD", multiple, T0.plusSeconds(second)));
+      ticks.add(rate("EUR", "CAD", multiple, T0.plusSeconds(second)));
+    }
+    writer.append(ticks);
+
+    assertThat(
+            recorder.record(
+                snapshot(exchange("USD", "CAD", "1.29"), exchange("EUR", "CAD", "1.29"))))
+        .isZero();
+    assertThat(recorder.record(snapshot(exchange("USD", "CAD", "1.28")))).isEqualTo(1);
+    assertThat(repository.count()).isEqualTo(2 * 86_400 + 1);
+  }
+
+  // Not in the transaction of the test: the rates are written by the recorder thread
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void recordsOffTheRefreshingThread() throws Exception {
+    try {
+      recorder.onRefresh(
+          new RateTableRefreshedEvent(
+              snapshot(),
+              snapshot(exchange("USD", "CAD", "1.29"), exchange("EUR", "CAD", "1.34"))));
+      // A single thread: the rates are recorded once the next task runs
+      recorder.recorder.submit(() -> {}).get();
+
+      assertThat(repository.findAsOf("USD", "CAD", Instant.now())).isNotNull();
+      assertThat(repository.findAsOf("EUR", "CAD", Instant.now())).isNotNull();
+      assertThat(repository.count()).isEqualTo(2);
+    } finally {
+      jdbcTemplate.update("delete from historical_rate");
+    }
+  }
+
+  private static RateTableSnapshot snapshot(CurrencyExchange... currencyExchanges) {
+    return RateTableSnapshot.of(List.of(currencyExchanges));
+  }
+
+  private static CurrencyExchange exchange(String from, String to, String multiple) {
+    return new CurrencyExchange(null, from, to, new BigDecimal(multiple), "0");
+  }
+
+  private static HistoricalRate rate(String from, String to, String multiple, Instant at) {
+    return new HistoricalRate(null, from, to, new BigDecimal(multiple), at);
+  }
+}
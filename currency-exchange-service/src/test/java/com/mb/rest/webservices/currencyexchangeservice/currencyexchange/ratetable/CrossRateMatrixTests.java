@@ -0,0 +1,75 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable;
+
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.CurrencyExchange;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CrossRateMatrixTests {
+
+  private static final List<CurrencyExchange> ROWS =
+      List.of(
+          new CurrencyExchange(10001L, "USD", "CAD", BigDecimal.valueOf(1.29), "0"),
+          new CurrencyExchange(10002L, "EUR", "CAD", BigDecimal.valueOf(1.34), "0"),
+          new CurrencyExchange(10003L, "CAD", "GBP", BigDecimal.valueOf(0.5), "0"),
+          new CurrencyExchange(10004L, "CHF", "JPY", BigDecimal.valueOf(150), "0"));
+
+  private final CrossRateMatrix matrix = CrossRateMatrix.of(ROWS, "CAD");
+
+  @Test
+  void derivesEveryPairQuotedAgainstThePivot() {
+    assertThat(matrix.size()).isEqualTo(4);
+    assertThat(matrix.rate("USD", "EUR")).isCloseTo(1.29 / 1.34, within(1e-12));
+    assertThat(matrix.rate("EUR", "USD")).isCloseTo(1.34 / 1.29, within(1e-12));
+    assertThat(matrix.rate("CAD", "USD")).isCloseTo(1 / 1.29, within(1e-12));
+    // CAD->GBP is quoted from the pivot
+    assertThat(matrix.rate("GBP", "CAD")).isCloseTo(2, within(1e-12));
+    assertThat(matrix.rate("USD", "GBP")).isCloseTo(1.29 * 0.5, within(1e-12));
+    assertThat(matrix.rate("USD", "USD")).isEqualTo(1);
+  }
+
+  @Test
+  void returnsNaNForTheCurrenciesNotQuotedAgainstThePivot() {
+    assertThat(matrix.rate("CHF", "USD")).isNaN();
+    assertThat(matrix.rate("USD", "XYZ")).isNaN();
+    assertThat(matrix.rate("usd", "CAD")).isNaN();
+    assertThat(CrossRateMatrix.empty().rate("USD", "CAD")).isNaN();
+  }
+
+  @Test
+  void refreshComputesTheChangedRatesLikeAFullBuild() {
+    List<CurrencyExchange> changed =
+        List.of(
+            new CurrencyExchange(10001L, "USD", "CAD", BigDecimal.valueOf(1.31), "0"),
+            ROWS.get(1),
+            ROWS.get(2),
+            ROWS.get(3));
+    CrossRateMatrix refreshed = matrix.refreshed(changed, "CAD");
+    CrossRateMatrix rebuilt = CrossRateMatrix.of(changed, "CAD");
+
+    for (String from : List.of("USD", "EUR", "GBP", "CAD")) {
+      for (String to : List.of("USD", "EUR", "GBP", "CAD")) {
+        assertThat(refreshed.rate(from, to)).isEqualTo(rebuilt.rate(from, to));
+      }
+    }
+    // The previous matrix is left as it was
+    assertThat(matrix.rate("USD", "EUR")).isCloseTo(1.29 / 1.34, within(1e-12));
+    assertThat(matrix.refreshed(ROWS, "CAD")).isSameAs(matrix);
+  }
+
+  @Test
+  void snapshotFallsBackOnTheCrossRates() {
+    RateTableSnapshot snapshot = RateTableSnapshot.of(ROWS, matrix);
+
+    assertThat(snapshot.find("USD", "CAD").getId()).isEqualTo(10001L);
+    CurrencyExchange derived = snapshot.find("USD", "EUR");
+    assertThat(derived.getId()).isNull();
+    assertThat(derived.getConversionMultiple()).isEqualByComparingTo("0.9626865672");
+    assertThat(snapshot.find("CHF", "JPY").getId()).isEqualTo(10004L);
+    assertThat(snapshot.find("JPY", "CHF")).isNull();
+  }
+}
@@ -0,0 +1,61 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable;
+
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.stream.RateChangePublisher;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "eureka.client.enabled=false")
+class RateTableServiceTests {
+
+  @Autowired RateTableService rateTableService;
+  @Autowired ServerStart serverStart;
+  @LocalServerPort int port;
+
+  @Test
+  void loadsTheRatesBeforeTheServerAcceptsRequests() {
+    assertThat(serverStart.pairsWhenStarted).isPositive();
+    assertThat(serverStart.streamedPairsWhenStarted).isEqualTo(serverStart.pairsWhenStarted);
+  }
+
+  @Test
+  void encodesTheResponsesWithTheActualPort() {
+    String json =
+        new String(rateTableService.encoded("USD", "CAD").getJson(), StandardCharsets.UTF_8);
+
+    assertThat(json).contains("\"environment\":\"" + port + "\"");
+  }
+
+  @TestConfiguration
+  static class ServerStartConfiguration {
+    @Bean
+    ServerStart serverStart() {
+      return new ServerStart();
+    }
+  }
+
+  // What a request would get right after the server has started
+  static class ServerStart {
+    @Autowired RateTableService rateTableService;
+    @Autowired RateChangePublisher rateChangePublisher;
+    volatile int pairsWhenStarted = -1;
+    volatile int streamedPairsWhenStarted = -1;
+
+    @EventListener
+    void onStarted(WebServerInitializedEvent event) {
+      pairsWhenStarted = rateTableService.snapshot().size();
+      streamedPairsWhenStarted = rateChangePublisher.snapshot().getChanges().size();
+    }
+  }
+}
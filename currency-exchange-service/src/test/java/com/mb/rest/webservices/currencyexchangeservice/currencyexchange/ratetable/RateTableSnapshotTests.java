@@ -0,0 +1,78 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable;
+
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.CurrencyExchange;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateTableSnapshotTests {
+
+  private final RateTableSnapshot snapshot =
+      RateTableSnapshot.of(
+          List.of(
+              new CurrencyExchange(10001L, "USD", "CAD", BigDecimal.valueOf(1.29), "0"),
+              new CurrencyExchange(10002L, "EUR", "CAD", BigDecimal.valueOf(1.34), "0"),
+              new CurrencyExchange(10003L, "GBP", "CAD", BigDecimal.valueOf(1.58), "0")));
+
+  @Test
+  void findsEveryLoadedPair() {
+    assertThat(snapshot.size()).isEqualTo(3);
+    assertThat(snapshot.find("USD", "CAD").getId()).isEqualTo(10001L);
+    assertThat(snapshot.find("EUR", "CAD").getId()).isEqualTo(10002L);
+    assertThat(snapshot.find("GBP", "CAD").getId()).isEqualTo(10003L);
+  }
+
+  @Test
+  void returnsNullForUnknownOrInvalidPairs() {
+    assertThat(snapshot.find("CAD", "USD")).isNull();
+    assertThat(snapshot.find("usd", "CAD")).isNull();
+    assertThat(snapshot.find("USDX", "CAD")).isNull();
+    assertThat(snapshot.find(null, "CAD")).isNull();
+    assertThat(RateTableSnapshot.empty().find("USD", "CAD")).isNull();
+  }
+
+  @Test
+  void packsDistinctPairsIntoDistinctKeys() {
+    assertThat(RateTableSnapshot.pairKey("AAA", "AAA")).isPositive();
+    assertThat(RateTableSnapshot.pairKey("ZZZ", "ZZZ")).isPositive();
+    assertThat(RateTableSnapshot.pairKey("USD", "CAD"))
+        .isNotEqualTo(RateTableSnapshot.pairKey("CAD", "USD"));
+    assertThat(RateTableSnapshot.pairKey("US", "CAD")).isEqualTo(RateTableSnapshot.NO_KEY);
+  }
+
+  @Test
+  void servesTheResponsesEncodedWhenTheSnapshotWasBuilt() {
+    AtomicInteger encoded = new AtomicInteger();
+    RateTableSnapshot encodedSnapshot =
+        RateTableSnapshot.of(
+            snapshot.rows(),
+            CrossRateMatrix.of(snapshot.rows(), "CAD"),
+            currencyExchange -> {
+              encoded.incrementAndGet();
+              byte[] pair =
+                  (currencyExchange.getFrom() + currencyExchange.getTo())
+                      .getBytes(StandardCharsets.UTF_8);
+              return new EncodedRate(pair, null);
+            });
+    assertThat(encoded).hasValue(3);
+
+    assertThat(encodedSnapshot.encoded("USD", "CAD").getJson())
+        .isEqualTo("USDCAD".getBytes(StandardCharsets.UTF_8));
+    // The same bytes for every lookup, nothing is encoded again
+    assertThat(encodedSnapshot.encoded("USD", "CAD")).isSameAs(encodedSnapshot.encoded("USD", "CAD"));
+    assertThat(encoded).hasValue(3);
+
+    // A derived rate is encoded on its first lookup only
+    assertThat(encodedSnapshot.encoded("USD", "EUR")).isSameAs(encodedSnapshot.encoded("USD", "EUR"));
+    assertThat(encoded).hasValue(4);
+
+    assertThat(encodedSnapshot.encoded("USD", "XYZ")).isNull();
+    assertThat(encodedSnapshot.encoded("usd", "CAD")).isNull();
+    assertThat(snapshot.encoded("USD", "CAD")).isNull();
+  }
+}
@@ -0,0 +1,101 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.stream;
+
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.CurrencyExchange;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable.RateTableRefreshedEvent;
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.ratetable.RateTableSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class RateChangePublisherTests {
+
+  private final RateChangePublisher publisher = new RateChangePublisher();
+  private final CountDownLatch stalled = new CountDownLatch(1);
+  private RateTableSnapshot current = RateTableSnapshot.empty();
+
+  @BeforeEach
+  void setUp() {
+    publisher.configuration = new RateStreamConfiguration();
+    publisher.configuration.setSubscriberQueueSize(2);
+    publisher.configuration.setSenderThreads(1);
+    publisher.environment = new MockEnvironment();
+    publisher.rabbitRateChangeSender =
+        new StaticListableBeanFactory().getBeanProvider(RabbitRateChangeSender.class);
+    publisher.startSender();
+    // A stalled client: the only sender thread is stuck in its write
+    publisher.sender.execute(
+        () -> {
+          try {
+            stalled.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+  }
+
+  @AfterEach
+  void tearDown() {
+    stalled.countDown();
+    publisher.stopSender();
+  }
+
+  @Test
+  void aSubscriberFallingBehindIsCompletedWithoutBlockingTheRefresh() {
+    refresh("1.29");
+    publisher.subscribe(null);
+    assertThat(publisher.subscriberCount()).isEqualTo(1);
+
+    // The snapshot and this event fill its queue, nothing is sent
+    refresh("1.30");
+    assertThat(publisher.subscriberCount()).isEqualTo(1);
+    refresh("1.31");
+    assertThat(publisher.subscriberCount()).isZero();
+
+    // It reconnects: more missed events than its queue holds, it gets a snapshot
+    publisher.subscribe(publisher.snapshot().eventId().replaceAll(":\\d+$", ":1"));
+    assertThat(publisher.subscriberCount()).isEqualTo(1);
+  }
+
+  @Test
+  void publishesToRabbitMqOffTheRefreshThreadInVersionOrder() {
+    RabbitRateChangeSender rabbitSender = mock(RabbitRateChangeSender.class);
+    StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+    beanFactory.addBean("rabbitRateChangeSender", rabbitSender);
+    publisher.rabbitRateChangeSender = beanFactory.getBeanProvider(RabbitRateChangeSender.class);
+
+    // The only sender thread is stalled: the refreshes don't wait for it
+    refresh("1.29");
+    refresh("1.30");
+    verify(rabbitSender, never()).send(any());
+
+    stalled.countDown();
+    verify(rabbitSender, timeout(5000).times(2)).send(any());
+    InOrder inOrder = inOrder(rabbitSender);
+    inOrder.verify(rabbitSender).send(argThat(event -> event.getVersion() == 1));
+    inOrder.verify(rabbitSender).send(argThat(event -> event.getVersion() == 2));
+  }
+
+  private void refresh(String rate) {
+    RateTableSnapshot previous = current;
+    current =
+        RateTableSnapshot.of(
+            List.of(new CurrencyExchange(10001L, "USD", "CAD", new BigDecimal(rate), "0")));
+    publisher.onRefresh(new RateTableRefreshedEvent(previous, current));
+  }
+}
@@ -0,0 +1,54 @@
+package com.mb.rest.webservices.currencyexchangeservice.currencyexchange.wire;
+
+import com.mb.rest.webservices.currencyexchangeservice.currencyexchange.CurrencyExchange;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactRateTests {
+
+  // Same bytes as in the CompactRateTests of currency-conversion-service, which decodes them
+  static final String USD_CAD =
+      "0103" + "0000000000002711" + "555344" + "434144" + "02" + "0000000000000081" + "04"
+          + "38303030";
+
+  @Test
+  void encodesTheFixedLayout() {
+    byte[] encoded =
+        CompactRate.encode(
+            new CurrencyExchange(10001L, "USD", "CAD", new BigDecimal("1.29"), "8000"));
+
+    assertThat(HexFormat.of().formatHex(encoded)).isEqualTo(USD_CAD);
+  }
+
+  @Test
+  void leavesOutTheAbsentFields() {
+    byte[] encoded =
+        CompactRate.encode(new CurrencyExchange(null, "USD", "EUR", new BigDecimal("0.96"), null));
+
+    assertThat(HexFormat.of().formatHex(encoded))
+        .isEqualTo("0100" + "555344" + "455552" + "02" + "0000000000000060");
+  }
+
+  @Test
+  void returnsNullForTheRatesThatDoNotFit() {
+    assertThat(
+            CompactRate.encode(
+                new CurrencyExchange(
+                    1L, "USD", "CAD", new BigDecimal("1.0000000000000000000001"), null)))
+        .isNull();
+    assertThat(CompactRate.encode(new CurrencyExchange(1L, "usd", "CAD", BigDecimal.ONE, null)))
+        .isNull();
+  }
+
+  @Test
+  void isOnlyAcceptedWhenAskedForExplicitly() {
+    assertThat(CompactRate.isAccepted("application/x-compact-rate, application/json")).isTrue();
+    assertThat(CompactRate.isAccepted("application/json")).isFalse();
+    assertThat(CompactRate.isAccepted("*/*")).isFalse();
+    assertThat(CompactRate.isAccepted(null)).isFalse();
+  }
+}
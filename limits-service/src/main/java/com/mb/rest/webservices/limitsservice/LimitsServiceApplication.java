@@ -2,11 +2,15 @@ package com.mb.rest.webservices.limitsservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class LimitsServiceApplication {
 
   public static void main(String[] args) {
-    SpringApplication.run(LimitsServiceApplication.class, args);
+    SpringApplication application = new SpringApplication(LimitsServiceApplication.class);
+    // Startup steps recorded for StartupReport and /actuator/startup
+    application.setApplicationStartup(new BufferingApplicationStartup(8192));
+    application.run(args);
   }
 }
@@ -0,0 +1,41 @@
+package com.mb.rest.webservices.limitsservice.bean;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// The limits as they are served: immutable, with their JSON already written, so a call to /limits
+// only copies bytes. A change of the limits builds a new snapshot (see LimitsService).
+public final class LimitsSnapshot {
+
+  private final int minimum;
+  private final int maximum;
+  private final byte[] json;
+
+  private LimitsSnapshot(int minimum, int maximum, byte[] json) {
+    this.minimum = minimum;
+    this.maximum = maximum;
+    this.json = json;
+  }
+
+  public static LimitsSnapshot of(int minimum, int maximum, ObjectMapper objectMapper) {
+    try {
+      return new LimitsSnapshot(
+          minimum, maximum, objectMapper.writeValueAsBytes(new Limits(minimum, maximum)));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public int getMinimum() {
+    return minimum;
+  }
+
+  public int getMaximum() {
+    return maximum;
+  }
+
+  // Shared by all the calls: never modified
+  public byte[] getJson() {
+    return json;
+  }
+}
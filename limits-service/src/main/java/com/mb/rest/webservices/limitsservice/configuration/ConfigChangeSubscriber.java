@@ -0,0 +1,94 @@
+package com.mb.rest.webservices.limitsservice.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cloud.context.refresh.ContextRefresher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+
+// Long poll of the config-server /changes: when the environment of limits-service changes there
+// (e.g. a new maximum in limits-service.properties), the config is imported again (only the
+// Environment: no bean is rebuilt) and LimitsService swaps its snapshots, without polling the
+// config-server.
+// A single thread that waits most of the time, the config-server holds the request.
+@Component
+@ConditionalOnProperty(
+    name = "limits-service.config-changes.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class ConfigChangeSubscriber {
+
+  private final Logger logger = LoggerFactory.getLogger(ConfigChangeSubscriber.class);
+
+  @Autowired ConfigChangesConfiguration configuration;
+  @Autowired RestTemplateBuilder restTemplateBuilder;
+  @Autowired ContextRefresher contextRefresher;
+
+  @Value("${spring.application.name}")
+  String application;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    RestTemplate restTemplate =
+        restTemplateBuilder.setReadTimeout(configuration.getLongPollTimeout()).build();
+    Thread thread = new Thread(() -> run(restTemplate), "config-changes");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  private void run(RestTemplate restTemplate) {
+    String epoch = null;
+    long version = 0;
+    Duration delay = configuration.getReconnectDelay();
+    while (true) {
+      try {
+        ConfigChanges changes =
+            restTemplate.getForObject(
+                UriComponentsBuilder.fromHttpUrl(configuration.getUrl())
+                    .queryParam("application", application)
+                    .queryParamIfPresent("epoch", Optional.ofNullable(epoch))
+                    .queryParam("since", version)
+                    .toUriString(),
+                ConfigChanges.class);
+        if (changes == null) {
+          throw new IllegalStateException("Empty response");
+        }
+        if (changes.isChanged()) {
+          Set<String> refreshed = contextRefresher.refreshEnvironment();
+          logger.info("Config changed on the config-server, refreshed {}", refreshed);
+        }
+        epoch = changes.getEpoch();
+        version = changes.getVersion();
+        delay = configuration.getReconnectDelay();
+      } catch (RuntimeException e) {
+        // Whatever fails (the call, the response, the refresh), the thread goes on: it's the
+        // only one listening to the changes
+        logger.warn(
+            "Long poll of {} failed, retrying in {}: {}",
+            configuration.getUrl(),
+            delay,
+            e.toString());
+        try {
+          Thread.sleep(delay.toMillis());
+        } catch (InterruptedException interrupted) {
+          return;
+        }
+        delay = delay.multipliedBy(2);
+        if (delay.compareTo(configuration.getMaxReconnectDelay()) > 0) {
+          delay = configuration.getMaxReconnectDelay();
+        }
+      }
+    }
+  }
+}
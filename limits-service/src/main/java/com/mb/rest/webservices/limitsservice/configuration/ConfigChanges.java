@@ -0,0 +1,14 @@
+package com.mb.rest.webservices.limitsservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// Answer of the config-server /changes
+@Getter
+@Setter
+public class ConfigChanges {
+  private String epoch;
+  private long version;
+  // The environment of limits-service has changed (or the config-server has restarted)
+  private boolean changed;
+}
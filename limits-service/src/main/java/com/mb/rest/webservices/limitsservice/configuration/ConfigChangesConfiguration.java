@@ -0,0 +1,23 @@
+package com.mb.rest.webservices.limitsservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Settings of the ConfigChangeSubscriber (long poll of the config-server /changes)
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("limits-service.config-changes")
+public class ConfigChangesConfiguration {
+  private boolean enabled = true;
+  private String url = "http://localhost:8888/changes";
+  // Above the long poll timeout of the config-server (30s), which answers before
+  private Duration longPollTimeout = Duration.ofSeconds(45);
+  // After a failure (config-server down), doubled up to max-reconnect-delay
+  private Duration reconnectDelay = Duration.ofSeconds(1);
+  private Duration maxReconnectDelay = Duration.ofSeconds(30);
+}
@@ -5,6 +5,9 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Getter
 @Setter
 @Component
@@ -12,4 +15,13 @@ import org.springframework.stereotype.Component;
 public class Configuration {
   private int minimum;
   private int maximum;
+  // Per profile (e.g. dev, qa): the values set here replace minimum/maximum for that profile
+  private Map<String, Overlay> overlays = new HashMap<>();
+
+  @Getter
+  @Setter
+  public static class Overlay {
+    private Integer minimum;
+    private Integer maximum;
+  }
 }
@@ -1,18 +1,32 @@
 package com.mb.rest.webservices.limitsservice.controller;
 
-import com.mb.rest.webservices.limitsservice.bean.Limits;
-import com.mb.rest.webservices.limitsservice.configuration.Configuration;
+import com.mb.rest.webservices.limitsservice.bean.LimitsSnapshot;
+import com.mb.rest.webservices.limitsservice.service.LimitsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
 
+// The JSON of the limits is written once per change (LimitsSnapshot), not on each call.
 @RestController
 public class Controller {
 
-  @Autowired private Configuration configuration;
+  @Autowired private LimitsService limitsService;
 
-  @GetMapping("/limits")
-  public Limits retrieveLimits() {
-    return new Limits(configuration.getMinimum(), configuration.getMaximum());
+  @GetMapping(path = "/limits", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<byte[]> retrieveLimits() {
+    return ResponseEntity.ok(limitsService.limits().getJson());
+  }
+
+  // The limits of a profile (limits-service.overlays.{profile}), whatever the active profiles
+  @GetMapping(path = "/limits/{profile}", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<byte[]> retrieveProfileLimits(@PathVariable String profile) {
+    LimitsSnapshot limits = limitsService.limits(profile);
+    if (limits == null) {
+      return ResponseEntity.notFound().build();
+    }
+    return ResponseEntity.ok(limits.getJson());
   }
 }
@@ -0,0 +1,109 @@
+package com.mb.rest.webservices.limitsservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mb.rest.webservices.limitsservice.bean.LimitsSnapshot;
+import com.mb.rest.webservices.limitsservice.configuration.Configuration;
+import com.mb.rest.webservices.limitsservice.configuration.Configuration.Overlay;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+// The limits served by /limits and /limits/{profile}, as immutable snapshots by profile.
+// When the limits-service.* properties change (config-server change, see ConfigChangeSubscriber,
+// or /actuator/refresh), the new ones are bound into a fresh Configuration and all the snapshots
+// are published with a single atomic swap: the reads never wait, and never see a new minimum
+// with an old maximum. No bean is rebuilt for that.
+@Service
+public class LimitsService {
+
+  // Key of the limits of /limits: minimum/maximum with the overlays of the active profiles
+  static final String ACTIVE = "";
+
+  private final Logger logger = LoggerFactory.getLogger(LimitsService.class);
+
+  @Autowired ConfigurableEnvironment environment;
+  @Autowired ObjectMapper objectMapper;
+
+  private final AtomicReference<Map<String, LimitsSnapshot>> snapshots =
+      new AtomicReference<>(Map.of());
+
+  @PostConstruct
+  public void load() {
+    reload();
+  }
+
+  @EventListener
+  public void onEnvironmentChange(EnvironmentChangeEvent event) {
+    if (event.getKeys().stream().anyMatch(key -> key.startsWith("limits-service."))) {
+      reload();
+    }
+  }
+
+  public LimitsSnapshot limits() {
+    return snapshots.get().get(ACTIVE);
+  }
+
+  // null if the profile has no overlay
+  public LimitsSnapshot limits(String profile) {
+    return profile.equals(ACTIVE) ? null : snapshots.get().get(profile);
+  }
+
+  // Invalid limits (minimum above maximum) are refused, the previous ones are kept.
+  public synchronized boolean reload() {
+    Configuration configuration =
+        Binder.get(environment)
+            .bind("limits-service", Configuration.class)
+            .orElseGet(Configuration::new);
+    LimitsSnapshot base =
+        LimitsSnapshot.of(configuration.getMinimum(), configuration.getMaximum(), objectMapper);
+    // Overlays of the active profiles in order, the last one wins (like the profile files)
+    LimitsSnapshot active = base;
+    for (String profile : environment.getActiveProfiles()) {
+      Overlay overlay = configuration.getOverlays().get(profile);
+      if (overlay != null) {
+        active = overlaid(active, overlay);
+      }
+    }
+    Map<String, LimitsSnapshot> reloaded = new HashMap<>();
+    reloaded.put(ACTIVE, active);
+    configuration
+        .getOverlays()
+        .forEach((profile, overlay) -> reloaded.put(profile, overlaid(base, overlay)));
+    for (Map.Entry<String, LimitsSnapshot> entry : reloaded.entrySet()) {
+      LimitsSnapshot snapshot = entry.getValue();
+      if (snapshot.getMinimum() > snapshot.getMaximum()) {
+        logger.warn(
+            "Limits refused, minimum {} above maximum {} (profile '{}')",
+            snapshot.getMinimum(),
+            snapshot.getMaximum(),
+            entry.getKey());
+        return false;
+      }
+    }
+    snapshots.set(Map.copyOf(reloaded));
+    logger.info(
+        "Limits {} to {}, overlays for {}",
+        active.getMinimum(),
+        active.getMaximum(),
+        configuration.getOverlays().keySet());
+    return true;
+  }
+
+  // The values set by the overlay, the other ones from limits
+  private LimitsSnapshot overlaid(LimitsSnapshot limits, Overlay overlay) {
+    return LimitsSnapshot.of(
+        overlay.getMinimum() != null ? overlay.getMinimum() : limits.getMinimum(),
+        overlay.getMaximum() != null ? overlay.getMaximum() : limits.getMaximum(),
+        objectMapper);
+  }
+}
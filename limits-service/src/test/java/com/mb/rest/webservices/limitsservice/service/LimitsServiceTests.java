@@ -0,0 +1,69 @@
+package com.mb.rest.webservices.limitsservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mb.rest.webservices.limitsservice.bean.LimitsSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LimitsServiceTests {
+
+  private final MockEnvironment environment =
+      new MockEnvironment()
+          .withProperty("limits-service.minimum", "1")
+          .withProperty("limits-service.maximum", "991")
+          .withProperty("limits-service.overlays.qa.maximum", "993");
+  private final LimitsService limitsService = new LimitsService();
+
+  @BeforeEach
+  void setUp() {
+    limitsService.environment = environment;
+    limitsService.objectMapper = new ObjectMapper();
+    limitsService.load();
+  }
+
+  @Test
+  void servesTheLimitsAsJson() {
+    assertThat(json(limitsService.limits())).isEqualTo("{\"minimum\":1,\"maximum\":991}");
+    assertThat(json(limitsService.limits("qa"))).isEqualTo("{\"minimum\":1,\"maximum\":993}");
+    assertThat(limitsService.limits("dev")).isNull();
+  }
+
+  @Test
+  void appliesTheOverlayOfTheActiveProfile() {
+    environment.setActiveProfiles("qa");
+    limitsService.reload();
+
+    assertThat(limitsService.limits().getMaximum()).isEqualTo(993);
+  }
+
+  @Test
+  void swapsTheSnapshotsWhenTheLimitsChange() {
+    LimitsSnapshot before = limitsService.limits();
+
+    environment.setProperty("limits-service.maximum", "500");
+    limitsService.onEnvironmentChange(
+        new EnvironmentChangeEvent(Set.of("limits-service.maximum")));
+
+    assertThat(before.getMaximum()).isEqualTo(991);
+    assertThat(limitsService.limits().getMaximum()).isEqualTo(500);
+  }
+
+  @Test
+  void keepsTheLimitsWhenTheNewOnesAreInvalid() {
+    environment.setProperty("limits-service.minimum", "2000");
+
+    assertThat(limitsService.reload()).isFalse();
+    assertThat(limitsService.limits().getMinimum()).isEqualTo(1);
+  }
+
+  private static String json(LimitsSnapshot limits) {
+    return new String(limits.getJson(), StandardCharsets.UTF_8);
+  }
+}
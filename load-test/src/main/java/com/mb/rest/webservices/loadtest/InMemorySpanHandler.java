@@ -0,0 +1,37 @@
+package com.mb.rest.webservices.loadtest;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Stand-in for Zipkin (and RabbitMQ, its transport in docker-compose): the spans are still
+// created and propagated between the services, they are only counted per service when they end.
+// A single instance is registered in all the application contexts, see LocalTopology.
+final class InMemorySpanHandler extends SpanHandler {
+
+  private final Map<String, LongAdder> spansByService = new ConcurrentHashMap<>();
+
+  @Override
+  public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+    if (cause == Cause.FINISHED) {
+      String service = span.localServiceName() != null ? span.localServiceName() : "unknown";
+      spansByService.computeIfAbsent(service, key -> new LongAdder()).increment();
+    }
+    return true;
+  }
+
+  Map<String, Long> spansByService() {
+    Map<String, Long> spans = new TreeMap<>();
+    spansByService.forEach((service, count) -> spans.put(service, count.sum()));
+    return spans;
+  }
+
+  void reset() {
+    spansByService.clear();
+  }
+}
@@ -0,0 +1,135 @@
+package com.mb.rest.webservices.loadtest;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.stream.Collectors;
+
+// Latencies counted in fixed buckets, 5 percent wide from 50us to 60s: a percentile is the upper
+// bound of its bucket. The same buckets are configured on the http.server.requests timers of the
+// services (see serviceLevelObjectives), so the histograms of the instances of a service, and of
+// two points in time, can be added up and subtracted, which can't be done with percentiles.
+final class LatencyHistogram {
+
+  private static final long[] BOUNDARIES = boundaries();
+
+  // One count per bucket, the last one is above the last boundary.
+  private final long[] counts;
+  private final long count;
+  private final double totalNanos;
+
+  private LatencyHistogram(long[] counts, double totalNanos) {
+    this.counts = counts;
+    this.count = Arrays.stream(counts).sum();
+    this.totalNanos = totalNanos;
+  }
+
+  static LatencyHistogram empty() {
+    return new LatencyHistogram(new long[BOUNDARIES.length + 1], 0);
+  }
+
+  // The value of management.metrics.distribution.slo.http.server.requests
+  static String serviceLevelObjectives() {
+    return Arrays.stream(BOUNDARIES)
+        .mapToObj(boundary -> (boundary / 1000) + "us")
+        .collect(Collectors.joining(","));
+  }
+
+  // A timer configured with serviceLevelObjectives(): its bucket counts are cumulative (the
+  // number of values lower or equal to the boundary) and, with the Prometheus registry, they are
+  // never reset.
+  static LatencyHistogram of(Timer timer) {
+    HistogramSnapshot snapshot = timer.takeSnapshot();
+    long[] counts = new long[BOUNDARIES.length + 1];
+    long previous = 0;
+    for (CountAtBucket bucket : snapshot.histogramCounts()) {
+      int index = Arrays.binarySearch(BOUNDARIES, Math.round(bucket.bucket()));
+      if (index >= 0) {
+        long cumulative = (long) bucket.count();
+        counts[index] = cumulative - previous;
+        previous = cumulative;
+      }
+    }
+    counts[BOUNDARIES.length] = Math.max(0, snapshot.count() - previous);
+    return new LatencyHistogram(counts, snapshot.total(TimeUnit.NANOSECONDS));
+  }
+
+  LatencyHistogram plus(LatencyHistogram other) {
+    long[] sum = counts.clone();
+    for (int i = 0; i < sum.length; i++) {
+      sum[i] += other.counts[i];
+    }
+    return new LatencyHistogram(sum, totalNanos + other.totalNanos);
+  }
+
+  LatencyHistogram minus(LatencyHistogram other) {
+    long[] difference = counts.clone();
+    for (int i = 0; i < difference.length; i++) {
+      difference[i] -= other.counts[i];
+    }
+    return new LatencyHistogram(difference, totalNanos - other.totalNanos);
+  }
+
+  long count() {
+    return count;
+  }
+
+  double meanNanos() {
+    return count == 0 ? 0 : totalNanos / count;
+  }
+
+  // Upper bound of the bucket of the percentile, Long.MAX_VALUE above the last boundary.
+  long percentileNanos(double percentile) {
+    long rank = (long) Math.ceil(percentile * count);
+    long cumulative = 0;
+    for (int i = 0; i < BOUNDARIES.length; i++) {
+      cumulative += counts[i];
+      if (cumulative >= rank) {
+        return BOUNDARIES[i];
+      }
+    }
+    return Long.MAX_VALUE;
+  }
+
+  private static int bucket(long nanos) {
+    int index = Arrays.binarySearch(BOUNDARIES, nanos);
+    return index >= 0 ? index : -index - 1;
+  }
+
+  // Rounded to the microsecond, slo boundaries are given as durations.
+  private static long[] boundaries() {
+    long[] boundaries = new long[512];
+    int size = 0;
+    for (double micros = 50; micros <= 60_000_000; micros *= 1.05) {
+      long boundary = Math.round(micros) * 1000;
+      if (size == 0 || boundary > boundaries[size - 1]) {
+        boundaries[size++] = boundary;
+      }
+    }
+    return Arrays.copyOf(boundaries, size);
+  }
+
+  // Recorded by the load generator, from the threads completing the requests.
+  static final class Recorder {
+    private final AtomicLongArray counts = new AtomicLongArray(BOUNDARIES.length + 1);
+    private final DoubleAdder totalNanos = new DoubleAdder();
+
+    void record(long nanos) {
+      counts.incrementAndGet(bucket(nanos));
+      totalNanos.add(nanos);
+    }
+
+    LatencyHistogram snapshot() {
+      long[] snapshot = new long[counts.length()];
+      for (int i = 0; i < snapshot.length; i++) {
+        snapshot[i] = counts.get(i);
+      }
+      return new LatencyHistogram(snapshot, totalNanos.sum());
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package com.mb.rest.webservices.loadtest;
+
+import com.mb.rest.webservices.loadtest.LocalTopology.InstanceLatency;
+
+import java.util.List;
+import java.util.Map;
+
+// Throughput and latency percentiles of the client and of every hop, over the measurement
+// (the warm-up is subtracted from the histograms of the services). The latency of a hop
+// includes the ones of the hops below it: api-gateway includes currency-conversion, which
+// includes currency-exchange.
+final class LoadReport {
+
+  private static final String ROW = "%-28s %9s %9s %9s %10s %10s %10s %10s %10s%n";
+
+  private LoadReport() {}
+
+  static String format(
+      LoadTestConfiguration configuration,
+      OpenModelLoad.Result result,
+      Map<String, List<InstanceLatency>> before,
+      Map<String, List<InstanceLatency>> after,
+      Map<String, Long> spansByService) {
+    double seconds = result.duration.toNanos() / 1e9;
+    StringBuilder report = new StringBuilder();
+    report.append(
+        String.format(
+            "%n%d req/s for %ss, %d api-gateway, %d currency-conversion, %d currency-exchange%n",
+            configuration.getRate(), seconds, 1, configuration.getConversionInstances(),
+            configuration.getExchangeInstances()));
+    report.append(
+        String.format(
+            "sent: %d, dropped (max-in-flight): %d, errors: %d%n%n",
+            result.sent, result.dropped, result.errors));
+    report.append(
+        String.format(ROW, "hop", "instances", "requests", "req/s", "mean", "p50", "p90",
+            "p99", "p99.9"));
+    report.append(row("client", 1, result.latencies, seconds));
+
+    after.forEach(
+        (service, instances) -> {
+          LatencyHistogram total = LatencyHistogram.empty();
+          StringBuilder instanceRows = new StringBuilder();
+          for (int i = 0; i < instances.size(); i++) {
+            LatencyHistogram histogram =
+                instances.get(i).histogram.minus(before.get(service).get(i).histogram);
+            total = total.plus(histogram);
+            instanceRows.append(row("  " + instances.get(i).id, 1, histogram, seconds));
+          }
+          report.append(row(service, instances.size(), total, seconds));
+          // The distribution of the requests between the instances
+          if (instances.size() > 1) {
+            report.append(instanceRows);
+          }
+        });
+
+    report.append(
+        String.format(
+            "%nspans (in memory, instead of Zipkin): %s%n"
+                + "percentiles: upper bound of their 5%% wide bucket%n",
+            spansByService));
+    return report.toString();
+  }
+
+  private static String row(
+      String hop, int instances, LatencyHistogram histogram, double seconds) {
+    return String.format(
+        ROW,
+        hop,
+        instances,
+        histogram.count(),
+        String.format("%.1f", histogram.count() / seconds),
+        millis(histogram.meanNanos()),
+        millis(histogram.percentileNanos(0.5)),
+        millis(histogram.percentileNanos(0.9)),
+        millis(histogram.percentileNanos(0.99)),
+        millis(histogram.percentileNanos(0.999)));
+  }
+
+  private static String millis(double nanos) {
+    if (nanos == Long.MAX_VALUE) {
+      return "> 60s";
+    }
+    return String.format("%.2fms", nanos / 1e6);
+  }
+}
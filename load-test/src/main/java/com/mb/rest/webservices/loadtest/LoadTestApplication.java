@@ -0,0 +1,64 @@
+package com.mb.rest.webservices.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+
+import java.util.List;
+import java.util.Map;
+
+// mvn spring-boot:run -Dspring-boot.run.arguments="--load-test.exchange-instances=2"
+// Starts the whole chain (api-gateway -> currency-conversion -> currency-exchange -> H2, with
+// Eureka) in this JVM, sends load-test.rate requests per second to the api-gateway and prints
+// the throughput and the latency percentiles of every hop.
+// No auto-configuration here: this context only reads the settings, the services have their own.
+@SpringBootConfiguration
+@EnableConfigurationProperties(LoadTestConfiguration.class)
+public class LoadTestApplication implements CommandLineRunner {
+
+  private static final Logger logger = LoggerFactory.getLogger(LoadTestApplication.class);
+
+  @Autowired LoadTestConfiguration configuration;
+
+  public static void main(String[] args) {
+    System.exit(
+        SpringApplication.exit(
+            new SpringApplicationBuilder(LoadTestApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args)));
+  }
+
+  @Override
+  public void run(String... args) throws Exception {
+    InMemorySpanHandler spanHandler = new InMemorySpanHandler();
+    try (LocalTopology topology = new LocalTopology(configuration, spanHandler)) {
+      topology.start();
+      try (OpenModelLoad load =
+          new OpenModelLoad(
+              topology.gatewayUrl(),
+              configuration.getPaths(),
+              configuration.getRate(),
+              configuration.getMaxInFlight())) {
+        // JIT compilation, connection pools, caches and Eureka settling down
+        logger.info("Warm-up ({})", configuration.getWarmup());
+        load.run(configuration.getWarmup());
+
+        Map<String, List<LocalTopology.InstanceLatency>> before = topology.latencies();
+        spanHandler.reset();
+        logger.info("Measurement ({})", configuration.getDuration());
+        OpenModelLoad.Result result = load.run(configuration.getDuration());
+        Map<String, List<LocalTopology.InstanceLatency>> after = topology.latencies();
+
+        logger.info(
+            LoadReport.format(
+                configuration, result, before, after, spanHandler.spansByService()));
+      }
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package com.mb.rest.webservices.loadtest;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties("load-test")
+public class LoadTestConfiguration {
+  // Directory of the service modules, their application.properties (and data.sql) are used.
+  private String servicesDirectory = "..";
+  // One naming-server and one api-gateway are started, and these numbers of instances.
+  private int conversionInstances = 1;
+  private int exchangeInstances = 1;
+  // Requests per second sent to the api-gateway (open model: whatever the response times are).
+  private int rate = 100;
+  private Duration warmup = Duration.ofSeconds(10);
+  private Duration duration = Duration.ofSeconds(30);
+  // Beyond this number of requests waiting for their response, the next ones are dropped
+  // (not sent, and counted as such) instead of piling up in the load generator.
+  private int maxInFlight = 2000;
+  // Requested in turn on the api-gateway.
+  private List<String> paths = new ArrayList<>();
+  // Time given to the instances to register and to be discovered by their clients.
+  private Duration discoveryTimeout = Duration.ofMinutes(2);
+  // Additional properties per service (spring.application.name), e.g.
+  // load-test.service-properties.currency-conversion=currency-conversion.batching.enabled=true
+  private Map<String, List<String>> serviceProperties = new HashMap<>();
+}
@@ -0,0 +1,237 @@
+package com.mb.rest.webservices.loadtest;
+
+import com.mb.rest.webservices.apigateway.ApiGatewayApplication;
+import com.mb.rest.webservices.currencyconversionservice.CurrencyConversionServiceApplication;
+import com.mb.rest.webservices.currencyexchangeservice.CurrencyExchangeServiceApplication;
+import com.mb.rest.webservices.namingserver.NamingServerApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// naming-server, the instances of currency-exchange and currency-conversion and the api-gateway,
+// all started in this JVM on random ports, each with the application.properties of its module.
+// Only the infrastructure is replaced: no config server (it's optional), Zipkin is replaced by
+// InMemorySpanHandler and RabbitMQ isn't used.
+final class LocalTopology implements AutoCloseable {
+
+  static final String API_GATEWAY = "api-gateway";
+  static final String CURRENCY_CONVERSION = "currency-conversion";
+  static final String CURRENCY_EXCHANGE = "currency-exchange";
+
+  private static final Logger logger = LoggerFactory.getLogger(LocalTopology.class);
+
+  // Command line arguments, so they override the application.properties of the services.
+  private static final String[] COMMON_ARGUMENTS = {
+    "--server.port=0",
+    "--spring.main.banner-mode=off",
+    "--spring.main.log-startup-info=false",
+    // The logging system is shared by all the applications of the JVM.
+    "--logging.level.root=WARN",
+    "--logging.level.com.mb.rest.webservices.loadtest=INFO",
+    "--spring.jpa.show-sql=false",
+    "--spring.zipkin.enabled=false",
+    "--spring.autoconfigure.exclude="
+        + "org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration",
+    // Registrations, and their changes, are seen within a second or two (the defaults are 30s).
+    "--eureka.instance.hostname=localhost",
+    "--eureka.instance.lease-renewal-interval-in-seconds=1",
+    "--eureka.client.registry-fetch-interval-seconds=1",
+    "--eureka.client.initial-instance-info-replication-interval-seconds=1",
+    "--spring.cloud.loadbalancer.cache.ttl=1s",
+    "--management.metrics.distribution.slo.http.server.requests="
+        + LatencyHistogram.serviceLevelObjectives()
+  };
+
+  // Spring Cloud Gateway is on the classpath of all the services here, only api-gateway uses it.
+  private static final String SERVLET_ARGUMENTS = "--spring.cloud.gateway.enabled=false";
+
+  private static final String[] NAMING_SERVER_ARGUMENTS = {
+    SERVLET_ARGUMENTS,
+    "--eureka.server.use-read-only-response-cache=false",
+    "--eureka.server.response-cache-update-interval-ms=1000",
+    "--eureka.server.wait-time-in-ms-when-sync-empty=0",
+    "--eureka.server.enable-self-preservation=false",
+    "--spring.autoconfigure.exclude="
+        + "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration,"
+        + "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration"
+  };
+
+  private final LoadTestConfiguration configuration;
+  private final InMemorySpanHandler spanHandler;
+  private final Path servicesDirectory;
+  private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+  private final Map<String, List<Instance>> instancesByService = new LinkedHashMap<>();
+  private String eurekaUrl;
+  private String gatewayUrl;
+
+  LocalTopology(LoadTestConfiguration configuration, InMemorySpanHandler spanHandler) {
+    this.configuration = configuration;
+    this.spanHandler = spanHandler;
+    this.servicesDirectory = Path.of(configuration.getServicesDirectory()).toAbsolutePath();
+  }
+
+  // The services are started in the order of their dependencies, then we wait until the
+  // clients (api-gateway and currency-conversion) see all the instances in Eureka.
+  void start() throws InterruptedException {
+    ConfigurableApplicationContext namingServer =
+        start(NamingServerApplication.class, "naming-server", "naming-server", 0,
+            WebApplicationType.SERVLET, NAMING_SERVER_ARGUMENTS);
+    eurekaUrl = "http://localhost:" + port(namingServer) + "/eureka";
+
+    for (int i = 0; i < configuration.getExchangeInstances(); i++) {
+      start(CurrencyExchangeServiceApplication.class, CURRENCY_EXCHANGE,
+          "currency-exchange-service", i, WebApplicationType.SERVLET, SERVLET_ARGUMENTS,
+          // One database per instance (they would share jdbc:h2:mem:testdb-local otherwise).
+          "--spring.datasource.url=jdbc:h2:mem:currency-exchange-" + i,
+          "--spring.sql.init.data-locations=file:"
+              + resources("currency-exchange-service").resolve("data.sql"));
+    }
+    for (int i = 0; i < configuration.getConversionInstances(); i++) {
+      start(CurrencyConversionServiceApplication.class, CURRENCY_CONVERSION,
+          "currency-conversion-service", i, WebApplicationType.SERVLET, SERVLET_ARGUMENTS,
+          "--spring.datasource.url=jdbc:h2:mem:currency-conversion-" + i);
+    }
+    // All the requests come from this address, to the same route: the rate limit of a client
+    // (api-gateway.rate-limit) is raised well above load-test.rate, or the run would measure the
+    // 429s of the gateway, and the gateway-wide limit is off.
+    int clientRate = configuration.getRate() * 10;
+    ConfigurableApplicationContext gateway =
+        start(ApiGatewayApplication.class, API_GATEWAY, "api-gateway", 0,
+            WebApplicationType.REACTIVE,
+            "--spring.autoconfigure.exclude="
+                + "org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration,"
+                + "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration,"
+                + "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration",
+            "--api-gateway.rate-limit.replenish-rate=" + clientRate,
+            "--api-gateway.rate-limit.burst-capacity=" + clientRate,
+            "--api-gateway.rate-limit.gateway-rate=0");
+    gatewayUrl = "http://localhost:" + port(gateway);
+
+    awaitDiscovery(gateway, CURRENCY_CONVERSION, configuration.getConversionInstances());
+    for (Instance conversion : instancesByService.get(CURRENCY_CONVERSION)) {
+      awaitDiscovery(conversion.context, CURRENCY_EXCHANGE, configuration.getExchangeInstances());
+    }
+    // The load balancers keep the list of instances for spring.cloud.loadbalancer.cache.ttl
+    Thread.sleep(2000);
+  }
+
+  String gatewayUrl() {
+    return gatewayUrl;
+  }
+
+  // http.server.requests of every instance (the actuator requests excepted), by service, in the
+  // order of the hops.
+  Map<String, List<InstanceLatency>> latencies() {
+    Map<String, List<InstanceLatency>> latencies = new LinkedHashMap<>();
+    for (String service : List.of(API_GATEWAY, CURRENCY_CONVERSION, CURRENCY_EXCHANGE)) {
+      List<InstanceLatency> serviceLatencies = new ArrayList<>();
+      for (Instance instance : instancesByService.get(service)) {
+        LatencyHistogram histogram = LatencyHistogram.empty();
+        MeterRegistry registry = instance.context.getBean(MeterRegistry.class);
+        for (Timer timer : registry.find("http.server.requests").timers()) {
+          String uri = timer.getId().getTag("uri");
+          if (uri == null || !uri.startsWith("/actuator")) {
+            histogram = histogram.plus(LatencyHistogram.of(timer));
+          }
+        }
+        serviceLatencies.add(new InstanceLatency(instance.id, histogram));
+      }
+      latencies.put(service, serviceLatencies);
+    }
+    return latencies;
+  }
+
+  @Override
+  public void close() {
+    // In the reverse order: the clients first
+    for (int i = contexts.size() - 1; i >= 0; i--) {
+      contexts.get(i).close();
+    }
+  }
+
+  private ConfigurableApplicationContext start(
+      Class<?> application, String service, String module, int index,
+      WebApplicationType webApplicationType, String... arguments) {
+    String id = service + "-" + index;
+    logger.info("Starting {}", id);
+    List<String> allArguments = new ArrayList<>(List.of(COMMON_ARGUMENTS));
+    allArguments.add(
+        "--spring.config.location=file:" + resources(module).resolve("application.properties"));
+    allArguments.add("--eureka.instance.instance-id=" + id);
+    if (eurekaUrl != null) {
+      allArguments.add("--eureka.client.serviceUrl.defaultZone=" + eurekaUrl);
+    }
+    allArguments.addAll(List.of(arguments));
+    for (String property : configuration.getServiceProperties().getOrDefault(service, List.of())) {
+      allArguments.add("--" + property);
+    }
+
+    ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(application)
+            .web(webApplicationType)
+            .initializers(
+                applicationContext ->
+                    applicationContext
+                        .getBeanFactory()
+                        .registerSingleton("inMemorySpanHandler", spanHandler))
+            .run(allArguments.toArray(new String[0]));
+    contexts.add(context);
+    instancesByService
+        .computeIfAbsent(service, key -> new ArrayList<>())
+        .add(new Instance(id, context));
+    return context;
+  }
+
+  private void awaitDiscovery(
+      ConfigurableApplicationContext client, String service, int instances)
+      throws InterruptedException {
+    DiscoveryClient discoveryClient = client.getBean(DiscoveryClient.class);
+    long deadline = System.nanoTime() + configuration.getDiscoveryTimeout().toNanos();
+    while (discoveryClient.getInstances(service).size() < instances) {
+      if (System.nanoTime() > deadline) {
+        throw new IllegalStateException(
+            "Timed out waiting for " + instances + " instance(s) of " + service);
+      }
+      Thread.sleep(200);
+    }
+  }
+
+  private Path resources(String module) {
+    return servicesDirectory.resolve(module).resolve("src/main/resources");
+  }
+
+  private static int port(ConfigurableApplicationContext context) {
+    return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+  }
+
+  private static final class Instance {
+    private final String id;
+    private final ConfigurableApplicationContext context;
+
+    private Instance(String id, ConfigurableApplicationContext context) {
+      this.id = id;
+      this.context = context;
+    }
+  }
+
+  static final class InstanceLatency {
+    final String id;
+    final LatencyHistogram histogram;
+
+    InstanceLatency(String id, LatencyHistogram histogram) {
+      this.id = id;
+      this.histogram = histogram;
+    }
+  }
+}
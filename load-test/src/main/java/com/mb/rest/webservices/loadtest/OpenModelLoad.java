@@ -0,0 +1,118 @@
+package com.mb.rest.webservices.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Open workload model: the requests are sent on a fixed schedule (rate per second), they don't
+// wait for the previous responses like the users of a closed model would. The latency is
+// measured from the scheduled time of the request and not from the time it was actually sent,
+// so a stall of the services isn't hidden by the load generator falling behind
+// (coordinated omission).
+final class OpenModelLoad implements AutoCloseable {
+
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(2);
+  private final HttpClient httpClient =
+      HttpClient.newBuilder()
+          .version(HttpClient.Version.HTTP_1_1)
+          .connectTimeout(Duration.ofSeconds(5))
+          .executor(executor)
+          .build();
+  private final List<HttpRequest> requests;
+  private final int rate;
+  private final int maxInFlight;
+
+  OpenModelLoad(String baseUrl, List<String> paths, int rate, int maxInFlight) {
+    this.requests =
+        paths.stream()
+            .map(path -> HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build())
+            .toList();
+    this.rate = rate;
+    this.maxInFlight = maxInFlight;
+  }
+
+  Result run(Duration duration) throws InterruptedException {
+    LatencyHistogram.Recorder latencies = new LatencyHistogram.Recorder();
+    LongAdder errors = new LongAdder();
+    AtomicInteger inFlight = new AtomicInteger();
+    long sent = 0;
+    long dropped = 0;
+
+    long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+    long start = System.nanoTime();
+    long end = start + duration.toNanos();
+    for (long i = 0; ; i++) {
+      long scheduled = start + i * intervalNanos;
+      if (scheduled >= end) {
+        break;
+      }
+      long wait;
+      while ((wait = scheduled - System.nanoTime()) > 0) {
+        LockSupport.parkNanos(wait);
+      }
+      if (inFlight.get() >= maxInFlight) {
+        dropped++;
+        continue;
+      }
+      inFlight.incrementAndGet();
+      sent++;
+      httpClient
+          .sendAsync(requests.get((int) (i % requests.size())),
+              HttpResponse.BodyHandlers.discarding())
+          .whenComplete(
+              (response, error) -> {
+                long latency = System.nanoTime() - scheduled;
+                if (error != null || response.statusCode() >= 400) {
+                  errors.increment();
+                } else {
+                  latencies.record(latency);
+                }
+                inFlight.decrementAndGet();
+              });
+    }
+
+    // The responses of the last requests
+    long deadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+    while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    return new Result(sent, dropped, errors.sum(), latencies.snapshot(), duration);
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  static final class Result {
+    final long sent;
+    final long dropped;
+    final long errors;
+    // Of the successful responses
+    final LatencyHistogram latencies;
+    final Duration duration;
+
+    private Result(
+        long sent, long dropped, long errors, LatencyHistogram latencies, Duration duration) {
+      this.sent = sent;
+      this.dropped = dropped;
+      this.errors = errors;
+      this.latencies = latencies;
+      this.duration = duration;
+    }
+  }
+}
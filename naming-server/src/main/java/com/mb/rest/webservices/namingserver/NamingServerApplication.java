@@ -2,6 +2,7 @@ package com.mb.rest.webservices.namingserver;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.cloud.netflix.eureka.server.EnableEurekaServer;
 
 @SpringBootApplication
@@ -9,6 +10,9 @@ import org.springframework.cloud.netflix.eureka.server.EnableEurekaServer;
 public class NamingServerApplication {
 
   public static void main(String[] args) {
-    SpringApplication.run(NamingServerApplication.class, args);
+    SpringApplication application = new SpringApplication(NamingServerApplication.class);
+    // Startup steps recorded for StartupReport and /actuator/startup
+    application.setApplicationStartup(new BufferingApplicationStartup(8192));
+    application.run(args);
   }
 }
@@ -0,0 +1,87 @@
+package com.mb.rest.webservices.namingserver.changes;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Objects;
+
+// One registration or cancellation, as sent on /registry/changes. Only what a load balancer
+// needs to reach the instance: the full InstanceInfo stays in the Eureka registry.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RegistryChange {
+
+  public enum Action {
+    REGISTERED,
+    CANCELLED
+  }
+
+  private final long version;
+  private final Action action;
+  private final String app;
+  private final String instanceId;
+  // Only for REGISTERED
+  private final String host;
+  private final Integer port;
+  private final Boolean secure;
+  private final String status;
+
+  public RegistryChange(
+      long version,
+      Action action,
+      String app,
+      String instanceId,
+      String host,
+      Integer port,
+      Boolean secure,
+      String status) {
+    this.version = version;
+    this.action = action;
+    this.app = app;
+    this.instanceId = instanceId;
+    this.host = host;
+    this.port = port;
+    this.secure = secure;
+    this.status = status;
+  }
+
+  // Same change, whatever the version
+  public boolean isSameAs(RegistryChange other) {
+    return action == other.action
+        && app.equals(other.app)
+        && instanceId.equals(other.instanceId)
+        && Objects.equals(host, other.host)
+        && Objects.equals(port, other.port)
+        && Objects.equals(status, other.status);
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public Action getAction() {
+    return action;
+  }
+
+  public String getApp() {
+    return app;
+  }
+
+  public String getInstanceId() {
+    return instanceId;
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  public Integer getPort() {
+    return port;
+  }
+
+  public Boolean getSecure() {
+    return secure;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+}
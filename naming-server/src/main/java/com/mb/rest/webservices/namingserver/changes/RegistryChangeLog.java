@@ -0,0 +1,131 @@
+package com.mb.rest.webservices.namingserver.changes;
+
+import com.mb.rest.webservices.namingserver.changes.RegistryChange.Action;
+import com.netflix.appinfo.InstanceInfo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceCanceledEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRegisteredEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongFunction;
+
+// The last registrations and cancellations of the Eureka registry (the evictions of the
+// instances that stopped renewing their lease are cancellations too), numbered by version, and
+// the long polls of /registry/changes waiting for the next one.
+// The renewals aren't recorded: they don't change what a client can reach.
+@Component
+public class RegistryChangeLog {
+
+  // The versions restart with the naming-server: a client that has another epoch gets a reset.
+  private final String epoch = UUID.randomUUID().toString();
+  // Ring of the last changes, the change of version v is at v % length. Guarded by this.
+  private final RegistryChange[] changes;
+  private long version;
+  // Long polls waiting for a version after the one they have. Guarded by this.
+  private final Map<DeferredResult<RegistryChanges>, Long> waiting = new HashMap<>();
+
+  public RegistryChangeLog(
+      RegistryChangesConfiguration configuration, MeterRegistry meterRegistry) {
+    this.changes = new RegistryChange[configuration.getRetainedChanges()];
+    Gauge.builder("registry.changes.version", this, log -> log.version()).register(meterRegistry);
+    Gauge.builder("registry.changes.waiting", this, log -> log.waiting()).register(meterRegistry);
+  }
+
+  @EventListener
+  public void onRegistered(EurekaInstanceRegisteredEvent event) {
+    InstanceInfo info = event.getInstanceInfo();
+    boolean secure = info.isPortEnabled(InstanceInfo.PortType.SECURE);
+    registered(
+        info.getAppName(),
+        info.getInstanceId(),
+        info.getHostName(),
+        secure ? info.getSecurePort() : info.getPort(),
+        secure,
+        info.getStatus().name());
+  }
+
+  @EventListener
+  public void onCanceled(EurekaInstanceCanceledEvent event) {
+    cancelled(event.getAppName(), event.getServerId());
+  }
+
+  public void registered(
+      String app, String instanceId, String host, int port, boolean secure, String status) {
+    record(
+        version ->
+            new RegistryChange(
+                version, Action.REGISTERED, app, instanceId, host, port, secure, status));
+  }
+
+  public void cancelled(String app, String instanceId) {
+    record(
+        version ->
+            new RegistryChange(
+                version, Action.CANCELLED, app, instanceId, null, null, null, null));
+  }
+
+  // Answers right away if there are changes after since (or a reset), else when the next change
+  // is recorded.
+  public void await(String clientEpoch, long since, DeferredResult<RegistryChanges> result) {
+    RegistryChanges available;
+    synchronized (this) {
+      available = since(clientEpoch, since);
+      if (!available.isReset() && available.getChanges().isEmpty()) {
+        waiting.put(result, since);
+        result.onCompletion(() -> forget(result));
+        return;
+      }
+    }
+    result.setResult(available);
+  }
+
+  public synchronized RegistryChanges since(String clientEpoch, long since) {
+    long oldest = Math.max(1, version - changes.length + 1);
+    if (!epoch.equals(clientEpoch) || since > version || since < oldest - 1) {
+      return new RegistryChanges(epoch, version, true, List.of());
+    }
+    List<RegistryChange> newer = new ArrayList<>((int) (version - since));
+    for (long v = since + 1; v <= version; v++) {
+      newer.add(changes[(int) (v % changes.length)]);
+    }
+    return new RegistryChanges(epoch, version, false, newer);
+  }
+
+  public synchronized long version() {
+    return version;
+  }
+
+  public synchronized int waiting() {
+    return waiting.size();
+  }
+
+  private void record(LongFunction<RegistryChange> factory) {
+    Map<DeferredResult<RegistryChanges>, RegistryChanges> answers = new HashMap<>();
+    synchronized (this) {
+      RegistryChange change = factory.apply(version + 1);
+      // The Spring Cloud registry publishes the registrations and cancellations twice
+      RegistryChange previous = changes[(int) (version % changes.length)];
+      if (version > 0 && change.isSameAs(previous)) {
+        return;
+      }
+      version++;
+      changes[(int) (version % changes.length)] = change;
+      waiting.forEach((result, since) -> answers.put(result, since(epoch, since)));
+      waiting.clear();
+    }
+    // Outside of the lock: setResult dispatches the request back to the container
+    answers.forEach(DeferredResult::setResult);
+  }
+
+  private synchronized void forget(DeferredResult<RegistryChanges> result) {
+    waiting.remove(result);
+  }
+}
@@ -0,0 +1,37 @@
+package com.mb.rest.webservices.namingserver.changes;
+
+import java.util.List;
+
+// Answer of /registry/changes: the changes after the version the client has, up to version.
+// reset: the client's version can't be continued (another epoch, i.e. the naming-server has
+// restarted, or too far behind), it must drop what it learned from the previous changes.
+public class RegistryChanges {
+
+  private final String epoch;
+  private final long version;
+  private final boolean reset;
+  private final List<RegistryChange> changes;
+
+  public RegistryChanges(String epoch, long version, boolean reset, List<RegistryChange> changes) {
+    this.epoch = epoch;
+    this.version = version;
+    this.reset = reset;
+    this.changes = changes;
+  }
+
+  public String getEpoch() {
+    return epoch;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public boolean isReset() {
+    return reset;
+  }
+
+  public List<RegistryChange> getChanges() {
+    return changes;
+  }
+}
@@ -0,0 +1,35 @@
+package com.mb.rest.webservices.namingserver.changes;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Settings of /registry/changes, the long poll the clients use to learn about the registrations
+// and cancellations within a second, instead of waiting for their next registry fetch.
+@Component
+@ConfigurationProperties("naming-server.registry-changes")
+public class RegistryChangesConfiguration {
+
+  // Size of the RegistryChangeLog ring: the memory it takes doesn't grow with the traffic.
+  // A client that is further behind gets a reset and relies on its registry fetch.
+  private int retainedChanges = 1024;
+  // A long poll without any change is answered (empty) after this delay.
+  private Duration longPollTimeout = Duration.ofSeconds(30);
+
+  public int getRetainedChanges() {
+    return retainedChanges;
+  }
+
+  public void setRetainedChanges(int retainedChanges) {
+    this.retainedChanges = retainedChanges;
+  }
+
+  public Duration getLongPollTimeout() {
+    return longPollTimeout;
+  }
+
+  public void setLongPollTimeout(Duration longPollTimeout) {
+    this.longPollTimeout = longPollTimeout;
+  }
+}
@@ -0,0 +1,33 @@
+package com.mb.rest.webservices.namingserver.changes;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+// Long poll of the registry changes, e.g.
+// http://localhost:8761/registry/changes?epoch=...&since=42
+// Without epoch (first call), it answers right away with a reset and the current version.
+// The request doesn't hold a servlet thread while it waits (DeferredResult), so a long poll
+// per client is cheap, much cheaper than fetching the registry every second.
+@RestController
+public class RegistryChangesController {
+
+  @Autowired RegistryChangeLog registryChangeLog;
+  @Autowired RegistryChangesConfiguration configuration;
+
+  // produces: the Eureka server puts the Jackson XML converter on the classpath
+  @GetMapping(path = "/registry/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+  public DeferredResult<RegistryChanges> changes(
+      @RequestParam(required = false) String epoch,
+      @RequestParam(defaultValue = "0") long since) {
+    DeferredResult<RegistryChanges> result =
+        new DeferredResult<>(
+            configuration.getLongPollTimeout().toMillis(),
+            () -> registryChangeLog.since(epoch, since));
+    registryChangeLog.await(epoch, since, result);
+    return result;
+  }
+}
@@ -0,0 +1,84 @@
+package com.mb.rest.webservices.namingserver.changes;
+
+import com.mb.rest.webservices.namingserver.changes.RegistryChange.Action;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class RegistryChangeLogTests {
+
+  private final RegistryChangesConfiguration configuration = new RegistryChangesConfiguration();
+  private final RegistryChangeLog log;
+
+  RegistryChangeLogTests() {
+    configuration.setRetainedChanges(4);
+    log = new RegistryChangeLog(configuration, new SimpleMeterRegistry());
+  }
+
+  @Test
+  void resetsAClientWithoutEpoch() {
+    log.registered("CURRENCY-EXCHANGE", "exchange-1", "localhost", 8000, false, "UP");
+
+    RegistryChanges changes = log.since(null, 0);
+
+    assertThat(changes.isReset()).isTrue();
+    assertThat(changes.getVersion()).isEqualTo(1);
+    assertThat(changes.getChanges()).isEmpty();
+  }
+
+  @Test
+  void returnsTheChangesAfterTheClientVersion() {
+    String epoch = log.since(null, 0).getEpoch();
+    log.registered("CURRENCY-EXCHANGE", "exchange-1", "localhost", 8000, false, "UP");
+    log.registered("CURRENCY-EXCHANGE", "exchange-2", "localhost", 8001, false, "UP");
+    log.cancelled("CURRENCY-EXCHANGE", "exchange-1");
+
+    RegistryChanges changes = log.since(epoch, 1);
+
+    assertThat(changes.isReset()).isFalse();
+    assertThat(changes.getVersion()).isEqualTo(3);
+    assertThat(changes.getChanges())
+        .extracting(RegistryChange::getAction, RegistryChange::getInstanceId)
+        .containsExactly(
+            tuple(Action.REGISTERED, "exchange-2"), tuple(Action.CANCELLED, "exchange-1"));
+  }
+
+  @Test
+  void recordsTheSameChangeOnce() {
+    log.registered("CURRENCY-EXCHANGE", "exchange-1", "localhost", 8000, false, "UP");
+    log.registered("CURRENCY-EXCHANGE", "exchange-1", "localhost", 8000, false, "UP");
+
+    assertThat(log.version()).isEqualTo(1);
+  }
+
+  @Test
+  void resetsAClientThatIsTooFarBehind() {
+    String epoch = log.since(null, 0).getEpoch();
+    for (int i = 0; i < 6; i++) {
+      log.cancelled("CURRENCY-EXCHANGE", "exchange-" + i);
+    }
+
+    // Only the versions 3 to 6 are still in the ring
+    assertThat(log.since(epoch, 1).isReset()).isTrue();
+    assertThat(log.since(epoch, 2).getChanges()).hasSize(4);
+  }
+
+  @Test
+  void answersTheWaitingLongPollsOnTheNextChange() {
+    String epoch = log.since(null, 0).getEpoch();
+    DeferredResult<RegistryChanges> result = new DeferredResult<>();
+
+    log.await(epoch, 0, result);
+    assertThat(result.hasResult()).isFalse();
+    assertThat(log.waiting()).isEqualTo(1);
+
+    log.registered("CURRENCY-EXCHANGE", "exchange-1", "localhost", 8000, false, "UP");
+
+    assertThat(result.hasResult()).isTrue();
+    assertThat(((RegistryChanges) result.getResult()).getChanges()).hasSize(1);
+    assertThat(log.waiting()).isZero();
+  }
+}
@@ -0,0 +1,106 @@
+package com.mb.rest.webservices.registryoverlay;
+
+// One registration or cancellation in the Eureka registry, as sent by the naming-server
+// on /registry/changes.
+public class RegistryChange {
+
+  public static final String REGISTERED = "REGISTERED";
+  public static final String CANCELLED = "CANCELLED";
+
+  private long version;
+  // REGISTERED or CANCELLED
+  private String action;
+  // Eureka application name, e.g. CURRENCY-EXCHANGE
+  private String app;
+  private String instanceId;
+  // Only for REGISTERED
+  private String host;
+  private int port;
+  private boolean secure;
+  private String status;
+
+  public RegistryChange() {}
+
+  public RegistryChange(
+      long version,
+      String action,
+      String app,
+      String instanceId,
+      String host,
+      int port,
+      boolean secure,
+      String status) {
+    this.version = version;
+    this.action = action;
+    this.app = app;
+    this.instanceId = instanceId;
+    this.host = host;
+    this.port = port;
+    this.secure = secure;
+    this.status = status;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
+  public String getAction() {
+    return action;
+  }
+
+  public void setAction(String action) {
+    this.action = action;
+  }
+
+  public String getApp() {
+    return app;
+  }
+
+  public void setApp(String app) {
+    this.app = app;
+  }
+
+  public String getInstanceId() {
+    return instanceId;
+  }
+
+  public void setInstanceId(String instanceId) {
+    this.instanceId = instanceId;
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  public void setHost(String host) {
+    this.host = host;
+  }
+
+  public int getPort() {
+    return port;
+  }
+
+  public void setPort(int port) {
+    this.port = port;
+  }
+
+  public boolean isSecure() {
+    return secure;
+  }
+
+  public void setSecure(boolean secure) {
+    this.secure = secure;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+
+  public void setStatus(String status) {
+    this.status = status;
+  }
+}
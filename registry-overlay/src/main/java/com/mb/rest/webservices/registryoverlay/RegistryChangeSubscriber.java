@@ -0,0 +1,91 @@
+package com.mb.rest.webservices.registryoverlay;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import javax.annotation.PreDestroy;
+import java.util.Optional;
+
+// Keeps the RegistryOverlay up to date with the long poll of /registry/changes on the
+// naming-server: one request at a time, answered as soon as an instance registers or cancels,
+// then sent again with the version received.
+public class RegistryChangeSubscriber {
+
+  private final Logger logger = LoggerFactory.getLogger(RegistryChangeSubscriber.class);
+
+  private final RegistryOverlay overlay;
+  private final RegistryChangesConfiguration configuration;
+  private final WebClient webClient;
+
+  // Of the last answer applied
+  private volatile String epoch;
+  private volatile long version;
+  private Disposable subscription;
+
+  public RegistryChangeSubscriber(
+      RegistryOverlay overlay, RegistryChangesConfiguration configuration, String url) {
+    this.overlay = overlay;
+    this.configuration = configuration;
+    // Not load balanced: the naming-server isn't registered in itself
+    this.webClient = WebClient.create(url);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void subscribe() {
+    subscription =
+        Mono.defer(this::poll)
+            .repeat()
+            .retryWhen(
+                Retry.backoff(Long.MAX_VALUE, configuration.getReconnectDelay())
+                    .maxBackoff(configuration.getMaxReconnectDelay())
+                    .transientErrors(true)
+                    .doBeforeRetry(
+                        signal ->
+                            logger.warn(
+                                "Registry changes interrupted, polling again: {}",
+                                signal.failure().toString())))
+            .subscribe();
+  }
+
+  @PreDestroy
+  public void unsubscribe() {
+    if (subscription != null) {
+      subscription.dispose();
+    }
+  }
+
+  private Mono<RegistryChanges> poll() {
+    return webClient
+        .get()
+        .uri(
+            uriBuilder ->
+                uriBuilder
+                    .queryParamIfPresent("epoch", Optional.ofNullable(epoch))
+                    .queryParam("since", version)
+                    .build())
+        .accept(MediaType.APPLICATION_JSON)
+        .retrieve()
+        .bodyToMono(RegistryChanges.class)
+        .timeout(configuration.getLongPollTimeout())
+        .doOnNext(this::onChanges);
+  }
+
+  private void onChanges(RegistryChanges changes) {
+    long now = System.nanoTime();
+    if (changes.isReset()) {
+      overlay.clear();
+    } else {
+      changes.getChanges().forEach(change -> overlay.apply(change, now));
+    }
+    overlay.prune(now);
+    epoch = changes.getEpoch();
+    version = changes.getVersion();
+  }
+}
@@ -0,0 +1,46 @@
+package com.mb.rest.webservices.registryoverlay;
+
+import java.util.List;
+
+// Answer of /registry/changes: the changes after the version we had, up to version.
+// reset: our version can't be continued (the naming-server has restarted, or we are too far
+// behind), what we learned from the previous changes must be dropped.
+public class RegistryChanges {
+
+  private String epoch;
+  private long version;
+  private boolean reset;
+  private List<RegistryChange> changes;
+
+  public String getEpoch() {
+    return epoch;
+  }
+
+  public void setEpoch(String epoch) {
+    this.epoch = epoch;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
+  public boolean isReset() {
+    return reset;
+  }
+
+  public void setReset(boolean reset) {
+    this.reset = reset;
+  }
+
+  public List<RegistryChange> getChanges() {
+    return changes;
+  }
+
+  public void setChanges(List<RegistryChange> changes) {
+    this.changes = changes;
+  }
+}
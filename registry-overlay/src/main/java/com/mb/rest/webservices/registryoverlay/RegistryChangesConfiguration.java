@@ -0,0 +1,74 @@
+package com.mb.rest.webservices.registryoverlay;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Settings of the long poll of /registry/changes on the naming-server, applied to the load
+// balancers of the service through the RegistryOverlay.
+@ConfigurationProperties("registry-changes")
+public class RegistryChangesConfiguration {
+
+  // Set by the services that want it (api-gateway, currency-conversion). false: the instances are
+  // only known from the Eureka registry fetch.
+  private boolean enabled;
+  // Empty: the naming-server of eureka.client.serviceUrl.defaultZone
+  private String url = "";
+  // Above naming-server.registry-changes.long-poll-timeout: a long poll that gets no answer
+  // within this delay is dropped (the connection may be dead) and started again.
+  private Duration longPollTimeout = Duration.ofSeconds(45);
+  // How long a change overrides the Eureka registry: more than the delay for the registry fetch
+  // to see it (eureka.client.registry-fetch-interval-seconds + the naming-server's cache).
+  private Duration retention = Duration.ofMinutes(2);
+  // Delay before polling again after a failure, doubled up to max-reconnect-delay.
+  private Duration reconnectDelay = Duration.ofSeconds(1);
+  private Duration maxReconnectDelay = Duration.ofSeconds(30);
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public String getUrl() {
+    return url;
+  }
+
+  public void setUrl(String url) {
+    this.url = url;
+  }
+
+  public Duration getLongPollTimeout() {
+    return longPollTimeout;
+  }
+
+  public void setLongPollTimeout(Duration longPollTimeout) {
+    this.longPollTimeout = longPollTimeout;
+  }
+
+  public Duration getRetention() {
+    return retention;
+  }
+
+  public void setRetention(Duration retention) {
+    this.retention = retention;
+  }
+
+  public Duration getReconnectDelay() {
+    return reconnectDelay;
+  }
+
+  public void setReconnectDelay(Duration reconnectDelay) {
+    this.reconnectDelay = reconnectDelay;
+  }
+
+  public Duration getMaxReconnectDelay() {
+    return maxReconnectDelay;
+  }
+
+  public void setMaxReconnectDelay(Duration maxReconnectDelay) {
+    this.maxReconnectDelay = maxReconnectDelay;
+  }
+}
@@ -0,0 +1,102 @@
+package com.mb.rest.webservices.registryoverlay;
+
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// The registry changes pushed by the naming-server that the local Eureka registry may not know
+// yet (it's only fetched every eureka.client.registry-fetch-interval-seconds), applied on top of
+// the instances the load balancers get from it (see RegistryOverlayServiceInstanceListSupplier):
+// a new instance gets traffic, and a stopped one stops getting it, within a second.
+// A change is applied for the retention only: by then, the Eureka registry has it too.
+public class RegistryOverlay {
+
+  private final long retentionNanos;
+  // Last change by instance id
+  private final Map<String, Received> changes = new ConcurrentHashMap<>();
+
+  public RegistryOverlay(Duration retention) {
+    this.retentionNanos = retention.toNanos();
+  }
+
+  public void apply(RegistryChange change, long now) {
+    if (RegistryChange.REGISTERED.equals(change.getAction()) && !"UP".equals(change.getStatus())) {
+      // Not ready for traffic yet: the Eureka registry will tell when it is
+      changes.remove(change.getInstanceId());
+      return;
+    }
+    changes.put(change.getInstanceId(), new Received(change, now));
+  }
+
+  // After a reset from the naming-server: the Eureka registry is the only source again
+  public void clear() {
+    changes.clear();
+  }
+
+  public void prune(long now) {
+    changes.values().removeIf(received -> received.isExpired(now));
+  }
+
+  public int size() {
+    return changes.size();
+  }
+
+  public List<ServiceInstance> instances(
+      String serviceId, List<ServiceInstance> instances, long now) {
+    if (changes.isEmpty()) {
+      return instances;
+    }
+    // The Eureka application names are in upper case, the service ids usually aren't
+    Map<String, RegistryChange> ofService = new HashMap<>();
+    for (Received received : changes.values()) {
+      if (received.change.getApp().equalsIgnoreCase(serviceId) && !received.isExpired(now)) {
+        ofService.put(received.change.getInstanceId(), received.change);
+      }
+    }
+    if (ofService.isEmpty()) {
+      return instances;
+    }
+
+    List<ServiceInstance> result = new ArrayList<>(instances.size() + ofService.size());
+    for (ServiceInstance instance : instances) {
+      RegistryChange change = ofService.remove(instance.getInstanceId());
+      // Registered and already known: the Eureka registry has caught up
+      if (change == null || RegistryChange.REGISTERED.equals(change.getAction())) {
+        result.add(instance);
+      }
+    }
+    // Registered and not known yet
+    for (RegistryChange change : ofService.values()) {
+      if (RegistryChange.REGISTERED.equals(change.getAction())) {
+        result.add(
+            new DefaultServiceInstance(
+                change.getInstanceId(),
+                serviceId,
+                change.getHost(),
+                change.getPort(),
+                change.isSecure()));
+      }
+    }
+    return result;
+  }
+
+  private class Received {
+    private final RegistryChange change;
+    private final long receivedAt;
+
+    private Received(RegistryChange change, long receivedAt) {
+      this.change = change;
+      this.receivedAt = receivedAt;
+    }
+
+    private boolean isExpired(long now) {
+      return now - receivedAt > retentionNanos;
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package com.mb.rest.webservices.registryoverlay;
+
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+// Loaded in the child context of every load-balanced service, in place of the default
+// discovery client + cache supplier.
+// It is deliberately not a @Configuration: it must only be loaded in the child contexts, never
+// in the application context.
+public class RegistryOverlayClientConfiguration {
+
+  @Bean
+  public ServiceInstanceListSupplier registryOverlayServiceInstanceListSupplier(
+      ConfigurableApplicationContext context, RegistryOverlay registryOverlay) {
+    // The builder always puts the cache last (outermost), hence the overlay wrapped by hand
+    return new RegistryOverlayServiceInstanceListSupplier(
+        ServiceInstanceListSupplier.builder().withDiscoveryClient().withCaching().build(context),
+        registryOverlay);
+  }
+}
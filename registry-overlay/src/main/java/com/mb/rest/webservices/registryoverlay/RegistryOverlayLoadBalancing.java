@@ -0,0 +1,59 @@
+package com.mb.rest.webservices.registryoverlay;
+
+import com.netflix.discovery.EurekaClientConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.cloud.netflix.eureka.EurekaClientConfigBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Fast propagation of the Eureka registry changes to the load balancers of a service (the
+// lb:// routes of api-gateway, currency-exchange for currency-conversion): the registrations and
+// cancellations are pushed by the naming-server instead of waiting for the registry fetch, which
+// keeps its 30s interval.
+// Auto-configuration (see META-INF/spring.factories), for the services with
+// registry-changes.enabled=true. Without Eureka (eureka.client.enabled=false), there's nothing to
+// propagate.
+@Configuration
+@ConditionalOnProperty(name = "registry-changes.enabled", havingValue = "true")
+@EnableConfigurationProperties(RegistryChangesConfiguration.class)
+public class RegistryOverlayLoadBalancing {
+
+  @Configuration
+  @ConditionalOnProperty(
+      name = "eureka.client.enabled",
+      havingValue = "true",
+      matchIfMissing = true)
+  @LoadBalancerClients(defaultConfiguration = RegistryOverlayClientConfiguration.class)
+  static class WithEureka {
+
+    @Bean
+    public RegistryOverlay registryOverlay(
+        RegistryChangesConfiguration configuration, MeterRegistry meterRegistry) {
+      RegistryOverlay overlay = new RegistryOverlay(configuration.getRetention());
+      Gauge.builder("registry.overlay.changes", overlay, RegistryOverlay::size)
+          .register(meterRegistry);
+      return overlay;
+    }
+
+    @Bean
+    public RegistryChangeSubscriber registryChangeSubscriber(
+        RegistryOverlay registryOverlay,
+        RegistryChangesConfiguration configuration,
+        EurekaClientConfig eurekaClientConfig) {
+      String url = configuration.getUrl();
+      if (url.isEmpty()) {
+        // http://localhost:8761/eureka/ -> http://localhost:8761/registry/changes
+        String zone =
+            eurekaClientConfig
+                .getEurekaServerServiceUrls(EurekaClientConfigBean.DEFAULT_ZONE)
+                .get(0);
+        url = zone.replaceFirst("/eureka/?$", "") + "/registry/changes";
+      }
+      return new RegistryChangeSubscriber(registryOverlay, configuration, url);
+    }
+  }
+}
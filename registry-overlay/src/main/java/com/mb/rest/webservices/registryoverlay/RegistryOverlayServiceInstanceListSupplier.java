@@ -0,0 +1,30 @@
+package com.mb.rest.webservices.registryoverlay;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.DelegatingServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+// The instances of the delegate (Eureka, behind the load balancer cache) with the changes of
+// the RegistryOverlay. It must stay above the cache: the overlay changes are applied at every
+// call, not when the cache is refreshed.
+public class RegistryOverlayServiceInstanceListSupplier
+    extends DelegatingServiceInstanceListSupplier {
+
+  private final RegistryOverlay overlay;
+
+  public RegistryOverlayServiceInstanceListSupplier(
+      ServiceInstanceListSupplier delegate, RegistryOverlay overlay) {
+    super(delegate);
+    this.overlay = overlay;
+  }
+
+  @Override
+  public Flux<List<ServiceInstance>> get() {
+    return getDelegate()
+        .get()
+        .map(instances -> overlay.instances(getServiceId(), instances, System.nanoTime()));
+  }
+}
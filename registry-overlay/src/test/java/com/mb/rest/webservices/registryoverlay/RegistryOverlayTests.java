@@ -0,0 +1,74 @@
+package com.mb.rest.webservices.registryoverlay;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RegistryOverlayTests {
+
+  private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+  private final RegistryOverlay overlay = new RegistryOverlay(Duration.ofMinutes(2));
+
+  private final List<ServiceInstance> fromEureka =
+      List.of(
+          new DefaultServiceInstance("exchange-1", "currency-exchange", "localhost", 8000, false),
+          new DefaultServiceInstance("exchange-2", "currency-exchange", "localhost", 8001, false));
+
+  @Test
+  void addsTheInstancesEurekaDoesNotKnowYet() {
+    overlay.apply(registered("exchange-3", "UP"), 0);
+
+    assertThat(overlay.instances("currency-exchange", fromEureka, SECOND))
+        .extracting(ServiceInstance::getInstanceId)
+        .containsExactly("exchange-1", "exchange-2", "exchange-3");
+  }
+
+  @Test
+  void removesTheCancelledInstances() {
+    RegistryChange cancelled = new RegistryChange();
+    cancelled.setAction(RegistryChange.CANCELLED);
+    cancelled.setApp("CURRENCY-EXCHANGE");
+    cancelled.setInstanceId("exchange-1");
+    overlay.apply(cancelled, 0);
+
+    assertThat(overlay.instances("currency-exchange", fromEureka, SECOND))
+        .extracting(ServiceInstance::getInstanceId)
+        .containsExactly("exchange-2");
+    assertThat(overlay.instances("currency-conversion", fromEureka, SECOND)).hasSize(2);
+  }
+
+  @Test
+  void ignoresTheInstancesThatAreNotUp() {
+    overlay.apply(registered("exchange-3", "STARTING"), 0);
+
+    assertThat(overlay.instances("currency-exchange", fromEureka, SECOND)).hasSize(2);
+  }
+
+  @Test
+  void forgetsTheChangesAfterTheRetention() {
+    overlay.apply(registered("exchange-3", "UP"), 0);
+    long later = Duration.ofMinutes(3).toNanos();
+
+    assertThat(overlay.instances("currency-exchange", fromEureka, later)).hasSize(2);
+    overlay.prune(later);
+    assertThat(overlay.size()).isZero();
+  }
+
+  private RegistryChange registered(String instanceId, String status) {
+    return new RegistryChange(
+        1,
+        RegistryChange.REGISTERED,
+        "CURRENCY-EXCHANGE",
+        instanceId,
+        "localhost",
+        8002,
+        false,
+        status);
+  }
+}
@@ -0,0 +1,52 @@
+package com.mb.rest.webservices.startup;
+
+import org.springframework.boot.context.config.ConfigDataLocation;
+import org.springframework.boot.context.config.ConfigDataLocationResolver;
+import org.springframework.boot.context.config.ConfigDataLocationResolverContext;
+import org.springframework.boot.context.config.ConfigDataResource;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.Ordered;
+
+import java.util.Collections;
+import java.util.List;
+
+// With the fast-start profile, the spring.config.import=optional:configserver:... of
+// application.properties is resolved to nothing: the startup doesn't wait for the config-server.
+// DeferredStartup imports it once the instance is ready (FAST_START_IMPORT=true, then refresh).
+// The import is resolved before the profile files are read, so the profile is taken from
+// spring.profiles.active (command line or SPRING_PROFILES_ACTIVE), not from a properties file.
+// spring.cloud.config.enabled=false doesn't do it: the location is then left to the file
+// resolver, which fails on it.
+public class DeferredConfigServerImport
+    implements ConfigDataLocationResolver<ConfigDataResource>, Ordered {
+
+  static final String PROFILE = "fast-start";
+  static final String FAST_START_IMPORT = "fast-start.config-server-import";
+
+  @Override
+  public boolean isResolvable(
+      ConfigDataLocationResolverContext context, ConfigDataLocation location) {
+    if (!location.hasPrefix("configserver:")) {
+      return false;
+    }
+    Binder binder = context.getBinder();
+    return binder
+            .bind("spring.profiles.active", Bindable.listOf(String.class))
+            .orElse(Collections.emptyList())
+            .contains(PROFILE)
+        && !binder.bind(FAST_START_IMPORT, Boolean.class).orElse(false);
+  }
+
+  @Override
+  public List<ConfigDataResource> resolve(
+      ConfigDataLocationResolverContext context, ConfigDataLocation location) {
+    return Collections.emptyList();
+  }
+
+  // Before the resolver of Spring Cloud Config
+  @Override
+  public int getOrder() {
+    return Ordered.HIGHEST_PRECEDENCE;
+  }
+}
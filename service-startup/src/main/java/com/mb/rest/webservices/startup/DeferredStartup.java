@@ -0,0 +1,84 @@
+package com.mb.rest.webservices.startup;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.cloud.context.refresh.ContextRefresher;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.Profiles;
+import org.springframework.util.ClassUtils;
+
+import java.util.Map;
+import java.util.Set;
+
+// With the fast-start profile, the startup doesn't wait for the config-server nor for Eureka:
+// - the config-server properties are imported here, once the instance is ready (see
+//   DeferredConfigServerImport, the @ConfigurationProperties are bound again by ContextRefresher)
+// - eureka.instance.initial-status=STARTING, the instance is only set UP here, after the import:
+//   the other services don't send it any request before.
+// Without the profile, or without a configserver: import and a Eureka client (limits-service,
+// naming-server), the matching step is skipped. Registered by StartupAutoConfiguration.
+public class DeferredStartup {
+
+  // Retained by the refresh, see spring.cloud.refresh.additional-property-sources-to-retain
+  static final String PROPERTY_SOURCE = "deferredConfigImport";
+
+  // Not a field type: the Eureka client is not on the classpath of every service
+  private static final boolean EUREKA_PRESENT =
+      ClassUtils.isPresent(
+          "com.netflix.appinfo.ApplicationInfoManager", DeferredStartup.class.getClassLoader());
+
+  private final Logger logger = LoggerFactory.getLogger(DeferredStartup.class);
+
+  @Autowired ConfigurableEnvironment environment;
+  @Autowired ObjectProvider<ContextRefresher> contextRefresher;
+  @Autowired ApplicationContext context;
+
+  @EventListener
+  public void onReadiness(AvailabilityChangeEvent<ReadinessState> event) {
+    if (event.getState() != ReadinessState.ACCEPTING_TRAFFIC) {
+      return;
+    }
+    // Not on the main thread: the startup is over, whatever the config-server takes
+    Thread thread = new Thread(this::completeStartup, "deferred-startup");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  private void completeStartup() {
+    if (environment.acceptsProfiles(Profiles.of(DeferredConfigServerImport.PROFILE))
+        && environment.getProperty("spring.config.import", "").contains("configserver:")) {
+      environment
+          .getPropertySources()
+          .addFirst(
+              new MapPropertySource(
+                  PROPERTY_SOURCE, Map.of(DeferredConfigServerImport.FAST_START_IMPORT, true)));
+      Set<String> changed = contextRefresher.getObject().refresh();
+      logger.info("Config imported after readiness, {} properties changed", changed.size());
+    }
+    if (EUREKA_PRESENT) {
+      EurekaStatus.setUp(context, logger);
+    }
+  }
+
+  // Only loaded when the Eureka client is there
+  private static class EurekaStatus {
+
+    static void setUp(ApplicationContext context, Logger logger) {
+      ApplicationInfoManager infoManager =
+          context.getBeanProvider(ApplicationInfoManager.class).getIfAvailable();
+      if (infoManager != null && infoManager.getInfo().getStatus() == InstanceStatus.STARTING) {
+        infoManager.setInstanceStatus(InstanceStatus.UP);
+        logger.info("Registered in Eureka as UP after readiness");
+      }
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package com.mb.rest.webservices.startup;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.cloud.context.refresh.ContextRefresher;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+// The startup support of all the services (see META-INF/spring.factories): it's outside of their
+// packages, so their component scan doesn't find it.
+@Configuration(proxyBeanMethods = false)
+@Import(StartupReport.class)
+public class StartupAutoConfiguration {
+
+  // The deferred config-server import needs ContextRefresher (spring-cloud-context)
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnClass(ContextRefresher.class)
+  @Import(DeferredStartup.class)
+  static class DeferredStartupConfiguration {}
+}
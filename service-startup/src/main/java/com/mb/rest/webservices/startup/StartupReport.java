@@ -0,0 +1,125 @@
+package com.mb.rest.webservices.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Logs the beans that took the longest to create once the application is ready, to see the
+// startup regressions (the full timeline is on GET /actuator/startup, where it's exposed).
+// Only when the application is started by its main method: that's where the startup steps are
+// recorded (BufferingApplicationStartup). Registered by StartupAutoConfiguration.
+public class StartupReport {
+
+  static final String BEAN_INSTANTIATION = "spring.beans.instantiate";
+
+  private final Logger logger = LoggerFactory.getLogger(StartupReport.class);
+
+  @Autowired ApplicationStartup applicationStartup;
+  @Autowired ConfigurableApplicationContext context;
+
+  // Number of beans in the report, 0: no report
+  @Value("${fast-start.report-beans:10}")
+  int reportedBeans;
+
+  // Training run of the fast-start Maven profile: it stops as soon as it's started, the JVM
+  // then writes the class data sharing archive.
+  @Value("${fast-start.training-run:false}")
+  boolean trainingRun;
+
+  @EventListener
+  public void report(ApplicationReadyEvent event) {
+    if (reportedBeans > 0 && applicationStartup instanceof BufferingApplicationStartup) {
+      List<BeanTime> slowest =
+          slowestBeans(
+              ((BufferingApplicationStartup) applicationStartup)
+                  .getBufferedTimeline()
+                  .getEvents(),
+              reportedBeans);
+      logger.info(
+          "Started in {} ms, slowest beans (own time, without their dependencies):\n{}",
+          event.getTimeTaken().toMillis(),
+          slowest.stream().map(BeanTime::toString).collect(Collectors.joining("\n")));
+    }
+  }
+
+  // After the ApplicationReadyEvent listeners: their classes are in the archive too
+  @EventListener
+  public void stopTrainingRun(AvailabilityChangeEvent<ReadinessState> event) {
+    if (trainingRun && event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+      System.exit(SpringApplication.exit(context));
+    }
+  }
+
+  // The time of a bean includes the creation of the beans it depends on, if they didn't exist
+  // yet: that time is taken off, so that each bean is only charged with its own work.
+  static List<BeanTime> slowestBeans(List<TimelineEvent> events, int count) {
+    Map<Long, Duration> ownTimes = new HashMap<>();
+    for (TimelineEvent event : events) {
+      StartupStep step = event.getStartupStep();
+      ownTimes.merge(step.getId(), event.getDuration(), Duration::plus);
+      if (step.getParentId() != null) {
+        ownTimes.merge(step.getParentId(), event.getDuration().negated(), Duration::plus);
+      }
+    }
+    List<BeanTime> beans = new ArrayList<>();
+    for (TimelineEvent event : events) {
+      StartupStep step = event.getStartupStep();
+      if (BEAN_INSTANTIATION.equals(step.getName())) {
+        beans.add(new BeanTime(beanName(step), ownTimes.get(step.getId())));
+      }
+    }
+    beans.sort(Comparator.comparing(BeanTime::getTime).reversed());
+    return beans.subList(0, Math.min(count, beans.size()));
+  }
+
+  private static String beanName(StartupStep step) {
+    for (StartupStep.Tag tag : step.getTags()) {
+      if ("beanName".equals(tag.getKey())) {
+        return tag.getValue();
+      }
+    }
+    return "?";
+  }
+
+  static class BeanTime {
+    private final String name;
+    private final Duration time;
+
+    BeanTime(String name, Duration time) {
+      this.name = name;
+      this.time = time;
+    }
+
+    String getName() {
+      return name;
+    }
+
+    Duration getTime() {
+      return time;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%8d ms  %s", time.toMillis(), name);
+    }
+  }
+}
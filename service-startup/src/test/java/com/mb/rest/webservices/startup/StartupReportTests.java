@@ -0,0 +1,48 @@
+package com.mb.rest.webservices.startup;
+
+import com.mb.rest.webservices.startup.StartupReport.BeanTime;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StartupReportTests {
+
+  private final BufferingApplicationStartup startup = new BufferingApplicationStartup(16);
+
+  @Test
+  void chargesEachBeanWithItsOwnTime() throws InterruptedException {
+    // The controller needs the repository, which is created within the creation of the controller
+    StartupStep controller = instantiate("controller");
+    StartupStep repository = instantiate("repository");
+    Thread.sleep(200);
+    repository.end();
+    Thread.sleep(20);
+    controller.end();
+
+    List<BeanTime> slowest =
+        StartupReport.slowestBeans(startup.getBufferedTimeline().getEvents(), 10);
+
+    assertThat(slowest).extracting(BeanTime::getName).containsExactly("repository", "controller");
+    assertThat(slowest.get(0).getTime()).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+    assertThat(slowest.get(1).getTime()).isLessThan(Duration.ofMillis(200));
+  }
+
+  @Test
+  void keepsTheSlowestOnly() {
+    instantiate("a").end();
+    instantiate("b").end();
+    startup.start("spring.context.refresh").end();
+
+    assertThat(StartupReport.slowestBeans(startup.getBufferedTimeline().getEvents(), 1))
+        .hasSize(1);
+  }
+
+  private StartupStep instantiate(String beanName) {
+    return startup.start(StartupReport.BEAN_INSTANTIATION).tag("beanName", beanName);
+  }
+}
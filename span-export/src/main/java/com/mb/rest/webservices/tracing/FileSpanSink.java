@@ -0,0 +1,39 @@
+package com.mb.rest.webservices.tracing;
+
+import zipkin2.Span;
+import zipkin2.codec.SpanBytesEncoder;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Appends the spans to a file, one JSON span (Zipkin v2) per line, to look at the traces
+// without a Zipkin server (or to import them later).
+public class FileSpanSink implements SpanSink {
+
+  private final OutputStream output;
+
+  public FileSpanSink(Path file) throws IOException {
+    this.output =
+        new BufferedOutputStream(
+            Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+  }
+
+  @Override
+  public void export(List<Span> spans) throws IOException {
+    for (Span span : spans) {
+      output.write(SpanBytesEncoder.JSON_V2.encode(span));
+      output.write('\n');
+    }
+    output.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    output.close();
+  }
+}
@@ -0,0 +1,38 @@
+package com.mb.rest.webservices.tracing;
+
+import zipkin2.Span;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+// Keeps the most recent spans in memory instead of sending them, to test the tracing (and the
+// sampling) without a Zipkin server.
+public class MemorySpanSink implements SpanSink {
+
+  private final int capacity;
+  private final Deque<Span> spans = new ArrayDeque<>();
+
+  public MemorySpanSink(int capacity) {
+    this.capacity = capacity;
+  }
+
+  @Override
+  public synchronized void export(List<Span> batch) {
+    for (Span span : batch) {
+      if (spans.size() == capacity) {
+        spans.removeFirst();
+      }
+      spans.addLast(span);
+    }
+  }
+
+  public synchronized List<Span> spans() {
+    return new ArrayList<>(spans);
+  }
+
+  public synchronized void clear() {
+    spans.clear();
+  }
+}
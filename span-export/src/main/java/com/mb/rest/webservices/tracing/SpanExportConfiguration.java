@@ -0,0 +1,127 @@
+package com.mb.rest.webservices.tracing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Settings of the span pipeline (see SpanExportReporter), which replaces the reporter of Sleuth.
+@ConfigurationProperties("span-export")
+public class SpanExportConfiguration {
+
+  private boolean enabled = true;
+  private Sink sink = Sink.ZIPKIN;
+  // Spans waiting to be exported, when they are all taken the new ones are dropped.
+  private int bufferSize = 4096;
+  // The spans are exported by batchSize, or after flushInterval when there are fewer.
+  private int batchSize = 200;
+  private Duration flushInterval = Duration.ofSeconds(1);
+  // Tail sampling: a trace slower than slowThreshold in this service, or with an error, is
+  // always kept, only fastSamplePercent of the other ones are.
+  private Duration slowThreshold = Duration.ofMillis(500);
+  private double fastSamplePercent = 10;
+  // Traces whose local root span hasn't ended yet, beyond that their spans are dropped.
+  private int maxPendingTraces = 10000;
+  // A pending trace is decided without its local root span after this (e.g. a span ending
+  // after the response).
+  private Duration pendingTimeout = Duration.ofSeconds(30);
+  // Sink.MEMORY: number of spans kept (the most recent ones)
+  private int memorySpans = 1000;
+  // Sink.FILE: the spans are appended to this file, one JSON span (Zipkin v2) per line
+  private String file = "spans.jsonl";
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Sink getSink() {
+    return sink;
+  }
+
+  public void setSink(Sink sink) {
+    this.sink = sink;
+  }
+
+  public int getBufferSize() {
+    return bufferSize;
+  }
+
+  public void setBufferSize(int bufferSize) {
+    this.bufferSize = bufferSize;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  public Duration getFlushInterval() {
+    return flushInterval;
+  }
+
+  public void setFlushInterval(Duration flushInterval) {
+    this.flushInterval = flushInterval;
+  }
+
+  public Duration getSlowThreshold() {
+    return slowThreshold;
+  }
+
+  public void setSlowThreshold(Duration slowThreshold) {
+    this.slowThreshold = slowThreshold;
+  }
+
+  public double getFastSamplePercent() {
+    return fastSamplePercent;
+  }
+
+  public void setFastSamplePercent(double fastSamplePercent) {
+    this.fastSamplePercent = fastSamplePercent;
+  }
+
+  public int getMaxPendingTraces() {
+    return maxPendingTraces;
+  }
+
+  public void setMaxPendingTraces(int maxPendingTraces) {
+    this.maxPendingTraces = maxPendingTraces;
+  }
+
+  public Duration getPendingTimeout() {
+    return pendingTimeout;
+  }
+
+  public void setPendingTimeout(Duration pendingTimeout) {
+    this.pendingTimeout = pendingTimeout;
+  }
+
+  public int getMemorySpans() {
+    return memorySpans;
+  }
+
+  public void setMemorySpans(int memorySpans) {
+    this.memorySpans = memorySpans;
+  }
+
+  public String getFile() {
+    return file;
+  }
+
+  public void setFile(String file) {
+    this.file = file;
+  }
+
+  public enum Sink {
+    // The sender of Sleuth (spring.zipkin.sender.type: web or rabbit)
+    ZIPKIN,
+    // Kept in memory (MemorySpanSink), to test without a Zipkin server
+    MEMORY,
+    FILE
+  }
+}
@@ -0,0 +1,49 @@
+package com.mb.rest.webservices.tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import zipkin2.reporter.Sender;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// The span pipeline of the services (span-export), see SpanExportReporter.
+// Auto-configuration (see META-INF/spring.factories). Sleuth only creates its own reporter when
+// there's no bean named zipkinReporter, hence before ZipkinAutoConfiguration.
+@Configuration
+@ConditionalOnClass(name = SpanExportPipeline.ZIPKIN_AUTO_CONFIGURATION)
+@ConditionalOnProperty(
+    name = {"span-export.enabled", "spring.zipkin.enabled"},
+    matchIfMissing = true)
+@AutoConfigureBefore(name = SpanExportPipeline.ZIPKIN_AUTO_CONFIGURATION)
+@EnableConfigurationProperties(SpanExportConfiguration.class)
+public class SpanExportPipeline {
+
+  static final String ZIPKIN_AUTO_CONFIGURATION =
+      "org.springframework.cloud.sleuth.autoconfig.zipkin2.ZipkinAutoConfiguration";
+  // ZipkinAutoConfiguration.REPORTER_BEAN_NAME
+  static final String REPORTER_BEAN_NAME = "zipkinReporter";
+
+  @Bean
+  public SpanSink spanSink(
+      SpanExportConfiguration configuration, ObjectProvider<Sender> zipkinSender)
+      throws IOException {
+    return switch (configuration.getSink()) {
+      case MEMORY -> new MemorySpanSink(configuration.getMemorySpans());
+      case FILE -> new FileSpanSink(Path.of(configuration.getFile()));
+      default -> new ZipkinSpanSink(zipkinSender.getObject());
+    };
+  }
+
+  @Bean(REPORTER_BEAN_NAME)
+  public SpanExportReporter zipkinReporter(
+      SpanExportConfiguration configuration, SpanSink spanSink, MeterRegistry meterRegistry) {
+    return new SpanExportReporter(configuration, spanSink, meterRegistry);
+  }
+}
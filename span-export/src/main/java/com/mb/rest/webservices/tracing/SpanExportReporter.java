@@ -0,0 +1,140 @@
+package com.mb.rest.webservices.tracing;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import zipkin2.Span;
+import zipkin2.reporter.Reporter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ToDoubleFunction;
+
+// Replaces the AsyncReporter of Sleuth (bean zipkinReporter), which the request threads feed
+// with every finished span.
+// On the request thread, a span only goes through the TailSampler and, if its trace is kept,
+// into the SpanRingBuffer: no lock, no I/O, no unbounded queue. A single export thread drains
+// the buffer and hands the spans to the SpanSink by batches.
+// When the sink is slow or down, the buffer fills up and the new spans are dropped: tracing
+// never slows the requests down, what is lost is counted in tracing.spans{outcome=...}.
+public class SpanExportReporter implements Reporter<Span> {
+
+  private final Logger logger = LoggerFactory.getLogger(SpanExportReporter.class);
+
+  private final SpanExportConfiguration configuration;
+  private final TailSampler tailSampler;
+  private final SpanRingBuffer ringBuffer;
+  private final SpanSink sink;
+  private final LongAdder exported = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private Thread exporter;
+  private volatile boolean running;
+
+  public SpanExportReporter(
+      SpanExportConfiguration configuration, SpanSink sink, MeterRegistry meterRegistry) {
+    this.configuration = configuration;
+    this.tailSampler = new TailSampler(configuration);
+    this.ringBuffer = new SpanRingBuffer(configuration.getBufferSize());
+    this.sink = sink;
+
+    outcome(meterRegistry, "exported", exported, LongAdder::sum);
+    outcome(meterRegistry, "failed", failed, LongAdder::sum);
+    outcome(meterRegistry, "sampled.out", tailSampler, TailSampler::sampledOut);
+    outcome(meterRegistry, "dropped.pending", tailSampler, TailSampler::droppedPending);
+    outcome(meterRegistry, "dropped.buffer.full", ringBuffer, SpanRingBuffer::dropped);
+    Gauge.builder("tracing.pending.traces", tailSampler, TailSampler::pendingTraces)
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void report(Span span) {
+    for (Span kept : tailSampler.offer(span, System.nanoTime())) {
+      ringBuffer.tryPublish(kept);
+    }
+  }
+
+  @PostConstruct
+  public void start() {
+    running = true;
+    exporter = new Thread(this::exportLoop, "span-export");
+    exporter.setDaemon(true);
+    exporter.start();
+  }
+
+  // The spans still in the buffer are exported before the sink is closed.
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    running = false;
+    exporter.join(TimeUnit.SECONDS.toMillis(5));
+    try {
+      sink.close();
+    } catch (IOException e) {
+      logger.warn("Failed to close the span sink", e);
+    }
+  }
+
+  public long exportedSpans() {
+    return exported.sum();
+  }
+
+  private void exportLoop() {
+    int batchSize = configuration.getBatchSize();
+    long flushIntervalNanos = configuration.getFlushInterval().toNanos();
+    List<Span> batch = new ArrayList<>(batchSize);
+    long lastFlush = System.nanoTime();
+    long lastExpiry = lastFlush;
+    while (running) {
+      int drained = ringBuffer.drain(batch::add, batchSize - batch.size());
+      long now = System.nanoTime();
+      if (now - lastExpiry >= flushIntervalNanos) {
+        // Already decided, they don't need to go through the buffer
+        batch.addAll(tailSampler.expire(now));
+        lastExpiry = now;
+      }
+      if (batch.size() >= batchSize
+          || (!batch.isEmpty() && now - lastFlush >= flushIntervalNanos)) {
+        export(batch);
+        lastFlush = now;
+      } else if (drained == 0) {
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+      }
+    }
+    while (ringBuffer.drain(batch::add, batchSize) > 0) {
+      export(batch);
+    }
+    export(batch);
+  }
+
+  private void export(List<Span> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    try {
+      sink.export(batch);
+      exported.add(batch.size());
+    } catch (IOException | RuntimeException e) {
+      // The batch is lost, like the spans dropped when the buffer is full
+      failed.add(batch.size());
+      logger.debug("Failed to export {} spans", batch.size(), e);
+    }
+    batch.clear();
+  }
+
+  private static <T> void outcome(
+      MeterRegistry meterRegistry,
+      String outcome,
+      T source,
+      ToDoubleFunction<T> count) {
+    FunctionCounter.builder("tracing.spans", source, count)
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,69 @@
+package com.mb.rest.webservices.tracing;
+
+import zipkin2.Span;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+// Bounded, lock-free, multi-producer / single-consumer ring buffer of spans.
+// The reporting threads claim a slot with a CAS and publish the span in it, the export thread
+// drains the published slots. When the export falls behind (slow Zipkin or broker), the new
+// spans are dropped (and counted) instead of blocking the request threads or growing the heap.
+final class SpanRingBuffer {
+
+  private final AtomicReferenceArray<Span> slots;
+  private final int mask;
+  private final AtomicLong claimed = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  // Next sequence to be read, only written by the consumer.
+  private volatile long consumed;
+
+  SpanRingBuffer(int requestedCapacity) {
+    int capacity = Integer.highestOneBit(Math.max(requestedCapacity, 2) - 1) << 1;
+    this.slots = new AtomicReferenceArray<>(capacity);
+    this.mask = capacity - 1;
+  }
+
+  boolean tryPublish(Span span) {
+    long sequence;
+    do {
+      sequence = claimed.get();
+      if (sequence - consumed >= slots.length()) {
+        dropped.incrementAndGet();
+        return false;
+      }
+    } while (!claimed.compareAndSet(sequence, sequence + 1));
+    // The slot was emptied by the consumer before it moved past it
+    slots.lazySet((int) sequence & mask, span);
+    return true;
+  }
+
+  // Hands at most max published spans to the consumer, in order. Returns the number drained.
+  int drain(Consumer<Span> consumer, int max) {
+    long next = consumed;
+    int drained = 0;
+    while (drained < max) {
+      int slot = (int) next & mask;
+      Span span = slots.get(slot);
+      if (span == null) {
+        // Not claimed yet, or claimed but not published yet
+        break;
+      }
+      slots.lazySet(slot, null);
+      consumer.accept(span);
+      next++;
+      drained++;
+      consumed = next;
+    }
+    return drained;
+  }
+
+  int capacity() {
+    return slots.length();
+  }
+
+  long dropped() {
+    return dropped.get();
+  }
+}
@@ -0,0 +1,14 @@
+package com.mb.rest.webservices.tracing;
+
+import zipkin2.Span;
+
+import java.io.IOException;
+import java.util.List;
+
+// Where the batches of SpanExportReporter go, only called by its export thread.
+public interface SpanSink {
+
+  void export(List<Span> spans) throws IOException;
+
+  default void close() throws IOException {}
+}
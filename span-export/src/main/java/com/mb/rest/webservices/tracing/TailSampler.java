@@ -0,0 +1,148 @@
+package com.mb.rest.webservices.tracing;
+
+import zipkin2.Span;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Tail-based sampling: Sleuth records every request (spring.sleuth.sampler.probability=1.0) and
+// the decision to keep a trace is taken once its local root span (the span of the request
+// received by this service) has ended, when its duration and errors are known:
+//  - the slow traces and the ones with an error are always kept
+//  - fastSamplePercent of the other ones are kept, chosen from the trace id, so the services
+//    keep the same fast traces and these are complete in Zipkin
+// Until then, the spans of the trace are held here. A span ending after its local root is
+// decided on its own when it times out (error or trace id only).
+final class TailSampler {
+
+  private final long slowThresholdMicros;
+  private final long fastSampleThreshold;
+  private final int maxPendingTraces;
+  private final long pendingTimeoutNanos;
+  private final Map<String, PendingTrace> pending = new ConcurrentHashMap<>();
+  private final LongAdder sampledOut = new LongAdder();
+  private final LongAdder droppedPending = new LongAdder();
+
+  TailSampler(SpanExportConfiguration configuration) {
+    this.slowThresholdMicros = configuration.getSlowThreshold().toNanos() / 1000;
+    // Out of 10000, to keep fractions of a percent
+    this.fastSampleThreshold = Math.round(configuration.getFastSamplePercent() * 100);
+    this.maxPendingTraces = configuration.getMaxPendingTraces();
+    this.pendingTimeoutNanos = configuration.getPendingTimeout().toNanos();
+  }
+
+  // The spans to export now: the spans of the trace if the span is its local root and the
+  // trace is kept, nothing otherwise.
+  List<Span> offer(Span span, long nowNanos) {
+    if (!isLocalRoot(span)) {
+      PendingTrace trace = pending.get(span.traceId());
+      if (trace == null) {
+        if (pending.size() >= maxPendingTraces) {
+          droppedPending.increment();
+          return Collections.emptyList();
+        }
+        trace = pending.computeIfAbsent(span.traceId(), traceId -> new PendingTrace(nowNanos));
+      }
+      if (trace.add(span)) {
+        return Collections.emptyList();
+      }
+      // The local root has just ended, too late to join its trace
+      return decide(List.of(span), false);
+    }
+
+    PendingTrace trace = pending.remove(span.traceId());
+    List<Span> spans = trace != null ? trace.close(span) : List.of(span);
+    return decide(spans, span.durationAsLong() >= slowThresholdMicros);
+  }
+
+  // Decides the traces which are pending for too long, returns the spans to export.
+  List<Span> expire(long nowNanos) {
+    List<Span> kept = new ArrayList<>();
+    for (Map.Entry<String, PendingTrace> entry : pending.entrySet()) {
+      PendingTrace trace = entry.getValue();
+      // Unless its local root has just taken it
+      if (nowNanos - trace.startNanos >= pendingTimeoutNanos
+          && pending.remove(entry.getKey(), trace)) {
+        kept.addAll(decide(trace.close(null), false));
+      }
+    }
+    return kept;
+  }
+
+  int pendingTraces() {
+    return pending.size();
+  }
+
+  long sampledOut() {
+    return sampledOut.sum();
+  }
+
+  long droppedPending() {
+    return droppedPending.sum();
+  }
+
+  private List<Span> decide(List<Span> spans, boolean slow) {
+    if (spans.isEmpty()
+        || slow
+        || hasError(spans)
+        || isFastSampled(spans.get(0).traceId())) {
+      return spans;
+    }
+    sampledOut.add(spans.size());
+    return Collections.emptyList();
+  }
+
+  private boolean isFastSampled(String traceId) {
+    // The low 64 bits of the trace id are random
+    long random = Long.parseUnsignedLong(traceId.substring(traceId.length() - 16), 16);
+    return Long.remainderUnsigned(random, 10000) < fastSampleThreshold;
+  }
+
+  private static boolean hasError(List<Span> spans) {
+    for (Span span : spans) {
+      if (span.tags().containsKey("error")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // The first span of the trace in this service: a request received (server or consumer span,
+  // its parent is in the caller) or a new trace (e.g. a @Scheduled method).
+  private static boolean isLocalRoot(Span span) {
+    return span.parentId() == null
+        || span.kind() == Span.Kind.SERVER
+        || span.kind() == Span.Kind.CONSUMER;
+  }
+
+  private static final class PendingTrace {
+    private final long startNanos;
+    private List<Span> spans = new ArrayList<>();
+
+    PendingTrace(long startNanos) {
+      this.startNanos = startNanos;
+    }
+
+    synchronized boolean add(Span span) {
+      if (spans == null) {
+        return false;
+      }
+      spans.add(span);
+      return true;
+    }
+
+    // The spans of the trace, with the local root if there's one. No span can be added after.
+    synchronized List<Span> close(Span localRoot) {
+      List<Span> closed = spans;
+      spans = null;
+      if (localRoot != null) {
+        closed.add(localRoot);
+      }
+      return closed;
+    }
+  }
+}
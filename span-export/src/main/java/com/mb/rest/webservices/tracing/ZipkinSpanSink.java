@@ -0,0 +1,53 @@
+package com.mb.rest.webservices.tracing;
+
+import zipkin2.Span;
+import zipkin2.codec.SpanBytesEncoder;
+import zipkin2.reporter.Sender;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Sends the batches with the sender of Sleuth (HTTP, gzip compressed with
+// spring.zipkin.compression.enabled=true, or RabbitMQ), split to fit in its messages.
+// The sender is a bean of Sleuth, closed with the context.
+public class ZipkinSpanSink implements SpanSink {
+
+  // Upper bound of the bytes a list adds per span, whatever the encoding (PROTO3: a field key and
+  // a length, JSON: a comma), plus the brackets or the header of the list.
+  private static final int SPAN_OVERHEAD = 6;
+  private static final int LIST_OVERHEAD = 5;
+
+  private final Sender sender;
+  private final SpanBytesEncoder encoder;
+
+  public ZipkinSpanSink(Sender sender) {
+    this.sender = sender;
+    this.encoder =
+        switch (sender.encoding()) {
+          case PROTO3 -> SpanBytesEncoder.PROTO3;
+          case THRIFT -> SpanBytesEncoder.THRIFT;
+          default -> SpanBytesEncoder.JSON_V2;
+        };
+  }
+
+  @Override
+  public void export(List<Span> spans) throws IOException {
+    List<byte[]> message = new ArrayList<>(spans.size());
+    int messageBytes = LIST_OVERHEAD;
+    for (Span span : spans) {
+      byte[] encoded = encoder.encode(span);
+      if (!message.isEmpty()
+          && messageBytes + encoded.length + SPAN_OVERHEAD > sender.messageMaxBytes()) {
+        sender.sendSpans(message).execute();
+        message = new ArrayList<>(spans.size());
+        messageBytes = LIST_OVERHEAD;
+      }
+      message.add(encoded);
+      messageBytes += encoded.length + SPAN_OVERHEAD;
+    }
+    if (!message.isEmpty()) {
+      sender.sendSpans(message).execute();
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package com.mb.rest.webservices.tracing;
+
+import org.junit.jupiter.api.Test;
+import zipkin2.Span;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpanRingBufferTests {
+
+  @Test
+  void drainsThePublishedSpansInOrderByBatches() {
+    SpanRingBuffer ringBuffer = new SpanRingBuffer(4);
+    for (int id = 1; id <= 3; id++) {
+      assertThat(ringBuffer.tryPublish(span(id))).isTrue();
+    }
+
+    List<String> ids = new ArrayList<>();
+    assertThat(ringBuffer.drain(span -> ids.add(span.id()), 2)).isEqualTo(2);
+    assertThat(ringBuffer.drain(span -> ids.add(span.id()), 2)).isEqualTo(1);
+    assertThat(ids).containsExactly("0000000000000001", "0000000000000002", "0000000000000003");
+    assertThat(ringBuffer.drain(span -> ids.add(span.id()), 2)).isZero();
+  }
+
+  @Test
+  void dropsTheSpansWhenFullAndReusesTheSlotsOnceDrained() {
+    SpanRingBuffer ringBuffer = new SpanRingBuffer(3);
+    assertThat(ringBuffer.capacity()).isEqualTo(4);
+    for (int id = 1; id <= 4; id++) {
+      assertThat(ringBuffer.tryPublish(span(id))).isTrue();
+    }
+    assertThat(ringBuffer.tryPublish(span(5))).isFalse();
+    assertThat(ringBuffer.dropped()).isEqualTo(1);
+
+    ringBuffer.drain(span -> {}, Integer.MAX_VALUE);
+    assertThat(ringBuffer.tryPublish(span(6))).isTrue();
+    List<String> ids = new ArrayList<>();
+    ringBuffer.drain(span -> ids.add(span.id()), Integer.MAX_VALUE);
+    assertThat(ids).containsExactly("0000000000000006");
+  }
+
+  private static Span span(int id) {
+    return Span.newBuilder().traceId("1").id(id).name("get").build();
+  }
+}
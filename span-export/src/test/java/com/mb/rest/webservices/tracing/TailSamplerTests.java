@@ -0,0 +1,96 @@
+package com.mb.rest.webservices.tracing;
+
+import org.junit.jupiter.api.Test;
+import zipkin2.Span;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TailSamplerTests {
+
+  // The low 64 bits of these trace ids modulo 10000: 1 and 9999
+  private static final String SAMPLED_TRACE = "0000000000000001";
+  private static final String NOT_SAMPLED_TRACE = "000000000000270f";
+
+  private final TailSampler tailSampler = new TailSampler(configuration());
+
+  @Test
+  void holdsTheSpansUntilTheLocalRootEndsAndKeepsTheSlowTraces() {
+    assertThat(tailSampler.offer(span(NOT_SAMPLED_TRACE, "2", "1", null, 10, false), 0))
+        .isEmpty();
+    assertThat(tailSampler.pendingTraces()).isEqualTo(1);
+
+    List<Span> kept =
+        tailSampler.offer(span(NOT_SAMPLED_TRACE, "1", "f", Span.Kind.SERVER, 600_000, false), 0);
+
+    assertThat(kept).extracting(Span::id).containsExactly("0000000000000002", "0000000000000001");
+    assertThat(tailSampler.pendingTraces()).isZero();
+  }
+
+  @Test
+  void keepsTheTracesWithAnErrorAndSamplesTheFastOnes() {
+    tailSampler.offer(span(NOT_SAMPLED_TRACE, "2", "1", null, 10, true), 0);
+    assertThat(tailSampler.offer(span(NOT_SAMPLED_TRACE, "1", null, null, 20, false), 0))
+        .hasSize(2);
+
+    assertThat(tailSampler.offer(span(SAMPLED_TRACE, "1", null, null, 20, false), 0)).hasSize(1);
+
+    String fastTrace = "00000000000000ff" + NOT_SAMPLED_TRACE;
+    tailSampler.offer(span(fastTrace, "2", "1", Span.Kind.CLIENT, 10, false), 0);
+    assertThat(tailSampler.offer(span(fastTrace, "1", null, null, 20, false), 0)).isEmpty();
+    assertThat(tailSampler.sampledOut()).isEqualTo(2);
+  }
+
+  @Test
+  void decidesTheTracesPendingForTooLong() {
+    tailSampler.offer(span(SAMPLED_TRACE, "2", "1", null, 10, false), 0);
+    tailSampler.offer(span(NOT_SAMPLED_TRACE, "2", "1", null, 10, false), 0);
+
+    assertThat(tailSampler.expire(Duration.ofSeconds(1).toNanos())).isEmpty();
+    assertThat(tailSampler.expire(Duration.ofSeconds(30).toNanos()))
+        .extracting(Span::traceId)
+        .containsExactly(SAMPLED_TRACE);
+    assertThat(tailSampler.pendingTraces()).isZero();
+    assertThat(tailSampler.sampledOut()).isEqualTo(1);
+  }
+
+  @Test
+  void dropsTheSpansBeyondTheMaximumOfPendingTraces() {
+    SpanExportConfiguration configuration = configuration();
+    configuration.setMaxPendingTraces(1);
+    TailSampler bounded = new TailSampler(configuration);
+
+    bounded.offer(span(SAMPLED_TRACE, "2", "1", null, 10, false), 0);
+    bounded.offer(span(NOT_SAMPLED_TRACE, "2", "1", null, 10, false), 0);
+
+    assertThat(bounded.pendingTraces()).isEqualTo(1);
+    assertThat(bounded.droppedPending()).isEqualTo(1);
+  }
+
+  private static SpanExportConfiguration configuration() {
+    SpanExportConfiguration configuration = new SpanExportConfiguration();
+    configuration.setSlowThreshold(Duration.ofMillis(500));
+    configuration.setFastSamplePercent(1);
+    configuration.setPendingTimeout(Duration.ofSeconds(30));
+    return configuration;
+  }
+
+  private static Span span(
+      String traceId, String id, String parentId, Span.Kind kind, long micros, boolean error) {
+    Span.Builder span =
+        Span.newBuilder()
+            .traceId(traceId)
+            .id(id)
+            .parentId(parentId)
+            .kind(kind)
+            .name("get")
+            .timestamp(1)
+            .duration(micros);
+    if (error) {
+      span.putTag("error", "500");
+    }
+    return span.build();
+  }
+}
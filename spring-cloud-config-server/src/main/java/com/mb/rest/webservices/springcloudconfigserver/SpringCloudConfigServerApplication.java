@@ -2,6 +2,7 @@ package com.mb.rest.webservices.springcloudconfigserver;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.cloud.config.server.EnableConfigServer;
 
 @EnableConfigServer
@@ -9,6 +10,9 @@ import org.springframework.cloud.config.server.EnableConfigServer;
 public class SpringCloudConfigServerApplication {
 
   public static void main(String[] args) {
-    SpringApplication.run(SpringCloudConfigServerApplication.class, args);
+    SpringApplication application = new SpringApplication(SpringCloudConfigServerApplication.class);
+    // Startup steps recorded for StartupReport
+    application.setApplicationStartup(new BufferingApplicationStartup(8192));
+    application.run(args);
   }
 }
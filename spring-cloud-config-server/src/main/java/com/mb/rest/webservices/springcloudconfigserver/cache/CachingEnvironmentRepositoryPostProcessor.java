@@ -0,0 +1,57 @@
+package com.mb.rest.webservices.springcloudconfigserver.cache;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cloud.config.server.environment.CompositeEnvironmentRepository;
+import org.springframework.stereotype.Component;
+
+// The EnvironmentController of Spring Cloud Config resolves every request with the @Primary
+// EnvironmentRepository, the composite of the configured ones (git by default, which fetches the
+// remote repository on each call). That bean is proxied here: its findOne calls go through the
+// EnvironmentCache. A class proxy: some beans need the SearchPathLocator side of the composite.
+@Component
+public class CachingEnvironmentRepositoryPostProcessor implements BeanPostProcessor {
+
+  // Lazily: the cache depends on beans that must not be created this early
+  @Autowired ObjectProvider<EnvironmentCache> environmentCache;
+
+  @Value("${config-server.cache.enabled:true}")
+  boolean enabled;
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (!enabled || !(bean instanceof CompositeEnvironmentRepository)) {
+      return bean;
+    }
+    CompositeEnvironmentRepository repository = (CompositeEnvironmentRepository) bean;
+    ProxyFactory proxyFactory = new ProxyFactory(repository);
+    proxyFactory.setProxyTargetClass(true);
+    proxyFactory.addAdvice(
+        (MethodInterceptor)
+            invocation -> {
+              Object[] args = invocation.getArguments();
+              // findOne(application, profile, label) and findOne(..., includeOrigin=false),
+              // the includeOrigin=true calls (rare, for tooling) aren't cached
+              boolean cached =
+                  invocation.getMethod().getName().equals("findOne")
+                      && (args.length == 3 || (args.length == 4 && !(Boolean) args[3]));
+              if (!cached) {
+                return invocation.proceed();
+              }
+              EnvironmentKey key =
+                  new EnvironmentKey((String) args[0], (String) args[1], (String) args[2]);
+              return environmentCache
+                  .getObject()
+                  .get(
+                      key,
+                      () ->
+                          repository.findOne(
+                              key.getApplication(), key.getProfile(), key.getLabel(), false));
+            });
+    return proxyFactory.getProxy();
+  }
+}
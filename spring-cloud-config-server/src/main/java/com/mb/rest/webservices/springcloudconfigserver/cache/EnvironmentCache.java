@@ -0,0 +1,157 @@
+package com.mb.rest.webservices.springcloudconfigserver.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.mb.rest.webservices.springcloudconfigserver.changes.ConfigChangeLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+// The environments resolved by the repository, by (application, profile, label).
+// When 40 pods start at once, they all ask for the same few environments: the first request
+// resolves it (the others wait for it), the next ones are answered from memory.
+// The entries are only replaced by refresh(), which tells the ConfigChangeLog which applications
+// have a new environment. The clients choose the keys (any profile or label): the cache is
+// bounded (max-environments), and the environments nobody reads any more (idle-timeout) are
+// dropped rather than resolved again by every refresh.
+@Component
+public class EnvironmentCache {
+
+  private final Logger logger = LoggerFactory.getLogger(EnvironmentCache.class);
+
+  @Autowired ObjectMapper objectMapper;
+  @Autowired ConfigChangeLog configChangeLog;
+  @Autowired EnvironmentCacheConfiguration configuration;
+
+  // Replaced by the tests
+  Ticker ticker = Ticker.systemTicker();
+
+  private Cache<EnvironmentKey, CachedEnvironment> environments;
+
+  @PostConstruct
+  void createCache() {
+    long idleTimeout = configuration.getIdleTimeout().toNanos();
+    environments =
+        Caffeine.newBuilder()
+            .maximumSize(configuration.getMaxEnvironments())
+            .expireAfter(new IdleExpiry(idleTimeout))
+            .ticker(ticker)
+            .build();
+  }
+
+  public Environment get(EnvironmentKey key, Supplier<Environment> resolver) {
+    return environments.get(key, k -> resolve(resolver)).getEnvironment();
+  }
+
+  // Resolves the cached environments again (the ones read within idle-timeout, the others have
+  // expired), the ones whose content has changed are replaced.
+  // Returns the applications that have a new environment.
+  public synchronized Set<String> refresh() {
+    Set<String> changed = new TreeSet<>();
+    environments.cleanUp();
+    environments.asMap().forEach(
+        (key, cached) -> {
+          CachedEnvironment resolved;
+          try {
+            resolved = resolve(cached.getResolver());
+          } catch (RuntimeException e) {
+            // e.g. git repository unreachable: the clients keep the environment they have
+            logger.warn("Could not refresh the environment {}: {}", key, e.getMessage());
+            return;
+          }
+          // Unless it has expired or been evicted meanwhile
+          if (!resolved.getDigest().equals(cached.getDigest())
+              && environments.asMap().replace(key, cached, resolved)) {
+            changed.addAll(StringUtils.commaDelimitedListToSet(key.getApplication()));
+          }
+        });
+    if (!changed.isEmpty()) {
+      logger.info("New environment for {}", changed);
+      configChangeLog.changed(changed);
+    }
+    return changed;
+  }
+
+  private CachedEnvironment resolve(Supplier<Environment> resolver) {
+    Environment environment = resolver.get();
+    try {
+      // Only the properties: a commit that doesn't touch the files of an application (another
+      // git version) doesn't make its clients refresh.
+      String digest =
+          DigestUtils.md5DigestAsHex(
+              objectMapper.writeValueAsBytes(environment.getPropertySources()));
+      return new CachedEnvironment(resolver, environment, digest);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Environment not serializable: " + environment, e);
+    }
+  }
+
+  int size() {
+    environments.cleanUp();
+    return (int) environments.estimatedSize();
+  }
+
+  // Expires idle-timeout after the last read: a replacement by refresh() isn't a read, it keeps
+  // the time left.
+  private static class IdleExpiry implements Expiry<EnvironmentKey, CachedEnvironment> {
+    private final long idleTimeout;
+
+    IdleExpiry(long idleTimeout) {
+      this.idleTimeout = idleTimeout;
+    }
+
+    @Override
+    public long expireAfterCreate(EnvironmentKey key, CachedEnvironment value, long currentTime) {
+      return idleTimeout;
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        EnvironmentKey key, CachedEnvironment value, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+
+    @Override
+    public long expireAfterRead(
+        EnvironmentKey key, CachedEnvironment value, long currentTime, long currentDuration) {
+      return idleTimeout;
+    }
+  }
+
+  static class CachedEnvironment {
+    private final Supplier<Environment> resolver;
+    private final Environment environment;
+    private final String digest;
+
+    CachedEnvironment(Supplier<Environment> resolver, Environment environment, String digest) {
+      this.resolver = resolver;
+      this.environment = environment;
+      this.digest = digest;
+    }
+
+    Supplier<Environment> getResolver() {
+      return resolver;
+    }
+
+    Environment getEnvironment() {
+      return environment;
+    }
+
+    String getDigest() {
+      return digest;
+    }
+  }
+}
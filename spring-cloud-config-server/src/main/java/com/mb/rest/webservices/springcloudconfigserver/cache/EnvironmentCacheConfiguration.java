@@ -0,0 +1,79 @@
+package com.mb.rest.webservices.springcloudconfigserver.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Settings of the EnvironmentCache: the environments resolved for the clients are kept in
+// memory, the repository (git clone and fetch, files) is only read again when it may have changed.
+@Component
+@ConfigurationProperties("config-server.cache")
+public class EnvironmentCacheConfiguration {
+
+  private boolean enabled = true;
+  // The cached environments are resolved again at this interval even without any file change,
+  // e.g. to pick up the commits pushed to the git repository.
+  private Duration refreshInterval = Duration.ofMinutes(5);
+  // Directories of config files (native profile): a change there refreshes the cache right away.
+  private List<String> watchedDirectories = new ArrayList<>();
+  // The file changes are applied once there's no other one within this period: an editor or a
+  // git pull writes several files.
+  private Duration quietPeriod = Duration.ofMillis(500);
+  // The clients choose the (application, profile, label) they ask for: beyond this number of
+  // environments, the least used ones are dropped.
+  private long maxEnvironments = 500;
+  // An environment that no client has asked for within this period is dropped, and not resolved
+  // again by the refreshes: the clients that are still running read theirs on each refresh.
+  private Duration idleTimeout = Duration.ofMinutes(30);
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Duration getRefreshInterval() {
+    return refreshInterval;
+  }
+
+  public void setRefreshInterval(Duration refreshInterval) {
+    this.refreshInterval = refreshInterval;
+  }
+
+  public List<String> getWatchedDirectories() {
+    return watchedDirectories;
+  }
+
+  public void setWatchedDirectories(List<String> watchedDirectories) {
+    this.watchedDirectories = watchedDirectories;
+  }
+
+  public Duration getQuietPeriod() {
+    return quietPeriod;
+  }
+
+  public void setQuietPeriod(Duration quietPeriod) {
+    this.quietPeriod = quietPeriod;
+  }
+
+  public long getMaxEnvironments() {
+    return maxEnvironments;
+  }
+
+  public void setMaxEnvironments(long maxEnvironments) {
+    this.maxEnvironments = maxEnvironments;
+  }
+
+  public Duration getIdleTimeout() {
+    return idleTimeout;
+  }
+
+  public void setIdleTimeout(Duration idleTimeout) {
+    this.idleTimeout = idleTimeout;
+  }
+}
@@ -0,0 +1,83 @@
+package com.mb.rest.webservices.springcloudconfigserver.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+// Refreshes the EnvironmentCache when a file of the watched directories changes (native
+// profile: the config files of this repository), and every refresh-interval (git repository).
+// The clients are then told by the ConfigChangeLog, they don't poll the environments.
+@Component
+public class EnvironmentCacheRefresher {
+
+  private final Logger logger = LoggerFactory.getLogger(EnvironmentCacheRefresher.class);
+
+  @Autowired EnvironmentCache environmentCache;
+  @Autowired EnvironmentCacheConfiguration configuration;
+
+  private WatchService watchService;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() throws IOException {
+    if (!configuration.isEnabled()) {
+      return;
+    }
+    watchService = FileSystems.getDefault().newWatchService();
+    for (String directory : configuration.getWatchedDirectories()) {
+      Path path = Paths.get(directory).toAbsolutePath().normalize();
+      if (!Files.isDirectory(path)) {
+        logger.warn("Config directory {} not found, it isn't watched", path);
+        continue;
+      }
+      path.register(
+          watchService,
+          StandardWatchEventKinds.ENTRY_CREATE,
+          StandardWatchEventKinds.ENTRY_MODIFY,
+          StandardWatchEventKinds.ENTRY_DELETE);
+      logger.info("Watching the config files of {}", path);
+    }
+    Thread thread = new Thread(this::run, "environment-cache-refresher");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @PreDestroy
+  public void stop() throws IOException {
+    if (watchService != null) {
+      watchService.close();
+    }
+  }
+
+  private void run() {
+    try {
+      while (true) {
+        WatchKey key =
+            watchService.poll(configuration.getRefreshInterval().toMillis(), TimeUnit.MILLISECONDS);
+        // Waits for the end of the burst of changes
+        while (key != null) {
+          key.pollEvents();
+          key.reset();
+          key = watchService.poll(configuration.getQuietPeriod().toMillis(), TimeUnit.MILLISECONDS);
+        }
+        environmentCache.refresh();
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      // Shutdown
+    }
+  }
+}
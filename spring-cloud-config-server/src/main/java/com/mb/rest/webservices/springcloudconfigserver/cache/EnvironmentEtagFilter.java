@@ -0,0 +1,20 @@
+package com.mb.rest.webservices.springcloudconfigserver.cache;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import javax.servlet.http.HttpServletRequest;
+
+// Conditional GET of the environments (and of the properties/yml files): the answers get an ETag
+// (digest of the body), a client that sends it back in If-None-Match gets a 304 without body.
+// The body comes from the EnvironmentCache, so a 304 costs no repository access either.
+@Component
+public class EnvironmentEtagFilter extends ShallowEtagHeaderFilter {
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    // Not the long poll of /changes: its answer is only known later
+    return !"GET".equals(request.getMethod())
+        || request.getRequestURI().startsWith(request.getContextPath() + "/changes");
+  }
+}
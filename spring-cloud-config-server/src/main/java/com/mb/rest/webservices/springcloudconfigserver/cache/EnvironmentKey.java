@@ -0,0 +1,54 @@
+package com.mb.rest.webservices.springcloudconfigserver.cache;
+
+import java.util.Objects;
+
+// What a client asks for: /{application}/{profile}/{label}, the label is null for the default
+// one (e.g. the main branch of the git repository).
+public final class EnvironmentKey {
+
+  private final String application;
+  private final String profile;
+  private final String label;
+
+  public EnvironmentKey(String application, String profile, String label) {
+    this.application = application;
+    this.profile = profile;
+    this.label = label;
+  }
+
+  public String getApplication() {
+    return application;
+  }
+
+  public String getProfile() {
+    return profile;
+  }
+
+  public String getLabel() {
+    return label;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof EnvironmentKey)) {
+      return false;
+    }
+    EnvironmentKey other = (EnvironmentKey) o;
+    return application.equals(other.application)
+        && profile.equals(other.profile)
+        && Objects.equals(label, other.label);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(application, profile, label);
+  }
+
+  @Override
+  public String toString() {
+    return application + "/" + profile + (label == null ? "" : "/" + label);
+  }
+}
@@ -0,0 +1,82 @@
+package com.mb.rest.webservices.springcloudconfigserver.changes;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// The version of the last change of each application's environment (see EnvironmentCache), and
+// the long polls of /changes waiting for the next change of their application.
+@Component
+public class ConfigChangeLog {
+
+  // The versions restart with the config-server: a client that has another epoch refreshes.
+  private final String epoch = UUID.randomUUID().toString();
+  private long version;
+  // Application -> version of its last change. Guarded by this.
+  private final Map<String, Long> changedAt = new HashMap<>();
+  // Long polls waiting for a change of their application. Guarded by this.
+  private final Map<DeferredResult<ConfigChanges>, Poll> waiting = new HashMap<>();
+
+  public void changed(Set<String> applications) {
+    Map<DeferredResult<ConfigChanges>, ConfigChanges> answers = new HashMap<>();
+    synchronized (this) {
+      version++;
+      applications.forEach(application -> changedAt.put(application, version));
+      waiting.forEach(
+          (result, poll) -> {
+            if (applications.contains(poll.application)) {
+              answers.put(result, new ConfigChanges(epoch, version, true));
+            }
+          });
+      answers.keySet().forEach(waiting::remove);
+    }
+    // Outside of the lock: setResult dispatches the request back to the container
+    answers.forEach(DeferredResult::setResult);
+  }
+
+  // Answers right away if the application has changed after since (or another epoch), else when
+  // it changes.
+  public void await(
+      String clientEpoch, String application, long since, DeferredResult<ConfigChanges> result) {
+    ConfigChanges available;
+    synchronized (this) {
+      available = since(clientEpoch, application, since);
+      if (clientEpoch != null && !available.isChanged()) {
+        waiting.put(result, new Poll(application, since));
+        result.onCompletion(() -> forget(result));
+        return;
+      }
+    }
+    result.setResult(available);
+  }
+
+  // Without epoch: first call of the client, it just gets the current version.
+  public synchronized ConfigChanges since(String clientEpoch, String application, long since) {
+    if (clientEpoch == null) {
+      return new ConfigChanges(epoch, version, false);
+    }
+    boolean changed =
+        !epoch.equals(clientEpoch)
+            || since > version
+            || changedAt.getOrDefault(application, 0L) > since;
+    return new ConfigChanges(epoch, version, changed);
+  }
+
+  private synchronized void forget(DeferredResult<ConfigChanges> result) {
+    waiting.remove(result);
+  }
+
+  private static class Poll {
+    private final String application;
+    private final long since;
+
+    Poll(String application, long since) {
+      this.application = application;
+      this.since = since;
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package com.mb.rest.webservices.springcloudconfigserver.changes;
+
+// Answer of /changes. changed: the environment of the application has changed after the version
+// the client has (or the config-server has restarted, another epoch): the client refreshes.
+// The client sends version back in its next long poll.
+public class ConfigChanges {
+
+  private final String epoch;
+  private final long version;
+  private final boolean changed;
+
+  public ConfigChanges(String epoch, long version, boolean changed) {
+    this.epoch = epoch;
+    this.version = version;
+    this.changed = changed;
+  }
+
+  public String getEpoch() {
+    return epoch;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public boolean isChanged() {
+    return changed;
+  }
+}
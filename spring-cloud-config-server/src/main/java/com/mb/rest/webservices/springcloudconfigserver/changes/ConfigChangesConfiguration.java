@@ -0,0 +1,24 @@
+package com.mb.rest.webservices.springcloudconfigserver.changes;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Settings of /changes, the long poll the clients use to learn that their environment has
+// changed, instead of polling it.
+@Component
+@ConfigurationProperties("config-server.changes")
+public class ConfigChangesConfiguration {
+
+  // A long poll without any change is answered (changed=false) after this delay.
+  private Duration longPollTimeout = Duration.ofSeconds(30);
+
+  public Duration getLongPollTimeout() {
+    return longPollTimeout;
+  }
+
+  public void setLongPollTimeout(Duration longPollTimeout) {
+    this.longPollTimeout = longPollTimeout;
+  }
+}
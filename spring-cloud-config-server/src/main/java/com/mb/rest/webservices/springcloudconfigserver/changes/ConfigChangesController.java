@@ -0,0 +1,33 @@
+package com.mb.rest.webservices.springcloudconfigserver.changes;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+// Long poll of the changes of an application's environment, e.g.
+// http://localhost:8888/changes?application=limits-service&epoch=...&since=3
+// Without epoch (first call), it answers right away with the current version.
+// The request doesn't hold a servlet thread while it waits (DeferredResult): the clients learn
+// about a change within a second, without asking for their environment again and again.
+@RestController
+public class ConfigChangesController {
+
+  @Autowired ConfigChangeLog configChangeLog;
+  @Autowired ConfigChangesConfiguration configuration;
+
+  @GetMapping(path = "/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+  public DeferredResult<ConfigChanges> changes(
+      @RequestParam String application,
+      @RequestParam(required = false) String epoch,
+      @RequestParam(defaultValue = "0") long since) {
+    DeferredResult<ConfigChanges> result =
+        new DeferredResult<>(
+            configuration.getLongPollTimeout().toMillis(),
+            () -> configChangeLog.since(epoch, application, since));
+    configChangeLog.await(epoch, application, since, result);
+    return result;
+  }
+}
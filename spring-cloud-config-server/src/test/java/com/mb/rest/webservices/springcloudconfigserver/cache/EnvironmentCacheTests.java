@@ -0,0 +1,150 @@
+package com.mb.rest.webservices.springcloudconfigserver.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mb.rest.webservices.springcloudconfigserver.changes.ConfigChangeLog;
+import com.mb.rest.webservices.springcloudconfigserver.changes.ConfigChanges;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EnvironmentCacheTests {
+
+  private static final EnvironmentKey LIMITS =
+      new EnvironmentKey("limits-service", "default", null);
+  private static final EnvironmentKey EXCHANGE =
+      new EnvironmentKey("currency-exchange", "default", null);
+
+  private final EnvironmentCache cache = new EnvironmentCache();
+  private final ConfigChangeLog changeLog = new ConfigChangeLog();
+  private final EnvironmentCacheConfiguration configuration = new EnvironmentCacheConfiguration();
+  private final AtomicLong now = new AtomicLong();
+
+  @BeforeEach
+  void setUp() {
+    cache.objectMapper = new ObjectMapper();
+    cache.configChangeLog = changeLog;
+    cache.configuration = configuration;
+    cache.ticker = now::get;
+    cache.createCache();
+  }
+
+  @Test
+  void resolvesEachEnvironmentOnce() {
+    AtomicInteger resolutions = new AtomicInteger();
+    Supplier<Environment> resolver =
+        () -> {
+          resolutions.incrementAndGet();
+          return environment("limits-service", 1000);
+        };
+
+    cache.get(LIMITS, resolver);
+    cache.get(LIMITS, resolver);
+
+    assertThat(resolutions).hasValue(1);
+  }
+
+  @Test
+  void refreshReplacesTheChangedEnvironmentsOnly() {
+    AtomicInteger maximum = new AtomicInteger(1000);
+    cache.get(LIMITS, () -> environment("limits-service", maximum.get()));
+    cache.get(EXCHANGE, () -> environment("currency-exchange", 1));
+    String epoch = changeLog.since(null, "limits-service", 0).getEpoch();
+
+    assertThat(cache.refresh()).isEmpty();
+    maximum.set(777);
+    assertThat(cache.refresh()).containsExactly("limits-service");
+
+    Environment refreshed = cache.get(LIMITS, () -> null);
+    assertThat(refreshed.getPropertySources().get(0).getSource().get("limits-service.maximum"))
+        .isEqualTo(777);
+    assertThat(changeLog.since(epoch, "limits-service", 0).isChanged()).isTrue();
+    assertThat(changeLog.since(epoch, "currency-exchange", 0).isChanged()).isFalse();
+  }
+
+  @Test
+  void dropsTheEnvironmentsNobodyReads() {
+    AtomicInteger exchangeResolutions = new AtomicInteger();
+    cache.get(LIMITS, () -> environment("limits-service", 1000));
+    cache.get(
+        EXCHANGE,
+        () -> {
+          exchangeResolutions.incrementAndGet();
+          return environment("currency-exchange", 1);
+        });
+
+    // limits-service is read again, currency-exchange isn't (its clients are gone)
+    advance(Duration.ofMinutes(20));
+    cache.get(LIMITS, () -> null);
+    advance(Duration.ofMinutes(15));
+
+    assertThat(cache.refresh()).isEmpty();
+    assertThat(exchangeResolutions).hasValue(1);
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  void refreshDoesNotKeepTheEnvironmentsAlive() {
+    AtomicInteger maximum = new AtomicInteger(1000);
+    cache.get(LIMITS, () -> environment("limits-service", maximum.incrementAndGet()));
+
+    // Replaced by every refresh, but never read again
+    advance(Duration.ofMinutes(20));
+    assertThat(cache.refresh()).containsExactly("limits-service");
+    advance(Duration.ofMinutes(15));
+
+    assertThat(cache.refresh()).isEmpty();
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  void keepsAtMostMaxEnvironments() {
+    configuration.setMaxEnvironments(2);
+    cache.createCache();
+
+    for (int i = 0; i < 10; i++) {
+      String label = "branch-" + i;
+      cache.get(
+          new EnvironmentKey("limits-service", "default", label),
+          () -> environment("limits-service", 1000));
+    }
+
+    assertThat(cache.size()).isLessThanOrEqualTo(2);
+  }
+
+  @Test
+  void answersTheLongPollOnAChangeOfItsApplication() {
+    String epoch = changeLog.since(null, "limits-service", 0).getEpoch();
+    DeferredResult<ConfigChanges> limits = new DeferredResult<>();
+    DeferredResult<ConfigChanges> exchange = new DeferredResult<>();
+    changeLog.await(epoch, "limits-service", 0, limits);
+    changeLog.await(epoch, "currency-exchange", 0, exchange);
+
+    changeLog.changed(Set.of("limits-service"));
+
+    assertThat(limits.hasResult()).isTrue();
+    assertThat(((ConfigChanges) limits.getResult()).isChanged()).isTrue();
+    assertThat(exchange.hasResult()).isFalse();
+  }
+
+  private void advance(Duration duration) {
+    now.addAndGet(duration.toNanos());
+  }
+
+  private static Environment environment(String application, int maximum) {
+    Environment environment = new Environment(application, "default");
+    environment.add(
+        new PropertySource(application + ".properties", Map.of(application + ".maximum", maximum)));
+    return environment;
+  }
+}